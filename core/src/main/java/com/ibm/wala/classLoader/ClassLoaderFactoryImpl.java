@@ -20,6 +20,7 @@ import com.ibm.wala.util.config.SetOfClasses;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
+import java.util.List;
 
 /** An implementation of the class loader factory that produces ClassLoaderImpls */
 public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
@@ -33,11 +34,27 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
   /** A Mapping from ClassLoaderReference to IClassLoader */
   private final HashMap<ClassLoaderReference, IClassLoader> map = HashMapFactory.make(3);
 
+  /** number of threads each {@link ClassLoaderImpl} uses to parse class files */
+  private final int numberOfThreads;
+
   /**
    * @param exclusions A set of classes that class loaders should pretend don't exist.
    */
   public ClassLoaderFactoryImpl(SetOfClasses exclusions) {
+    this(exclusions, 1);
+  }
+
+  /**
+   * @param exclusions A set of classes that class loaders should pretend don't exist.
+   * @param numberOfThreads number of threads each {@link ClassLoaderImpl} uses to parse class files
+   * @throws IllegalArgumentException if numberOfThreads &lt; 1
+   */
+  public ClassLoaderFactoryImpl(SetOfClasses exclusions, int numberOfThreads) {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("invalid numberOfThreads: " + numberOfThreads);
+    }
     this.exclusions = exclusions;
+    this.numberOfThreads = numberOfThreads;
   }
 
   /**
@@ -130,10 +147,22 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
                   classLoaderReference, scope.getArrayClassLoader(), parent, exclusions, cha);
         }
       }
-    cl.init(scope.getModules(classLoaderReference));
+    if (cl instanceof ClassLoaderImpl) {
+      ((ClassLoaderImpl) cl).setNumberOfThreads(numberOfThreads);
+    }
+    cl.init(getModules(classLoaderReference, scope));
     return cl;
   }
 
+  /**
+   * @return the modules a new class loader for the given key is initialized with
+   * @throws IOException if the modules cannot be read
+   */
+  protected List<Module> getModules(ClassLoaderReference classLoaderReference, AnalysisScope scope)
+      throws IOException {
+    return scope.getModules(classLoaderReference);
+  }
+
   /** A waring when we fail to load an appropriate class loader implementation */
   private static class InvalidClassLoaderImplementation extends Warning {
 
@@ -160,4 +189,11 @@ public class ClassLoaderFactoryImpl implements ClassLoaderFactory {
   public SetOfClasses getExclusions() {
     return exclusions;
   }
+
+  /**
+   * @return the number of threads each {@link ClassLoaderImpl} uses to parse class files
+   */
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
 }
@@ -35,12 +35,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
@@ -72,6 +75,9 @@ public class ClassLoaderImpl implements IClassLoader {
   /** an object to delegate to for loading of array classes */
   private final ArrayClassLoader arrayClassLoader;
 
+  /** number of threads used to parse class files in {@link #init(List)} */
+  private int numberOfThreads = 1;
+
   /**
    * @param loader class loader reference identifying this loader
    * @param parent parent loader for delegation
@@ -205,10 +211,36 @@ public class ClassLoaderImpl implements IClassLoader {
     }
   }
 
+  /**
+   * @return the number of threads used to parse class files
+   */
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * Set the number of threads used to parse class files when this loader is initialized. With more
+   * than one thread, class files are parsed concurrently, but classes are still registered in
+   * module order, so the set of loaded classes and the warnings produced are the same as for a
+   * sequential load.
+   *
+   * @throws IllegalArgumentException if numberOfThreads &lt; 1
+   */
+  public void setNumberOfThreads(int numberOfThreads) {
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("invalid numberOfThreads: " + numberOfThreads);
+    }
+    this.numberOfThreads = numberOfThreads;
+  }
+
   /** Set up the set of classes loaded by this object. */
   @SuppressWarnings("unused")
   private void loadAllClasses(
       Collection<ModuleEntry> moduleEntries, Map<String, Object> fileContents, boolean isJMODType) {
+    if (numberOfThreads > 1) {
+      loadAllClassesInParallel(moduleEntries, fileContents, isJMODType);
+      return;
+    }
     for (ModuleEntry entry : moduleEntries) {
       // java11 support for jmod files
       if (!entry.isClassFile()
@@ -235,45 +267,179 @@ public class ClassLoaderImpl implements IClassLoader {
         continue;
       }
 
-      ShrikeClassReaderHandle entryReader = new ShrikeClassReaderHandle(entry);
-
       className = 'L' + className;
       if (DEBUG_LEVEL > 0) {
         System.err.println("Load class " + className);
       }
-      try {
-        TypeName T = TypeName.string2TypeName(className);
-        if (loadedClasses.get(T) != null) {
-          Warnings.add(MultipleImplementationsWarning.create(className));
-        } else if (parent != null && parent.lookupClass(T) != null) {
-          Warnings.add(MultipleImplementationsWarning.create(className));
-        } else {
-          // try to read from memory
-          ShrikeClassReaderHandle reader = entryReader;
-          if (fileContents != null) {
-            final Object contents = fileContents.get(entry.getName());
-            if (contents != null) {
-              // reader that uses the in-memory bytes
-              reader = new ByteArrayReaderHandle(entry, (byte[]) contents);
-            }
-          }
-          ShrikeClass tmpKlass = new ShrikeClass(reader, this, cha);
-          if (tmpKlass.getReference().getName().equals(T)) {
-            // always used the reader based on the entry after this point,
-            // so we can null out and re-read class file contents
-            loadedClasses.put(T, new ShrikeClass(entryReader, this, cha));
-            if (DEBUG_LEVEL > 1) {
-              System.err.println("put " + T + ' ');
-            }
-          } else {
-            Warnings.add(InvalidClassFile.create(className));
+      TypeName T = TypeName.string2TypeName(className);
+      if (loadedClasses.get(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else if (parent != null && parent.lookupClass(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else {
+        ShrikeClass klass = parseClass(entry, T, fileContents);
+        if (klass != null) {
+          loadedClasses.put(T, klass);
+          if (DEBUG_LEVEL > 1) {
+            System.err.println("put " + T + ' ');
           }
+        } else {
+          Warnings.add(InvalidClassFile.create(className));
         }
-      } catch (InvalidClassFileException e) {
+      }
+    }
+  }
+
+  /**
+   * Parallel version of {@link #loadAllClasses(Collection, Map, boolean)}. Candidate entries are
+   * collected sequentially, parsed into {@link ShrikeClass}es concurrently, and then registered in
+   * their original order, so duplicates are resolved exactly as in the sequential version.
+   */
+  @SuppressWarnings("unused")
+  private void loadAllClassesInParallel(
+      Collection<ModuleEntry> moduleEntries, Map<String, Object> fileContents, boolean isJMODType) {
+    List<ModuleEntry> entries = new ArrayList<>();
+    List<TypeName> names = new ArrayList<>();
+    for (ModuleEntry entry : moduleEntries) {
+      // java11 support for jmod files
+      if (!entry.isClassFile()
+          || (isJMODType && entry.getClassName().startsWith("classes/module-info"))) {
+        continue;
+      }
+
+      String className = entry.getClassName().replace('.', '/');
+
+      // java11 support for jmod files
+      if (isJMODType && className.startsWith("classes/")) {
+        className = className.replace("classes/", "");
+      }
+
+      if (exclusions != null && exclusions.contains(className)) {
         if (DEBUG_LEVEL > 0) {
-          System.err.println("Ignoring class " + className + " due to InvalidClassFileException");
+          System.err.println("Excluding " + className);
+        }
+        continue;
+      }
+
+      className = 'L' + className;
+      TypeName T = TypeName.string2TypeName(className);
+      if (loadedClasses.get(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else if (parent != null && parent.lookupClass(T) != null) {
+        Warnings.add(MultipleImplementationsWarning.create(className));
+      } else {
+        entries.add(entry);
+        names.add(T);
+      }
+    }
+
+    ShrikeClass[] parsed = new ShrikeClass[entries.size()];
+    ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+    try {
+      pool.invoke(new ParseTask(entries, names, fileContents, parsed, 0, parsed.length));
+    } finally {
+      pool.shutdown();
+    }
+
+    for (int i = 0; i < parsed.length; i++) {
+      TypeName T = names.get(i);
+      if (loadedClasses.get(T) != null) {
+        // an earlier entry of the same module defines this class
+        Warnings.add(MultipleImplementationsWarning.create(T.toString()));
+      } else if (parsed[i] != null) {
+        loadedClasses.put(T, parsed[i]);
+        if (DEBUG_LEVEL > 1) {
+          System.err.println("put " + T + ' ');
+        }
+      } else {
+        Warnings.add(InvalidClassFile.create(T.toString()));
+      }
+    }
+  }
+
+  /**
+   * Parse a single class file. Entries of a {@link SnapshotModule} carry the parsed header of their
+   * class, so their class files are not parsed here.
+   *
+   * @return the class defined by entry, or null if the class file is invalid or does not define the
+   *     class T
+   */
+  private ShrikeClass parseClass(ModuleEntry entry, TypeName T, Map<String, Object> fileContents) {
+    if (entry instanceof SnapshotModule.Entry) {
+      ShrikeClass klass = ((SnapshotModule.Entry) entry).makeClass(this, cha);
+      if (klass != null) {
+        return klass.getReference().getName().equals(T) ? klass : null;
+      }
+    }
+    ShrikeClassReaderHandle entryReader = new ShrikeClassReaderHandle(entry);
+    try {
+      // try to read from memory
+      ShrikeClassReaderHandle reader = entryReader;
+      if (fileContents != null) {
+        final Object contents = fileContents.get(entry.getName());
+        if (contents != null) {
+          reader = new ByteArrayReaderHandle(entry, (byte[]) contents);
+        }
+      }
+      ShrikeClass tmpKlass = new ShrikeClass(reader, this, cha);
+      if (!tmpKlass.getReference().getName().equals(T)) {
+        return null;
+      }
+      // always use the reader based on the entry after this point
+      return reader == entryReader ? tmpKlass : new ShrikeClass(entryReader, this, cha);
+    } catch (InvalidClassFileException e) {
+      if (DEBUG_LEVEL > 0) {
+        System.err.println("Ignoring class " + T + " due to InvalidClassFileException");
+      }
+      return null;
+    }
+  }
+
+  /** Parses a range of class file entries, splitting it among the threads of the pool */
+  private final class ParseTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -3364154738924418225L;
+
+    private static final int GRAIN = 32;
+
+    private final List<ModuleEntry> entries;
+
+    private final List<TypeName> names;
+
+    private final Map<String, Object> fileContents;
+
+    private final ShrikeClass[] result;
+
+    private final int from;
+
+    private final int to;
+
+    ParseTask(
+        List<ModuleEntry> entries,
+        List<TypeName> names,
+        Map<String, Object> fileContents,
+        ShrikeClass[] result,
+        int from,
+        int to) {
+      this.entries = entries;
+      this.names = names;
+      this.fileContents = fileContents;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= GRAIN) {
+        for (int i = from; i < to; i++) {
+          result[i] = parseClass(entries.get(i), names.get(i), fileContents);
         }
-        Warnings.add(InvalidClassFile.create(className));
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(
+            new ParseTask(entries, names, fileContents, result, from, mid),
+            new ParseTask(entries, names, fileContents, result, mid, to));
       }
     }
   }
@@ -47,6 +47,9 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
   /** The Shrike object that knows how to read the class file */
   private final ShrikeClassReaderHandle reader;
 
+  /** have the fields been read from the class file? */
+  private volatile boolean fieldsComputed = false;
+
   /**
    * @throws IllegalArgumentException if reader is null
    */
@@ -67,6 +70,69 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
     computeFields();
   }
 
+  /**
+   * Create a class whose header has already been read, e.g. from a {@link SnapshotModule}. The
+   * class file is only read when the fields or methods of the class are first needed.
+   *
+   * @param name the name of the class, e.g. java/lang/Object
+   * @param superName the name of the superclass, or null for java/lang/Object
+   * @param interfaceNames the names of the directly implemented interfaces
+   */
+  ShrikeClass(
+      ShrikeClassReaderHandle reader,
+      IClassLoader loader,
+      IClassHierarchy cha,
+      String name,
+      int modifiers,
+      String superName,
+      String[] interfaceNames) {
+    super(loader, cha);
+    this.reader = reader;
+    typeReference =
+        TypeReference.findOrCreate(
+            loader.getReference(), TypeName.findOrCreate(ImmutableByteArray.make('L' + name)));
+    this.hashCode = 2161 * getReference().hashCode();
+    if (superName != null) {
+      this.superName = ImmutableByteArray.make('L' + superName);
+    }
+    this.modifiers = modifiers;
+    this.interfaceNames = new ImmutableByteArray[interfaceNames.length];
+    Arrays.setAll(this.interfaceNames, i -> ImmutableByteArray.make('L' + interfaceNames[i]));
+  }
+
+  private void ensureFields() {
+    if (!fieldsComputed) {
+      synchronized (this) {
+        if (!fieldsComputed) {
+          try {
+            computeFields();
+          } catch (InvalidClassFileException e) {
+            e.printStackTrace();
+            Assertions.UNREACHABLE();
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public Collection<IField> getDeclaredInstanceFields() {
+    ensureFields();
+    return super.getDeclaredInstanceFields();
+  }
+
+  @Override
+  public Collection<IField> getDeclaredStaticFields() {
+    ensureFields();
+    return super.getDeclaredStaticFields();
+  }
+
+  @Override
+  protected List<IField> findDeclaredField(Atom name) {
+    ensureFields();
+    return super.findDeclaredField(name);
+  }
+
   /**
    * Compute the fields declared by this class
    *
@@ -109,6 +175,7 @@ public final class ShrikeClass extends JVMClass<IClassLoader> {
       }
       instanceFields = instanceList.toArray(new IField[0]);
       staticFields = staticList.toArray(new IField[0]);
+      fieldsComputed = true;
 
     } catch (InvalidClassFileException e) {
       e.printStackTrace();
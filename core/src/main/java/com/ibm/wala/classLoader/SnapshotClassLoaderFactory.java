@@ -0,0 +1,48 @@
+package com.ibm.wala.classLoader;
+
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.config.SetOfClasses;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class loader factory that initializes its loaders from on-disk {@link SnapshotModule}s instead
+ * of the original modules of the scope, taking snapshots of modules that have none yet.
+ */
+public class SnapshotClassLoaderFactory extends ClassLoaderFactoryImpl {
+
+  /** directory holding the snapshots */
+  private final Path snapshotDirectory;
+
+  /**
+   * @param exclusions A set of classes that class loaders should pretend don't exist.
+   * @param snapshotDirectory directory in which snapshots are looked up and stored
+   */
+  public SnapshotClassLoaderFactory(SetOfClasses exclusions, Path snapshotDirectory) {
+    super(exclusions);
+    if (snapshotDirectory == null) {
+      throw new IllegalArgumentException("null snapshotDirectory");
+    }
+    this.snapshotDirectory = snapshotDirectory;
+  }
+
+  @Override
+  protected List<Module> getModules(ClassLoaderReference classLoaderReference, AnalysisScope scope)
+      throws IOException {
+    List<Module> result = new ArrayList<>();
+    for (Module m : super.getModules(classLoaderReference, scope)) {
+      result.add(SnapshotModule.findOrCreate(m, snapshotDirectory));
+    }
+    return result;
+  }
+
+  /**
+   * @return the directory holding the snapshots
+   */
+  public Path getSnapshotDirectory() {
+    return snapshotDirectory;
+  }
+}
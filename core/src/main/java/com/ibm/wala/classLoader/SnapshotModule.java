@@ -0,0 +1,495 @@
+package com.ibm.wala.classLoader;
+
+import com.ibm.wala.core.java11.JrtModule;
+import com.ibm.wala.core.util.shrike.ShrikeClassReaderHandle;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.shrike.shrikeCT.ClassReader;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link Module} read from an on-disk snapshot of another module.
+ *
+ * <p>A snapshot holds the class and source files of a module, flattened into a single file: a
+ * versioned index followed by the entry contents. For each class file, the index holds the header
+ * of the class as parsed when the snapshot was taken: its name, modifiers, superclass and
+ * interfaces. A {@link ClassLoaderImpl} builds its classes from these headers alone, and only
+ * parses a class file when the fields or methods of its class are first needed. The file is
+ * memory-mapped, so the contents of an entry are only paged in when they are actually read.
+ *
+ * <p>Snapshots are kept in a directory and keyed by a SHA-256 hash of the contents of the module
+ * they were taken from (the jar file, or the JDK runtime image for JDK modules), so a changed
+ * module gets a fresh snapshot however its file was modified.
+ *
+ * <p>Only {@link JarFileModule}s (including jmod files) and {@link JrtModule}s are snapshotted; see
+ * {@link #findOrCreate(Module, Path)}.
+ */
+public class SnapshotModule implements Module {
+
+  /** Version of the snapshot file format; bump whenever the layout changes */
+  public static final int VERSION = 2;
+
+  private static final int MAGIC = 0x57534e50;
+
+  private static final String SUFFIX = ".snapshot";
+
+  private static final byte CLASS_FILE = 1;
+
+  private static final byte SOURCE_FILE = 2;
+
+  /** describes the module this snapshot was taken from, including the hash of its contents */
+  private final String fingerprint;
+
+  /** canonical path of a JDK runtime image -&gt; hash of its contents */
+  private static final Map<String, String> imageHashes = new ConcurrentHashMap<>();
+
+  private final List<Entry> entries;
+
+  private SnapshotModule(String fingerprint, int count) {
+    this.fingerprint = fingerprint;
+    this.entries = new ArrayList<>(count);
+  }
+
+  /**
+   * Find the snapshot of module in directory, taking a new one if there is none yet or the one on
+   * disk is stale or unreadable.
+   *
+   * @return a snapshot of module, or module itself if it cannot be snapshotted
+   * @throws IOException if the module or the snapshot directory cannot be read or written
+   */
+  public static Module findOrCreate(Module module, Path directory) throws IOException {
+    if (module == null) {
+      throw new IllegalArgumentException("null module");
+    }
+    if (directory == null) {
+      throw new IllegalArgumentException("null directory");
+    }
+    String fingerprint = fingerprint(module);
+    if (fingerprint == null) {
+      return module;
+    }
+    Path file = directory.resolve(key(fingerprint) + SUFFIX);
+    if (Files.isRegularFile(file)) {
+      SnapshotModule snapshot = read(file, fingerprint);
+      if (snapshot != null) {
+        return snapshot;
+      }
+    }
+    Files.createDirectories(directory);
+    if (!write(module, fingerprint, directory, file)) {
+      return module;
+    }
+    SnapshotModule snapshot = read(file, fingerprint);
+    return snapshot == null ? module : snapshot;
+  }
+
+  /**
+   * @return a string identifying the contents of module, or null if module cannot be snapshotted
+   */
+  private static String fingerprint(Module module) throws IOException {
+    if (module instanceof JarFileModule) {
+      return "jar:" + hash(Paths.get(((JarFileModule) module).getJarFile().getName()));
+    } else if (module instanceof JrtModule) {
+      // all JDK modules are read from the image of the running JDK, which cannot change while it
+      // runs, so its hash is computed once
+      Path image = Paths.get(System.getProperty("java.home"), "lib", "modules").toRealPath();
+      String imageHash = imageHashes.get(image.toString());
+      if (imageHash == null) {
+        imageHash = hash(image);
+        imageHashes.put(image.toString(), imageHash);
+      }
+      return "jrt:" + ((JrtModule) module).getModuleName() + ':' + imageHash;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return the SHA-256 hash of the contents of file
+   */
+  private static String hash(Path file) throws IOException {
+    MessageDigest digest = digest();
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream in = Files.newInputStream(file)) {
+      for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+        digest.update(buffer, 0, n);
+      }
+    }
+    return hex(digest.digest());
+  }
+
+  private static String key(String fingerprint) {
+    return hex(digest().digest((VERSION + fingerprint).getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hex(byte[] hash) {
+    StringBuilder result = new StringBuilder();
+    for (byte b : hash) {
+      result.append(Character.forDigit((b >> 4) & 0xf, 16));
+      result.append(Character.forDigit(b & 0xf, 16));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Write a snapshot of module to file, via a temporary file in directory so concurrent readers
+   * never see a partial snapshot.
+   *
+   * @return false if the module is too large to be snapshotted
+   */
+  private static boolean write(Module module, String fingerprint, Path directory, Path file)
+      throws IOException {
+    Path contents = Files.createTempFile(directory, "contents", ".tmp");
+    Path tmp = Files.createTempFile(directory, "snapshot", ".tmp");
+    try {
+      Writer writer;
+      try (OutputStream contentsOut = Files.newOutputStream(contents)) {
+        writer = new Writer(contentsOut);
+        if (!writer.add(module, isJMOD(module))) {
+          return false;
+        }
+      }
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      try (DataOutputStream headerOut = new DataOutputStream(header)) {
+        headerOut.writeUTF(fingerprint);
+        headerOut.writeInt(writer.count);
+        writer.index.writeTo(headerOut);
+      }
+      try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(header.size());
+        header.writeTo(out);
+        Files.copy(contents, out);
+      }
+      try {
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      return true;
+    } finally {
+      Files.deleteIfExists(contents);
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static boolean isJMOD(Module module) {
+    return module instanceof JarFileModule
+        && ((JarFileModule) module).getJarFile().getName().endsWith(".jmod");
+  }
+
+  /** Collects the index and the contents of a snapshot while it is written */
+  private static final class Writer {
+
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+
+    private final OutputStream contents;
+
+    private long size = 0;
+
+    private int count = 0;
+
+    Writer(OutputStream contents) {
+      this.contents = contents;
+    }
+
+    /**
+     * Append the class and source files of module, including those of nested modules.
+     *
+     * @return false if the contents exceed the size of a mappable buffer
+     */
+    boolean add(Module module, boolean isJMOD) throws IOException {
+      for (ModuleEntry entry : Iterator2Iterable.make(module.getEntries())) {
+        if (entry.isModuleFile()) {
+          if (!add(entry.asModule(), false)) {
+            return false;
+          }
+          continue;
+        }
+        byte kind;
+        if (entry.isClassFile()) {
+          kind = CLASS_FILE;
+        } else if (entry.isSourceFile()) {
+          kind = SOURCE_FILE;
+        } else {
+          continue;
+        }
+        String className = entry.getClassName();
+        // store jmod class names the way ClassLoaderImpl would interpret them
+        if (isJMOD && kind == CLASS_FILE) {
+          if (className.startsWith("classes/module-info")) {
+            continue;
+          }
+          className = className.replace("classes/", "");
+        }
+        byte[] bytes;
+        try (InputStream s = entry.getInputStream()) {
+          bytes = s.readAllBytes();
+        }
+        if (size + bytes.length > Integer.MAX_VALUE - 4096) {
+          return false;
+        }
+        indexOut.writeByte(kind);
+        indexOut.writeUTF(entry.getName());
+        indexOut.writeUTF(className);
+        indexOut.writeInt((int) size);
+        indexOut.writeInt(bytes.length);
+        if (kind == CLASS_FILE) {
+          writeHeader(bytes);
+        }
+        contents.write(bytes);
+        size += bytes.length;
+        count++;
+      }
+      indexOut.flush();
+      return true;
+    }
+
+    /**
+     * Write the header of a class file to the index, or a marker if the class file cannot be
+     * parsed; the class loader then parses it itself and reports it as invalid.
+     */
+    private void writeHeader(byte[] classFile) throws IOException {
+      String name;
+      int modifiers;
+      String superName;
+      String[] interfaceNames;
+      try {
+        ClassReader reader = new ClassReader(classFile);
+        name = reader.getName();
+        modifiers = reader.getAccessFlags();
+        superName = reader.getSuperName();
+        interfaceNames = reader.getInterfaceNames();
+      } catch (InvalidClassFileException e) {
+        indexOut.writeBoolean(false);
+        return;
+      }
+      indexOut.writeBoolean(true);
+      indexOut.writeUTF(name);
+      indexOut.writeInt(modifiers);
+      indexOut.writeBoolean(superName != null);
+      if (superName != null) {
+        indexOut.writeUTF(superName);
+      }
+      indexOut.writeInt(interfaceNames.length);
+      for (String i : interfaceNames) {
+        indexOut.writeUTF(i);
+      }
+    }
+  }
+
+  /**
+   * @return the snapshot stored in file, or null if the file is not a valid snapshot of the module
+   *     described by fingerprint
+   */
+  private static SnapshotModule read(Path file, String fingerprint) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < 12 || channel.size() > Integer.MAX_VALUE) {
+        return null;
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      return null;
+    }
+    int headerSize = buffer.getInt();
+    if (headerSize < 0 || headerSize > buffer.remaining()) {
+      return null;
+    }
+    byte[] header = new byte[headerSize];
+    buffer.get(header);
+    ByteBuffer data = buffer.slice();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(header))) {
+      if (!fingerprint.equals(in.readUTF())) {
+        return null;
+      }
+      int count = in.readInt();
+      SnapshotModule result = new SnapshotModule(fingerprint, count);
+      for (int i = 0; i < count; i++) {
+        byte kind = in.readByte();
+        String name = in.readUTF();
+        String className = in.readUTF();
+        int offset = in.readInt();
+        int length = in.readInt();
+        if (offset < 0 || length < 0 || offset + length > data.capacity()) {
+          return null;
+        }
+        Entry entry = new Entry(result, data, kind, name, className, offset, length);
+        if (kind == CLASS_FILE && in.readBoolean()) {
+          entry.headerName = in.readUTF();
+          entry.modifiers = in.readInt();
+          entry.superName = in.readBoolean() ? in.readUTF() : null;
+          entry.interfaceNames = new String[in.readInt()];
+          for (int j = 0; j < entry.interfaceNames.length; j++) {
+            entry.interfaceNames[j] = in.readUTF();
+          }
+        }
+        result.entries.add(entry);
+      }
+      return result;
+    } catch (IOException e) {
+      // truncated or otherwise corrupt header
+      return null;
+    }
+  }
+
+  @Override
+  public Iterator<? extends ModuleEntry> getEntries() {
+    return Collections.unmodifiableList(entries).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return "[snapshot of " + fingerprint + ']';
+  }
+
+  /** A class or source file stored in a snapshot */
+  static final class Entry implements ModuleEntry {
+
+    private final SnapshotModule container;
+
+    /** the contents of all entries of the snapshot */
+    private final ByteBuffer data;
+
+    private final byte kind;
+
+    private final String name;
+
+    private final String className;
+
+    private final int offset;
+
+    private final int length;
+
+    /** the name of the class defined by a class file, as parsed from it, or null if unparsable */
+    private String headerName;
+
+    private int modifiers;
+
+    private String superName;
+
+    private String[] interfaceNames;
+
+    Entry(
+        SnapshotModule container,
+        ByteBuffer data,
+        byte kind,
+        String name,
+        String className,
+        int offset,
+        int length) {
+      this.container = container;
+      this.data = data;
+      this.kind = kind;
+      this.name = name;
+      this.className = className;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public boolean isClassFile() {
+      return kind == CLASS_FILE;
+    }
+
+    @Override
+    public boolean isSourceFile() {
+      return kind == SOURCE_FILE;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      // work on a private view, so entries can be read from several threads
+      ByteBuffer view = data.duplicate();
+      view.position(offset);
+      byte[] bytes = new byte[length];
+      view.get(bytes);
+      return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * @return the class defined by this class file, built from its stored header without parsing
+     *     the class file, or null if the class file could not be parsed when the snapshot was taken
+     */
+    ShrikeClass makeClass(IClassLoader loader, IClassHierarchy cha) {
+      if (headerName == null) {
+        return null;
+      }
+      return new ShrikeClass(
+          new ShrikeClassReaderHandle(this),
+          loader,
+          cha,
+          headerName,
+          modifiers,
+          superName,
+          interfaceNames);
+    }
+
+    @Override
+    public boolean isModuleFile() {
+      return false;
+    }
+
+    @Override
+    public Module asModule() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getClassName() {
+      return className;
+    }
+
+    @Override
+    public Module getContainer() {
+      return container;
+    }
+
+    @Override
+    public String toString() {
+      return container.fingerprint + ':' + name;
+    }
+  }
+}
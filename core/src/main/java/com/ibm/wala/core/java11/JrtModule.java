@@ -23,6 +23,13 @@ public class JrtModule implements Module {
             .getPath("modules", module);
   }
 
+  /**
+   * @return the name of the JDK module, e.g. java.base
+   */
+  public String getModuleName() {
+    return root.getFileName().toString();
+  }
+
   @Override
   public String toString() {
     return "[module " + root.toString() + "]";
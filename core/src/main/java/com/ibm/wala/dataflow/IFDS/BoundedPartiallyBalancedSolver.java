@@ -34,6 +34,9 @@ public class BoundedPartiallyBalancedSolver<T, P, F>
 
   private int numSteps = 0;
 
+  /** has a path edge been dropped because the bound was reached? */
+  private boolean suppressed = false;
+
   protected BoundedPartiallyBalancedSolver(
       PartiallyBalancedTabulationProblem<T, P, F> p, int bound, IProgressMonitor monitor) {
     super(p, monitor);
@@ -46,6 +49,7 @@ public class BoundedPartiallyBalancedSolver<T, P, F>
       numSteps++;
       return super.propagate(s_p, i, n, j);
     } else {
+      suppressed = true;
       if (VERBOSE) {
         System.err.println(
             "Suppressing propagation; reached bound " + s_p + ' ' + i + ' ' + n + ' ' + j);
@@ -54,6 +58,11 @@ public class BoundedPartiallyBalancedSolver<T, P, F>
     }
   }
 
+  @Override
+  protected boolean isTabulationComplete() {
+    return !suppressed;
+  }
+
   public int getNumSteps() {
     return numSteps;
   }
@@ -30,6 +30,9 @@ public class BoundedTabulationSolver<T, P, F> extends TabulationSolver<T, P, F>
 
   private int numSteps = 0;
 
+  /** has a path edge been dropped because the bound was reached? */
+  private boolean suppressed = false;
+
   protected BoundedTabulationSolver(
       TabulationProblem<T, P, F> p, int bound, IProgressMonitor monitor) {
     super(p, monitor);
@@ -42,9 +45,15 @@ public class BoundedTabulationSolver<T, P, F> extends TabulationSolver<T, P, F>
       numSteps++;
       return super.propagate(s_p, i, n, j);
     }
+    suppressed = true;
     return false;
   }
 
+  @Override
+  protected boolean isTabulationComplete() {
+    return !suppressed;
+  }
+
   public int getNumSteps() {
     return numSteps;
   }
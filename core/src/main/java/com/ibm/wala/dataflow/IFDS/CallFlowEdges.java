@@ -10,7 +10,7 @@
  */
 package com.ibm.wala.dataflow.IFDS;
 
-import com.ibm.wala.util.collections.SparseVector;
+import com.ibm.wala.util.collections.IntObjectMap;
 import com.ibm.wala.util.intset.BasicNaturalRelation;
 import com.ibm.wala.util.intset.BimodalMutableIntSet;
 import com.ibm.wala.util.intset.IBinaryNaturalRelation;
@@ -33,7 +33,7 @@ public class CallFlowEdges {
    * <p>TODO: more representation optimization. A special representation for triples? sparse
    * representations for CFG? exploit shorts for ints?
    */
-  private final SparseVector<IBinaryNaturalRelation> edges = new SparseVector<>(1, 1.1f);
+  private final IntObjectMap<IBinaryNaturalRelation> edges = new IntObjectMap<>(1);
 
   /**
    * a map from integer d1 -&gt; int set.
@@ -41,10 +41,36 @@ public class CallFlowEdges {
    * <p>for fact d1, identityPaths[d1] gives the set of block numbers C s.t. for c \in C, &lt;c,
    * d1&gt; -&gt; &lt;s_p, d1&gt; is an edge.
    */
-  private final SparseVector<IntSet> identityEdges = new SparseVector<>(1, 1.1f);
+  private final IntObjectMap<IntSet> identityEdges = new IntObjectMap<>(1);
 
   public CallFlowEdges() {}
 
+  /**
+   * @return a set of call flow edges that several threads may update and query at once. Sets
+   *     returned by its queries are snapshots, unaffected by later updates.
+   */
+  public static CallFlowEdges makeSynchronized() {
+    return new Synchronized();
+  }
+
+  private static final class Synchronized extends CallFlowEdges {
+
+    @Override
+    public synchronized void addCallEdge(int c, int d1, int d2) {
+      super.addCallEdge(c, d1, d2);
+    }
+
+    @Override
+    public synchronized IntSet getCallFlowSources(int c, int d2) {
+      return LocalPathEdges.copy(super.getCallFlowSources(c, d2));
+    }
+
+    @Override
+    public synchronized IntSet getCallFlowSourceNodes(int d2) {
+      return LocalPathEdges.copy(super.getCallFlowSourceNodes(d2));
+    }
+  }
+
   /**
    * Record that we've discovered a call edge &lt;c,d1&gt; -&gt; &lt;s_p, d2&gt;
    *
@@ -61,7 +87,7 @@ public class CallFlowEdges {
       BimodalMutableIntSet s = (BimodalMutableIntSet) identityEdges.get(d1);
       if (s == null) {
         s = new BimodalMutableIntSet();
-        identityEdges.set(d1, s);
+        identityEdges.put(d1, s);
       }
       s.add(c);
     } else {
@@ -71,7 +97,7 @@ public class CallFlowEdges {
         R =
             new BasicNaturalRelation(
                 new byte[] {BasicNaturalRelation.TWO_LEVEL}, BasicNaturalRelation.TWO_LEVEL);
-        edges.set(d2, R);
+        edges.put(d2, R);
       }
       R.add(c, d1);
     }
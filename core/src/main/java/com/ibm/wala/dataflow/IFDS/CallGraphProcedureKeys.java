@@ -0,0 +1,221 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.ShrikeBTMethod;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.shrike.shrikeBT.ExceptionHandler;
+import com.ibm.wala.shrike.shrikeBT.IInstruction;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Procedure keys for {@link ISummaryKeys#getProcedureKey(Object)} when procedures correspond to
+ * call graph nodes.
+ *
+ * <p>The key of a node is a hash of the method, context and instructions of every node reachable
+ * from it, since its summary edges depend on all of them. Each strongly connected component of the
+ * call graph is hashed once, from the nodes in it and the hashes of the components it calls, so
+ * computing the keys of all nodes takes time linear in the size of the call graph. Instructions are
+ * hashed as decoded, with their constant pool references resolved, so that the key does not depend
+ * on how a compiler laid out the constant pool. Methods without bytecode, such as synthetic ones,
+ * are hashed by their signature only.
+ */
+public class CallGraphProcedureKeys {
+
+  /** the hash of a component from which some node that is not stable is reachable */
+  private static final String UNSTABLE = "";
+
+  private final CallGraph cg;
+
+  private final Predicate<CGNode> stable;
+
+  /** the strongly connected components of the call graph, computed on first use */
+  private List<Set<CGNode>> components;
+
+  /** node -&gt; index of its component in {@link #components} */
+  private final Map<CGNode, Integer> componentOf = HashMapFactory.make();
+
+  /**
+   * component index -&gt; hash of the component, or {@link #UNSTABLE}; null until the component is
+   * hashed
+   */
+  private String[] digests;
+
+  /**
+   * @param stable holds for nodes whose code is the same in every run, typically those of library
+   *     classes
+   * @throws IllegalArgumentException if cg or stable is null
+   */
+  public CallGraphProcedureKeys(CallGraph cg, Predicate<CGNode> stable) {
+    if (cg == null) {
+      throw new IllegalArgumentException("cg is null");
+    }
+    if (stable == null) {
+      throw new IllegalArgumentException("stable is null");
+    }
+    this.cg = cg;
+    this.stable = stable;
+  }
+
+  /**
+   * @return the key of node, or null if some node reachable from node is not stable; in particular,
+   *     summaries of library methods that call back into application code are not stored
+   * @throws IllegalArgumentException if node is not a node of the call graph
+   */
+  public synchronized String getKey(CGNode node) {
+    if (node == null || !cg.containsNode(node)) {
+      throw new IllegalArgumentException("not a node of the call graph: " + node);
+    }
+    if (components == null) {
+      components = new ArrayList<>();
+      for (Set<CGNode> component : Iterator2Iterable.make(new SCCIterator<>(cg))) {
+        for (CGNode n : component) {
+          componentOf.put(n, components.size());
+        }
+        components.add(component);
+      }
+      digests = new String[components.size()];
+    }
+    String digest = digest(componentOf.get(node));
+    if (digest.isEmpty()) {
+      return null;
+    }
+    MessageDigest result = digest();
+    result.update(node.toString().getBytes(StandardCharsets.UTF_8));
+    result.update((byte) '\n');
+    result.update(digest.getBytes(StandardCharsets.UTF_8));
+    return hex(result.digest());
+  }
+
+  /**
+   * Hash the given component and, first, the components it calls that were not hashed before. The
+   * components are visited with an explicit stack, since call chains may be long.
+   */
+  private String digest(int component) {
+    Deque<Integer> stack = new ArrayDeque<>();
+    stack.push(component);
+    while (!stack.isEmpty()) {
+      int c = stack.peek();
+      if (digests[c] != null) {
+        stack.pop();
+        continue;
+      }
+      Set<Integer> callees = callees(c);
+      boolean ready = true;
+      for (int callee : callees) {
+        if (digests[callee] == null) {
+          stack.push(callee);
+          ready = false;
+        }
+      }
+      if (ready) {
+        stack.pop();
+        digests[c] = combine(c, callees);
+      }
+    }
+    return digests[component];
+  }
+
+  private Set<Integer> callees(int component) {
+    Set<Integer> result = new TreeSet<>();
+    for (CGNode n : components.get(component)) {
+      for (CGNode s : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+        int callee = componentOf.get(s);
+        if (callee != component) {
+          result.add(callee);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** hash a component whose callees have been hashed */
+  private String combine(int component, Set<Integer> callees) {
+    List<String> descriptors = new ArrayList<>();
+    for (CGNode n : components.get(component)) {
+      String descriptor = stable.test(n) ? describe(n) : null;
+      if (descriptor == null) {
+        return UNSTABLE;
+      }
+      descriptors.add(descriptor);
+    }
+    for (int callee : callees) {
+      String digest = digests[callee];
+      if (digest.isEmpty()) {
+        return UNSTABLE;
+      }
+      descriptors.add(digest);
+    }
+    // hash in an order that does not depend on the call graph's
+    Collections.sort(descriptors);
+    MessageDigest digest = digest();
+    for (String descriptor : descriptors) {
+      digest.update(descriptor.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    return hex(digest.digest());
+  }
+
+  /**
+   * @return the method, context and code of n, or null if its code cannot be read
+   */
+  private static String describe(CGNode n) {
+    IMethod method = n.getMethod();
+    StringBuilder result = new StringBuilder();
+    result.append(method.getSignature()).append(' ').append(n.getContext());
+    if (method instanceof ShrikeBTMethod) {
+      try {
+        IInstruction[] instructions = ((ShrikeBTMethod) method).getInstructions();
+        ExceptionHandler[][] handlers = ((ShrikeBTMethod) method).getHandlers();
+        if (instructions != null) {
+          MessageDigest digest = digest();
+          for (int i = 0; i < instructions.length; i++) {
+            digest.update(instructions[i].toString().getBytes(StandardCharsets.UTF_8));
+            for (ExceptionHandler h : handlers[i]) {
+              digest.update(
+                  (" catch " + h.getCatchClass() + " at " + h.getHandler())
+                      .getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+          }
+          result.append(' ').append(hex(digest.digest()));
+        }
+      } catch (InvalidClassFileException e) {
+        return null;
+      }
+    }
+    return result.toString();
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hex(byte[] hash) {
+    StringBuilder result = new StringBuilder();
+    for (byte b : hash) {
+      result.append(Character.forDigit((b >> 4) & 0xf, 16));
+      result.append(Character.forDigit(b & 0xf, 16));
+    }
+    return result.toString();
+  }
+}
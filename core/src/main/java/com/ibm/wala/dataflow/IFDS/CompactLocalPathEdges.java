@@ -0,0 +1,465 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * A set of path edges for a particular procedure entry s_p, kept per node rather than per fact.
+ *
+ * <p>{@link LocalPathEdges} keeps, for each fact, a set or relation over all the nodes of the
+ * procedure, and so pays for every fact in proportion to the size of the procedure, plus a fixed
+ * cost per procedure that dominates when procedures are small and facts few, as in slicing. This
+ * representation instead keeps the ubiquitous edges &lt;s_p, 0&gt; -&gt; &lt;n, 0&gt; as one bit
+ * per node, and the other (d1, d2) pairs of each node in an encoding chosen by how many there are:
+ *
+ * <ul>
+ *   <li>up to {@link #SMALL} pairs: a sorted array of pairs packed into longs;
+ *   <li>more: a row of d2's for each d1, plus one set for the pairs with d1 == d2. Each row or set
+ *       is a sparse int set, or a bit vector once it is dense enough that the bit vector is
+ *       smaller.
+ * </ul>
+ *
+ * <p>A procedure whose edges are not needed for a while can be {@link #spill(File) spilled} to a
+ * file, which frees its memory; the next query or update reads it back. Each set of path edges
+ * spills to the same file every time, so that a long tabulation does not leave a file, or a pending
+ * {@link File#deleteOnExit() deletion}, behind for every spill.
+ */
+public class CompactLocalPathEdges extends LocalPathEdges {
+
+  /** The most (d1, d2) pairs a node keeps in a packed array */
+  private static final int SMALL = 16;
+
+  /** The smallest set kept as a bit vector */
+  private static final int DENSE = 32;
+
+  /** The nodes n for which &lt;s_p, 0&gt; -&gt; &lt;n, 0&gt; is a path edge; null if none */
+  private BitVector zero;
+
+  /**
+   * node number n -&gt; the other path edges &lt;s_p, d1&gt; -&gt; &lt;n, d2&gt;, as null, a sorted
+   * long[] of packed (d1, d2) pairs, or {@link Rows}; null if there are none at any node
+   */
+  private Object[] edges;
+
+  /** The file the path edges are spilled to, created by the first spill; null before that */
+  private File file;
+
+  /** Are the path edges in {@link #file} rather than in memory? */
+  private boolean spilled;
+
+  /** The pairs of a node with more than {@link #SMALL} of them */
+  private static final class Rows {
+
+    /** the d1's with a row, sorted */
+    int[] d1s = new int[4];
+
+    /** rows[i] is the set of d2 != d1s[i] s.t. &lt;s_p, d1s[i]&gt; -&gt; &lt;n, d2&gt; */
+    MutableIntSet[] rows = new MutableIntSet[4];
+
+    int count;
+
+    /** the d s.t. &lt;s_p, d&gt; -&gt; &lt;n, d&gt;, or null */
+    MutableIntSet identity;
+
+    MutableIntSet getRow(int d1) {
+      int i = Arrays.binarySearch(d1s, 0, count, d1);
+      return i < 0 ? null : rows[i];
+    }
+
+    void add(int d1, int d2) {
+      if (d1 == d2) {
+        identity = CompactLocalPathEdges.add(identity, d2);
+        return;
+      }
+      int i = Arrays.binarySearch(d1s, 0, count, d1);
+      if (i < 0) {
+        i = -i - 1;
+        if (count == d1s.length) {
+          d1s = Arrays.copyOf(d1s, 2 * count);
+          rows = Arrays.copyOf(rows, 2 * count);
+        }
+        System.arraycopy(d1s, i, d1s, i + 1, count - i);
+        System.arraycopy(rows, i, rows, i + 1, count - i);
+        d1s[i] = d1;
+        rows[i] = null;
+        count++;
+      }
+      rows[i] = CompactLocalPathEdges.add(rows[i], d2);
+    }
+
+    boolean contains(int d1, int d2) {
+      if (d1 == d2) {
+        return identity != null && identity.contains(d2);
+      }
+      MutableIntSet row = getRow(d1);
+      return row != null && row.contains(d2);
+    }
+  }
+
+  /**
+   * Add x to s, switching between a sparse set and a bit vector as the density of s changes.
+   *
+   * @return the set holding s and x
+   */
+  private static MutableIntSet add(MutableIntSet s, int x) {
+    if (s == null) {
+      s = MutableSparseIntSet.createMutableSparseIntSet(2);
+      s.add(x);
+      return s;
+    }
+    if (s instanceof BitVectorIntSet) {
+      if (x > s.max() && x >= 32 * (s.size() + 1)) {
+        // a far-away element would make the bit vector larger than a sparse set
+        s = MutableSparseIntSet.make(s);
+      }
+    } else if (s.size() + 1 >= DENSE && Math.max(x, s.max()) < 32 * (s.size() + 1)) {
+      s = new BitVectorIntSet(s);
+    }
+    s.add(x);
+    return s;
+  }
+
+  private static long pack(int d1, int d2) {
+    return ((long) d1 << 32) | d2;
+  }
+
+  private static int d1(long pair) {
+    return (int) (pair >>> 32);
+  }
+
+  private static int d2(long pair) {
+    return (int) pair;
+  }
+
+  public CompactLocalPathEdges() {
+    super();
+  }
+
+  @Override
+  public void addPathEdge(int i, int n, int j) {
+    if (n < 0) {
+      throw new IllegalArgumentException("invalid n: " + n);
+    }
+    restore();
+    if (i == 0 && j == 0) {
+      if (zero == null) {
+        zero = new BitVector();
+      }
+      zero.set(n);
+      return;
+    }
+    if (edges == null) {
+      edges = new Object[n + 1];
+    } else if (n >= edges.length) {
+      edges = Arrays.copyOf(edges, Math.max(n + 1, edges.length + (edges.length >> 1)));
+    }
+    Object e = edges[n];
+    long pair = pack(i, j);
+    if (e == null) {
+      edges[n] = new long[] {pair};
+    } else if (e instanceof long[]) {
+      long[] pairs = (long[]) e;
+      int k = Arrays.binarySearch(pairs, pair);
+      if (k >= 0) {
+        return;
+      }
+      if (pairs.length < SMALL) {
+        k = -k - 1;
+        long[] grown = new long[pairs.length + 1];
+        System.arraycopy(pairs, 0, grown, 0, k);
+        grown[k] = pair;
+        System.arraycopy(pairs, k, grown, k + 1, pairs.length - k);
+        edges[n] = grown;
+      } else {
+        Rows rows = new Rows();
+        for (long p : pairs) {
+          rows.add(d1(p), d2(p));
+        }
+        rows.add(i, j);
+        edges[n] = rows;
+      }
+    } else {
+      ((Rows) e).add(i, j);
+    }
+  }
+
+  @Override
+  public boolean contains(int i, int n, int j) {
+    if (n < 0) {
+      throw new IllegalArgumentException("invalid n: " + n);
+    }
+    restore();
+    if (i == 0 && j == 0) {
+      return zero != null && zero.get(n);
+    }
+    Object e = get(n);
+    if (e == null) {
+      return false;
+    } else if (e instanceof long[]) {
+      return Arrays.binarySearch((long[]) e, pack(i, j)) >= 0;
+    } else {
+      return ((Rows) e).contains(i, j);
+    }
+  }
+
+  private Object get(int n) {
+    return edges == null || n >= edges.length ? null : edges[n];
+  }
+
+  private boolean hasZero(int n) {
+    return zero != null && zero.get(n);
+  }
+
+  /**
+   * @return the sparse int set of d1 s.t. {@literal <s_p, d1> -> <n, d2>} are recorded as path
+   *     edges; null if none found
+   */
+  @Override
+  public IntSet getInverse(int n, int d2) {
+    restore();
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    if (d2 == 0 && hasZero(n)) {
+      result.add(0);
+    }
+    Object e = get(n);
+    if (e instanceof long[]) {
+      for (long p : (long[]) e) {
+        if (d2(p) == d2) {
+          result.add(d1(p));
+        }
+      }
+    } else if (e != null) {
+      Rows rows = (Rows) e;
+      if (rows.identity != null && rows.identity.contains(d2)) {
+        result.add(d2);
+      }
+      for (int k = 0; k < rows.count; k++) {
+        if (rows.rows[k].contains(d2)) {
+          result.add(rows.d1s[k]);
+        }
+      }
+    }
+    return result.isEmpty() ? null : result;
+  }
+
+  /**
+   * @return set of d2 s.t. d1 -&gt; d2 is a path edge for node n.
+   */
+  @Override
+  public IntSet getReachable(int n, int d1) {
+    restore();
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    if (d1 == 0 && hasZero(n)) {
+      result.add(0);
+    }
+    Object e = get(n);
+    if (e instanceof long[]) {
+      for (long p : (long[]) e) {
+        if (d1(p) == d1) {
+          result.add(d2(p));
+        }
+      }
+    } else if (e != null) {
+      Rows rows = (Rows) e;
+      MutableIntSet row = rows.getRow(d1);
+      if (row != null) {
+        result.addAll(row);
+      }
+      if (rows.identity != null && rows.identity.contains(d1)) {
+        result.add(d1);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param n the local block number of a node
+   * @return set of d2 s.t \exists d1 s.t. d1 -&gt; d2 is a path edge for node n
+   */
+  @Override
+  public IntSet getReachable(int n) {
+    restore();
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    if (hasZero(n)) {
+      result.add(0);
+    }
+    Object e = get(n);
+    if (e instanceof long[]) {
+      for (long p : (long[]) e) {
+        result.add(d2(p));
+      }
+    } else if (e != null) {
+      Rows rows = (Rows) e;
+      if (rows.identity != null) {
+        result.addAll(rows.identity);
+      }
+      for (int k = 0; k < rows.count; k++) {
+        result.addAll(rows.rows[k]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return set of node numbers that are reached by any fact
+   */
+  @Override
+  public IntSet getReachedNodeNumbers() {
+    restore();
+    MutableSparseIntSet result = MutableSparseIntSet.makeEmpty();
+    if (zero != null) {
+      for (int n = zero.nextSetBit(0); n >= 0; n = zero.nextSetBit(n + 1)) {
+        result.add(n);
+      }
+    }
+    if (edges != null) {
+      for (int n = 0; n < edges.length; n++) {
+        if (edges[n] != null) {
+          result.add(n);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return an estimate of the bytes the path edges take in memory, which is 0 while they are
+   *     spilled
+   */
+  public long getEstimatedMemory() {
+    if (spilled) {
+      return 0;
+    }
+    long bytes = zero == null ? 0 : zero.length() / 8;
+    if (edges != null) {
+      bytes += 4L * edges.length;
+      for (Object e : edges) {
+        if (e instanceof long[]) {
+          bytes += 16 + 8L * ((long[]) e).length;
+        } else if (e != null) {
+          Rows rows = (Rows) e;
+          bytes += 8L * rows.d1s.length + (rows.identity == null ? 0 : 4L * rows.identity.size());
+          for (int k = 0; k < rows.count; k++) {
+            bytes += 4L * rows.rows[k].size();
+          }
+        }
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * @return true iff the path edges are currently in a file rather than in memory
+   */
+  public boolean isSpilled() {
+    return spilled;
+  }
+
+  /**
+   * Write the path edges to a file in directory and free the memory they use. The next query or
+   * update reads them back and empties the file. The file is created by the first spill to
+   * directory, reused by later ones, and deleted when the virtual machine exits. Does nothing if
+   * the path edges are already spilled.
+   *
+   * @throws UncheckedIOException if the file cannot be written
+   */
+  public void spill(File directory) {
+    if (spilled) {
+      return;
+    }
+    try {
+      if (file == null || !file.getParentFile().equals(directory)) {
+        if (file != null) {
+          Files.delete(file.toPath());
+        }
+        file = File.createTempFile("pathEdges", ".bin", directory);
+        file.deleteOnExit();
+      }
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+        IntSet nodes = getReachedNodeNumbers();
+        out.writeInt(nodes.size());
+        for (IntIterator it = nodes.intIterator(); it.hasNext(); ) {
+          int n = it.next();
+          out.writeInt(n);
+          out.writeBoolean(hasZero(n));
+          Object e = get(n);
+          if (e == null) {
+            out.writeInt(0);
+          } else if (e instanceof long[]) {
+            long[] pairs = (long[]) e;
+            out.writeInt(pairs.length);
+            for (long p : pairs) {
+              out.writeLong(p);
+            }
+          } else {
+            Rows rows = (Rows) e;
+            int size = rows.identity == null ? 0 : rows.identity.size();
+            for (int k = 0; k < rows.count; k++) {
+              size += rows.rows[k].size();
+            }
+            out.writeInt(size);
+            if (rows.identity != null) {
+              for (IntIterator d = rows.identity.intIterator(); d.hasNext(); ) {
+                int x = d.next();
+                out.writeLong(pack(x, x));
+              }
+            }
+            for (int k = 0; k < rows.count; k++) {
+              for (IntIterator d = rows.rows[k].intIterator(); d.hasNext(); ) {
+                out.writeLong(pack(rows.d1s[k], d.next()));
+              }
+            }
+          }
+        }
+      }
+      zero = null;
+      edges = null;
+      spilled = true;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** If the path edges are spilled, read them back. */
+  private void restore() {
+    if (!spilled) {
+      return;
+    }
+    spilled = false;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      for (int nodes = in.readInt(); nodes > 0; nodes--) {
+        int n = in.readInt();
+        if (in.readBoolean()) {
+          addPathEdge(0, n, 0);
+        }
+        for (int pairs = in.readInt(); pairs > 0; pairs--) {
+          long p = in.readLong();
+          addPathEdge(d1(p), n, d2(p));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // keep the file for the next spill, but not its contents
+    try {
+      Files.write(file.toPath(), new byte[0]);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.ibm.wala.dataflow.IFDS;
+
+/**
+ * Stable names for the procedures and facts of a tabulation problem, under which a {@link
+ * SummaryEdgeStore} keeps summary edges from one analysis run to the next.
+ *
+ * @param <P> type of a procedure (like a box in an RSM)
+ */
+public interface ISummaryKeys<P> {
+
+  /**
+   * @return a name for everything the summary edges depend on besides the procedures themselves,
+   *     such as the flow functions and the analysis options. Summary edges recorded under another
+   *     fingerprint are never reused.
+   */
+  String getProblemFingerprint();
+
+  /**
+   * @return a name for proc that changes whenever its summary edges may change, for example a hash
+   *     of its code and of the code of all procedures it may call (see {@link
+   *     CallGraphProcedureKeys}); or null if the summary edges of proc should neither be stored nor
+   *     reused. The local block numbers of the entries and exits of proc must be the same in every
+   *     run that sees the same key.
+   */
+  String getProcedureKey(P proc);
+
+  /**
+   * @return a name for the fact numbered d, or null if summary edges involving it should not be
+   *     stored
+   */
+  String getFactKey(int d);
+
+  /**
+   * @return the number of the fact named key in the current run, or -1 if there is none
+   */
+  int getFact(String key);
+}
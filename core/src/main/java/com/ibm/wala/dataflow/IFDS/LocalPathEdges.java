@@ -47,7 +47,7 @@ public class LocalPathEdges {
    * <p>TODO: more representation optimization. A special representation for triples? sparse
    * representations for CFG? exploit shorts for ints?
    */
-  private final SparseVector<IBinaryNaturalRelation> paths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IBinaryNaturalRelation> paths;
 
   /**
    * If this is non-null, it holds a redundant representation of the paths information, designed to
@@ -75,7 +75,7 @@ public class LocalPathEdges {
    * <p>for fact d1, identityPaths[d1] gives the set of block numbers N s.t. for n \in N, &lt;s_p,
    * d1&gt; -&gt; &lt;n, d1&gt; is a path edge.
    */
-  private final SparseVector<IntSet> identityPaths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IntSet> identityPaths;
 
   /**
    * a map from integer d2 -&gt; int set
@@ -83,14 +83,85 @@ public class LocalPathEdges {
    * <p>for fact d2, zeroPaths[d2] gives the set of block numbers N s.t. for n \in N, &lt;s_p, 0&gt;
    * -&gt; &lt;n, d2&gt; is a path edge.
    */
-  private final SparseVector<IntSet> zeroPaths = new SparseVector<>(1, 1.1f);
+  private final SparseVector<IntSet> zeroPaths;
 
   /**
    * @param fastMerge if true, the representation uses extra space in order to support faster merge
    *     operations
    */
   public LocalPathEdges(boolean fastMerge) {
+    paths = new SparseVector<>(1, 1.1f);
     altPaths = fastMerge ? new SparseVector<>(1, 1.1f) : null;
+    identityPaths = new SparseVector<>(1, 1.1f);
+    zeroPaths = new SparseVector<>(1, 1.1f);
+  }
+
+  /**
+   * For subclasses that keep path edges in their own representation, and so override every public
+   * method.
+   */
+  protected LocalPathEdges() {
+    paths = null;
+    altPaths = null;
+    identityPaths = null;
+    zeroPaths = null;
+  }
+
+  /**
+   * @return a view of edges that several threads may update and query at once. Sets returned by its
+   *     queries are snapshots, unaffected by later updates.
+   */
+  public static LocalPathEdges makeSynchronized(LocalPathEdges edges) {
+    if (edges == null) {
+      throw new IllegalArgumentException("edges is null");
+    }
+    return new Synchronized(edges);
+  }
+
+  private static final class Synchronized extends LocalPathEdges {
+
+    private final LocalPathEdges delegate;
+
+    Synchronized(LocalPathEdges delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void addPathEdge(int i, int n, int j) {
+      delegate.addPathEdge(i, n, j);
+    }
+
+    @Override
+    public synchronized IntSet getInverse(int n, int d2) {
+      return copy(delegate.getInverse(n, d2));
+    }
+
+    @Override
+    public synchronized boolean contains(int i, int n, int j) {
+      return delegate.contains(i, n, j);
+    }
+
+    @Override
+    public synchronized IntSet getReachable(int n, int d1) {
+      return copy(delegate.getReachable(n, d1));
+    }
+
+    @Override
+    public synchronized IntSet getReachable(int n) {
+      return copy(delegate.getReachable(n));
+    }
+
+    @Override
+    public synchronized IntSet getReachedNodeNumbers() {
+      return copy(delegate.getReachedNodeNumbers());
+    }
+  }
+
+  /**
+   * @return a copy of s, or null if s is null
+   */
+  static IntSet copy(IntSet s) {
+    return s == null ? null : MutableSparseIntSet.make(s);
   }
 
   /**
@@ -58,6 +58,37 @@ public class LocalSummaryEdges {
   /** */
   public LocalSummaryEdges() {}
 
+  /**
+   * @return a set of summary edges that several threads may update and query at once. Sets returned
+   *     by its queries are snapshots, unaffected by later updates.
+   */
+  public static LocalSummaryEdges makeSynchronized() {
+    return new Synchronized();
+  }
+
+  private static final class Synchronized extends LocalSummaryEdges {
+
+    @Override
+    public synchronized void insertSummaryEdge(int s_p, int x, int d1, int d2) {
+      super.insertSummaryEdge(s_p, x, d1, d2);
+    }
+
+    @Override
+    public synchronized boolean contains(int s_p, int x, int d1, int d2) {
+      return super.contains(s_p, x, d1, d2);
+    }
+
+    @Override
+    public synchronized IntSet getSummaryEdges(int s_p, int x, int d1) {
+      return LocalPathEdges.copy(super.getSummaryEdges(s_p, x, d1));
+    }
+
+    @Override
+    public synchronized IntSet getInvertedSummaryEdgesForTarget(int s_p, int x, int d2) {
+      return super.getInvertedSummaryEdgesForTarget(s_p, x, d2);
+    }
+  }
+
   /**
    * Record a summary edge for the flow d1 -&gt; d2 from an entry s_p to an exit x.
    *
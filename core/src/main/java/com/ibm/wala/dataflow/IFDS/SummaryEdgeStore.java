@@ -0,0 +1,155 @@
+package com.ibm.wala.dataflow.IFDS;
+
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Pair;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Summary edges of a tabulation problem, kept from one analysis run to the next.
+ *
+ * <p>For each procedure, entry and entry fact that a run tabulated to completion, the store records
+ * the exits and exit facts the entry fact reaches, naming procedures and facts by their {@link
+ * ISummaryKeys}. A {@link TabulationSolver} given the store with {@link
+ * TabulationSolver#setSummaryStore(SummaryEdgeStore, ISummaryKeys)} applies these summary edges at
+ * calls instead of tabulating the callee again, and records the summary edges it computes once its
+ * tabulation completes. {@link #write(OutputStream)} and {@link #read(InputStream, String)} carry a
+ * store over to the next run.
+ */
+public class SummaryEdgeStore {
+
+  private static final int MAGIC = 0x57534553;
+
+  private static final int VERSION = 1;
+
+  /** see {@link ISummaryKeys#getProblemFingerprint()} */
+  private final String fingerprint;
+
+  /**
+   * procedure key -&gt; (entry block number, entry fact key) -&gt; set of (exit block number, exit
+   * fact key)
+   */
+  private final Map<String, Map<Pair<Integer, String>, Set<Pair<Integer, String>>>> summaries =
+      HashMapFactory.make();
+
+  /**
+   * @param fingerprint see {@link ISummaryKeys#getProblemFingerprint()}
+   * @throws IllegalArgumentException if fingerprint is null
+   */
+  public SummaryEdgeStore(String fingerprint) {
+    if (fingerprint == null) {
+      throw new IllegalArgumentException("fingerprint is null");
+    }
+    this.fingerprint = fingerprint;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * @return the number of (procedure, entry, entry fact) triples whose summary edges are stored
+   */
+  public synchronized int size() {
+    int result = 0;
+    for (Map<Pair<Integer, String>, Set<Pair<Integer, String>>> m : summaries.values()) {
+      result += m.size();
+    }
+    return result;
+  }
+
+  /**
+   * @return the (exit block number, exit fact key) pairs reached from the given entry and entry
+   *     fact of the procedure, or null if they are not known
+   */
+  synchronized Set<Pair<Integer, String>> getSummaries(String procedure, int entry, String d1) {
+    Map<Pair<Integer, String>, Set<Pair<Integer, String>>> m = summaries.get(procedure);
+    return m == null ? null : m.get(Pair.make(entry, d1));
+  }
+
+  /**
+   * Record the (exit block number, exit fact key) pairs reached from the given entry and entry fact
+   * of the procedure, replacing those recorded before.
+   */
+  synchronized void putSummaries(
+      String procedure, int entry, String d1, Set<Pair<Integer, String>> exits) {
+    summaries
+        .computeIfAbsent(procedure, k -> HashMapFactory.make())
+        .put(Pair.make(entry, d1), exits);
+  }
+
+  /**
+   * Write this store to out, which is not closed.
+   *
+   * @throws IllegalArgumentException if out is null
+   */
+  public synchronized void write(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("out is null");
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeUTF(fingerprint);
+    data.writeInt(summaries.size());
+    for (Map.Entry<String, Map<Pair<Integer, String>, Set<Pair<Integer, String>>>> p :
+        summaries.entrySet()) {
+      data.writeUTF(p.getKey());
+      data.writeInt(p.getValue().size());
+      for (Map.Entry<Pair<Integer, String>, Set<Pair<Integer, String>>> e :
+          p.getValue().entrySet()) {
+        data.writeInt(e.getKey().fst);
+        data.writeUTF(e.getKey().snd);
+        data.writeInt(e.getValue().size());
+        for (Pair<Integer, String> x : e.getValue()) {
+          data.writeInt(x.fst);
+          data.writeUTF(x.snd);
+        }
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * Read a store written by {@link #write(OutputStream)}. in is not closed.
+   *
+   * @param fingerprint the fingerprint of the problem to be solved
+   * @return the store read, or an empty store if it was recorded for another fingerprint or by
+   *     another version of this class
+   * @throws IllegalArgumentException if in or fingerprint is null
+   * @throws IOException if in does not hold a store
+   */
+  public static SummaryEdgeStore read(InputStream in, String fingerprint) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("in is null");
+    }
+    SummaryEdgeStore result = new SummaryEdgeStore(fingerprint);
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("not a summary edge store");
+    }
+    if (data.readInt() != VERSION || !fingerprint.equals(data.readUTF())) {
+      return result;
+    }
+    for (int procedures = data.readInt(); procedures > 0; procedures--) {
+      String procedure = data.readUTF();
+      for (int entries = data.readInt(); entries > 0; entries--) {
+        int entry = data.readInt();
+        String d1 = data.readUTF();
+        Set<Pair<Integer, String>> exits = HashSetFactory.make();
+        for (int n = data.readInt(); n > 0; n--) {
+          int exit = data.readInt();
+          exits.add(Pair.make(exit, data.readUTF()));
+        }
+        result.putSummaries(procedure, entry, d1, exits);
+      }
+    }
+    return result;
+  }
+}
@@ -49,4 +49,13 @@ public interface TabulationProblem<T, P, F> {
    * @return the merge function, or null if !supportsMerge()
    */
   IMergeFunction getMergeFunction();
+
+  /**
+   * May the supergraph and flow functions of this problem be used by several threads at once,
+   * including any state they compute lazily? Only such problems can be solved by {@link
+   * TabulationSolver#solve(java.util.concurrent.ForkJoinPool)}.
+   */
+  default boolean isConcurrent() {
+    return false;
+  }
 }
@@ -22,6 +22,7 @@ import com.ibm.wala.util.collections.Heap;
 import com.ibm.wala.util.collections.Iterator2Collection;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.MapUtil;
+import com.ibm.wala.util.collections.Pair;
 import com.ibm.wala.util.collections.ToStringComparator;
 import com.ibm.wala.util.heapTrace.HeapTracer;
 import com.ibm.wala.util.intset.IntIterator;
@@ -29,15 +30,25 @@ import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetAction;
 import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.intset.MutableSparseIntSet;
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A precise interprocedural tabulation solver.
@@ -51,6 +62,13 @@ import java.util.TreeSet;
  *       site.
  *   <li>it supports an optional merge operator, useful for non-IFDS problems and widening.
  *   <li>it stores summary edges at each callee instead of at each call site.
+ *   <li>it can process path edges concurrently on a {@link ForkJoinPool}; see {@link
+ *       #solve(ForkJoinPool)}.
+ *   <li>it can reuse summary edges computed by earlier runs; see {@link
+ *       #setSummaryStore(SummaryEdgeStore, ISummaryKeys)}.
+ *   <li>it can keep path edges in a {@link CompactLocalPathEdges compact representation}, and spill
+ *       those of procedures not used recently to disk; see {@link #setCompactPathEdges(boolean)}
+ *       and {@link #setPathEdgeSpilling(File, int)}.
  * </ul>
  *
  * @param <T> type of node in the supergraph
@@ -107,7 +125,7 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (s_p,d_i) -&gt; (n, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, LocalPathEdges> pathEdges = HashMapFactory.make();
+  private final Map<T, LocalPathEdges> pathEdges = new ConcurrentHashMap<>();
 
   /**
    * A map from Object (entry node in supergraph) -&gt; CallFlowEdges.
@@ -115,10 +133,10 @@ public class TabulationSolver<T, P, F> {
    * <p>Logically, this represents a set of edges (c,d_i) -&gt; (s_p, d_j). The data structure is
    * chosen to attempt to save space over representing each edge explicitly.
    */
-  private final Map<T, CallFlowEdges> callFlowEdges = HashMapFactory.make();
+  private final Map<T, CallFlowEdges> callFlowEdges = new ConcurrentHashMap<>();
 
   /** A map from Object (procedure) -&gt; LocalSummaryEdges. */
-  protected final Map<P, LocalSummaryEdges> summaryEdges = HashMapFactory.make();
+  protected final Map<P, LocalSummaryEdges> summaryEdges = new ConcurrentHashMap<>();
 
   /**
    * the set of all {@link PathEdge}s that were used as seeds during the tabulation, grouped by
@@ -135,20 +153,65 @@ public class TabulationSolver<T, P, F> {
   /** A progress monitor. can be null. */
   protected final IProgressMonitor progressMonitor;
 
+  /** The edges being processed by {@link #solve()} */
+  private final CurrentEdges<T> sequentialEdges = new CurrentEdges<>();
+
+  /** The edges being processed by each thread in {@link #solve(ForkJoinPool)}, created by it */
+  private ThreadLocal<CurrentEdges<T>> concurrentEdgesByThread;
+
   /**
-   * the path edge currently being processed in the main loop of {@link #forwardTabulateSLRPs()};
-   * {@code null} if {@link #forwardTabulateSLRPs()} is not currently running. Note that if we are
-   * applying a summary edge in {@link #processExit(PathEdge)}, curPathEdge is modified to be the
-   * path edge terminating at the call node in the caller, to match the behavior in {@link
-   * #processCall(PathEdge)}.
+   * The pool on which path edges are being processed, or null if the tabulation runs on the calling
+   * thread.
    */
-  private PathEdge<T> curPathEdge;
+  private ForkJoinPool pool;
 
   /**
-   * the summary edge currently being applied in {@link #processCall(PathEdge)} or {@link
-   * #processExit(PathEdge)}, or {@code null} if summary edges are not currently being processed.
+   * Have the path, summary and call flow edges been made safe for concurrent use? Once set, all
+   * later tabulation uses the synchronized representations.
    */
-  private PathEdge<T> curSummaryEdge;
+  private boolean concurrentEdges = false;
+
+  /** During {@link #solve(ForkJoinPool)}, the number of path edges not processed yet */
+  private final AtomicLong pendingEdges = new AtomicLong();
+
+  /** During {@link #solve(ForkJoinPool)}, released when no path edges remain to be processed */
+  private CountDownLatch quiescent;
+
+  /** During {@link #solve(ForkJoinPool)}, the first exception thrown while processing an edge */
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /** Keep path edges in {@link CompactLocalPathEdges}? */
+  private boolean compactPathEdges = false;
+
+  /** The directory path edges are spilled to, or null if they are not spilled */
+  private File spillDirectory;
+
+  /** The most procedures whose path edges stay in memory when spilling */
+  private int maxResident;
+
+  /** The fewest bytes of path edges of a procedure that are spilled */
+  private long minSpilledBytes;
+
+  /** When spilling, the path edges in memory, least recently used first */
+  private final LinkedHashMap<T, CompactLocalPathEdges> resident =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Summary edges of earlier runs, or null; see {@link #setSummaryStore} */
+  private SummaryEdgeStore summaryStore;
+
+  /** Names of procedures and facts in {@link #summaryStore} */
+  private ISummaryKeys<P> summaryKeys;
+
+  /**
+   * Procedure -&gt; key in {@link #summaryStore}, or {@link #NO_KEY} if its summary edges are not
+   * stored.
+   */
+  private final Map<P, String> procedureKeys = new ConcurrentHashMap<>();
+
+  private static final String NO_KEY = "";
+
+  /** The (callee entry, entry fact) pairs whose summary edges came from {@link #summaryStore} */
+  private final Set<Pair<T, Integer>> loadedSummaries = ConcurrentHashMap.newKeySet();
 
   /**
    * @param p a description of the dataflow problem to solve
@@ -187,6 +250,7 @@ public class TabulationSolver<T, P, F> {
     try {
       initialize();
       forwardTabulateSLRPs();
+      storeSummaries();
       Result r = new Result();
       return r;
     } catch (CancelException | CancelRuntimeException e) {
@@ -196,6 +260,345 @@ public class TabulationSolver<T, P, F> {
     }
   }
 
+  /**
+   * Solve the dataflow problem, processing path edges concurrently on a pool.
+   *
+   * <p>Each path edge discovered is processed by its own task, and tasks forked by a worker thread
+   * are stolen by idle ones. The path, summary and call flow edges are kept in synchronized
+   * representations, and every step that pairs a new edge with existing ones (a summary edge with
+   * the call flow edges into a procedure, a call flow edge with the summary edges out of it) first
+   * records its own edge and then reads the others, so that of two concurrent steps, at least one
+   * sees the edge of the other. The result is therefore the same as that of {@link #solve()}.
+   * However, the edges are not processed in the priority order of the {@link TabulationDomain}, and
+   * subclasses that override the hooks of this class, such as {@link #newSummaryEdge(PathEdge,
+   * PathEdge, Object, int)}, must tolerate concurrent calls.
+   *
+   * <p>The supergraph and the flow functions of the problem are queried by all the threads of the
+   * pool, so the problem must declare that they are safe to use concurrently, with {@link
+   * TabulationProblem#isConcurrent()}. A {@link com.ibm.wala.ipa.slicer.Slicer.SliceProblem} is
+   * concurrent if its SDG is; see {@link com.ibm.wala.ipa.slicer.SDG#setConcurrent(boolean)}.
+   *
+   * @return a representation of the result
+   * @throws IllegalArgumentException if pool is null
+   * @throws UnsupportedOperationException if the problem is not concurrent, or has a merge
+   *     function, since merging depends on the order in which path edges are processed
+   * @throws IllegalStateException if this solver has already been run sequentially
+   */
+  public TabulationResult<T, P, F> solve(ForkJoinPool pool) throws CancelException {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool is null");
+    }
+    if (!problem.isConcurrent()) {
+      throw new UnsupportedOperationException("problem cannot be used by several threads at once");
+    }
+    if (problem.getMergeFunction() != null) {
+      throw new UnsupportedOperationException("cannot merge facts in a concurrent tabulation");
+    }
+    if (!concurrentEdges && !pathEdges.isEmpty()) {
+      throw new IllegalStateException("solver has already been run sequentially");
+    }
+    if (spillDirectory != null) {
+      throw new UnsupportedOperationException("cannot spill path edges in a concurrent tabulation");
+    }
+    concurrentEdges = true;
+    if (concurrentEdgesByThread == null) {
+      concurrentEdgesByThread = ThreadLocal.withInitial(CurrentEdges::new);
+    }
+    this.pool = pool;
+    quiescent = new CountDownLatch(1);
+    // hold the count above zero until all the seeds have been scheduled
+    pendingEdges.incrementAndGet();
+    try {
+      initialize();
+    } catch (RuntimeException | Error e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      edgeDone();
+    }
+    boolean interrupted = false;
+    while (quiescent.getCount() > 0) {
+      try {
+        quiescent.await();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    this.pool = null;
+
+    Throwable t = failure.getAndSet(null);
+    if (t instanceof CancelException || t instanceof CancelRuntimeException) {
+      // store a partially-tabulated result in the thrown exception.
+      throw new TabulationCancelException((Exception) t, new Result());
+    } else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    storeSummaries();
+    return new Result();
+  }
+
+  /** Record that a path edge scheduled by {@link #solve(ForkJoinPool)} has been processed. */
+  private void edgeDone() {
+    if (pendingEdges.decrementAndGet() == 0) {
+      quiescent.countDown();
+    }
+  }
+
+  /** A task that processes one path edge in {@link #solve(ForkJoinPool)}. */
+  private final class PathEdgeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 6390151528734829155L;
+
+    private final PathEdge<T> edge;
+
+    PathEdgeTask(PathEdge<T> edge) {
+      this.edge = edge;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        // once a task has failed or the tabulation was canceled, drain the remaining edges
+        if (failure.get() == null) {
+          MonitorUtil.throwExceptionIfCanceled(progressMonitor);
+          tabulate(edge);
+          current().pathEdge = null;
+        }
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      } finally {
+        edgeDone();
+      }
+    }
+  }
+
+  /**
+   * Reuse the summary edges of earlier runs, and record those of this one.
+   *
+   * <p>When a call reaches the entry of a callee with a fact whose summary edges are in store, the
+   * solver applies them at the call instead of tabulating the callee. The result then holds no path
+   * edges in the callee, nor in the procedures reached only through it. When the tabulation
+   * completes, the solver records in store the summary edges of every procedure it tabulated,
+   * replacing older ones recorded under the same keys.
+   *
+   * @throws IllegalArgumentException if store or keys is null, or if the fingerprint of store is
+   *     not that of keys
+   */
+  public void setSummaryStore(SummaryEdgeStore store, ISummaryKeys<P> keys) {
+    if (store == null) {
+      throw new IllegalArgumentException("store is null");
+    }
+    if (keys == null) {
+      throw new IllegalArgumentException("keys is null");
+    }
+    if (!store.getFingerprint().equals(keys.getProblemFingerprint())) {
+      throw new IllegalArgumentException("store was made for another problem");
+    }
+    this.summaryStore = store;
+    this.summaryKeys = keys;
+  }
+
+  /**
+   * Keep path edges in a {@link CompactLocalPathEdges}, which uses less memory than the default
+   * {@link LocalPathEdges} when procedures are small or facts sparse, in place of the default
+   * representation.
+   *
+   * @throws IllegalStateException if path edges have already been computed
+   */
+  public void setCompactPathEdges(boolean compact) {
+    if (!pathEdges.isEmpty()) {
+      throw new IllegalStateException("path edges have already been computed");
+    }
+    this.compactPathEdges = compact;
+  }
+
+  /**
+   * Keep path edges in a {@link CompactLocalPathEdges}, and during a sequential {@link #solve()},
+   * keep those of at most maxResident procedures in memory: when another procedure's path edges are
+   * needed, those of the procedure used least recently are spilled to a file in directory. Spilled
+   * path edges are read back when they are queried again, including by the {@link
+   * TabulationResult}, whose queries spill path edges in the same way. Path edges that take less
+   * than 1 KB stay in memory, since the file that would hold them takes a few hundred bytes to keep
+   * track of.
+   *
+   * @throws IllegalArgumentException if directory is null or maxResident &lt; 1
+   * @throws IllegalStateException if path edges have already been computed
+   */
+  public void setPathEdgeSpilling(File directory, int maxResident) {
+    setPathEdgeSpilling(directory, maxResident, 1024);
+  }
+
+  /**
+   * As {@link #setPathEdgeSpilling(File, int)}, but spill the path edges of a procedure only if
+   * they take at least minSpilledBytes, as {@link CompactLocalPathEdges#getEstimatedMemory()
+   * estimated}.
+   *
+   * @throws IllegalArgumentException if directory is null, maxResident &lt; 1 or minSpilledBytes
+   *     &lt; 0
+   * @throws IllegalStateException if path edges have already been computed
+   */
+  public void setPathEdgeSpilling(File directory, int maxResident, long minSpilledBytes) {
+    if (directory == null) {
+      throw new IllegalArgumentException("directory is null");
+    }
+    if (maxResident < 1) {
+      throw new IllegalArgumentException("illegal maxResident: " + maxResident);
+    }
+    if (minSpilledBytes < 0) {
+      throw new IllegalArgumentException("illegal minSpilledBytes: " + minSpilledBytes);
+    }
+    setCompactPathEdges(true);
+    this.spillDirectory = directory;
+    this.maxResident = maxResident;
+    this.minSpilledBytes = minSpilledBytes;
+  }
+
+  /**
+   * When spilling path edges, record that those of s_p are being used, and spill those of the
+   * procedure used least recently if too many are in memory.
+   */
+  private void touch(T s_p, LocalPathEdges edges) {
+    if (spillDirectory == null || pool != null) {
+      return;
+    }
+    resident.put(s_p, (CompactLocalPathEdges) edges);
+    if (resident.size() > maxResident) {
+      Iterator<CompactLocalPathEdges> eldest = resident.values().iterator();
+      CompactLocalPathEdges cold = eldest.next();
+      eldest.remove();
+      if (cold.getEstimatedMemory() >= minSpilledBytes) {
+        cold.spill(spillDirectory);
+      }
+    }
+  }
+
+  /**
+   * Can the summary edges computed so far be stored for later runs? Subclasses that may drop path
+   * edges should return false once they have.
+   */
+  protected boolean isTabulationComplete() {
+    return true;
+  }
+
+  /**
+   * @return the key of proc in {@link #summaryStore}, or null if its summary edges are not stored
+   */
+  private String getProcedureKey(P proc) {
+    String key =
+        procedureKeys.computeIfAbsent(
+            proc,
+            p -> {
+              String k = summaryKeys.getProcedureKey(p);
+              return k == null ? NO_KEY : k;
+            });
+    return key.isEmpty() ? null : key;
+  }
+
+  /**
+   * If {@link #summaryStore} knows the summary edges from fact d1 at callee entry s_p, add them to
+   * {@link #summaryEdges}.
+   *
+   * @return true iff the summary edges were added, in which case the callee need not be tabulated
+   *     from d1
+   */
+  private boolean loadSummaries(T s_p, int d1) {
+    if (summaryStore == null) {
+      return false;
+    }
+    Pair<T, Integer> key = Pair.make(s_p, d1);
+    if (loadedSummaries.contains(key)) {
+      return true;
+    }
+    P proc = supergraph.getProcOf(s_p);
+    String procedureKey = getProcedureKey(proc);
+    String factKey = summaryKeys.getFactKey(d1);
+    if (procedureKey == null || factKey == null) {
+      return false;
+    }
+    int s_p_num = supergraph.getLocalBlockNumber(s_p);
+    Set<Pair<Integer, String>> exits = summaryStore.getSummaries(procedureKey, s_p_num, factKey);
+    if (exits == null) {
+      return false;
+    }
+    // decode all the summary edges before adding any, so that a stale entry adds nothing
+    int[] decoded = new int[2 * exits.size()];
+    int i = 0;
+    for (Pair<Integer, String> x : exits) {
+      T exit = supergraph.getLocalBlock(proc, x.fst);
+      int d2 = summaryKeys.getFact(x.snd);
+      if (exit == null || !supergraph.isExit(exit) || d2 < 0) {
+        return false;
+      }
+      decoded[i++] = x.fst;
+      decoded[i++] = d2;
+    }
+    LocalSummaryEdges summaries = findOrCreateLocalSummaryEdges(proc);
+    for (i = 0; i < decoded.length; i += 2) {
+      if (!summaries.contains(s_p_num, decoded[i], d1, decoded[i + 1])) {
+        summaries.insertSummaryEdge(s_p_num, decoded[i], d1, decoded[i + 1]);
+      }
+    }
+    // only now, so that other threads that find the key see all its summary edges
+    loadedSummaries.add(key);
+    return true;
+  }
+
+  /**
+   * Record in {@link #summaryStore} the summary edges from every fact at a procedure entry that was
+   * tabulated.
+   */
+  private void storeSummaries() {
+    if (summaryStore == null || !isTabulationComplete()) {
+      return;
+    }
+    for (Entry<T, LocalPathEdges> e : pathEdges.entrySet()) {
+      T s_p = e.getKey();
+      if (!supergraph.isEntry(s_p)) {
+        continue;
+      }
+      P proc = supergraph.getProcOf(s_p);
+      String procedureKey = getProcedureKey(proc);
+      if (procedureKey == null) {
+        continue;
+      }
+      int s_p_num = supergraph.getLocalBlockNumber(s_p);
+      LocalPathEdges paths = e.getValue();
+      touch(s_p, paths);
+      LocalSummaryEdges summaries = summaryEdges.get(proc);
+      IntIterator it = paths.getReachable(s_p_num).intIterator();
+      entryFacts:
+      while (it.hasNext()) {
+        int d1 = it.next();
+        String factKey = summaryKeys.getFactKey(d1);
+        if (factKey == null || !paths.contains(d1, s_p_num, d1)) {
+          // not a fact the procedure was tabulated from
+          continue;
+        }
+        Set<Pair<Integer, String>> exits = HashSetFactory.make();
+        if (summaries != null) {
+          for (T exit : supergraph.getExitsForProcedure(proc)) {
+            int x_num = supergraph.getLocalBlockNumber(exit);
+            IntSet d2s = summaries.getSummaryEdges(s_p_num, x_num, d1);
+            if (d2s != null) {
+              for (IntIterator d2 = d2s.intIterator(); d2.hasNext(); ) {
+                String d2Key = summaryKeys.getFactKey(d2.next());
+                if (d2Key == null) {
+                  continue entryFacts;
+                }
+                exits.add(Pair.make(x_num, d2Key));
+              }
+            }
+          }
+        }
+        summaryStore.putSummaries(procedureKey, s_p_num, factKey, exits);
+      }
+    }
+  }
+
   /** Start tabulation with the initial seeds. */
   protected void initialize() {
     for (PathEdge<T> seed : problem.initialSeeds()) {
@@ -204,7 +607,7 @@ public class TabulationSolver<T, P, F> {
   }
 
   /** Restart tabulation from a particular path edge. Use with care. */
-  public void addSeed(PathEdge<T> seed) {
+  public synchronized void addSeed(PathEdge<T> seed) {
     Set<PathEdge<T>> s = MapUtil.findOrCreateSet(seeds, supergraph.getProcOf(seed.entry));
     s.add(seed);
     allSeeds.add(seed);
@@ -214,7 +617,7 @@ public class TabulationSolver<T, P, F> {
   /** See POPL 95 paper for this algorithm, Figure 3 */
   @SuppressWarnings("unused")
   private void forwardTabulateSLRPs() throws CancelException {
-    assert curPathEdge == null : "curPathEdge should not be non-null here";
+    assert current().pathEdge == null : "curPathEdge should not be non-null here";
     if (worklist == null) {
       worklist = makeWorklist();
     }
@@ -227,39 +630,44 @@ public class TabulationSolver<T, P, F> {
         tendToSoftCaches();
       }
 
-      final PathEdge<T> edge = popFromWorkList();
-      if (DEBUG_LEVEL > 0) {
-        System.err.println("TABULATE " + edge);
-      }
-      curPathEdge = edge;
-      int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
-      if (j == -1 && DEBUG_LEVEL > 0) {
-        System.err.println("merge -1: DROPPING");
-      }
-      if (j != -1) {
-        if (j != edge.d2) {
-          // this means that we don't want to push the edge. instead,
-          // we'll push the merged fact. a little tricky, but i think should
-          // work.
-          if (DEBUG_LEVEL > 0) {
-            System.err.println("propagating merged fact " + j);
-          }
-          propagate(edge.entry, edge.d1, edge.target, j);
+      tabulate(popFromWorkList());
+    }
+    current().pathEdge = null;
+  }
+
+  /** Process one path edge taken from the work list */
+  @SuppressWarnings("unused")
+  private void tabulate(final PathEdge<T> edge) {
+    if (DEBUG_LEVEL > 0) {
+      System.err.println("TABULATE " + edge);
+    }
+    current().pathEdge = edge;
+    int j = merge(edge.entry, edge.d1, edge.target, edge.d2);
+    if (j == -1 && DEBUG_LEVEL > 0) {
+      System.err.println("merge -1: DROPPING");
+    }
+    if (j != -1) {
+      if (j != edge.d2) {
+        // this means that we don't want to push the edge. instead,
+        // we'll push the merged fact. a little tricky, but i think should
+        // work.
+        if (DEBUG_LEVEL > 0) {
+          System.err.println("propagating merged fact " + j);
+        }
+        propagate(edge.entry, edge.d1, edge.target, j);
+      } else {
+        if (supergraph.isCall(edge.target)) {
+          // [13]
+          processCall(edge);
+        } else if (supergraph.isExit(edge.target)) {
+          // [21]
+          processExit(edge);
         } else {
-          if (supergraph.isCall(edge.target)) {
-            // [13]
-            processCall(edge);
-          } else if (supergraph.isExit(edge.target)) {
-            // [21]
-            processExit(edge);
-          } else {
-            // [33]
-            processNormal(edge);
-          }
+          // [33]
+          processNormal(edge);
         }
       }
     }
-    curPathEdge = null;
   }
 
   /**
@@ -335,9 +743,11 @@ public class TabulationSolver<T, P, F> {
     if (!summaries.contains(s_p_n, x, edge.d1, edge.d2)) {
       summaries.insertSummaryEdge(s_p_n, x, edge.d1, edge.d2);
     }
-    assert curSummaryEdge == null : "curSummaryEdge should be null here";
-    curSummaryEdge = edge;
+    CurrentEdges<T> cur = current();
+    assert cur.summaryEdge == null : "curSummaryEdge should be null here";
+    cur.summaryEdge = edge;
 
+    // only now read the call flow edges: see processParticularCallee
     final CallFlowEdges callFlow = findOrCreateCallFlowEdges(edge.entry);
 
     // [22] for each c /in callers(p)
@@ -352,7 +762,7 @@ public class TabulationSolver<T, P, F> {
         propagateToReturnSites(edge, supergraph.getNode(globalC), D4);
       }
     }
-    curSummaryEdge = null;
+    cur.summaryEdge = null;
   }
 
   /**
@@ -476,8 +886,9 @@ public class TabulationSolver<T, P, F> {
                     d3 -> {
                       // set curPathEdge to be consistent with its setting in processCall() when
                       // applying a summary edge
-                      curPathEdge = PathEdge.createPathEdge(s_p, d3, c, d4);
-                      newSummaryEdge(curPathEdge, edge, retSite, d5);
+                      PathEdge<T> toCall = PathEdge.createPathEdge(s_p, d3, c, d4);
+                      current().pathEdge = toCall;
+                      newSummaryEdge(toCall, edge, retSite, d5);
                       propagate(s_p, d3, retSite, d5);
                     });
               }
@@ -496,6 +907,7 @@ public class TabulationSolver<T, P, F> {
     if (lp == null) {
       return null;
     }
+    touch(s_p, lp);
     return lp.getInverse(number, d2);
   }
 
@@ -615,14 +1027,15 @@ public class TabulationSolver<T, P, F> {
       System.err.println(" reached: " + reached);
     }
     if (reached != null) {
-      final LocalSummaryEdges summaries = summaryEdges.get(supergraph.getProcOf(calleeEntry));
       final CallFlowEdges callFlow = findOrCreateCallFlowEdges(calleeEntry);
       final int s_p_num = supergraph.getLocalBlockNumber(calleeEntry);
 
       reached.foreach(
           d1 -> {
-            // we get reuse if we _don't_ propagate a new fact to the callee entry
-            final boolean gotReuse = !propagate(calleeEntry, d1, calleeEntry, d1);
+            // we get reuse if we _don't_ propagate a new fact to the callee entry, or if an
+            // earlier run supplies its summary edges
+            final boolean gotReuse =
+                loadSummaries(calleeEntry, d1) || !propagate(calleeEntry, d1, calleeEntry, d1);
             recordCall(edge.target, calleeEntry, d1, gotReuse);
             newCallExplodedEdge(edge, calleeEntry, d1);
             // cache the fact that we've flowed <c, d2> -> <callee, d1> by a
@@ -630,6 +1043,10 @@ public class TabulationSolver<T, P, F> {
             callFlow.addCallEdge(callNodeNum, edge.d2, d1);
             // handle summary edges now as well. this is different from the PoPL
             // 95 paper.
+            // the summaries are read only after the call flow edge has been recorded: processExit
+            // records a summary edge before reading the call flow edges, so when both run
+            // concurrently, at least one of them sees the edge recorded by the other.
+            final LocalSummaryEdges summaries = summaryEdges.get(supergraph.getProcOf(calleeEntry));
             if (summaries != null) {
               // for each exit from the callee
               P p = supergraph.getProcOf(calleeEntry);
@@ -651,15 +1068,18 @@ public class TabulationSolver<T, P, F> {
                           flowFunctionMap.getReturnFlowFunction(edge.target, exit, returnSite);
                       reachedBySummary.foreach(
                           d2 -> {
-                            assert curSummaryEdge == null : "curSummaryEdge should be null here";
-                            curSummaryEdge = PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            CurrentEdges<T> cur = current();
+                            assert cur.summaryEdge == null : "curSummaryEdge should be null here";
+                            PathEdge<T> summary =
+                                PathEdge.createPathEdge(calleeEntry, d1, exit, d2);
+                            cur.summaryEdge = summary;
                             if (retf instanceof IBinaryReturnFlowFunction) {
                               final IntSet D51 =
                                   computeBinaryFlow(edge.d2, d2, (IBinaryReturnFlowFunction) retf);
                               if (D51 != null) {
                                 D51.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summary, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
@@ -668,12 +1088,12 @@ public class TabulationSolver<T, P, F> {
                               if (D52 != null) {
                                 D52.foreach(
                                     d5 -> {
-                                      newSummaryEdge(edge, curSummaryEdge, returnSite, d5);
+                                      newSummaryEdge(edge, summary, returnSite, d5);
                                       propagate(edge.entry, edge.d1, returnSite, d5);
                                     });
                               }
                             }
-                            curSummaryEdge = null;
+                            cur.summaryEdge = null;
                           });
                     }
                   }
@@ -764,6 +1184,17 @@ public class TabulationSolver<T, P, F> {
 
     assert j >= 0;
 
+    if (concurrentEdges) {
+      // test and record the edge atomically, so that only one thread processes it
+      synchronized (pLocal) {
+        if (pLocal.contains(i, number, j)) {
+          return false;
+        }
+        pLocal.addPathEdge(i, number, j);
+      }
+      addToWorkList(s_p, i, n, j);
+      return true;
+    }
     if (!pLocal.contains(i, number, j)) {
       if (DEBUG_LEVEL > 0) {
         System.err.println("propagate " + s_p + "  " + i + ' ' + number + ' ' + j);
@@ -776,7 +1207,11 @@ public class TabulationSolver<T, P, F> {
   }
 
   public LocalPathEdges getLocalPathEdges(T s_p) {
-    return pathEdges.get(s_p);
+    LocalPathEdges result = pathEdges.get(s_p);
+    if (result != null) {
+      touch(s_p, result);
+    }
+    return result;
   }
 
   /**
@@ -813,6 +1248,17 @@ public class TabulationSolver<T, P, F> {
 
   @SuppressWarnings("unused")
   protected void addToWorkList(T s_p, int i, T n, int j) {
+    if (pool != null) {
+      pendingEdges.incrementAndGet();
+      PathEdgeTask task = new PathEdgeTask(PathEdge.createPathEdge(s_p, i, n, j));
+      if (ForkJoinTask.getPool() == pool) {
+        // keep the task on this worker's deque, where idle workers can steal it
+        task.fork();
+      } else {
+        pool.execute(task);
+      }
+      return;
+    }
     if (worklist == null) {
       worklist = makeWorklist();
     }
@@ -825,23 +1271,28 @@ public class TabulationSolver<T, P, F> {
   protected LocalPathEdges findOrCreateLocalPathEdges(T s_p) {
     LocalPathEdges result = pathEdges.get(s_p);
     if (result == null) {
-      result = makeLocalPathEdges();
-      pathEdges.put(s_p, result);
+      result = pathEdges.computeIfAbsent(s_p, k -> makeLocalPathEdges());
     }
+    touch(s_p, result);
     return result;
   }
 
   private LocalPathEdges makeLocalPathEdges() {
-    return problem.getMergeFunction() == null
-        ? new LocalPathEdges(false)
-        : new LocalPathEdges(true);
+    LocalPathEdges result =
+        compactPathEdges
+            ? new CompactLocalPathEdges()
+            : new LocalPathEdges(problem.getMergeFunction() != null);
+    return concurrentEdges ? LocalPathEdges.makeSynchronized(result) : result;
   }
 
   protected LocalSummaryEdges findOrCreateLocalSummaryEdges(P proc) {
     LocalSummaryEdges result = summaryEdges.get(proc);
     if (result == null) {
-      result = new LocalSummaryEdges();
-      summaryEdges.put(proc, result);
+      result =
+          summaryEdges.computeIfAbsent(
+              proc,
+              k ->
+                  concurrentEdges ? LocalSummaryEdges.makeSynchronized() : new LocalSummaryEdges());
     }
     return result;
   }
@@ -849,8 +1300,9 @@ public class TabulationSolver<T, P, F> {
   protected CallFlowEdges findOrCreateCallFlowEdges(T s_p) {
     CallFlowEdges result = callFlowEdges.get(s_p);
     if (result == null) {
-      result = new CallFlowEdges();
-      callFlowEdges.put(s_p, result);
+      result =
+          callFlowEdges.computeIfAbsent(
+              s_p, k -> concurrentEdges ? CallFlowEdges.makeSynchronized() : new CallFlowEdges());
     }
     return result;
   }
@@ -877,6 +1329,7 @@ public class TabulationSolver<T, P, F> {
     for (T entry : allEntries) {
       LocalPathEdges lp = pathEdges.get(entry);
       if (lp != null) {
+        touch(entry, lp);
         result.addAll(lp.getReachable(n));
       }
     }
@@ -937,6 +1390,7 @@ public class TabulationSolver<T, P, F> {
       for (Entry<T, LocalPathEdges> e : pathEdges.entrySet()) {
         T key = e.getKey();
         P proc = supergraph.getProcOf(key);
+        touch(key, e.getValue());
         IntSet reached = e.getValue().getReachedNodeNumbers();
         for (IntIterator ii = reached.intIterator(); ii.hasNext(); ) {
           result.add(supergraph.getLocalBlock(proc, ii.next()));
@@ -1015,12 +1469,39 @@ public class TabulationSolver<T, P, F> {
     return progressMonitor;
   }
 
+  /**
+   * @return the edges being processed by the current thread; a sequential tabulation keeps them in
+   *     a field, so only a concurrent one pays for a thread-local lookup
+   */
+  private CurrentEdges<T> current() {
+    return pool == null ? sequentialEdges : concurrentEdgesByThread.get();
+  }
+
   protected PathEdge<T> getCurPathEdge() {
-    return curPathEdge;
+    return current().pathEdge;
   }
 
   protected PathEdge<T> getCurSummaryEdge() {
-    return curSummaryEdge;
+    return current().summaryEdge;
+  }
+
+  /** The edges a thread is processing */
+  private static final class CurrentEdges<T> {
+
+    /**
+     * the path edge currently being processed in the main loop of {@link #forwardTabulateSLRPs()}
+     * or by a task of {@link #solve(ForkJoinPool)}; {@code null} if neither is currently running.
+     * Note that if we are applying a summary edge in {@link #processExit(PathEdge)}, pathEdge is
+     * modified to be the path edge terminating at the call node in the caller, to match the
+     * behavior in {@link #processCall(PathEdge)}.
+     */
+    PathEdge<T> pathEdge;
+
+    /**
+     * the summary edge currently being applied in {@link #processCall(PathEdge)} or {@link
+     * #processExit(PathEdge)}, or {@code null} if summary edges are not currently being processed.
+     */
+    PathEdge<T> summaryEdge;
   }
 
   /**
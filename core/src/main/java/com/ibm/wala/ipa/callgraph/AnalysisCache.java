@@ -18,6 +18,8 @@ import com.ibm.wala.ssa.IR;
 import com.ibm.wala.ssa.IRFactory;
 import com.ibm.wala.ssa.SSACache;
 import com.ibm.wala.ssa.SSAOptions;
+import java.util.Collection;
+import java.util.concurrent.Executor;
 
 /**
  * A place to hold onto caches of various analysis artifacts.
@@ -73,6 +75,16 @@ public class AnalysisCache implements IAnalysisCacheView {
     return getIR(m, Everywhere.EVERYWHERE);
   }
 
+  /**
+   * Build and cache the IRs of the given methods in the {@link Everywhere} context, running one
+   * task per method on executor.
+   *
+   * @see SSACache#prebuildIRs(Collection, Context, SSAOptions, Executor)
+   */
+  public void prebuildIRs(Collection<? extends IMethod> methods, Executor executor) {
+    ssaCache.prebuildIRs(methods, Everywhere.EVERYWHERE, ssaOptions, executor);
+  }
+
   @Override
   public DefUse getDefUse(IR ir) {
     if (ir == null) {
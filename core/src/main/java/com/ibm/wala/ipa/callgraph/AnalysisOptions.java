@@ -188,6 +188,41 @@ public class AnalysisOptions {
   /** Should call graph construction handle arrays of zero-length differently? */
   private boolean handleZeroLengthArray = true;
 
+  /**
+   * Number of threads the pointer analysis solver may use. With the default value of {@code 1} the
+   * {@link com.ibm.wala.ipa.callgraph.propagation.StandardSolver} is used; larger values select the
+   * {@link com.ibm.wala.ipa.callgraph.propagation.ParallelSolver}, which computes the same result.
+   */
+  private int numberOfSolverThreads = 1;
+
+  /**
+   * Should the sequential pointer analysis solver propagate only the changes to points-to sets? If
+   * set, the {@link com.ibm.wala.ipa.callgraph.propagation.DifferencePropagationSolver} is used
+   * instead of the {@link com.ibm.wala.ipa.callgraph.propagation.StandardSolver}; the result is the
+   * same.
+   */
+  private boolean useDifferencePropagation = false;
+
+  /**
+   * Should the sequential pointer analysis solver collapse cycles of assignments between points-to
+   * sets as it discovers them? The points-to sets computed are the same; see {@link
+   * com.ibm.wala.ipa.callgraph.propagation.PropagationSystem#setCollapseAssignmentCycles(boolean)}.
+   */
+  private boolean collapseAssignmentCycles = false;
+
+  /**
+   * Number of background threads used to build IRs speculatively before the pointer analysis needs
+   * them; see {@link com.ibm.wala.ipa.callgraph.propagation.rta.IRPrefetcher}. {@code 0} disables
+   * prefetching.
+   */
+  private int numberOfIRPrefetchThreads = 0;
+
+  /**
+   * Should the pointer analysis keep its constraint graph out of the Java heap? See {@link
+   * com.ibm.wala.ipa.callgraph.propagation.PropagationGraph#setUseOffHeapRelations(boolean)}.
+   */
+  private boolean useOffHeapRelations = false;
+
   // SJF: I'm not sure these factories and caches belong here.
   // TODO: figure out how to clean this up.
 
@@ -406,4 +441,89 @@ public class AnalysisOptions {
   public void setHandleZeroLengthArray(boolean handleZeroLengthArray) {
     this.handleZeroLengthArray = handleZeroLengthArray;
   }
+
+  /**
+   * @return the number of threads the pointer analysis solver may use
+   */
+  public int getNumberOfSolverThreads() {
+    return numberOfSolverThreads;
+  }
+
+  /**
+   * @param numberOfSolverThreads the number of threads the pointer analysis solver may use; {@code
+   *     1} selects the sequential solver
+   * @throws IllegalArgumentException if numberOfSolverThreads &lt; 1
+   */
+  public void setNumberOfSolverThreads(int numberOfSolverThreads) {
+    if (numberOfSolverThreads < 1) {
+      throw new IllegalArgumentException("invalid number of threads: " + numberOfSolverThreads);
+    }
+    this.numberOfSolverThreads = numberOfSolverThreads;
+  }
+
+  /**
+   * @return true iff the sequential pointer analysis solver propagates only the changes to
+   *     points-to sets
+   */
+  public boolean getUseDifferencePropagation() {
+    return useDifferencePropagation;
+  }
+
+  /**
+   * Select difference propagation in the sequential pointer analysis solver. This setting is
+   * ignored when more than one solver thread is requested.
+   */
+  public void setUseDifferencePropagation(boolean useDifferencePropagation) {
+    this.useDifferencePropagation = useDifferencePropagation;
+  }
+
+  /**
+   * @return true iff the sequential pointer analysis solver collapses cycles of assignments
+   */
+  public boolean getCollapseAssignmentCycles() {
+    return collapseAssignmentCycles;
+  }
+
+  /**
+   * Select cycle collapsing in the sequential pointer analysis solver. This setting is ignored by
+   * the parallel and difference propagation solvers.
+   */
+  public void setCollapseAssignmentCycles(boolean collapseAssignmentCycles) {
+    this.collapseAssignmentCycles = collapseAssignmentCycles;
+  }
+
+  /**
+   * @return the number of background threads used to prefetch IRs, 0 if prefetching is disabled
+   */
+  public int getNumberOfIRPrefetchThreads() {
+    return numberOfIRPrefetchThreads;
+  }
+
+  /**
+   * @param numberOfIRPrefetchThreads the number of background threads used to build IRs ahead of
+   *     the pointer analysis; {@code 0} disables prefetching
+   * @throws IllegalArgumentException if numberOfIRPrefetchThreads &lt; 0
+   */
+  public void setNumberOfIRPrefetchThreads(int numberOfIRPrefetchThreads) {
+    if (numberOfIRPrefetchThreads < 0) {
+      throw new IllegalArgumentException("invalid number of threads: " + numberOfIRPrefetchThreads);
+    }
+    this.numberOfIRPrefetchThreads = numberOfIRPrefetchThreads;
+  }
+
+  /**
+   * @return true iff the pointer analysis keeps its constraint graph out of the Java heap
+   */
+  public boolean getUseOffHeapRelations() {
+    return useOffHeapRelations;
+  }
+
+  /**
+   * Keep the edges of the pointer analysis constraint graph in direct memory. This shortens full
+   * garbage collections for very large analyses, at some cost in solver time; the direct memory
+   * used is bounded by {@code -XX:MaxDirectMemorySize}, not {@code -Xmx}.
+   */
+  public void setUseOffHeapRelations(boolean useOffHeapRelations) {
+    this.useOffHeapRelations = useOffHeapRelations;
+  }
 }
@@ -10,13 +10,10 @@
  */
 package com.ibm.wala.ipa.callgraph;
 
-import com.ibm.wala.core.util.CancelRuntimeException;
-import com.ibm.wala.dataflow.graph.BitVectorSolver;
-import com.ibm.wala.fixpoint.BitVectorVariable;
-import com.ibm.wala.ipa.modref.GenReach;
-import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.collections.HashMapFactory;
-import com.ibm.wala.util.graph.impl.GraphInverter;
+import com.ibm.wala.util.graph.ReachabilityIndex;
+import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
 import com.ibm.wala.util.intset.OrdinalSet;
 import java.util.Collection;
 import java.util.Map;
@@ -37,20 +34,33 @@ public class CallGraphTransitiveClosure {
    */
   public static <T> Map<CGNode, OrdinalSet<T>> transitiveClosure(
       CallGraph cg, Map<CGNode, Collection<T>> nodeResults) {
-    try {
-      // invert the call graph, to compute the bottom-up result
-      GenReach<CGNode, T> gr = new GenReach<>(GraphInverter.invert(cg), nodeResults);
-      BitVectorSolver<CGNode> solver = new BitVectorSolver<>(gr);
-      solver.solve(null);
-      Map<CGNode, OrdinalSet<T>> result = HashMapFactory.make();
-      for (CGNode n : cg) {
-        BitVectorVariable bv = solver.getOut(n);
-        result.put(n, new OrdinalSet<>(bv.getValue(), gr.getLatticeValues()));
+    // number the results in the order GenReach does, so the sets come out the same
+    MutableMapping<T> domain = MutableMapping.make();
+    for (Collection<T> c : nodeResults.values()) {
+      for (T p : c) {
+        domain.add(p);
       }
-      return result;
-    } catch (CancelException e) {
-      throw new CancelRuntimeException(e);
     }
+    ReachabilityIndex<CGNode, T> index =
+        ReachabilityIndex.make(
+            cg,
+            domain,
+            n -> {
+              Collection<T> c = nodeResults.get(n);
+              if (c == null || c.isEmpty()) {
+                return null;
+              }
+              MutableSparseIntSet s = MutableSparseIntSet.makeEmpty();
+              for (T p : c) {
+                s.add(domain.getMappedIndex(p));
+              }
+              return s;
+            });
+    Map<CGNode, OrdinalSet<T>> result = HashMapFactory.make();
+    for (CGNode n : cg) {
+      result.put(n, index.getReachableSet(n));
+    }
+    return result;
   }
 
   /** Collect analysis result for each {@link CGNode} in a {@link Map}. */
@@ -32,6 +32,7 @@ import com.ibm.wala.util.collections.IntMapIterator;
 import com.ibm.wala.util.collections.SparseVector;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.graph.NumberedEdgeManager;
+import com.ibm.wala.util.graph.impl.CompactNumberedEdgeManager;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.MutableIntSet;
@@ -57,8 +58,8 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
 
   private final IMethod fakeRootMethod;
 
-  /** special object to track call graph edges */
-  private final ExplicitEdgeManager edgeManager = makeEdgeManger();
+  /** special object to track call graph edges; replaced by a compact copy by {@link #freeze()} */
+  private NumberedEdgeManager<CGNode> edgeManager = makeEdgeManger();
 
   public ExplicitCallGraph(
       IMethod fakeRootMethod, AnalysisOptions options, IAnalysisCacheView cache) {
@@ -107,6 +108,9 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     Key k = new Key(method, context);
     CGNode result = getNode(k);
     if (result == null) {
+      if (isFrozen()) {
+        throw new UnsupportedOperationException("call graph is frozen");
+      }
       if (maxNumberOfNodes == -1 || getNumberOfNodes() < maxNumberOfNodes) {
         result = makeNode(method, context);
         registerNode(k, result);
@@ -193,6 +197,9 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     }
 
     protected boolean addTarget(int pc, CGNode tNode) {
+      if (getCallGraph().isFrozen()) {
+        throw new UnsupportedOperationException("call graph is frozen");
+      }
       allTargets.add(getCallGraph().getNumber(tNode));
       Object S = targets.get(pc);
       if (S == null) {
@@ -227,6 +234,9 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     }
 
     public void removeTarget(CGNode target) {
+      if (getCallGraph().isFrozen()) {
+        throw new UnsupportedOperationException("call graph is frozen");
+      }
       allTargets.remove(getCallGraph().getNumber(target));
       for (IntIterator it = targets.safeIterateIndices(); it.hasNext(); ) {
         int pc = it.next();
@@ -270,6 +280,9 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     }
 
     public void clearAllTargets() {
+      if (getCallGraph().isFrozen()) {
+        throw new UnsupportedOperationException("call graph is frozen");
+      }
       targets.clear();
       allTargets.clear();
     }
@@ -411,6 +424,30 @@ public class ExplicitCallGraph extends BasicCallGraph<SSAContextInterpreter>
     return new ExplicitEdgeManager();
   }
 
+  /**
+   * Replace the edges of this call graph with an immutable {@link CompactNumberedEdgeManager},
+   * which holds both directions in a few int arrays, and drop the per-node successor sets. Call
+   * this once the call graph is complete; afterwards, queries about nodes, edges and call sites
+   * still work, but adding nodes or edges throws {@link UnsupportedOperationException}.
+   */
+  public void freeze() {
+    if (isFrozen()) {
+      return;
+    }
+    CompactNumberedEdgeManager<CGNode> compact = new CompactNumberedEdgeManager<>(this, this);
+    for (CGNode n : this) {
+      ((ExplicitNode) n).allTargets.clear();
+    }
+    edgeManager = compact;
+  }
+
+  /**
+   * @return true iff {@link #freeze()} has been called
+   */
+  public boolean isFrozen() {
+    return edgeManager instanceof CompactNumberedEdgeManager;
+  }
+
   @Override
   public int getNumberOfTargets(CGNode node, CallSiteReference site) {
     if (!containsNode(node)) {
@@ -30,6 +30,7 @@ import com.ibm.wala.ipa.callgraph.propagation.cfa.ZeroXContainerCFABuilder;
 import com.ibm.wala.ipa.callgraph.propagation.cfa.ZeroXInstanceKeys;
 import com.ibm.wala.ipa.callgraph.propagation.cfa.nCFABuilder;
 import com.ibm.wala.ipa.callgraph.propagation.cfa.nObjBuilder;
+import com.ibm.wala.ipa.callgraph.unification.UnificationCallGraphBuilder;
 import com.ibm.wala.ipa.callgraph.propagation.rta.BasicRTABuilder;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ipa.summaries.BypassClassTargetSelector;
@@ -500,6 +501,49 @@ public class Util {
         l, cha, options, cache, customSelector, customInterpreter, ZeroXInstanceKeys.NONE);
   }
 
+  /**
+   * A builder for a unification-based call graph, which sits between RTA and 0-CFA in both cost and
+   * precision. As in Steensgaard's analysis, the two sides of each assignment are unified into one
+   * class of pointers, so the points-to sets and the call graph over-approximate those of 0-CFA.
+   *
+   * @param options options that govern call graph construction
+   * @param cha governing class hierarchy
+   * @return a unification-based Call Graph Builder.
+   * @throws IllegalArgumentException if options is null
+   * @see UnificationCallGraphBuilder
+   */
+  public static UnificationCallGraphBuilder makeUnificationBuilder(
+      Language l, AnalysisOptions options, IAnalysisCacheView cache, IClassHierarchy cha) {
+    return makeUnificationBuilder(l, options, cache, cha, null, null);
+  }
+
+  /**
+   * @param options options that govern call graph construction
+   * @param cha governing class hierarchy
+   * @param customSelector user-defined context selector, or null if none
+   * @param customInterpreter user-defined context interpreter, or null if none
+   * @return a unification-based Call Graph Builder.
+   * @throws IllegalArgumentException if options is null
+   * @see #makeUnificationBuilder(Language, AnalysisOptions, IAnalysisCacheView, IClassHierarchy)
+   */
+  public static UnificationCallGraphBuilder makeUnificationBuilder(
+      Language l,
+      AnalysisOptions options,
+      IAnalysisCacheView cache,
+      IClassHierarchy cha,
+      ContextSelector customSelector,
+      SSAContextInterpreter customInterpreter) {
+
+    if (options == null) {
+      throw new IllegalArgumentException("options is null");
+    }
+    addDefaultSelectors(options, cha);
+    addDefaultBypassLogic(options, Util.class.getClassLoader(), cha);
+
+    return new UnificationCallGraphBuilder(
+        l, cha, options, cache, customSelector, customInterpreter);
+  }
+
   /**
    * @return a 0-1-CFA Call Graph Builder.
    * @param options options that govern call graph construction
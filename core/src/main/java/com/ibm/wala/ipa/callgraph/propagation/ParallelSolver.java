@@ -0,0 +1,52 @@
+package com.ibm.wala.ipa.callgraph.propagation;
+
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A variant of {@link StandardSolver} that evaluates independent assignment constraints on several
+ * threads. Constraints that may discover new call graph nodes are still evaluated on the calling
+ * thread, so the resulting call graph and points-to sets are the same as those of the {@link
+ * StandardSolver}.
+ *
+ * @see PropagationSystem#solve(IProgressMonitor, ForkJoinPool)
+ * @see AnalysisOptions#setNumberOfSolverThreads(int)
+ */
+public class ParallelSolver extends StandardSolver {
+
+  private final int numberOfThreads;
+
+  /** pool used for the duration of a call to {@link #solve(IProgressMonitor)} */
+  private ForkJoinPool pool;
+
+  public ParallelSolver(
+      PropagationSystem system, PropagationCallGraphBuilder builder, int numberOfThreads) {
+    super(system, builder);
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("invalid number of threads: " + numberOfThreads);
+    }
+    this.numberOfThreads = numberOfThreads;
+  }
+
+  @Override
+  public void solve(IProgressMonitor monitor) throws IllegalArgumentException, CancelException {
+    pool = new ForkJoinPool(numberOfThreads);
+    try {
+      super.solve(monitor);
+    } finally {
+      pool.shutdown();
+      pool = null;
+    }
+  }
+
+  @Override
+  protected void solveSystem(IProgressMonitor monitor) throws CancelException {
+    getSystem().solve(monitor, pool);
+  }
+
+  public int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+}
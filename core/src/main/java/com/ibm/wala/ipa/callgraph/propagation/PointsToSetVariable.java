@@ -19,6 +19,8 @@ import com.ibm.wala.ssa.IR;
 import com.ibm.wala.types.TypeReference;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.intset.MutableMapping;
 import com.ibm.wala.util.intset.MutableSparseIntSet;
 
@@ -46,6 +48,16 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
 
   private PointerKey pointerKey;
 
+  /**
+   * While the system is solved by difference propagation, the instance keys added to this variable
+   * that have not been propagated to its uses yet; see {@link
+   * PropagationSystem#solveByDifference(com.ibm.wala.util.MonitorUtil.IProgressMonitor)}.
+   */
+  private MutableIntSet delta;
+
+  /** if set, none of the contents of this variable have been propagated to its uses yet */
+  private boolean wholeDelta = false;
+
   public PointsToSetVariable(PointerKey key) {
     super();
     if (key == null) {
@@ -143,6 +155,46 @@ public class PointsToSetVariable extends IntSetVariable<PointsToSetVariable> {
     return v;
   }
 
+  /**
+   * @return true iff some instance keys of this variable have not been propagated to its uses yet
+   */
+  boolean hasDelta() {
+    return wholeDelta || delta != null;
+  }
+
+  /**
+   * Record that the instance keys in s were added to this variable, but not yet propagated to its
+   * uses.
+   *
+   * @param s the new instance keys, or null if none of the contents of this variable have been
+   *     propagated
+   */
+  void addToDelta(IntSet s) {
+    if (s == null) {
+      wholeDelta = true;
+      delta = null;
+    } else if (!wholeDelta) {
+      if (delta == null) {
+        delta = IntSetUtil.makeMutableCopy(s);
+      } else {
+        delta.addAll(s);
+      }
+    }
+  }
+
+  /**
+   * Forget the instance keys not yet propagated to the uses of this variable.
+   *
+   * @return the instance keys not yet propagated, which may be the live value of this variable, or
+   *     null if there are none
+   */
+  IntSet takeDelta() {
+    IntSet result = wholeDelta ? getValue() : delta;
+    wholeDelta = false;
+    delta = null;
+    return result;
+  }
+
   /**
    * Use this with extreme care, to add filters to this variable..
    *
@@ -33,6 +33,7 @@ import com.ibm.wala.ipa.callgraph.Entrypoint;
 import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
 import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
 import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.rta.IRPrefetcher;
 import com.ibm.wala.ipa.callgraph.propagation.rta.RTAContextInterpreter;
 import com.ibm.wala.ipa.cha.IClassHierarchy;
 import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
@@ -113,6 +114,9 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
   /** Algorithm used to solve the system of constraints */
   private IPointsToSolver solver;
 
+  /** Builds IRs ahead of the solver, if enabled by the options */
+  private IRPrefetcher irPrefetcher;
+
   /** The call graph under construction */
   protected final ExplicitCallGraph callGraph;
 
@@ -212,6 +216,8 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     system.setMinEquationsForTopSort(options.getMinEquationsForTopSort());
     system.setTopologicalGrowthFactor(options.getTopologicalGrowthFactor());
     system.setMaxEvalBetweenTopo(options.getMaxEvalBetweenTopo());
+    system.setCollapseAssignmentCycles(options.getCollapseAssignmentCycles());
+    system.setUseOffHeapRelations(options.getUseOffHeapRelations());
 
     discoveredNodes = HashSetFactory.make();
     discoveredNodes.add(callGraph.getFakeRootNode());
@@ -243,6 +249,11 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
      * END Custom change: throw exception on empty entry points. This is a severe issue that should
      * not go undetected!
      */
+    if (options.getNumberOfIRPrefetchThreads() > 0) {
+      irPrefetcher = new IRPrefetcher(cha, analysisCache, options.getNumberOfIRPrefetchThreads());
+      irPrefetcher.start(options.getEntrypoints());
+    }
+
     customInit();
 
     solver = makeSolver();
@@ -253,6 +264,10 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
           CallGraphBuilderCancelException.createCallGraphBuilderCancelException(
               e, callGraph, system.extractPointerAnalysis(this));
       throw c;
+    } finally {
+      if (irPrefetcher != null) {
+        irPrefetcher.finish(callGraph);
+      }
     }
 
     return callGraph;
@@ -754,6 +769,9 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
   /** record that we've discovered a node */
   public void markDiscovered(CGNode node) {
     discoveredNodes.add(node);
+    if (irPrefetcher != null) {
+      irPrefetcher.discovered(node);
+    }
   }
 
   protected void markChanged(CGNode node) {
@@ -1421,6 +1439,14 @@ public abstract class PropagationCallGraphBuilder implements CallGraphBuilder<In
     boolean b = false;
   }
 
+  /**
+   * @return the IR prefetcher used by the last call to {@link #makeCallGraph(AnalysisOptions,
+   *     IProgressMonitor)}, or null if prefetching was disabled
+   */
+  public IRPrefetcher getIRPrefetcher() {
+    return irPrefetcher;
+  }
+
   @Override
   public IAnalysisCacheView getAnalysisCache() {
     return analysisCache;
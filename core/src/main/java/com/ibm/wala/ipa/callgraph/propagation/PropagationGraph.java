@@ -36,6 +36,7 @@ import com.ibm.wala.util.intset.IBinaryNaturalRelation;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntPair;
 import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.OffHeapNaturalRelation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -55,9 +56,12 @@ public class PropagationGraph implements IFixedPointSystem<PointsToSetVariable>
       new DelegatingNumberedNodeManager<>();
 
   /** Track edges (equations) that are not represented implicitly */
-  private final NumberedEdgeManager<INodeWithNumber> edgeManager =
+  private NumberedEdgeManager<INodeWithNumber> edgeManager =
       new SparseNumberedEdgeManager<>(nodeManager, 2, BasicNaturalRelation.SIMPLE);
 
+  /** Are the relations that hold the edges kept out of the Java heap? */
+  private boolean offHeapRelations = false;
+
   private final DelegateGraph delegateGraph = new DelegateGraph();
 
   private final HashSet<IFixedPointStatement<PointsToSetVariable>> delegateStatements =
@@ -88,7 +92,7 @@ public class PropagationGraph implements IFixedPointSystem<PointsToSetVariable>
   /**
    * @return a relation in map m corresponding to a key
    */
-  private static IBinaryNaturalRelation findOrCreateRelation(
+  private IBinaryNaturalRelation findOrCreateRelation(
       Map<UnaryOperator<PointsToSetVariable>, IBinaryNaturalRelation> m,
       UnaryOperator<PointsToSetVariable> key) {
     IBinaryNaturalRelation result = m.get(key);
@@ -102,7 +106,10 @@ public class PropagationGraph implements IFixedPointSystem<PointsToSetVariable>
   /**
    * @return a Relation object to track implicit equations using the operator
    */
-  private static IBinaryNaturalRelation makeRelation(AbstractOperator<PointsToSetVariable> op) {
+  private IBinaryNaturalRelation makeRelation(AbstractOperator<PointsToSetVariable> op) {
+    if (offHeapRelations) {
+      return new OffHeapNaturalRelation();
+    }
     final byte[] implementation;
     if (op instanceof AssignOperator) {
       // lots of assignments.
@@ -117,6 +124,29 @@ public class PropagationGraph implements IFixedPointSystem<PointsToSetVariable>
     return new BasicNaturalRelation(implementation, BasicNaturalRelation.SIMPLE);
   }
 
+  /**
+   * Keep the edges of this graph, both explicit and implicit, in {@link OffHeapNaturalRelation}s
+   * rather than {@link BasicNaturalRelation}s. This slows down adding and looking up equations
+   * somewhat, but takes the bulk of a large constraint graph out of the Java heap, so full garbage
+   * collections have much less to trace.
+   *
+   * @throws IllegalStateException if the graph already has nodes
+   */
+  public void setUseOffHeapRelations(boolean offHeapRelations) {
+    if (nodeManager.getNumberOfNodes() != 0) {
+      throw new IllegalStateException("the graph already has nodes");
+    }
+    this.offHeapRelations = offHeapRelations;
+    edgeManager =
+        offHeapRelations
+            ? new SparseNumberedEdgeManager<>(nodeManager, OffHeapNaturalRelation::new)
+            : new SparseNumberedEdgeManager<>(nodeManager, 2, BasicNaturalRelation.SIMPLE);
+  }
+
+  public boolean getUseOffHeapRelations() {
+    return offHeapRelations;
+  }
+
   /**
    * @author sfink
    *     <p>A graph which tracks explicit equations.
@@ -24,20 +24,30 @@ import com.ibm.wala.fixpoint.UnaryStatement;
 import com.ibm.wala.ipa.callgraph.CallGraph;
 import com.ibm.wala.ipa.callgraph.propagation.PropagationCallGraphBuilder.FilterOperator;
 import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
 import com.ibm.wala.util.collections.HashMapFactory;
 import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Heap;
 import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.MapUtil;
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.VerboseAction;
 import com.ibm.wala.util.graph.Graph;
 import com.ibm.wala.util.graph.NumberedGraph;
 import com.ibm.wala.util.heapTrace.HeapTracer;
+import com.ibm.wala.util.intset.BasicNaturalRelation;
+import com.ibm.wala.util.intset.BitVector;
 import com.ibm.wala.util.intset.IntIterator;
 import com.ibm.wala.util.intset.IntSet;
 import com.ibm.wala.util.intset.IntSetUtil;
 import com.ibm.wala.util.intset.MutableIntSet;
 import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -47,6 +57,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /** System of constraints that define propagation for call graph construction */
 public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariable> {
@@ -59,6 +71,42 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
 
   private static final int DEBUG_MEM_INTERVAL = 5;
 
+  /**
+   * Maximum number of statements drained from the work list to form one wave in {@link
+   * #solve(IProgressMonitor, ForkJoinPool)}.
+   */
+  private static final int MAX_WAVE_SIZE = 1 << 14;
+
+  /** Waves with fewer independent assignment groups than this are not worth forking. */
+  private static final int MIN_PARALLEL_WAVE = 64;
+
+  /** true while {@link #solveByDifference(IProgressMonitor)} is running */
+  private boolean solvingByDifference = false;
+
+  /**
+   * During {@link #solveByDifference(IProgressMonitor)}, the variables with instance keys that have
+   * not been propagated to their uses yet
+   */
+  private final VariableWorklist changedVariables = new VariableWorklist();
+
+  /**
+   * Should {@link #solve(IProgressMonitor)} collapse cycles of assignments into a single points-to
+   * set as it discovers them?
+   */
+  private boolean collapseAssignmentCycles = false;
+
+  /**
+   * Assignments, as pairs &lt;rhs,lhs&gt; of variable numbers, that have already triggered a search
+   * for a cycle
+   */
+  private BasicNaturalRelation triggeredAssignments;
+
+  /** numbers of the variables that have been unified into another one by cycle collapsing */
+  private final BitVector collapsedVariables = new BitVector();
+
+  /** number of variables that have been unified into another one by cycle collapsing */
+  private int numberOfCollapsedVariables = 0;
+
   /** object that tracks points-to sets */
   protected final PointsToMap pointsToMap = new PointsToMap();
 
@@ -355,8 +403,8 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("Add constraint A: " + lhs + ' ' + op + ' ' + rhs);
     }
-    assert !pointsToMap.isUnified(lhs);
-    assert !pointsToMap.isUnified(rhs);
+    assert mayUnify() || !pointsToMap.isUnified(lhs);
+    assert mayUnify() || !pointsToMap.isUnified(rhs);
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     PointsToSetVariable R = findOrCreatePointsToSet(rhs);
     return newStatement(L, op, new PointsToSetVariable[] {R}, true, true);
@@ -379,9 +427,9 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("Add constraint A: " + lhs + ' ' + op + ' ' + rhs1 + ", " + rhs2);
     }
-    assert !pointsToMap.isUnified(lhs);
-    assert !pointsToMap.isUnified(rhs1);
-    assert !pointsToMap.isUnified(rhs2);
+    assert mayUnify() || !pointsToMap.isUnified(lhs);
+    assert mayUnify() || !pointsToMap.isUnified(rhs1);
+    assert mayUnify() || !pointsToMap.isUnified(rhs2);
     PointsToSetVariable L = findOrCreatePointsToSet(lhs);
     PointsToSetVariable R1 = findOrCreatePointsToSet(rhs1);
     PointsToSetVariable R2 = findOrCreatePointsToSet(rhs2);
@@ -434,7 +482,11 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
       // if graphNodeId == -1, then there are no equations that use this
       // variable.
       if (L.getGraphNodeId() > -1) {
-        changedVariable(L);
+        if (solvingByDifference) {
+          changedVariable(L, SparseIntSet.singleton(index));
+        } else {
+          changedVariable(L);
+        }
       }
       return true;
     }
@@ -548,7 +600,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("add constraint D: " + op + ' ' + arg0);
     }
-    assert !pointsToMap.isUnified(arg0);
+    assert mayUnify() || !pointsToMap.isUnified(arg0);
     PointsToSetVariable v1 = findOrCreatePointsToSet(arg0);
     newStatement(null, op, v1, true, true);
   }
@@ -562,7 +614,7 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     }
     PointsToSetVariable[] vs = new PointsToSetVariable[arg0.length];
     for (int i = 0; i < arg0.length; i++) {
-      assert !pointsToMap.isUnified(arg0[i]);
+      assert mayUnify() || !pointsToMap.isUnified(arg0[i]);
       vs[i] = findOrCreatePointsToSet(arg0[i]);
     }
     newStatement(null, op, vs, true, true);
@@ -573,8 +625,8 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     if (DEBUG) {
       System.err.println("add constraint D: " + op + ' ' + arg0);
     }
-    assert !pointsToMap.isUnified(arg0);
-    assert !pointsToMap.isUnified(arg1);
+    assert mayUnify() || !pointsToMap.isUnified(arg0);
+    assert mayUnify() || !pointsToMap.isUnified(arg1);
     PointsToSetVariable v1 = findOrCreatePointsToSet(arg0);
     PointsToSetVariable v2 = findOrCreatePointsToSet(arg1);
     newStatement(null, op, v1, v2, true, true);
@@ -585,6 +637,496 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
     addAllStatementsToWorkList();
   }
 
+  /**
+   * Solve the system, evaluating independent {@link AssignEquation}s concurrently on a pool.
+   *
+   * <p>Each iteration drains a batch of statements from the work list and picks out a wave of
+   * assignments such that no variable defined in the wave is also read in the wave. The wave is
+   * grouped by left-hand side, so each points-to set is only ever written by a single task. All
+   * other statements, in particular complex operators that may add new constraints, are evaluated
+   * sequentially once the wave has completed. Assignments that conflict with the wave go back on
+   * the work list. Since the system is monotone, the fixed point reached is the same one that
+   * {@link #solve(IProgressMonitor)} computes.
+   *
+   * @return true iff the evaluation of some equation caused a change in the value of some variable.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean solve(IProgressMonitor monitor, ForkJoinPool pool) throws CancelException {
+    if (pool == null) {
+      throw new IllegalArgumentException("null pool");
+    }
+    if (isFirstSolve()) {
+      initForFirstSolve();
+    }
+    boolean globalChange = false;
+    while (!workList.isEmpty()) {
+      MonitorUtil.throwExceptionIfCanceled(monitor);
+      orderStatements();
+
+      Map<PointsToSetVariable, List<AssignEquation>> wave = HashMapFactory.make();
+      Set<PointsToSetVariable> read = HashSetFactory.make();
+      List<AbstractStatement> deferred = new ArrayList<>();
+      List<AbstractStatement> sequential = new ArrayList<>();
+      for (int i = 0; i < MAX_WAVE_SIZE && !workList.isEmpty(); i++) {
+        AbstractStatement s = workList.takeStatement();
+        if (s instanceof AssignEquation) {
+          AssignEquation assign = (AssignEquation) s;
+          PointsToSetVariable lhs = assign.getLHS();
+          PointsToSetVariable rhs = assign.getRightHandSide();
+          if (wave.containsKey(rhs) || read.contains(lhs)) {
+            deferred.add(s);
+          } else {
+            MapUtil.findOrCreateList(wave, lhs).add(assign);
+            read.add(rhs);
+          }
+        } else {
+          sequential.add(s);
+        }
+      }
+
+      List<List<AssignEquation>> groups = new ArrayList<>(wave.values());
+      boolean[] changed = new boolean[groups.size()];
+      if (groups.size() < MIN_PARALLEL_WAVE) {
+        WaveTask.evaluate(groups, changed, 0, groups.size());
+      } else {
+        pool.invoke(new WaveTask(groups, changed, 0, groups.size()));
+      }
+      for (int i = 0; i < changed.length; i++) {
+        List<AssignEquation> group = groups.get(i);
+        for (int j = 0; j < group.size(); j++) {
+          incNumberOfEvaluations();
+        }
+        if (changed[i]) {
+          globalChange = true;
+          changedVariable(group.get(0).getLHS());
+        }
+      }
+
+      for (AbstractStatement s : deferred) {
+        workList.insertStatement(s);
+      }
+
+      for (AbstractStatement s : sequential) {
+        byte code = s.evaluate();
+        incNumberOfEvaluations();
+        if (isChanged(code)) {
+          globalChange = true;
+          PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+          if (lhs != null) {
+            changedVariable(lhs);
+          }
+        }
+        if (isFixed(code)) {
+          removeStatement(s);
+        }
+      }
+    }
+    return globalChange;
+  }
+
+  /**
+   * Evaluates groups of assignments that share a left-hand side; each group is handled by exactly
+   * one thread.
+   */
+  private static final class WaveTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -4473521416592178631L;
+
+    private static final int GRAIN = 16;
+
+    private final List<List<AssignEquation>> groups;
+
+    private final boolean[] changed;
+
+    private final int lo;
+
+    private final int hi;
+
+    WaveTask(List<List<AssignEquation>> groups, boolean[] changed, int lo, int hi) {
+      this.groups = groups;
+      this.changed = changed;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo > GRAIN) {
+        int mid = (lo + hi) >>> 1;
+        invokeAll(new WaveTask(groups, changed, lo, mid), new WaveTask(groups, changed, mid, hi));
+      } else {
+        evaluate(groups, changed, lo, hi);
+      }
+    }
+
+    static void evaluate(List<List<AssignEquation>> groups, boolean[] changed, int lo, int hi) {
+      for (int i = lo; i < hi; i++) {
+        for (AssignEquation assign : groups.get(i)) {
+          if (isChanged(assign.evaluate())) {
+            changed[i] = true;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * If cycle collapsing is enabled, solve the system while collapsing cycles of assignments as they
+   * are discovered; otherwise, solve it as {@link DefaultFixedPointSolver} does.
+   *
+   * <p>Cycles are detected lazily: when an assignment leaves its left-hand side with the same
+   * points-to set as its right-hand side, the assignment may close a cycle, and the solver looks
+   * for the strongly connected component of the assignment graph that contains it. Each assignment
+   * triggers at most one such search. All the variables of a strongly connected component end up
+   * with the same points-to set, so unifying them loses no precision; through the {@link
+   * PointsToMap}, every pointer key of the component then maps to the representative's set.
+   *
+   * @see #setCollapseAssignmentCycles(boolean)
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public boolean solve(IProgressMonitor monitor) throws CancelException {
+    if (!collapseAssignmentCycles) {
+      return super.solve(monitor);
+    }
+    if (isFirstSolve()) {
+      initForFirstSolve();
+    }
+    if (triggeredAssignments == null) {
+      triggeredAssignments = new BasicNaturalRelation();
+    }
+    boolean globalChange = false;
+    while (!workList.isEmpty()) {
+      MonitorUtil.throwExceptionIfCanceled(monitor);
+      orderStatements();
+      AbstractStatement s = workList.takeStatement();
+      if (numberOfCollapsedVariables > 0 && isCollapsed(s)) {
+        // replaced by an equivalent statement on the representative
+        continue;
+      }
+      byte code = s.evaluate();
+      incNumberOfEvaluations();
+      if (isChanged(code)) {
+        globalChange = true;
+        PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+        if (lhs != null) {
+          changedVariable(lhs);
+        }
+      }
+      if (isFixed(code)) {
+        removeStatement(s);
+      }
+      if (s instanceof AssignEquation) {
+        AssignEquation assign = (AssignEquation) s;
+        PointsToSetVariable lhs = assign.getLHS();
+        PointsToSetVariable rhs = assign.getRightHandSide();
+        // lhs contains rhs now, so they are equal iff they have the same size
+        if (lhs.size() > 0
+            && lhs.size() == rhs.size()
+            && triggeredAssignments.add(rhs.getGraphNodeId(), lhs.getGraphNodeId())) {
+          collapseCycle(lhs);
+        }
+      }
+    }
+    return globalChange;
+  }
+
+  /**
+   * @return true iff s refers to a variable that has been unified into another one
+   */
+  private boolean isCollapsed(AbstractStatement<?, ?> s) {
+    PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+    if (lhs != null && collapsedVariables.get(lhs.getGraphNodeId())) {
+      return true;
+    }
+    if (s instanceof UnaryStatement) {
+      PointsToSetVariable rhs = (PointsToSetVariable) ((UnaryStatement<?>) s).getRightHandSide();
+      return collapsedVariables.get(rhs.getGraphNodeId());
+    }
+    for (IVariable<?> v : s.getRHS()) {
+      if (v != null && collapsedVariables.get(v.getGraphNodeId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Unify the variables of the strongly connected component of the assignment graph that contains
+   * v, if there is one.
+   *
+   * <p>Variables that may not be unified (see {@link #canUnify(PointsToSetVariable)}) are left
+   * alone. Unifying a subset of the component is still safe, as all its variables have the same
+   * points-to set in the fixed point.
+   */
+  private void collapseCycle(PointsToSetVariable v) {
+    NumberedGraph<PointsToSetVariable> assignments = flowGraph.getAssignmentGraph();
+    // the variables reachable from v
+    BitVector forward = new BitVector();
+    ArrayDeque<PointsToSetVariable> stack = new ArrayDeque<>();
+    forward.set(v.getGraphNodeId());
+    stack.push(v);
+    while (!stack.isEmpty()) {
+      for (PointsToSetVariable succ :
+          Iterator2Iterable.make(assignments.getSuccNodes(stack.pop()))) {
+        if (!forward.get(succ.getGraphNodeId())) {
+          forward.set(succ.getGraphNodeId());
+          stack.push(succ);
+        }
+      }
+    }
+    // of those, the variables that reach v
+    BitVector backward = new BitVector();
+    MutableIntSet indices = MutableSparseIntSet.makeEmpty();
+    List<PointsToSetVariable> members = new ArrayList<>();
+    backward.set(v.getGraphNodeId());
+    stack.push(v);
+    while (!stack.isEmpty()) {
+      PointsToSetVariable n = stack.pop();
+      if (canUnify(n)) {
+        indices.add(pointsToMap.getIndex(n.getPointerKey()));
+        members.add(n);
+      }
+      for (PointsToSetVariable pred : Iterator2Iterable.make(assignments.getPredNodes(n))) {
+        int id = pred.getGraphNodeId();
+        if (forward.get(id) && !backward.get(id)) {
+          backward.set(id);
+          stack.push(pred);
+        }
+      }
+    }
+    if (indices.size() < 2) {
+      return;
+    }
+    unifyAndReevaluate(indices, members);
+  }
+
+  /**
+   * Variables with a type filter would impose it on all the variables they are unified with, and
+   * the fixed sets of side effects are hashed into the side effect statements; neither may be
+   * unified.
+   */
+  private boolean canUnify(PointsToSetVariable v) {
+    return !(v.getPointerKey() instanceof FilteredPointerKey) && !fixedSetMap.containsKey(v);
+  }
+
+  /**
+   * Unify the variables with the given indices, and schedule the statements that replace theirs.
+   *
+   * @param members the variables unified
+   */
+  @SuppressWarnings("unchecked")
+  private void unifyAndReevaluate(IntSet indices, Collection<PointsToSetVariable> members) {
+    unify(indices);
+    PointsToSetVariable rep = pointsToMap.getPointsToSet(indices.intIterator().next());
+    for (PointsToSetVariable p : members) {
+      // a variable that was never in the constraint graph has no statements to skip
+      if (p != rep && p.getGraphNodeId() >= 0) {
+        collapsedVariables.set(p.getGraphNodeId());
+        numberOfCollapsedVariables++;
+      }
+    }
+    // statements on the work list that were replaced are skipped, so re-evaluate their
+    // replacements
+    for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatDef(rep))) {
+      addToWorkList(s);
+    }
+    changedVariable(rep);
+  }
+
+  /**
+   * Should {@link #solve(IProgressMonitor)} collapse cycles of assignments as it discovers them?
+   * Collapsing changes neither the points-to sets nor the call graph computed, but the variables of
+   * a cycle share a single points-to set afterwards, so {@link #isUnified(PointerKey)} may hold for
+   * pointer keys that receive new constraints.
+   */
+  public void setCollapseAssignmentCycles(boolean collapseAssignmentCycles) {
+    this.collapseAssignmentCycles = collapseAssignmentCycles;
+  }
+
+  public boolean getCollapseAssignmentCycles() {
+    return collapseAssignmentCycles;
+  }
+
+  /**
+   * @return true iff pointer keys that receive new constraints may have been unified with others
+   */
+  public boolean mayUnify() {
+    return collapseAssignmentCycles;
+  }
+
+  /**
+   * Keep the constraint graph in off-heap relations; see {@link
+   * PropagationGraph#setUseOffHeapRelations(boolean)}. This must be set before any constraint is
+   * added.
+   *
+   * @throws IllegalStateException if the constraint graph already has nodes
+   */
+  public void setUseOffHeapRelations(boolean offHeapRelations) {
+    flowGraph.setUseOffHeapRelations(offHeapRelations);
+  }
+
+  public boolean getUseOffHeapRelations() {
+    return flowGraph.getUseOffHeapRelations();
+  }
+
+  /**
+   * @return the number of variables that have been unified into another one by cycle collapsing
+   */
+  public int getNumberOfCollapsedVariables() {
+    return numberOfCollapsedVariables;
+  }
+
+  /**
+   * Solve the system by difference propagation.
+   *
+   * <p>Rather than re-evaluating each assignment and filter from a changed variable with the whole
+   * points-to set of that variable, the solver records for each variable the instance keys added to
+   * it since they were last propagated, and pushes only those along the assignment and filter edges
+   * of the {@link PropagationGraph}. All other statements, whose operators keep track of the
+   * instance keys they have already seen themselves, are evaluated from the work list as in {@link
+   * #solve(IProgressMonitor)}. The fixed point reached is the same.
+   *
+   * @return true iff the evaluation of some equation caused a change in the value of some variable.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean solveByDifference(IProgressMonitor monitor) throws CancelException {
+    if (isFirstSolve()) {
+      initForFirstSolve();
+    }
+    boolean globalChange = false;
+    solvingByDifference = true;
+    try {
+      while (!workList.isEmpty() || !changedVariables.isEmpty()) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        if (!changedVariables.isEmpty()) {
+          if (propagateDelta(changedVariables.take())) {
+            globalChange = true;
+          }
+          continue;
+        }
+        orderStatements();
+        AbstractStatement s = workList.takeStatement();
+        byte code = s.evaluate();
+        incNumberOfEvaluations();
+        if (isChanged(code)) {
+          globalChange = true;
+          PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+          if (lhs != null) {
+            changedVariable(lhs);
+          }
+        }
+        if (isFixed(code)) {
+          removeStatement(s);
+        }
+      }
+    } finally {
+      solvingByDifference = false;
+      // if we were canceled, fall back to re-evaluating the uses of variables with pending deltas
+      while (!changedVariables.isEmpty()) {
+        PointsToSetVariable v = changedVariables.take();
+        v.takeDelta();
+        changedVariable(v);
+      }
+    }
+    return globalChange;
+  }
+
+  @Override
+  public void changedVariable(PointsToSetVariable v) {
+    if (solvingByDifference) {
+      changedVariable(v, null);
+    } else {
+      super.changedVariable(v);
+    }
+  }
+
+  /**
+   * During {@link #solveByDifference(IProgressMonitor)}, record that the instance keys in added
+   * have been added to v.
+   *
+   * @param added the new instance keys, or null if they are not known
+   */
+  private void changedVariable(PointsToSetVariable v, IntSet added) {
+    boolean pending = v.hasDelta();
+    v.addToDelta(added);
+    if (!pending) {
+      changedVariables.insert(v);
+    }
+  }
+
+  /**
+   * Propagate the instance keys of v not yet seen by its uses along its outgoing assignment and
+   * filter edges, and put its other uses on the work list.
+   *
+   * @return true iff the value of some variable changed
+   */
+  @SuppressWarnings("unchecked")
+  private boolean propagateDelta(PointsToSetVariable v) {
+    IntSet delta = v.takeDelta();
+    if (delta == null || delta.isEmpty()) {
+      return false;
+    }
+    boolean changed = false;
+    // the delta as a variable, for filters
+    PointsToSetVariable rhs = null;
+    for (AbstractStatement s : Iterator2Iterable.make(getStatementsThatUse(v))) {
+      PointsToSetVariable lhs = (PointsToSetVariable) s.getLHS();
+      IntSet incoming;
+      if (s instanceof AssignEquation) {
+        incoming = delta;
+      } else if (s instanceof UnaryStatement && s.getOperator() instanceof FilterOperator) {
+        if (rhs == null) {
+          rhs = new PointsToSetVariable(v.getPointerKey());
+          rhs.addAll(delta);
+        }
+        PointsToSetVariable filtered = new PointsToSetVariable(lhs.getPointerKey());
+        ((FilterOperator) s.getOperator()).evaluate(filtered, rhs);
+        incoming = filtered.getValue();
+      } else {
+        addToWorkList(s);
+        continue;
+      }
+      incNumberOfEvaluations();
+      if (incoming == null) {
+        continue;
+      }
+      MutableSparseIntSet added = null;
+      for (IntIterator it = incoming.intIterator(); it.hasNext(); ) {
+        int i = it.next();
+        if (!lhs.contains(i)) {
+          if (added == null) {
+            added = MutableSparseIntSet.makeEmpty();
+          }
+          added.add(i);
+        }
+      }
+      if (added != null) {
+        lhs.addAll(added);
+        changedVariable(lhs, added);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Variables ordered like the statements that define them. The order numbers may change when the
+   * statements are reordered while variables are pending; that only affects the order in which they
+   * are taken, never whether they are.
+   */
+  private static final class VariableWorklist extends Heap<PointsToSetVariable> {
+
+    VariableWorklist() {
+      super(100);
+    }
+
+    @Override
+    protected boolean compareElements(PointsToSetVariable v1, PointsToSetVariable v2) {
+      return v1.getOrderNumber() < v2.getOrderNumber();
+    }
+  }
+
   /**
    * @return an object that encapsulates the pointer analysis results
    */
@@ -818,7 +1360,8 @@ public class PropagationSystem extends DefaultFixedPointSolver<PointsToSetVariab
             replaceRHS(pRef, p, as);
           }
         }
-        if (flowGraph.getNumberOfStatementsThatDef(p) == 0
+        if (flowGraph.containsVariable(p)
+            && flowGraph.getNumberOfStatementsThatDef(p) == 0
             && flowGraph.getNumberOfStatementsThatUse(p) == 0) {
           flowGraph.removeVariable(p);
         }
@@ -750,8 +750,8 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
             }
           }
         } else {
-          assert !system.isUnified(result);
-          assert !system.isUnified(arrayRefPtrKey);
+          assert system.mayUnify() || !system.isUnified(result);
+          assert system.mayUnify() || !system.isUnified(arrayRefPtrKey);
           system.newSideEffect(
               getBuilder().new ArrayLoadOperator(system.findOrCreatePointsToSet(result)),
               arrayRefPtrKey);
@@ -808,7 +808,7 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
           InstanceKey[] ik = getInvariantContents(value);
           for (InstanceKey element : ik) {
             system.findOrCreateIndexForInstanceKey(element);
-            assert !system.isUnified(arrayRefPtrKey);
+            assert system.mayUnify() || !system.isUnified(arrayRefPtrKey);
             system.newSideEffect(
                 getBuilder().new InstanceArrayStoreOperator(element), arrayRefPtrKey);
           }
@@ -2482,6 +2482,13 @@ public abstract class SSAPropagationCallGraphBuilder extends PropagationCallGrap
 
   @Override
   protected IPointsToSolver makeSolver() {
+    int threads = getOptions().getNumberOfSolverThreads();
+    if (threads > 1) {
+      return new ParallelSolver(system, this, threads);
+    }
+    if (getOptions().getUseDifferencePropagation()) {
+      return new DifferencePropagationSolver(system, this);
+    }
     return new StandardSolver(system, this);
     // return usePreTransitiveSolver ? (IPointsToSolver) new PreTransitiveSolver(system, this) : new
     // StandardSolver(system, this);
@@ -31,7 +31,7 @@ public class StandardSolver extends AbstractPointsToSolver {
       if (DEBUG_PHASES) {
         System.err.println("Iteration " + i);
       }
-      getSystem().solve(monitor);
+      solveSystem(monitor);
       if (DEBUG_PHASES) {
         System.err.println("Solved " + i);
       }
@@ -73,4 +73,9 @@ public class StandardSolver extends AbstractPointsToSolver {
       // worklist; so,
     } while (!getSystem().emptyWorkList());
   }
+
+  /** Run the underlying {@link PropagationSystem} to a fixed point. Subclasses may override. */
+  protected void solveSystem(IProgressMonitor monitor) throws CancelException {
+    getSystem().solve(monitor);
+  }
 }
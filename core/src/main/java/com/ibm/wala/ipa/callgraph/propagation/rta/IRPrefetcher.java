@@ -0,0 +1,184 @@
+package com.ibm.wala.ipa.callgraph.propagation.rta;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.CodeScanner;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.shrike.shrikeCT.InvalidClassFileException;
+import com.ibm.wala.util.collections.HashSetFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Speculatively builds IRs for the methods a call graph builder is likely to need, on a background
+ * thread pool.
+ *
+ * <p>The builder feeds the prefetcher as it goes: {@link #start(Iterable)} submits the entrypoints,
+ * and {@link #discovered(CGNode)}, called when the builder discovers a node, scans the call sites
+ * of the node's method with {@link CodeScanner} and submits the methods its call sites resolve to
+ * in the class hierarchy. Those IRs are built in the background while the builder works through the
+ * nodes it discovered earlier, so no time is spent computing the methods to prefetch before the
+ * builder starts. Methods are resolved on the builder's thread, since resolving methods updates
+ * caches of the class hierarchy that are not safe to update concurrently; the builder resolves most
+ * of the same call sites itself later, from those caches. The pool threads only build IRs.
+ *
+ * <p>Only the resolved declared target of each call site is prefetched, so targets of virtual calls
+ * in subclasses are left to the builder.
+ *
+ * <p>Prefetching only pays off with a cache that builds IRs concurrently, such as an {@link
+ * com.ibm.wala.ipa.callgraph.AnalysisCache} backed by a {@link
+ * com.ibm.wala.ssa.ConcurrentSSACache}; with the default synchronized cache, the prefetch threads
+ * compete with the builder for the cache lock. {@link #finish(CallGraph)} reports how many
+ * prefetched IRs were used by the call graph.
+ */
+public class IRPrefetcher {
+
+  private final IClassHierarchy cha;
+
+  private final IAnalysisCacheView cache;
+
+  private final ExecutorService pool;
+
+  /** methods whose call sites have been scanned; only used by the builder's thread */
+  private final Set<IMethod> scanned = HashSetFactory.make();
+
+  /** methods whose IRs have been submitted to the pool; only used by the builder's thread */
+  private final Set<IMethod> submitted = HashSetFactory.make();
+
+  /** methods whose IRs have been built by the pool */
+  private final Set<IMethod> prefetched = ConcurrentHashMap.newKeySet();
+
+  private volatile boolean stopped = false;
+
+  /** number of prefetched IRs used by the call graph, set by {@link #finish(CallGraph)} */
+  private int used = -1;
+
+  /**
+   * @param numberOfThreads number of background threads
+   * @throws IllegalArgumentException if numberOfThreads &lt; 1
+   */
+  public IRPrefetcher(IClassHierarchy cha, IAnalysisCacheView cache, int numberOfThreads) {
+    if (cha == null) {
+      throw new IllegalArgumentException("null cha");
+    }
+    if (cache == null) {
+      throw new IllegalArgumentException("null cache");
+    }
+    if (numberOfThreads < 1) {
+      throw new IllegalArgumentException("invalid numberOfThreads: " + numberOfThreads);
+    }
+    this.cha = cha;
+    this.cache = cache;
+    this.pool =
+        Executors.newFixedThreadPool(
+            numberOfThreads,
+            r -> {
+              Thread t = new Thread(r, "IRPrefetcher");
+              t.setDaemon(true);
+              return t;
+            });
+  }
+
+  /** Start building the IRs of the entrypoints in the background. */
+  public void start(Iterable<? extends Entrypoint> entrypoints) {
+    for (Entrypoint e : entrypoints) {
+      submit(e.getMethod());
+    }
+  }
+
+  /**
+   * Start building, in the background, the IRs of the methods that the call sites of node resolve
+   * to. Must be called on the builder's thread.
+   */
+  public void discovered(CGNode node) {
+    if (stopped || !scanned.add(node.getMethod())) {
+      return;
+    }
+    try {
+      for (CallSiteReference site : CodeScanner.getCallSites(node.getMethod())) {
+        IMethod target = cha.resolveMethod(site.getDeclaredTarget());
+        if (target != null) {
+          submit(target);
+        }
+      }
+    } catch (InvalidClassFileException e) {
+      // the builder will report the method when it builds its IR
+    }
+  }
+
+  private void submit(IMethod m) {
+    // skip methods without bytecode, and those for which the builder would not find an IR built
+    // for the Everywhere context
+    if (m.isAbstract()
+        || m.isNative()
+        || m.isWalaSynthetic()
+        || !cache.getIRFactory().contextIsIrrelevant(m)
+        || !submitted.add(m)) {
+      return;
+    }
+    pool.execute(
+        () -> {
+          if (!stopped) {
+            cache.getIR(m);
+            prefetched.add(m);
+          }
+        });
+  }
+
+  /**
+   * Stop prefetching and count how many of the prefetched IRs belong to nodes of cg.
+   *
+   * @return the number of prefetched IRs used by cg
+   */
+  public int finish(CallGraph cg) {
+    stopped = true;
+    pool.shutdownNow();
+    Set<IMethod> methods = HashSetFactory.make();
+    for (CGNode n : cg) {
+      if (prefetched.contains(n.getMethod())) {
+        methods.add(n.getMethod());
+      }
+    }
+    used = methods.size();
+    return used;
+  }
+
+  /**
+   * @return the number of methods whose IRs have been submitted for prefetching
+   */
+  public int getNumberOfSubmittedMethods() {
+    return submitted.size();
+  }
+
+  /**
+   * @return the number of IRs built by the prefetcher
+   */
+  public int getNumberOfPrefetchedIRs() {
+    return prefetched.size();
+  }
+
+  /**
+   * @return the number of prefetched IRs used by the call graph, or -1 before {@link
+   *     #finish(CallGraph)}
+   */
+  public int getNumberOfUsedIRs() {
+    return used;
+  }
+
+  @Override
+  public String toString() {
+    return "IRPrefetcher[submitted: "
+        + submitted.size()
+        + ", prefetched: "
+        + prefetched.size()
+        + ", used: "
+        + used
+        + ']';
+  }
+}
@@ -0,0 +1,396 @@
+package com.ibm.wala.ipa.callgraph.unification;
+
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.IntegerUnionFind;
+import com.ibm.wala.util.intset.MutableIntSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The equivalence classes of a unification-based points-to analysis, as in Steensgaard's
+ * "Points-to Analysis in Almost Linear Time".
+ *
+ * <p>An element stands either for pointers (locals, return values, static fields, or a field of
+ * some abstract objects) or for abstract objects. A class of pointers points to at most one class
+ * of objects, its pointee, and a class of objects has one class of pointers per field. Joining two
+ * classes joins their pointees and the classes of their common fields too, so the instance keys of
+ * the pointee of a class of pointers are all the instance keys those pointers may point to.
+ *
+ * <p>Observers may be registered on a class of objects; they are passed to the listener given to
+ * the constructor whenever instance keys are added to the class they observe. The instance keys of
+ * a class are kept in the order they were added, so that an observer only needs to look at the keys
+ * past those it has seen, as long as the {@link InstanceKeys} of the class it observes stay the same.
+ * Each instance key has a kind, e.g. its concrete type, and the first instance key of each kind in a
+ * class is kept in order too, for observers that only care about kinds.
+ *
+ * @param <S> type of the observers
+ */
+final class PointsToClasses<S> {
+
+  /** the field of an array that holds its contents */
+  static final Object ARRAY_CONTENTS =
+      new Object() {
+        @Override
+        public String toString() {
+          return "[contents]";
+        }
+      };
+
+  private static final int INITIAL_SIZE = 1024;
+
+  private final IntegerUnionFind classes = new IntegerUnionFind(INITIAL_SIZE);
+
+  private final Consumer<S> listener;
+
+  private final IntUnaryOperator kindOf;
+
+  /** number of elements */
+  private int size = 0;
+
+  /** representative -&gt; the element its pointers point to, or -1 */
+  private int[] pointee = new int[INITIAL_SIZE];
+
+  /** representative -&gt; field -&gt; the element holding that field of its objects */
+  private Map<Object, Integer>[] fields = newMaps(INITIAL_SIZE);
+
+  /** representative -&gt; numbers of its instance keys */
+  private InstanceKeys[] instances = new InstanceKeys[INITIAL_SIZE];
+
+  /** representative -&gt; observers of its instance keys */
+  private List<S>[] observers = newLists(INITIAL_SIZE);
+
+  /** pairs of elements left to join */
+  private final ArrayDeque<int[]> pending = new ArrayDeque<>();
+
+  /**
+   * @param listener called with each observer of a class of objects when instance keys are added to
+   *     that class
+   * @param kindOf instance key number -&gt; number of its kind
+   */
+  PointsToClasses(Consumer<S> listener, IntUnaryOperator kindOf) {
+    this.listener = listener;
+    this.kindOf = kindOf;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Object, Integer>[] newMaps(int size) {
+    return new Map[size];
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <S> List<S>[] newLists(int size) {
+    return new List[size];
+  }
+
+  /**
+   * @return a new element, in a class of its own
+   */
+  int make() {
+    if (size == pointee.length) {
+      int newSize = 2 * size;
+      pointee = Arrays.copyOf(pointee, newSize);
+      fields = Arrays.copyOf(fields, newSize);
+      instances = Arrays.copyOf(instances, newSize);
+      observers = Arrays.copyOf(observers, newSize);
+    }
+    pointee[size] = -1;
+    return size++;
+  }
+
+  /**
+   * @return the number of elements
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the representative of the class of x
+   */
+  int find(int x) {
+    return classes.find(x);
+  }
+
+  /**
+   * @return the representative of the class of objects the pointers in the class of x point to
+   */
+  int pointee(int x) {
+    x = find(x);
+    if (pointee[x] < 0) {
+      // make() may grow the arrays
+      int p = make();
+      pointee[x] = p;
+    }
+    return find(pointee[x]);
+  }
+
+  /**
+   * @return the representative of the class of objects the pointers in the class of x point to, or
+   *     -1 if they point to none yet
+   */
+  int pointeeIfAny(int x) {
+    int p = pointee[find(x)];
+    return p < 0 ? -1 : find(p);
+  }
+
+  /**
+   * @return the representative of the class of pointers holding field f of the objects in the class
+   *     of o
+   */
+  int field(int o, Object f) {
+    o = find(o);
+    if (fields[o] == null) {
+      fields[o] = HashMapFactory.make(2);
+    }
+    Integer x = fields[o].get(f);
+    if (x == null) {
+      int result = make();
+      fields[o].put(f, result);
+      return result;
+    }
+    return find(x);
+  }
+
+  /**
+   * @return the fields of the objects in the class of o, by the elements holding them, or null if
+   *     none
+   */
+  Map<Object, Integer> fields(int o) {
+    return fields[find(o)];
+  }
+
+  /**
+   * @return the numbers of the instance keys in the class of o, or null if none; the set changes as
+   *     classes are joined
+   */
+  IntSet instances(int o) {
+    InstanceKeys keys = instances[find(o)];
+    return keys == null ? null : keys.set;
+  }
+
+  /**
+   * @return the instance keys in the class of o, in the order they were added, or null if none.
+   *     When the class is joined with a class with more instance keys, the instance keys of the
+   *     joined class are those of the other class.
+   */
+  InstanceKeys instanceKeys(int o) {
+    return instances[find(o)];
+  }
+
+  /** Add the instance key numbered ik to the class of o. */
+  void addInstance(int o, int ik) {
+    o = find(o);
+    if (instances[o] == null) {
+      instances[o] = new InstanceKeys();
+    }
+    if (instances[o].add(ik, kindOf.applyAsInt(ik))) {
+      notify(observers[o]);
+    }
+  }
+
+  /** Register an observer of the instance keys in the class of o. */
+  void addObserver(int o, S observer) {
+    o = find(o);
+    if (observers[o] == null) {
+      observers[o] = new ArrayList<>(1);
+    }
+    observers[o].add(observer);
+  }
+
+  private void notify(List<S> l) {
+    if (l != null) {
+      l.forEach(listener);
+    }
+  }
+
+  /** Join the classes of x and y, and then the classes their pointees and fields are in. */
+  void union(int x, int y) {
+    pending.push(new int[] {x, y});
+    while (!pending.isEmpty()) {
+      int[] p = pending.pop();
+      int a = find(p[0]);
+      int b = find(p[1]);
+      if (a == b) {
+        continue;
+      }
+      classes.union(a, b);
+      int r = find(a);
+      int o = r == a ? b : a;
+
+      if (pointee[r] < 0) {
+        pointee[r] = pointee[o];
+      } else if (pointee[o] >= 0) {
+        pending.push(new int[] {pointee[r], pointee[o]});
+      }
+      pointee[o] = -1;
+
+      fields[r] = joinFields(fields[r], fields[o]);
+      fields[o] = null;
+
+      InstanceKeys ir = instances[r];
+      InstanceKeys io = instances[o];
+      int sr = ir == null ? 0 : ir.size();
+      int so = io == null ? 0 : io.size();
+      InstanceKeys joined;
+      if (sr >= so) {
+        joined = ir;
+        if (so > 0) {
+          joined.addAll(io);
+        }
+      } else {
+        joined = io;
+        if (sr > 0) {
+          joined.addAll(ir);
+        }
+      }
+      instances[r] = joined;
+      instances[o] = null;
+      int s = joined == null ? 0 : joined.size();
+      if (s > sr) {
+        notify(observers[r]);
+      }
+      if (s > so) {
+        notify(observers[o]);
+      }
+
+      List<S> lr = observers[r];
+      List<S> lo = observers[o];
+      if (lr == null || (lo != null && lr.size() < lo.size())) {
+        observers[r] = lo;
+        lo = lr;
+      }
+      if (lo != null) {
+        observers[r].addAll(lo);
+      }
+      observers[o] = null;
+    }
+  }
+
+  /**
+   * @return the fields of both maps, after queueing the elements of the fields they share for
+   *     joining
+   */
+  private Map<Object, Integer> joinFields(Map<Object, Integer> f1, Map<Object, Integer> f2) {
+    if (f1 == null) {
+      return f2;
+    }
+    if (f2 == null) {
+      return f1;
+    }
+    if (f1.size() < f2.size()) {
+      Map<Object, Integer> t = f1;
+      f1 = f2;
+      f2 = t;
+    }
+    for (Map.Entry<Object, Integer> e : f2.entrySet()) {
+      Integer x = f1.putIfAbsent(e.getKey(), e.getValue());
+      if (x != null) {
+        pending.push(new int[] {x, e.getValue()});
+      }
+    }
+    return f1;
+  }
+
+  /** The numbers of the instance keys of a class of objects, in the order they were added */
+  static final class InstanceKeys {
+
+    private final MutableIntSet set = IntSetUtil.getDefaultIntSetFactory().make();
+
+    /** the instance keys, in the order they were added */
+    private int[] order = new int[4];
+
+    /** number of instance keys */
+    private int size = 0;
+
+    /** order[i]: the kind of order[i] */
+    private int[] orderKinds = new int[4];
+
+    private final MutableIntSet kinds = IntSetUtil.getDefaultIntSetFactory().make();
+
+    /** the kinds, in the order they were added */
+    private int[] kindOrder = new int[4];
+
+    /** firstOfKind[i]: the first instance key of kind kindOrder[i] */
+    private int[] firstOfKind = new int[4];
+
+    private InstanceKeys() {}
+
+    private boolean add(int ik, int kind) {
+      if (!set.add(ik)) {
+        return false;
+      }
+      int n = size++;
+      if (n == order.length) {
+        order = Arrays.copyOf(order, 2 * n);
+        orderKinds = Arrays.copyOf(orderKinds, 2 * n);
+      }
+      order[n] = ik;
+      orderKinds[n] = kind;
+      if (kinds.add(kind)) {
+        int k = kinds.size() - 1;
+        if (k == kindOrder.length) {
+          kindOrder = Arrays.copyOf(kindOrder, 2 * k);
+          firstOfKind = Arrays.copyOf(firstOfKind, 2 * k);
+        }
+        kindOrder[k] = kind;
+        firstOfKind[k] = ik;
+      }
+      return true;
+    }
+
+    private void addAll(InstanceKeys other) {
+      for (int i = 0; i < other.size; i++) {
+        add(other.order[i], other.orderKinds[i]);
+      }
+    }
+
+    /**
+     * @return the number of instance keys
+     */
+    int size() {
+      return size;
+    }
+
+    /**
+     * @return the number of the i-th instance key added
+     */
+    int get(int i) {
+      return order[i];
+    }
+
+    /**
+     * @return the kind of the i-th instance key added
+     */
+    int getKindOf(int i) {
+      return orderKinds[i];
+    }
+
+    /**
+     * @return the number of kinds of the instance keys
+     */
+    int numberOfKinds() {
+      return kinds.size();
+    }
+
+    /**
+     * @return the i-th kind added
+     */
+    int getKind(int i) {
+      return kindOrder[i];
+    }
+
+    /**
+     * @return the number of the first instance key of the i-th kind added
+     */
+    int getFirstOfKind(int i) {
+      return firstOfKind[i];
+    }
+  }
+}
@@ -0,0 +1,979 @@
+package com.ibm.wala.ipa.callgraph.unification;
+
+import com.ibm.wala.analysis.reflection.IllegalArgumentExceptionContext;
+import com.ibm.wala.analysis.reflection.ReflectionContextInterpreter;
+import com.ibm.wala.classLoader.ArrayClass;
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.ProgramCounter;
+import com.ibm.wala.core.util.warnings.Warning;
+import com.ibm.wala.core.util.warnings.Warnings;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilderCancelException;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.ContextSelector;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.IAnalysisCacheView;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.DefaultContextSelector;
+import com.ibm.wala.ipa.callgraph.impl.DefaultEntrypoint;
+import com.ibm.wala.ipa.callgraph.impl.DelegatingContextSelector;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKeyFactory;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKeyFactory;
+import com.ibm.wala.ipa.callgraph.propagation.SSAContextInterpreter;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.DefaultPointerKeyFactory;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.DefaultSSAInterpreter;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.DelegatingSSAContextInterpreter;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.ZeroXInstanceKeys;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.shrike.shrikeBT.IInvokeInstruction;
+import com.ibm.wala.ssa.DefUse;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSAArrayLoadInstruction;
+import com.ibm.wala.ssa.SSAArrayStoreInstruction;
+import com.ibm.wala.ssa.SSACheckCastInstruction;
+import com.ibm.wala.ssa.SSAFieldAccessInstruction;
+import com.ibm.wala.ssa.SSAGetCaughtExceptionInstruction;
+import com.ibm.wala.ssa.SSAGetInstruction;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.ssa.SSAInvokeInstruction;
+import com.ibm.wala.ssa.SSALoadMetadataInstruction;
+import com.ibm.wala.ssa.SSANewInstruction;
+import com.ibm.wala.ssa.SSAPhiInstruction;
+import com.ibm.wala.ssa.SSAPiInstruction;
+import com.ibm.wala.ssa.SSAPutInstruction;
+import com.ibm.wala.ssa.SSAReturnInstruction;
+import com.ibm.wala.ssa.SSAThrowInstruction;
+import com.ibm.wala.ssa.SymbolTable;
+import com.ibm.wala.types.MethodReference;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.MutableMapping;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A call graph builder based on a unification-based points-to analysis, as in Steensgaard's
+ * "Points-to Analysis in Almost Linear Time".
+ *
+ * <p>Where the propagation-based builders keep a points-to set per pointer and propagate instance
+ * keys along the assignments between pointers until nothing changes, this builder joins both sides
+ * of every assignment, parameter binding, return and field access into one class of {@link
+ * PointsToClasses}, so each statement is looked at once. Calls are dispatched as by {@link
+ * com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder}: on each instance key in
+ * the class of the receiver, and of the other parameters the context selector asks for, and again
+ * on the new instance keys whenever those classes grow.
+ *
+ * <p>With the same selectors and instance keys, the call graph and points-to sets over-approximate
+ * those of a 0-CFA builder. Type filters are not applied, except that virtual calls are only
+ * dispatched on receivers whose type is a subtype of the declared target's class. All the
+ * exceptions thrown in a method share one class, that of its exceptional return value.
+ */
+public class UnificationCallGraphBuilder implements CallGraphBuilder<InstanceKey> {
+
+  private final IClassHierarchy cha;
+
+  private final AnalysisOptions options;
+
+  private final IAnalysisCacheView cache;
+
+  private final ContextSelector contextSelector;
+
+  private final SSAContextInterpreter contextInterpreter;
+
+  private final InstanceKeyFactory instanceKeys;
+
+  private final PointerKeyFactory pointerKeys = new DefaultPointerKeyFactory();
+
+  private final ExplicitCallGraph callGraph;
+
+  /** numbers of the instance keys in {@link #classes} */
+  private final MutableMapping<InstanceKey> instanceKeyMapping = MutableMapping.make();
+
+  /** the concrete types of the instance keys, numbered */
+  private final MutableMapping<IClass> concreteTypes = MutableMapping.make();
+
+  private final PointsToClasses<CallSite> classes =
+      new PointsToClasses<>(
+          this::changed,
+          ik -> concreteTypes.add(instanceKeyMapping.getMappedObject(ik).getConcreteType()));
+
+  /** call graph node number -&gt; elements of the pointers of that node */
+  private NodeVariables[] variables = new NodeVariables[256];
+
+  /** declaring class of dispatched methods -&gt; filter of receivers */
+  private final Map<IClass, ReceiverFilter> receiverFilters = HashMapFactory.make();
+
+  /** static field -&gt; element of that field */
+  private final Map<IField, Integer> staticFields = HashMapFactory.make();
+
+  private final Set<CGNode> discoveredNodes = HashSetFactory.make();
+
+  /** nodes whose statements have not all been processed yet */
+  private final ArrayDeque<CGNode> pendingNodes = new ArrayDeque<>();
+
+  /** call sites to dispatch again, since instance keys have reached their parameters */
+  private final ArrayDeque<CallSite> pendingCalls = new ArrayDeque<>();
+
+  private final Set<CallSiteReference> entrypointCallSites = HashSetFactory.make();
+
+  private final Set<IClass> clinitVisited = HashSetFactory.make();
+
+  private final Set<IClass> finalizeVisited = HashSetFactory.make();
+
+  private UnificationPointerAnalysis pointerAnalysis;
+
+  /**
+   * @param appContextSelector user-defined context selector, or null if none
+   * @param appContextInterpreter user-defined context interpreter, or null if none
+   * @throws IllegalArgumentException if options is null
+   */
+  public UnificationCallGraphBuilder(
+      Language l,
+      IClassHierarchy cha,
+      AnalysisOptions options,
+      IAnalysisCacheView cache,
+      ContextSelector appContextSelector,
+      SSAContextInterpreter appContextInterpreter) {
+    if (options == null) {
+      throw new IllegalArgumentException("options is null");
+    }
+    if (cache == null) {
+      throw new IllegalArgumentException("cache is null");
+    }
+    this.cha = cha;
+    this.options = options;
+    this.cache = cache;
+
+    ContextSelector def = new DefaultContextSelector(options, cha);
+    contextSelector =
+        appContextSelector == null ? def : new DelegatingContextSelector(appContextSelector, def);
+
+    SSAContextInterpreter c = new DefaultSSAInterpreter(options, cache);
+    c =
+        new DelegatingSSAContextInterpreter(
+            ReflectionContextInterpreter.createReflectionContextInterpreter(cha, options, cache),
+            c);
+    contextInterpreter =
+        appContextInterpreter == null
+            ? c
+            : new DelegatingSSAContextInterpreter(appContextInterpreter, c);
+
+    instanceKeys =
+        new ZeroXInstanceKeys(options, cha, contextInterpreter, ZeroXInstanceKeys.NONE);
+
+    callGraph = new ExplicitCallGraph(l.getFakeRootMethod(cha, options, cache), options, cache);
+    try {
+      callGraph.init();
+    } catch (CancelException e) {
+      // the call graph is limited to fewer nodes than its root nodes
+    }
+    callGraph.setInterpreter(contextInterpreter);
+  }
+
+  @Override
+  public CallGraph makeCallGraph(AnalysisOptions options, IProgressMonitor monitor)
+      throws IllegalArgumentException, CallGraphBuilderCancelException {
+    if (options == null) {
+      throw new IllegalArgumentException("options is null");
+    }
+    if (pointerAnalysis != null) {
+      throw new IllegalStateException("call graph already built");
+    }
+    AbstractRootMethod root = (AbstractRootMethod) callGraph.getFakeRootNode().getMethod();
+    for (Entrypoint E : options.getEntrypoints()) {
+      SSAAbstractInvokeInstruction call = E.addCall(root);
+      if (call == null) {
+        Warnings.add(EntrypointResolutionWarning.create(E));
+      } else {
+        entrypointCallSites.add(call.getCallSite());
+      }
+    }
+    if (entrypointCallSites.isEmpty()) {
+      throw new IllegalStateException(
+          "Could not create a entrypoint callsites: " + Warnings.asString());
+    }
+
+    pointerAnalysis = new UnificationPointerAnalysis(this);
+    discovered(callGraph.getFakeRootNode());
+    discovered(callGraph.getFakeWorldClinitNode());
+    try {
+      solve(monitor);
+    } catch (CancelException e) {
+      throw CallGraphBuilderCancelException.createCallGraphBuilderCancelException(
+          e, callGraph, pointerAnalysis);
+    }
+    return callGraph;
+  }
+
+  private void solve(IProgressMonitor monitor) throws CancelException {
+    while (!pendingNodes.isEmpty() || !pendingCalls.isEmpty()) {
+      MonitorUtil.throwExceptionIfCanceled(monitor);
+      if (!pendingNodes.isEmpty()) {
+        addStatements(pendingNodes.pop());
+      } else {
+        CallSite site = pendingCalls.poll();
+        site.pending = false;
+        dispatch(site);
+      }
+    }
+  }
+
+  private void discovered(CGNode node) {
+    if (node != null && discoveredNodes.add(node)) {
+      pendingNodes.push(node);
+    }
+  }
+
+  /** Queue a call site whose parameters have new instance keys. */
+  private void changed(CallSite site) {
+    if (!site.pending) {
+      site.pending = true;
+      pendingCalls.add(site);
+    }
+  }
+
+  /**
+   * Process the statements of node not processed yet; statements are only added later to the
+   * synthetic root methods.
+   */
+  private void addStatements(CGNode node) {
+    IR ir = contextInterpreter.getIR(node);
+    if (ir == null) {
+      return;
+    }
+    NodeVariables v = variables(node);
+    v.symbolTable = ir.getSymbolTable();
+    StatementVisitor visitor = new StatementVisitor(node, ir);
+    SSAInstruction[] instructions = ir.getInstructions();
+    int from = v.processed;
+    v.processed = instructions.length;
+    if (from == 0) {
+      for (SSAInstruction s : Iterator2Iterable.make(ir.iteratePhis())) {
+        visitor.visit(s);
+      }
+      for (SSAInstruction s : Iterator2Iterable.make(ir.iteratePis())) {
+        visitor.visit(s);
+      }
+      for (SSAInstruction s : Iterator2Iterable.make(ir.iterateCatchInstructions())) {
+        visitor.visit(s);
+      }
+    }
+    for (int i = from; i < instructions.length; i++) {
+      if (instructions[i] != null) {
+        visitor.visit(instructions[i]);
+      }
+    }
+  }
+
+  /** Adds the flows of the statements of a node to {@link #classes}. */
+  private class StatementVisitor extends SSAInstruction.Visitor {
+
+    private final CGNode node;
+
+    private final IR ir;
+
+    StatementVisitor(CGNode node, IR ir) {
+      this.node = node;
+      this.ir = ir;
+    }
+
+    void visit(SSAInstruction s) {
+      s.visit(this);
+      if (s.isPEI() && s.iIndex() >= 0) {
+        Collection<TypeReference> types = s.getExceptionTypes();
+        if (types != null) {
+          ProgramCounter pc =
+              new ProgramCounter(ir.getControlFlowGraph().getProgramCounter(s.iIndex()));
+          for (TypeReference type : types) {
+            if (type != null) {
+              addInstance(pointee(exc(node)), instanceKeys.getInstanceKeyForPEI(node, pc, type));
+            }
+          }
+        }
+      }
+    }
+
+    private int var(int vn) {
+      return UnificationCallGraphBuilder.this.var(node, vn);
+    }
+
+    @Override
+    public void visitPhi(SSAPhiInstruction instruction) {
+      for (int i = 0; i < instruction.getNumberOfUses(); i++) {
+        if (instruction.getUse(i) > 0) {
+          classes.union(var(instruction.getDef()), var(instruction.getUse(i)));
+        }
+      }
+    }
+
+    @Override
+    public void visitPi(SSAPiInstruction instruction) {
+      classes.union(var(instruction.getDef()), var(instruction.getVal()));
+    }
+
+    @Override
+    public void visitCheckCast(SSACheckCastInstruction instruction) {
+      classes.union(var(instruction.getResult()), var(instruction.getVal()));
+    }
+
+    @Override
+    public void visitGetCaughtException(SSAGetCaughtExceptionInstruction instruction) {
+      classes.union(var(instruction.getDef()), exc(node));
+    }
+
+    @Override
+    public void visitThrow(SSAThrowInstruction instruction) {
+      classes.union(var(instruction.getException()), exc(node));
+    }
+
+    @Override
+    public void visitReturn(SSAReturnInstruction instruction) {
+      if (instruction.getResult() > 0 && !instruction.returnsPrimitiveType()) {
+        classes.union(var(instruction.getResult()), ret(node));
+      }
+    }
+
+    @Override
+    public void visitNew(SSANewInstruction instruction) {
+      InstanceKey iKey = instanceKeys.getInstanceKeyForAllocation(node, instruction.getNewSite());
+      if (iKey == null || iKey.getConcreteType() == null) {
+        return;
+      }
+      int o = pointee(var(instruction.getDef()));
+      addInstance(o, iKey);
+      IClass klass = iKey.getConcreteType();
+      processClassInitializer(klass);
+      processFinalizeMethod(klass);
+
+      // the arrays held by a multi-dimensional array
+      int dim = 0;
+      while (klass != null && klass.isArrayClass()) {
+        klass = ((ArrayClass) klass).getElementClass();
+        if (klass == null || !klass.isArrayClass()) {
+          break;
+        }
+        if (instruction.getNumberOfUses() <= dim + 1) {
+          break;
+        }
+        int sv = instruction.getUse(dim + 1);
+        if (ir.getSymbolTable().isIntegerConstant(sv)
+            && (Integer) ir.getSymbolTable().getConstantValue(sv) == 0) {
+          break;
+        }
+        o = pointee(classes.field(o, PointsToClasses.ARRAY_CONTENTS));
+        addInstance(
+            o, instanceKeys.getInstanceKeyForMultiNewArray(node, instruction.getNewSite(), dim));
+        dim++;
+      }
+    }
+
+    @Override
+    public void visitLoadMetadata(SSALoadMetadataInstruction instruction) {
+      if (instruction.getToken() instanceof TypeReference) {
+        IClass klass = cha.lookupClass((TypeReference) instruction.getToken());
+        if (klass != null) {
+          processClassInitializer(klass);
+        }
+      }
+      addInstance(
+          pointee(var(instruction.getDef())),
+          instanceKeys.getInstanceKeyForMetadataObject(
+              instruction.getToken(), instruction.getType()));
+    }
+
+    @Override
+    public void visitGet(SSAGetInstruction instruction) {
+      if (instruction.getDeclaredFieldType().isReferenceType()) {
+        int field = field(instruction.isStatic(), instruction.getRef(), instruction);
+        if (field >= 0) {
+          classes.union(var(instruction.getDef()), field);
+        }
+      }
+    }
+
+    @Override
+    public void visitPut(SSAPutInstruction instruction) {
+      if (instruction.getDeclaredFieldType().isReferenceType()) {
+        int field = field(instruction.isStatic(), instruction.getRef(), instruction);
+        if (field >= 0) {
+          classes.union(var(instruction.getVal()), field);
+        }
+      }
+    }
+
+    /**
+     * @return the element of the field accessed by s, or -1 if it does not resolve
+     */
+    private int field(
+        boolean isStatic, int ref, SSAFieldAccessInstruction instruction) {
+      IField f = cha.resolveField(instruction.getDeclaredField());
+      if (f == null) {
+        return -1;
+      }
+      if (isStatic) {
+        processClassInitializer(f.getDeclaringClass());
+        return staticField(f);
+      }
+      return classes.field(pointee(var(ref)), f);
+    }
+
+    @Override
+    public void visitArrayLoad(SSAArrayLoadInstruction instruction) {
+      if (instruction.getElementType().isReferenceType()) {
+        classes.union(
+            var(instruction.getDef()),
+            classes.field(
+                pointee(var(instruction.getArrayRef())), PointsToClasses.ARRAY_CONTENTS));
+      }
+    }
+
+    @Override
+    public void visitArrayStore(SSAArrayStoreInstruction instruction) {
+      if (instruction.getElementType().isReferenceType()) {
+        classes.union(
+            var(instruction.getValue()),
+            classes.field(
+                pointee(var(instruction.getArrayRef())), PointsToClasses.ARRAY_CONTENTS));
+      }
+    }
+
+    @Override
+    public void visitInvoke(SSAInvokeInstruction instruction) {
+      classes.union(var(instruction.getException()), exc(node));
+      // the constants among the arguments, which no target may join
+      for (int i = 0; i < instruction.getNumberOfPositionalParameters(); i++) {
+        var(instruction.getUse(i));
+      }
+
+      IntSet params = contextSelector.getRelevantParameters(node, instruction.getCallSite());
+      MutableIntSet relevant = IntSetUtil.makeMutableCopy(params);
+      if (!instruction.isStatic()) {
+        relevant.add(0);
+      }
+      params.foreach(
+          i -> {
+            if (i >= instruction.getNumberOfUses()) {
+              relevant.remove(i);
+            }
+          });
+
+      CallSite site =
+          new CallSite(node, instruction, IntSetUtil.toArray(relevant), !params.contains(0));
+      if (site.params.length == 0) {
+        resolve(site, null, null);
+      } else {
+        for (int p : site.params) {
+          classes.addObserver(pointee(var(instruction.getUse(p))), site);
+        }
+        dispatch(site);
+      }
+    }
+  }
+
+  /** A call whose targets depend on the instance keys of some of its parameters */
+  private final class CallSite {
+
+    final CGNode node;
+
+    final SSAAbstractInvokeInstruction call;
+
+    /** the parameters the targets depend on */
+    final int[] params;
+
+    /** previous[i]: the instance keys of parameter params[i] already dispatched on */
+    final MutableIntSet[] previous;
+
+    /** seen[i]: the instance keys of the class of parameter params[i] last looked at */
+    final PointsToClasses.InstanceKeys[] seen;
+
+    /** seenCount[i]: how many of seen[i] have been looked at */
+    final int[] seenCount;
+
+    /**
+     * the filter of receivers by the class of the declared target, or null. Unlike {@link
+     * com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder}, which filters the
+     * receivers when they flow to the targets, receivers are filtered before dispatch, as the
+     * classes of objects hold the receivers of many unrelated calls. This also filters the receivers
+     * of the calls in the methods of {@link com.ibm.wala.ipa.summaries.LambdaSummaryClass}es, whose
+     * parameters are not cast as in the classes generated for lambdas at run time.
+     */
+    final ReceiverFilter filter;
+
+    /**
+     * the numbers of the concrete types of the receivers already dispatched on, if the targets only
+     * depend on the type of the receiver, or null
+     */
+    final MutableIntSet receiverTypes;
+
+    boolean pending = false;
+
+    /**
+     * @param receiverTypeOnly whether the context of the targets does not depend on the receiver
+     */
+    CallSite(
+        CGNode node, SSAAbstractInvokeInstruction call, int[] params, boolean receiverTypeOnly) {
+      this.node = node;
+      this.call = call;
+      this.params = params;
+      this.previous = new MutableIntSet[params.length];
+      Arrays.setAll(previous, i -> IntSetUtil.getDefaultIntSetFactory().make());
+      this.seen = new PointsToClasses.InstanceKeys[params.length];
+      this.seenCount = new int[params.length];
+      boolean dispatch = call.getCallSite().isDispatch();
+      IClass declaredClass =
+          dispatch ? cha.lookupClass(call.getDeclaredTarget().getDeclaringClass()) : null;
+      this.filter =
+          declaredClass == null
+              ? null
+              : receiverFilters.computeIfAbsent(declaredClass, ReceiverFilter::new);
+      this.receiverTypes =
+          dispatch && receiverTypeOnly && params.length == 1 ? new BitVectorIntSet() : null;
+    }
+  }
+
+  /** The concrete types that are subtypes of a class, by number, as far as they were tested */
+  private final class ReceiverFilter {
+
+    private final IClass declaredClass;
+
+    private final MutableIntSet accepted = new BitVectorIntSet();
+
+    private final MutableIntSet rejected = new BitVectorIntSet();
+
+    ReceiverFilter(IClass declaredClass) {
+      this.declaredClass = declaredClass;
+    }
+
+    /**
+     * @param type number of a concrete type
+     * @return whether that type is a subtype of the class
+     */
+    boolean accepts(int type) {
+      if (accepted.contains(type)) {
+        return true;
+      } else if (rejected.contains(type)) {
+        return false;
+      } else if (cha.isAssignableFrom(declaredClass, concreteTypes.getMappedObject(type))) {
+        accepted.add(type);
+        return true;
+      } else {
+        rejected.add(type);
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Resolve site for the instance keys of its parameters not dispatched on yet, combined with those
+   * already dispatched on for its other parameters.
+   *
+   * <p>Only the instance keys added to the class of a parameter since the site last looked at it are
+   * visited, unless the class was joined with a class with more instance keys; since the instance
+   * keys of a class are then at least twice as many, each instance key is visited a logarithmic
+   * number of times. If the targets only depend on the type of the receiver, only the first
+   * instance key of each concrete type is visited.
+   */
+  private void dispatch(CallSite site) {
+    InstanceKey[] keys = new InstanceKey[site.call.getNumberOfUses()];
+    for (int i = 0; i < site.params.length; i++) {
+      PointsToClasses.InstanceKeys current =
+          classes.instanceKeys(pointee(var(site.node, site.call.getUse(site.params[i]))));
+      if (current == null) {
+        continue;
+      }
+      if (current != site.seen[i]) {
+        site.seen[i] = current;
+        site.seenCount[i] = 0;
+      }
+      // resolving the site may add instance keys to current
+      if (site.receiverTypes != null) {
+        while (site.seenCount[i] < current.numberOfKinds()) {
+          int j = site.seenCount[i]++;
+          int type = current.getKind(j);
+          if (site.receiverTypes.add(type) && (site.filter == null || site.filter.accepts(type))) {
+            keys[0] = instanceKeyMapping.getMappedObject(current.getFirstOfKind(j));
+            resolve(site, keys[0].getConcreteType(), keys.clone());
+          }
+        }
+      } else {
+        boolean receiver = site.filter != null && site.params[i] == 0;
+        while (site.seenCount[i] < current.size()) {
+          int j = site.seenCount[i]++;
+          int x = current.get(j);
+          if (receiver && !site.filter.accepts(current.getKindOf(j))) {
+            continue;
+          }
+          if (site.previous[i].add(x)) {
+            combine(site, i, x, 0, keys);
+          }
+        }
+      }
+    }
+  }
+
+  /** Resolve site for each combination of instance keys, with ik at position fixed. */
+  private void combine(CallSite site, int fixed, int ik, int position, InstanceKey[] keys) {
+    if (position == site.params.length) {
+      IClass recv = site.call.getCallSite().isDispatch() ? keys[0].getConcreteType() : null;
+      resolve(site, recv, keys.clone());
+    } else if (position == fixed) {
+      keys[site.params[position]] = instanceKeyMapping.getMappedObject(ik);
+      combine(site, fixed, ik, position + 1, keys);
+    } else {
+      site.previous[position].foreach(
+          x -> {
+            keys[site.params[position]] = instanceKeyMapping.getMappedObject(x);
+            combine(site, fixed, ik, position + 1, keys);
+          });
+    }
+  }
+
+  /** Resolve site for a receiver of type recv, or null for static calls. */
+  private void resolve(CallSite site, IClass recv, InstanceKey[] keys) {
+    CGNode target = getTargetForCall(site.node, site.call.getCallSite(), recv, keys);
+    if (target != null) {
+      processResolvedCall(site.node, site.call, target);
+    }
+  }
+
+  private CGNode getTargetForCall(
+      CGNode caller, CallSiteReference site, IClass recv, InstanceKey[] iKey) {
+    IMethod targetMethod = options.getMethodTargetSelector().getCalleeTarget(caller, site, recv);
+    if (targetMethod == null || targetMethod.isAbstract()) {
+      return null;
+    }
+    Context targetContext = contextSelector.getCalleeTarget(caller, site, targetMethod, iKey);
+    if (targetContext == null || targetContext.isA(IllegalArgumentExceptionContext.class)) {
+      return null;
+    }
+    try {
+      return callGraph.findOrCreateNode(targetMethod, targetContext);
+    } catch (CancelException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Add the edge from caller to target, and join the parameters and results of the call.
+   *
+   * <p>Parameters that target does not use are not joined with the arguments: no flow goes through
+   * them, and joining e.g. the receiver of {@code Object.<init>} with the receivers of all the
+   * constructors calling it would put most objects in one class. Their arguments are recorded
+   * instead, for the points-to sets of those parameters.
+   */
+  private void processResolvedCall(
+      CGNode caller, SSAAbstractInvokeInstruction call, CGNode target) {
+    if (!caller.addTarget(call.getCallSite(), target)) {
+      return;
+    }
+    if (caller.equals(callGraph.getFakeRootNode())
+        && entrypointCallSites.contains(call.getCallSite())) {
+      callGraph.registerEntrypoint(target);
+    }
+    discovered(target);
+
+    IMethod m = target.getMethod();
+    DefUse du = contextInterpreter.getIR(target) == null ? null : contextInterpreter.getDU(target);
+    if (call.getNumberOfPositionalParameters() == m.getNumberOfParameters()) {
+      for (int i = 0; i < call.getNumberOfPositionalParameters(); i++) {
+        if (m.getParameterType(i).isReferenceType()) {
+          int actual = var(caller, call.getUse(i));
+          if (du != null && du.getNumberOfUses(i + 1) > 0) {
+            classes.union(actual, var(target, i + 1));
+          } else {
+            variables(target).addUnusedFormal(i + 1, actual);
+          }
+        }
+      }
+    }
+    if (call.hasDef() && call.getDeclaredResultType().isReferenceType()) {
+      classes.union(var(caller, call.getDef()), ret(target));
+    }
+    classes.union(exc(caller), exc(target));
+
+    if (call.isStatic()) {
+      processClassInitializer(m.getDeclaringClass());
+    }
+  }
+
+  /** Add a call to the class initializers of klass and its superclasses, if not done yet. */
+  private void processClassInitializer(IClass klass) {
+    if (!options.getHandleStaticInit()) {
+      return;
+    }
+    for (; klass != null && clinitVisited.add(klass); klass = klass.getSuperclass()) {
+      if (klass.getClassInitializer() != null) {
+        MethodReference m = klass.getClassInitializer().getReference();
+        CallSiteReference site = CallSiteReference.make(1, m, IInvokeInstruction.Dispatch.STATIC);
+        CGNode target = getTargetForCall(callGraph.getFakeRootNode(), site, null, null);
+        if (target != null && callGraph.getPredNodeCount(target) == 0) {
+          ((AbstractRootMethod) callGraph.getFakeWorldClinitNode().getMethod())
+              .addInvocation(new int[0], site);
+          pendingNodes.push(callGraph.getFakeWorldClinitNode());
+        }
+      }
+    }
+  }
+
+  /** Add a call to the finalizer of klass from the fake root method, if not done yet. */
+  private void processFinalizeMethod(final IClass klass) {
+    if (finalizeVisited.add(klass)) {
+      IMethod finalizer = klass.getMethod(MethodReference.finalizeSelector);
+      if (finalizer != null
+          && !finalizer.getDeclaringClass().getReference().equals(TypeReference.JavaLangObject)) {
+        Entrypoint ef =
+            new DefaultEntrypoint(finalizer, cha) {
+              @Override
+              protected TypeReference[] makeParameterTypes(IMethod method, int i) {
+                if (i == 0) {
+                  return new TypeReference[] {klass.getReference()};
+                } else {
+                  return super.makeParameterTypes(method, i);
+                }
+              }
+            };
+        ef.addCall((AbstractRootMethod) callGraph.getFakeRootNode().getMethod());
+        pendingNodes.push(callGraph.getFakeRootNode());
+      }
+    }
+  }
+
+  /** The elements of the pointers of a node */
+  static final class NodeVariables {
+
+    /** value number -&gt; element + 1, or 0 if none yet */
+    int[] locals = new int[8];
+
+    int ret = -1;
+
+    int exc = -1;
+
+    /** number of instructions of the IR processed so far */
+    int processed = 0;
+
+    /** to recognize constants, once the IR is known */
+    SymbolTable symbolTable;
+
+    /** value number of a parameter not used by the node -&gt; elements of its arguments, or null */
+    MutableIntSet[] unusedFormals;
+
+    void addUnusedFormal(int vn, int actual) {
+      if (unusedFormals == null) {
+        unusedFormals = new MutableIntSet[vn + 1];
+      } else if (vn >= unusedFormals.length) {
+        unusedFormals = Arrays.copyOf(unusedFormals, vn + 1);
+      }
+      if (unusedFormals[vn] == null) {
+        unusedFormals[vn] = IntSetUtil.getDefaultIntSetFactory().make();
+      }
+      unusedFormals[vn].add(actual);
+    }
+
+    /**
+     * @return the elements of the arguments of parameter vn if the node does not use it, or null
+     */
+    IntSet getUnusedFormal(int vn) {
+      return unusedFormals == null || vn >= unusedFormals.length ? null : unusedFormals[vn];
+    }
+  }
+
+  private NodeVariables variables(CGNode node) {
+    int n = node.getGraphNodeId();
+    if (n >= variables.length) {
+      variables = Arrays.copyOf(variables, Math.max(n + 1, 2 * variables.length));
+    }
+    if (variables[n] == null) {
+      variables[n] = new NodeVariables();
+    }
+    return variables[n];
+  }
+
+  /**
+   * @return the elements of the pointers of the node numbered n, or null if none
+   */
+  NodeVariables getVariables(int n) {
+    return n < variables.length ? variables[n] : null;
+  }
+
+  /**
+   * @return the element of local vn of node
+   */
+  int var(CGNode node, int vn) {
+    NodeVariables v = variables(node);
+    if (vn >= v.locals.length) {
+      v.locals = Arrays.copyOf(v.locals, Math.max(vn + 1, 2 * v.locals.length));
+    }
+    if (v.locals[vn] == 0) {
+      int x = classes.make();
+      v.locals[vn] = x + 1;
+      SymbolTable symbolTable = v.symbolTable;
+      if (symbolTable != null
+          && vn <= symbolTable.getMaxValueNumber()
+          && symbolTable.isConstant(vn)
+          && !(symbolTable.getConstantValue(vn) instanceof Number)) {
+        // string constants, and e.g. the methods and classes in the IRs of reflective methods
+        Object c = symbolTable.getConstantValue(vn);
+        TypeReference type =
+            node.getMethod().getDeclaringClass().getClassLoader().getLanguage().getConstantType(c);
+        if (type != null) {
+          addInstance(pointee(x), instanceKeys.getInstanceKeyForConstant(type, c));
+        }
+      }
+    }
+    return v.locals[vn] - 1;
+  }
+
+  /**
+   * @return the element of the return value of node
+   */
+  int ret(CGNode node) {
+    NodeVariables v = variables(node);
+    if (v.ret < 0) {
+      v.ret = classes.make();
+    }
+    return v.ret;
+  }
+
+  /**
+   * @return the element of the exceptional return value of node, which also holds all the
+   *     exceptions thrown and caught in node
+   */
+  int exc(CGNode node) {
+    NodeVariables v = variables(node);
+    if (v.exc < 0) {
+      v.exc = classes.make();
+    }
+    return v.exc;
+  }
+
+  /**
+   * @return the element of static field f
+   */
+  int staticField(IField f) {
+    return staticFields.computeIfAbsent(f, k -> classes.make());
+  }
+
+  Map<IField, Integer> getStaticFields() {
+    return staticFields;
+  }
+
+  private int pointee(int x) {
+    return classes.pointee(x);
+  }
+
+  private void addInstance(int o, InstanceKey ik) {
+    if (ik != null) {
+      classes.addInstance(o, instanceKeyMapping.add(ik));
+    }
+  }
+
+  PointsToClasses<?> getClasses() {
+    return classes;
+  }
+
+  MutableMapping<InstanceKey> getInstanceKeyMapping() {
+    return instanceKeyMapping;
+  }
+
+  InstanceKeyFactory getInstanceKeyFactory() {
+    return instanceKeys;
+  }
+
+  PointerKeyFactory getPointerKeyFactory() {
+    return pointerKeys;
+  }
+
+  CallGraph getCallGraph() {
+    return callGraph;
+  }
+
+  /**
+   * @return the number of classes the pointers and abstract objects were unified into
+   */
+  public int getNumberOfClasses() {
+    int result = 0;
+    for (int i = 0; i < classes.size(); i++) {
+      if (classes.find(i) == i) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of pointers and abstract objects, before unification
+   */
+  public int getNumberOfElements() {
+    return classes.size();
+  }
+
+  @Override
+  public UnificationPointerAnalysis getPointerAnalysis() {
+    return pointerAnalysis;
+  }
+
+  @Override
+  public IAnalysisCacheView getAnalysisCache() {
+    return cache;
+  }
+
+  @Override
+  public IClassHierarchy getClassHierarchy() {
+    return cha;
+  }
+
+  public AnalysisOptions getOptions() {
+    return options;
+  }
+
+  public ContextSelector getContextSelector() {
+    return contextSelector;
+  }
+
+  public SSAContextInterpreter getContextInterpreter() {
+    return contextInterpreter;
+  }
+
+  /** A warning for when we fail to resolve a call to an entrypoint */
+  private static class EntrypointResolutionWarning extends Warning {
+
+    final Entrypoint entrypoint;
+
+    EntrypointResolutionWarning(Entrypoint entrypoint) {
+      super(Warning.SEVERE);
+      this.entrypoint = entrypoint;
+    }
+
+    @Override
+    public String getMsg() {
+      return getClass() + " : " + entrypoint;
+    }
+
+    public static EntrypointResolutionWarning create(Entrypoint entrypoint) {
+      return new EntrypointResolutionWarning(entrypoint);
+    }
+  }
+}
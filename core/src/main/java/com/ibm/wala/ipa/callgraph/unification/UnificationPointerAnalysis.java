@@ -0,0 +1,339 @@
+package com.ibm.wala.ipa.callgraph.unification;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.NewSiteReference;
+import com.ibm.wala.classLoader.ProgramCounter;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.propagation.AbstractPointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.ArrayContentsKey;
+import com.ibm.wala.ipa.callgraph.propagation.FilteredPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.HeapModel;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceFieldKey;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKeyFactory;
+import com.ibm.wala.ipa.callgraph.propagation.LocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKeyFactory;
+import com.ibm.wala.ipa.callgraph.propagation.ReturnValueKey;
+import com.ibm.wala.ipa.callgraph.propagation.StaticFieldKey;
+import com.ibm.wala.ipa.callgraph.propagation.cfa.ExceptionReturnValueKey;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.types.TypeReference;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The points-to sets computed by a {@link UnificationCallGraphBuilder}: the points-to set of a
+ * pointer holds the instance keys of the class of objects its class points to.
+ *
+ * <p>An instance key may be in several classes of objects, e.g. the key of a string constant used
+ * in several methods; the points-to set of one of its fields is the union of the points-to sets of
+ * that field in each of those classes.
+ */
+public class UnificationPointerAnalysis extends AbstractPointerAnalysis {
+
+  private final UnificationCallGraphBuilder builder;
+
+  private final PointsToClasses<?> classes;
+
+  private final HeapModel heapModel;
+
+  /** instance key number -&gt; representatives of the classes of objects holding it */
+  private Map<Integer, MutableIntSet> classesOfInstances;
+
+  /** number of elements when {@link #classesOfInstances} was computed */
+  private int classesOfInstancesSize = -1;
+
+  UnificationPointerAnalysis(UnificationCallGraphBuilder builder) {
+    super(builder.getCallGraph(), builder.getInstanceKeyMapping());
+    this.builder = builder;
+    this.classes = builder.getClasses();
+    this.heapModel = new HModel();
+  }
+
+  @Override
+  public OrdinalSet<InstanceKey> getPointsToSet(PointerKey key) {
+    if (key == null) {
+      throw new IllegalArgumentException("key == null");
+    }
+    return new OrdinalSet<>(instances(key), instanceKeys);
+  }
+
+  /**
+   * @return the numbers of the instance keys key may point to, or null if none
+   */
+  private IntSet instances(PointerKey key) {
+    if (key instanceof LocalPointerKey) {
+      LocalPointerKey lpk = (LocalPointerKey) key;
+      UnificationCallGraphBuilder.NodeVariables v = variables(lpk.getNode());
+      int vn = lpk.getValueNumber();
+      if (v == null) {
+        return null;
+      } else if (vn < v.locals.length && v.locals[vn] > 0) {
+        return pointsTo(v.locals[vn] - 1);
+      } else {
+        IntSet actuals = v.getUnusedFormal(vn);
+        return actuals == null ? null : pointsTo(actuals);
+      }
+    } else if (key instanceof ExceptionReturnValueKey) {
+      UnificationCallGraphBuilder.NodeVariables v =
+          variables(((ExceptionReturnValueKey) key).getNode());
+      return v == null ? null : pointsTo(v.exc);
+    } else if (key instanceof ReturnValueKey) {
+      UnificationCallGraphBuilder.NodeVariables v = variables(((ReturnValueKey) key).getNode());
+      return v == null ? null : pointsTo(v.ret);
+    } else if (key instanceof StaticFieldKey) {
+      Integer x = builder.getStaticFields().get(((StaticFieldKey) key).getField());
+      return x == null ? null : pointsTo(x);
+    } else if (key instanceof InstanceFieldKey) {
+      InstanceFieldKey ifk = (InstanceFieldKey) key;
+      return fieldPointsTo(ifk.getInstanceKey(), ifk.getField());
+    } else if (key instanceof ArrayContentsKey) {
+      return fieldPointsTo(
+          ((ArrayContentsKey) key).getInstanceKey(), PointsToClasses.ARRAY_CONTENTS);
+    } else {
+      return null;
+    }
+  }
+
+  private UnificationCallGraphBuilder.NodeVariables variables(CGNode node) {
+    CGNode n = getCallGraph().getNode(node.getGraphNodeId());
+    return node.equals(n) ? builder.getVariables(node.getGraphNodeId()) : null;
+  }
+
+  /**
+   * @return the instance keys of the pointee of element x, or null if none
+   */
+  private IntSet pointsTo(int x) {
+    int o = x < 0 ? -1 : classes.pointeeIfAny(x);
+    return o < 0 ? null : classes.instances(o);
+  }
+
+  /**
+   * @return the union of the instance keys of the pointees of elements xs
+   */
+  private IntSet pointsTo(IntSet xs) {
+    MutableIntSet result = IntSetUtil.getDefaultIntSetFactory().make();
+    xs.foreach(
+        x -> {
+          IntSet s = pointsTo(x);
+          if (s != null) {
+            result.addAll(s);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * @return the union of the points-to sets of field f of the classes of objects holding ik
+   */
+  private IntSet fieldPointsTo(InstanceKey ik, Object f) {
+    int i = instanceKeys.getMappedIndex(ik);
+    if (i < 0) {
+      return null;
+    }
+    MutableIntSet os = classesOfInstances().get(i);
+    if (os == null) {
+      return null;
+    }
+    MutableIntSet result = IntSetUtil.getDefaultIntSetFactory().make();
+    os.foreach(
+        o -> {
+          Map<Object, Integer> fields = classes.fields(o);
+          Integer x = fields == null ? null : fields.get(f);
+          IntSet s = x == null ? null : pointsTo(x);
+          if (s != null) {
+            result.addAll(s);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * @return instance key number -&gt; representatives of the classes of objects holding it
+   */
+  private Map<Integer, MutableIntSet> classesOfInstances() {
+    if (classesOfInstancesSize != classes.size()) {
+      classesOfInstances = HashMapFactory.make();
+      for (int o = 0; o < classes.size(); o++) {
+        IntSet s = classes.find(o) == o ? classes.instances(o) : null;
+        if (s != null) {
+          int rep = o;
+          s.foreach(
+              i ->
+                  classesOfInstances
+                      .computeIfAbsent(i, k -> IntSetUtil.getDefaultIntSetFactory().make())
+                      .add(rep));
+        }
+      }
+      classesOfInstancesSize = classes.size();
+    }
+    return classesOfInstances;
+  }
+
+  @Override
+  public HeapModel getHeapModel() {
+    return heapModel;
+  }
+
+  /**
+   * @return the pointer keys of the locals, including the parameters their node does not use, return
+   *     values and static fields with a class, and of
+   *     the fields of each instance key that its type declares and a class holding it has
+   */
+  @Override
+  public Collection<PointerKey> getPointerKeys() {
+    PointerKeyFactory pkf = builder.getPointerKeyFactory();
+    List<PointerKey> result = new ArrayList<>();
+    for (CGNode node : getCallGraph()) {
+      UnificationCallGraphBuilder.NodeVariables v = variables(node);
+      if (v == null) {
+        continue;
+      }
+      for (int vn = 1; vn < v.locals.length; vn++) {
+        if (v.locals[vn] > 0) {
+          result.add(pkf.getPointerKeyForLocal(node, vn));
+        }
+      }
+      if (v.unusedFormals != null) {
+        for (int vn = 1; vn < v.unusedFormals.length; vn++) {
+          if (v.unusedFormals[vn] != null) {
+            result.add(pkf.getPointerKeyForLocal(node, vn));
+          }
+        }
+      }
+      if (v.ret >= 0) {
+        result.add(pkf.getPointerKeyForReturnValue(node));
+      }
+      if (v.exc >= 0) {
+        result.add(pkf.getPointerKeyForExceptionalReturnValue(node));
+      }
+    }
+    for (IField f : builder.getStaticFields().keySet()) {
+      result.add(pkf.getPointerKeyForStaticField(f));
+    }
+    IClassHierarchy cha = getClassHierarchy();
+    classesOfInstances()
+        .forEach(
+            (i, os) -> {
+              InstanceKey ik = instanceKeys.getMappedObject(i);
+              IClass type = ik.getConcreteType();
+              os.foreach(
+                  o -> {
+                    Map<Object, Integer> fields = classes.fields(o);
+                    if (fields != null) {
+                      for (Object f : fields.keySet()) {
+                        if (f == PointsToClasses.ARRAY_CONTENTS) {
+                          if (type.isArrayClass()) {
+                            result.add(pkf.getPointerKeyForArrayContents(ik));
+                          }
+                        } else if (cha.isAssignableFrom(((IField) f).getDeclaringClass(), type)) {
+                          result.add(pkf.getPointerKeyForInstanceField(ik, (IField) f));
+                        }
+                      }
+                    }
+                  });
+            });
+    return result;
+  }
+
+  @Override
+  public boolean isFiltered(PointerKey pk) {
+    return false;
+  }
+
+  @Override
+  public IClassHierarchy getClassHierarchy() {
+    return builder.getClassHierarchy();
+  }
+
+  /** The heap model of the builder's instance keys and pointer keys */
+  private class HModel implements HeapModel {
+
+    private final InstanceKeyFactory iKeyFactory = builder.getInstanceKeyFactory();
+
+    private final PointerKeyFactory pointerKeys = builder.getPointerKeyFactory();
+
+    @Override
+    public Iterator<PointerKey> iteratePointerKeys() {
+      return getPointerKeys().iterator();
+    }
+
+    @Override
+    public IClassHierarchy getClassHierarchy() {
+      return UnificationPointerAnalysis.this.getClassHierarchy();
+    }
+
+    @Override
+    public InstanceKey getInstanceKeyForAllocation(CGNode node, NewSiteReference allocation) {
+      return iKeyFactory.getInstanceKeyForAllocation(node, allocation);
+    }
+
+    @Override
+    public InstanceKey getInstanceKeyForMultiNewArray(
+        CGNode node, NewSiteReference allocation, int dim) {
+      return iKeyFactory.getInstanceKeyForMultiNewArray(node, allocation, dim);
+    }
+
+    @Override
+    public <T> InstanceKey getInstanceKeyForConstant(TypeReference type, T S) {
+      return iKeyFactory.getInstanceKeyForConstant(type, S);
+    }
+
+    @Override
+    public InstanceKey getInstanceKeyForPEI(
+        CGNode node, ProgramCounter peiLoc, TypeReference type) {
+      return iKeyFactory.getInstanceKeyForPEI(node, peiLoc, type);
+    }
+
+    @Override
+    public InstanceKey getInstanceKeyForMetadataObject(Object obj, TypeReference objType) {
+      return iKeyFactory.getInstanceKeyForMetadataObject(obj, objType);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForLocal(CGNode node, int valueNumber) {
+      return pointerKeys.getPointerKeyForLocal(node, valueNumber);
+    }
+
+    @Override
+    public FilteredPointerKey getFilteredPointerKeyForLocal(
+        CGNode node, int valueNumber, FilteredPointerKey.TypeFilter filter) {
+      return pointerKeys.getFilteredPointerKeyForLocal(node, valueNumber, filter);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForReturnValue(CGNode node) {
+      return pointerKeys.getPointerKeyForReturnValue(node);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForExceptionalReturnValue(CGNode node) {
+      return pointerKeys.getPointerKeyForExceptionalReturnValue(node);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForStaticField(IField f) {
+      return pointerKeys.getPointerKeyForStaticField(f);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForInstanceField(InstanceKey I, IField field) {
+      return pointerKeys.getPointerKeyForInstanceField(I, field);
+    }
+
+    @Override
+    public PointerKey getPointerKeyForArrayContents(InstanceKey I) {
+      return pointerKeys.getPointerKeyForArrayContents(I);
+    }
+  }
+}
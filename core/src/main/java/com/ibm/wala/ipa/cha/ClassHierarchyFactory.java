@@ -13,8 +13,11 @@ package com.ibm.wala.ipa.cha;
 import com.ibm.wala.classLoader.ClassLoaderFactory;
 import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
 import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.classLoader.SnapshotClassLoaderFactory;
+import com.ibm.wala.classLoader.SnapshotModule;
 import com.ibm.wala.ipa.callgraph.AnalysisScope;
 import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import java.nio.file.Path;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -56,6 +59,21 @@ public class ClassHierarchyFactory {
     return makeWithRoot(scope, new ClassLoaderFactoryImpl(scope.getExclusions()));
   }
 
+  /**
+   * Like {@link #make(AnalysisScope)}, but reads jar files and JDK modules from the snapshots in
+   * snapshotDirectory, taking snapshots of those that have none yet.
+   *
+   * @return a ClassHierarchy object representing the analysis scope
+   * @see SnapshotModule
+   */
+  public static ClassHierarchy make(AnalysisScope scope, Path snapshotDirectory)
+      throws ClassHierarchyException {
+    if (scope == null) {
+      throw new IllegalArgumentException("null scope");
+    }
+    return make(scope, new SnapshotClassLoaderFactory(scope.getExclusions(), snapshotDirectory));
+  }
+
   /**
    * temporarily marking this internal to avoid infinite sleep with randomly chosen
    * IProgressMonitor.
@@ -0,0 +1,61 @@
+package com.ibm.wala.ipa.cha;
+
+import com.ibm.wala.classLoader.ClassLoaderFactoryImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a {@link ClassHierarchy} whose class loaders parse class files on several threads.
+ *
+ * <p>Each {@link com.ibm.wala.classLoader.ClassLoaderImpl} parses the classes of its modules
+ * concurrently and registers them in module order; the hierarchy is then linked sequentially as
+ * usual. The result is the same hierarchy {@link ClassHierarchyFactory} would build for the scope.
+ */
+public class ParallelClassHierarchyFactory {
+
+  /**
+   * @return a ClassHierarchy object representing the analysis scope
+   */
+  public static ClassHierarchy make(AnalysisScope scope, int numberOfThreads)
+      throws ClassHierarchyException {
+    return make(scope, numberOfThreads, null, ClassHierarchy.MissingSuperClassHandling.NONE);
+  }
+
+  /**
+   * @return a ClassHierarchy object representing the analysis scope, missing superclasses are
+   *     replaced by the ClassHierarchy root, i.e. java.lang.Object
+   */
+  public static ClassHierarchy makeWithRoot(AnalysisScope scope, int numberOfThreads)
+      throws ClassHierarchyException {
+    return make(scope, numberOfThreads, null, ClassHierarchy.MissingSuperClassHandling.ROOT);
+  }
+
+  /**
+   * @param monitor to cancel the construction if needed, or null
+   * @return a ClassHierarchy object representing the analysis scope, built with numberOfThreads
+   *     threads parsing the class files of each loader
+   */
+  public static ClassHierarchy make(
+      AnalysisScope scope, int numberOfThreads, IProgressMonitor monitor)
+      throws ClassHierarchyException {
+    return make(scope, numberOfThreads, monitor, ClassHierarchy.MissingSuperClassHandling.NONE);
+  }
+
+  private static ClassHierarchy make(
+      AnalysisScope scope,
+      int numberOfThreads,
+      IProgressMonitor monitor,
+      ClassHierarchy.MissingSuperClassHandling superClassHandling)
+      throws ClassHierarchyException {
+    if (scope == null) {
+      throw new IllegalArgumentException("null scope");
+    }
+    return new ClassHierarchy(
+        scope,
+        new ClassLoaderFactoryImpl(scope.getExclusions(), numberOfThreads),
+        monitor,
+        new ConcurrentHashMap<>(),
+        superClassHandling);
+  }
+}
@@ -0,0 +1,343 @@
+package com.ibm.wala.ipa.slicer;
+
+import com.ibm.wala.dataflow.IFDS.IFlowFunction;
+import com.ibm.wala.dataflow.IFDS.IPartiallyBalancedFlowFunctions;
+import com.ibm.wala.dataflow.IFDS.ISupergraph;
+import com.ibm.wala.dataflow.IFDS.IUnaryFlowFunction;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.MonitorUtil;
+import com.ibm.wala.util.MonitorUtil.IProgressMonitor;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.Pair;
+import com.ibm.wala.util.debug.Assertions;
+import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.IntSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the slices of many statements with one tabulation.
+ *
+ * <p>The slice flow functions either pass or kill a fact, whatever the fact, so the slice of each
+ * seed is the set of nodes reached by the same tabulation as {@link Slicer} run with a fact for
+ * that seed. Rather than tabulating each such fact by itself, this class keeps, for each path edge,
+ * summary edge and call flow edge, the set of seeds for which it holds, and propagates these sets
+ * along the supergraph. A path edge shared by the slices of many seeds is therefore processed once
+ * for all of them, rather than once per slice, and the SDG is traversed once.
+ *
+ * <p>The slice of each seed is the one {@link Slicer#computeBackwardSlice(SDG, Statement)} or
+ * {@link Slicer#computeForwardSlice(SDG, Statement)} computes, except in one respect: once an
+ * unbalanced seed is added at the entry of a procedure, every path from the entry to an exit
+ * returns to the callers of the procedure, including the paths found before the seed was added.
+ */
+public class BatchSlicer {
+
+  /**
+   * @param seeds statements of interest, keyed by an identifier
+   * @return the backward slice of each statement, keyed by the identifier of the statement
+   */
+  public static <K> Map<K, Collection<Statement>> computeBackwardSlices(
+      SDG<?> sdg, Map<K, Statement> seeds) throws IllegalArgumentException, CancelException {
+    return new BatchSlicer().slice(sdg, seeds, true, null);
+  }
+
+  /**
+   * @param seeds statements of interest, keyed by an identifier
+   * @return the forward slice of each statement, keyed by the identifier of the statement
+   */
+  public static <K> Map<K, Collection<Statement>> computeForwardSlices(
+      SDG<?> sdg, Map<K, Statement> seeds) throws IllegalArgumentException, CancelException {
+    return new BatchSlicer().slice(sdg, seeds, false, null);
+  }
+
+  /**
+   * Main driver logic.
+   *
+   * @param sdg governing system dependence graph
+   * @param seeds statements to slice from, keyed by an identifier
+   * @param backward do backwards slices?
+   * @param monitor to cancel analysis if needed
+   * @return the {@link Statement}s found by the slicer for each seed, keyed by the identifier of
+   *     the seed
+   */
+  public <K> Map<K, Collection<Statement>> slice(
+      SDG<?> sdg, Map<K, Statement> seeds, boolean backward, IProgressMonitor monitor)
+      throws CancelException {
+    if (sdg == null) {
+      throw new IllegalArgumentException("sdg cannot be null");
+    }
+    if (seeds == null) {
+      throw new IllegalArgumentException("seeds cannot be null");
+    }
+    List<K> keys = new ArrayList<>(seeds.keySet());
+    Tabulation t = new Tabulation(makeSliceProblem(seeds.values(), sdg, backward), monitor);
+    for (int i = 0; i < keys.size(); i++) {
+      Statement s = seeds.get(keys.get(i));
+      if (s == null) {
+        throw new IllegalArgumentException("null seed for " + keys.get(i));
+      }
+      BitVector seed = new BitVector();
+      seed.set(i);
+      t.addSeed(t.problem.getFakeEntry(s), s, seed);
+    }
+    t.solve();
+
+    List<Collection<Statement>> slices = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      slices.add(HashSetFactory.make());
+    }
+    for (Map.Entry<Statement, BitVector> e : t.reached.entrySet()) {
+      BitVector b = e.getValue();
+      for (int i = b.nextSetBit(0); i != -1; i = b.nextSetBit(i + 1)) {
+        slices.get(i).add(e.getKey());
+      }
+    }
+    Map<K, Collection<Statement>> result = new LinkedHashMap<>();
+    for (int i = 0; i < keys.size(); i++) {
+      result.put(keys.get(i), slices.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Return an object which encapsulates the tabulation logic for the slice problem. Subclasses can
+   * override this method to implement special semantics, as long as each flow function of the
+   * problem either passes or kills every fact.
+   */
+  protected Slicer.SliceProblem makeSliceProblem(
+      Collection<Statement> roots, ISDG sdgView, boolean backward) {
+    return new Slicer.SliceProblem(roots, sdgView, backward);
+  }
+
+  /**
+   * A tabulation of the slice problem in which the facts are sets of seeds. The path edges, summary
+   * edges and call flow edges all map a pair of nodes to the seeds for which the edge holds.
+   */
+  private static class Tabulation {
+
+    private final Slicer.SliceProblem problem;
+
+    private final ISupergraph<Statement, PDG<?>> supergraph;
+
+    private final IPartiallyBalancedFlowFunctions<Statement> flowFunctions;
+
+    private final IProgressMonitor monitor;
+
+    /** entry -&gt; node -&gt; seeds s.t. the node is reached from the entry in their slices */
+    private final Map<Statement, Map<Statement, BitVector>> pathEdges = HashMapFactory.make();
+
+    /** callee entry -&gt; call node -&gt; seeds s.t. the call flows to the callee */
+    private final Map<Statement, Map<Statement, BitVector>> callFlowEdges = HashMapFactory.make();
+
+    /** entry -&gt; seeds s.t. the entry is the fake entry of an unbalanced seed */
+    private final Map<Statement, BitVector> unbalancedSeeds = HashMapFactory.make();
+
+    /** node -&gt; seeds s.t. the node is in their slices */
+    private final Map<Statement, BitVector> reached = HashMapFactory.make();
+
+    /** path edges with the seeds not processed yet, in the order they were found */
+    private final LinkedHashMap<Pair<Statement, Statement>, BitVector> worklist =
+        new LinkedHashMap<>();
+
+    Tabulation(Slicer.SliceProblem problem, IProgressMonitor monitor) {
+      this.problem = problem;
+      this.supergraph = problem.getSupergraph();
+      this.flowFunctions = problem.getFunctionMap();
+      this.monitor = monitor;
+    }
+
+    void solve() throws CancelException {
+      while (!worklist.isEmpty()) {
+        MonitorUtil.throwExceptionIfCanceled(monitor);
+        Iterator<Map.Entry<Pair<Statement, Statement>, BitVector>> it =
+            worklist.entrySet().iterator();
+        Map.Entry<Pair<Statement, Statement>, BitVector> e = it.next();
+        it.remove();
+        Statement s_p = e.getKey().fst;
+        Statement n = e.getKey().snd;
+        if (supergraph.isCall(n)) {
+          processCall(s_p, n, e.getValue());
+        } else if (supergraph.isExit(n)) {
+          processExit(s_p, n, e.getValue());
+        } else {
+          for (Statement m : Iterator2Iterable.make(supergraph.getSuccNodes(n))) {
+            if (reaches(flowFunctions.getNormalFlowFunction(n, m))) {
+              propagate(s_p, m, e.getValue());
+            }
+          }
+        }
+      }
+    }
+
+    /** Add the seeds in a set as unbalanced seeds at an entry, reaching a node */
+    void addSeed(Statement entry, Statement n, BitVector seeds) {
+      BitVector old = unbalancedSeeds.get(entry);
+      BitVector added = seeds;
+      if (old == null) {
+        unbalancedSeeds.put(entry, new BitVector(seeds));
+      } else {
+        added = BitVector.andNot(seeds, old);
+        old.or(added);
+      }
+      propagate(entry, n, seeds);
+      if (!added.isZero()) {
+        // exits reached from the entry before it became an unbalanced seed
+        Map<Statement, BitVector> fromEntry = pathEdges.get(entry);
+        for (Statement exit : supergraph.getExitsForProcedure(supergraph.getProcOf(entry))) {
+          BitVector atExit = fromEntry.get(exit);
+          if (atExit != null && !atExit.intersectionEmpty(added)) {
+            returnUnbalanced(exit, BitVector.and(atExit, added));
+          }
+        }
+      }
+    }
+
+    /** Record that a node is reached from an entry for some seeds, and schedule the new ones */
+    private void propagate(Statement s_p, Statement n, BitVector seeds) {
+      Map<Statement, BitVector> fromEntry =
+          pathEdges.computeIfAbsent(s_p, k -> HashMapFactory.make());
+      BitVector old = fromEntry.get(n);
+      BitVector added;
+      if (old == null) {
+        added = new BitVector(seeds);
+        fromEntry.put(n, new BitVector(seeds));
+      } else if (seeds.isSubset(old)) {
+        return;
+      } else {
+        added = BitVector.andNot(seeds, old);
+        old.or(added);
+      }
+      BitVector r = reached.get(n);
+      if (r == null) {
+        reached.put(n, new BitVector(added));
+      } else {
+        r.or(added);
+      }
+      BitVector pending = worklist.get(Pair.make(s_p, n));
+      if (pending == null) {
+        worklist.put(Pair.make(s_p, n), added);
+      } else {
+        pending.or(added);
+      }
+    }
+
+    private void processCall(Statement s_p, Statement call, BitVector seeds) {
+      boolean hasCallee = false;
+      Collection<Statement> allReturnSites = HashSetFactory.make();
+      for (Statement retSite : Iterator2Iterable.make(supergraph.getReturnSites(call, null))) {
+        allReturnSites.add(retSite);
+      }
+      for (Statement callee : Iterator2Iterable.make(supergraph.getCalledNodes(call))) {
+        hasCallee = true;
+        PDG<?> calleeProc = supergraph.getProcOf(callee);
+        Collection<Statement> returnSites = HashSetFactory.make();
+        for (Statement retSite :
+            Iterator2Iterable.make(supergraph.getReturnSites(call, calleeProc))) {
+          returnSites.add(retSite);
+        }
+        allReturnSites.addAll(returnSites);
+        boolean flows = reaches(flowFunctions.getCallFlowFunction(call, callee, null));
+        for (Statement retSite : returnSites) {
+          flows |= reaches(flowFunctions.getCallFlowFunction(call, callee, retSite));
+        }
+        if (!flows) {
+          continue;
+        }
+        propagate(callee, callee, seeds);
+        BitVector calls =
+            callFlowEdges.computeIfAbsent(callee, k -> HashMapFactory.make()).get(call);
+        if (calls == null) {
+          callFlowEdges.get(callee).put(call, new BitVector(seeds));
+        } else {
+          calls.or(seeds);
+        }
+        // apply the summary edges found so far
+        Map<Statement, BitVector> fromCallee = pathEdges.get(callee);
+        for (Statement exit : supergraph.getExitsForProcedure(calleeProc)) {
+          BitVector summary = fromCallee.get(exit);
+          if (summary == null || summary.intersectionEmpty(seeds)) {
+            continue;
+          }
+          BitVector s = BitVector.and(summary, seeds);
+          for (Statement retSite : returnSites) {
+            if (supergraph.hasEdge(exit, retSite)
+                && reaches(flowFunctions.getReturnFlowFunction(call, exit, retSite))) {
+              propagate(s_p, retSite, s);
+            }
+          }
+        }
+      }
+      // in backwards problems, a call node can have normal successors as well
+      for (Statement m : Iterator2Iterable.make(supergraph.getNormalSuccessors(call))) {
+        if (reaches(flowFunctions.getNormalFlowFunction(call, m))) {
+          propagate(s_p, m, seeds);
+        }
+      }
+      for (Statement retSite : allReturnSites) {
+        IUnaryFlowFunction f =
+            hasCallee
+                ? flowFunctions.getCallToReturnFlowFunction(call, retSite)
+                : flowFunctions.getCallNoneToReturnFlowFunction(call, retSite);
+        if (reaches(f)) {
+          propagate(s_p, retSite, seeds);
+        }
+      }
+    }
+
+    private void processExit(Statement s_p, Statement exit, BitVector seeds) {
+      // the path edges to the exit are the summary edges, so only the call flow edges remain
+      Map<Statement, BitVector> calls = callFlowEdges.get(s_p);
+      if (calls != null) {
+        PDG<?> proc = supergraph.getProcOf(exit);
+        for (Map.Entry<Statement, BitVector> e : calls.entrySet()) {
+          if (e.getValue().intersectionEmpty(seeds)) {
+            continue;
+          }
+          Statement call = e.getKey();
+          BitVector s = BitVector.and(e.getValue(), seeds);
+          for (Statement retSite : Iterator2Iterable.make(supergraph.getReturnSites(call, proc))) {
+            if (!supergraph.hasEdge(exit, retSite)
+                || !reaches(flowFunctions.getReturnFlowFunction(call, exit, retSite))) {
+              continue;
+            }
+            for (Statement entry : supergraph.getEntriesForProcedure(supergraph.getProcOf(call))) {
+              Map<Statement, BitVector> fromEntry = pathEdges.get(entry);
+              BitVector atCall = fromEntry == null ? null : fromEntry.get(call);
+              if (atCall != null && !atCall.intersectionEmpty(s)) {
+                propagate(entry, retSite, BitVector.and(atCall, s));
+              }
+            }
+          }
+        }
+      }
+      BitVector unbalanced = unbalancedSeeds.get(s_p);
+      if (unbalanced != null && !unbalanced.intersectionEmpty(seeds)) {
+        returnUnbalanced(exit, BitVector.and(unbalanced, seeds));
+      }
+    }
+
+    /** Return from an exit to all its callers, with the seeds s.t. it was reached unbalanced */
+    private void returnUnbalanced(Statement exit, BitVector seeds) {
+      for (Statement retSite : Iterator2Iterable.make(supergraph.getSuccNodes(exit))) {
+        if (reaches(flowFunctions.getUnbalancedReturnFlowFunction(exit, retSite))) {
+          addSeed(problem.getFakeEntry(retSite), retSite, seeds);
+        }
+      }
+    }
+
+    /** Does a slice flow function pass facts, rather than kill them? */
+    private static boolean reaches(IFlowFunction f) {
+      if (!(f instanceof IUnaryFlowFunction)) {
+        Assertions.UNREACHABLE("batch slicing not supported for binary flow functions");
+      }
+      IntSet targets = ((IUnaryFlowFunction) f).getTargets(0);
+      return targets != null && targets.contains(0);
+    }
+  }
+}
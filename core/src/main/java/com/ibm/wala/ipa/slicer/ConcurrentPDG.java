@@ -0,0 +1,192 @@
+package com.ibm.wala.ipa.slicer;
+
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.modref.ModRef;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A PDG of a concurrent {@link SDG}, which may be queried by several threads at once.
+ *
+ * <p>Every query holds the lock of this PDG, so that it is populated, and its heap data dependences
+ * computed, by one thread at a time. Since heap data dependences add edges as other statements are
+ * queried, the edge queries return copies of the edges found. The statements do not change once the
+ * PDG is populated, so the statement queries return them as they are.
+ */
+final class ConcurrentPDG<T extends InstanceKey> extends PDG<T> {
+
+  ConcurrentPDG(
+      CGNode node,
+      PointerAnalysis<T> pa,
+      Map<CGNode, OrdinalSet<PointerKey>> mod,
+      Map<CGNode, OrdinalSet<PointerKey>> ref,
+      DataDependenceOptions dOptions,
+      ControlDependenceOptions cOptions,
+      HeapExclusions exclusions,
+      CallGraph cg,
+      ModRef<T> modRef) {
+    super(node, pa, mod, ref, dOptions, cOptions, exclusions, cg, modRef);
+  }
+
+  private static <E> Iterator<E> copy(Iterator<? extends E> it) {
+    return Iterator2Collection.<E>toList(it).iterator();
+  }
+
+  private static IntSet copy(IntSet s) {
+    return s == null ? null : IntSetUtil.makeMutableCopy(s);
+  }
+
+  @Override
+  synchronized boolean isPopulated() {
+    return super.isPopulated();
+  }
+
+  @Override
+  synchronized void release() {
+    super.release();
+  }
+
+  @Override
+  public synchronized Set<Statement> getCallerParamStatements(SSAAbstractInvokeInstruction call) {
+    return super.getCallerParamStatements(call);
+  }
+
+  @Override
+  public synchronized Set<Statement> getCallStatements(SSAAbstractInvokeInstruction call) {
+    return super.getCallStatements(call);
+  }
+
+  @Override
+  public synchronized Set<Statement> getCallerReturnStatements(SSAAbstractInvokeInstruction call) {
+    return super.getCallerReturnStatements(call);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return super.toString();
+  }
+
+  @Override
+  public synchronized Statement[] getParamCalleeStatements() {
+    return super.getParamCalleeStatements();
+  }
+
+  @Override
+  public synchronized Statement[] getReturnStatements() {
+    return super.getReturnStatements();
+  }
+
+  @Override
+  public synchronized Iterator<Statement> getPredNodes(Statement N) {
+    return copy(super.getPredNodes(N));
+  }
+
+  @Override
+  public synchronized Iterator<Statement> getSuccNodes(Statement N) {
+    return copy(super.getSuccNodes(N));
+  }
+
+  @Override
+  public synchronized boolean hasEdge(Statement src, Statement dst) {
+    return super.hasEdge(src, dst);
+  }
+
+  @Override
+  public synchronized boolean containsNode(Statement N) {
+    return super.containsNode(N);
+  }
+
+  @Override
+  public synchronized int getNumberOfNodes() {
+    return super.getNumberOfNodes();
+  }
+
+  @Override
+  public synchronized Iterator<Statement> iterator() {
+    return super.iterator();
+  }
+
+  @Override
+  public synchronized Stream<Statement> stream() {
+    return super.stream();
+  }
+
+  @Override
+  public synchronized int getMaxNumber() {
+    return super.getMaxNumber();
+  }
+
+  @Override
+  public synchronized Statement getNode(int number) {
+    return super.getNode(number);
+  }
+
+  @Override
+  public synchronized int getNumber(Statement N) {
+    return super.getNumber(N);
+  }
+
+  @Override
+  public synchronized IntSet getPredNodeNumbers(Statement node, Dependency label) {
+    return copy(super.getPredNodeNumbers(node, label));
+  }
+
+  @Override
+  public synchronized IntSet getSuccNodeNumbers(Statement node, Dependency label) {
+    return copy(super.getSuccNodeNumbers(node, label));
+  }
+
+  @Override
+  public synchronized Iterator<Statement> getPredNodes(Statement N, Dependency label) {
+    return copy(super.getPredNodes(N, label));
+  }
+
+  @Override
+  public synchronized Iterator<? extends Dependency> getPredLabels(Statement N) {
+    return copy(super.getPredLabels(N));
+  }
+
+  @Override
+  public synchronized int getPredNodeCount(Statement N, Dependency label) {
+    return super.getPredNodeCount(N, label);
+  }
+
+  @Override
+  public synchronized Iterator<? extends Statement> getSuccNodes(Statement N, Dependency label) {
+    return copy(super.getSuccNodes(N, label));
+  }
+
+  @Override
+  public synchronized Iterator<? extends Dependency> getSuccLabels(Statement N) {
+    return copy(super.getSuccLabels(N));
+  }
+
+  @Override
+  public synchronized int getSuccNodeCount(Statement N, Dependency label) {
+    return super.getSuccNodeCount(N, label);
+  }
+
+  @Override
+  public synchronized boolean hasEdge(Statement src, Statement dst, Dependency label) {
+    return super.hasEdge(src, dst, label);
+  }
+
+  @Override
+  public synchronized Set<? extends Dependency> getEdgeLabels(Statement src, Statement dst) {
+    return HashSetFactory.make(super.getEdgeLabels(src, dst));
+  }
+}
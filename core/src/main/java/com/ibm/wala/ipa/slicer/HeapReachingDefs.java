@@ -41,6 +41,7 @@ import com.ibm.wala.ssa.analysis.IExplodedBasicBlock;
 import com.ibm.wala.util.CancelException;
 import com.ibm.wala.util.collections.FilterIterator;
 import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.IntObjectMap;
 import com.ibm.wala.util.collections.Iterator2Collection;
 import com.ibm.wala.util.collections.Iterator2Iterable;
 import com.ibm.wala.util.collections.ObjectArrayMapping;
@@ -123,7 +124,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
     OrdinalSetMapping<Statement> domain = createStatementDomain(statements);
 
     // map SSAInstruction indices to statements
-    Map<Integer, NormalStatement> ssaInstructionIndex2Statement =
+    IntObjectMap<NormalStatement> ssaInstructionIndex2Statement =
         mapInstructionsToStatements(domain);
 
     // solve reaching definitions as a dataflow problem
@@ -170,7 +171,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
         PointerAnalysis<T> pa,
         Map<CGNode, OrdinalSet<PointerKey>> mod,
         ExplodedControlFlowGraph cfg,
-        Map<Integer, NormalStatement> ssaInstructionIndex2Statement,
+        IntObjectMap<NormalStatement> ssaInstructionIndex2Statement,
         HeapExclusions exclusions,
         CallGraph cg) {
       if (VERBOSE) {
@@ -198,7 +199,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
         PointerAnalysis<T> pa,
         Map<CGNode, OrdinalSet<PointerKey>> mod,
         ExplodedControlFlowGraph cfg,
-        Map<Integer, NormalStatement> ssaInstruction2Statement) {
+        IntObjectMap<NormalStatement> ssaInstruction2Statement) {
       for (Statement s : domain) {
         delegate.put(
             s,
@@ -344,7 +345,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
         PointerAnalysis<T> pa,
         Map<CGNode, OrdinalSet<PointerKey>> mod,
         ExplodedControlFlowGraph cfg,
-        Map<Integer, NormalStatement> ssaInstructionIndex2Statement) {
+        IntObjectMap<NormalStatement> ssaInstructionIndex2Statement) {
       switch (s.getKind()) {
         case NORMAL:
           NormalStatement n = (NormalStatement) s;
@@ -446,7 +447,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
       PointerAnalysis<T> pa,
       Map<CGNode, OrdinalSet<PointerKey>> mod,
       ExplodedControlFlowGraph cfg,
-      Map<Integer, NormalStatement> ssaInstructionIndex2Statement,
+      IntObjectMap<NormalStatement> ssaInstructionIndex2Statement,
       HeapExclusions exclusions,
       CallGraph cg) {
 
@@ -505,9 +506,9 @@ public class HeapReachingDefs<T extends InstanceKey> {
   }
 
   /** map each SSAInstruction index to the NormalStatement which represents it. */
-  private static Map<Integer, NormalStatement> mapInstructionsToStatements(
+  private static IntObjectMap<NormalStatement> mapInstructionsToStatements(
       OrdinalSetMapping<Statement> domain) {
-    Map<Integer, NormalStatement> result = HashMapFactory.make();
+    IntObjectMap<NormalStatement> result = new IntObjectMap<>(domain.getSize());
     for (Statement s : domain) {
       if (s.getKind().equals(Kind.NORMAL)) {
         NormalStatement n = (NormalStatement) s;
@@ -535,7 +536,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
 
     private final PointerAnalysis<T> pa;
 
-    private final Map<Integer, NormalStatement> ssaInstructionIndex2Statement;
+    private final IntObjectMap<NormalStatement> ssaInstructionIndex2Statement;
 
     private final HeapExclusions exclusions;
 
@@ -550,7 +551,7 @@ public class HeapReachingDefs<T extends InstanceKey> {
         ExplodedControlFlowGraph cfg,
         PointerAnalysis<T> pa2,
         OrdinalSetMapping<Statement> domain,
-        Map<Integer, NormalStatement> ssaInstructionIndex2Statement,
+        IntObjectMap<NormalStatement> ssaInstructionIndex2Statement,
         HeapExclusions exclusions) {
       this.node = node;
       this.cfg = cfg;
@@ -34,4 +34,9 @@ public interface ISDG extends NumberedGraph<Statement>, IClassHierarchyDweller {
    * the entire graph.
    */
   Iterator<? extends Statement> iterateLazyNodes();
+
+  /** May several threads query this graph at once? */
+  default boolean isConcurrent() {
+    return false;
+  }
 }
@@ -69,13 +69,14 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 /** Program dependence graph for a single call graph node */
 public class PDG<T extends InstanceKey> implements NumberedLabeledGraph<Statement, Dependency> {
 
-  private final SlowSparseNumberedLabeledGraph<Statement, Dependency> delegate =
+  private SlowSparseNumberedLabeledGraph<Statement, Dependency> delegate =
       new SlowSparseNumberedLabeledGraph<>();
   /* END Custom change: control deps */
   private static final boolean VERBOSE = false;
@@ -87,17 +88,18 @@ public class PDG<T extends InstanceKey> implements NumberedLabeledGraph<Statemen
   private Statement[] returnStatements;
 
   /** TODO: using CallSiteReference is sloppy. clean it up. */
-  private final Map<CallSiteReference, Statement> callSite2Statement = HashMapFactory.make();
+  private Map<CallSiteReference, Statement> callSite2Statement = HashMapFactory.make();
 
-  private final Map<CallSiteReference, Set<Statement>> callerParamStatements =
-      HashMapFactory.make();
+  private Map<CallSiteReference, Set<Statement>> callerParamStatements = HashMapFactory.make();
 
-  private final Map<CallSiteReference, Set<Statement>> callerReturnStatements =
-      HashMapFactory.make();
+  private Map<CallSiteReference, Set<Statement>> callerReturnStatements = HashMapFactory.make();
 
   private final HeapExclusions exclusions;
 
-  private final Collection<PointerKey> locationsHandled = HashSetFactory.make();
+  private Collection<PointerKey> locationsHandled = HashSetFactory.make();
+
+  /** if non-null, told whenever this PDG is populated; see {@link #release()} */
+  Consumer<PDG<T>> populateListener;
 
   private final PointerAnalysis<T> pa;
 
@@ -191,6 +193,33 @@ public class PDG<T extends InstanceKey> implements NumberedLabeledGraph<Statemen
       Map<SSAInstruction, Integer> instructionIndices = computeInstructionIndices(ir);
       createNodes(ref, ir);
       createScalarEdges(cOptions, ir, instructionIndices);
+      if (populateListener != null) {
+        populateListener.accept(this);
+      }
+    }
+  }
+
+  /** Have the statements and edges of this PDG been computed, and not released since? */
+  boolean isPopulated() {
+    return isPopulated;
+  }
+
+  /**
+   * Drop the statements and edges of this PDG, including the heap data dependences computed so far.
+   * They are computed again the next time they are needed, with the same statements and the same
+   * local numbers, so this PDG can still be used afterwards; iterators obtained before are not
+   * affected.
+   */
+  void release() {
+    if (isPopulated) {
+      isPopulated = false;
+      delegate = new SlowSparseNumberedLabeledGraph<>();
+      paramCalleeStatements = null;
+      returnStatements = null;
+      callSite2Statement = HashMapFactory.make();
+      callerParamStatements = HashMapFactory.make();
+      callerReturnStatements = HashMapFactory.make();
+      locationsHandled = HashSetFactory.make();
     }
   }
 
@@ -896,12 +925,16 @@ public class PDG<T extends InstanceKey> implements NumberedLabeledGraph<Statemen
   /** Create all nodes in this PDG. Each node is a Statement. */
   private void createNodes(Map<CGNode, OrdinalSet<PointerKey>> ref, IR ir) {
 
+    // the formals come first, since getParamCalleeStatements() may create them before the other
+    // statements; this way the statements are numbered the same either way, which release()
+    // relies on
+    createCalleeParams();
+
     if (ir != null) {
       createNormalStatements(ir, ref);
       createSpecialStatements(ir);
     }
 
-    createCalleeParams();
     createReturnStatements();
 
     delegate.addNode(new MethodEntryStatement(node));
@@ -45,13 +45,22 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * System dependence graph.
  *
- * <p>An SDG comprises a set of PDGs, one for each method. We compute these lazily.
+ * <p>An SDG comprises a set of PDGs, one for each method. We compute these lazily, and {@link
+ * #setMaxPopulatedPDGs(int)} bounds how many of them are kept.
+ *
+ * <p>By default an SDG must be used by one thread at a time. After {@link #setConcurrent(boolean)},
+ * several threads may query it at once, e.g. a concurrent tabulation of a {@link
+ * Slicer.SliceProblem}: each PDG is populated, and computes its heap data dependences, while
+ * holding its own lock, and the SDG is locked only to create PDGs and to number their statements.
  *
  * <p>Prototype implementation. Not efficient.
  */
@@ -61,7 +70,7 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
   private static final boolean DEBUG_LAZY = false;
 
   /** node manager for graph API */
-  private final Nodes nodeMgr = new Nodes();
+  private Nodes nodeMgr = new Nodes();
 
   /** edge manager for graph API */
   private final Edges edgeMgr = new Edges();
@@ -75,6 +84,15 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
   /** keeps track of PDG for each call graph node */
   private final Map<CGNode, PDG<T>> pdgMap = HashMapFactory.make();
 
+  /** the most PDGs whose statements and edges are kept; see {@link #setMaxPopulatedPDGs(int)} */
+  private int maxPopulatedPDGs = Integer.MAX_VALUE;
+
+  /**
+   * PDGs whose statements and edges are computed, least recently used first; null until {@link
+   * #setMaxPopulatedPDGs(int)} is called, so that an unbounded SDG does not track them
+   */
+  private LinkedHashMap<CGNode, PDG<T>> populatedPDGs;
+
   /** governs data dependence edges in the graph */
   private final DataDependenceOptions dOptions;
 
@@ -104,6 +122,9 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
   /** Have we eagerly populated all nodes of this SDG? */
   private boolean eagerComputed = false;
 
+  /** May several threads query this SDG at once? See {@link #setConcurrent(boolean)} */
+  private boolean concurrent = false;
+
   public SDG(
       final CallGraph cg,
       PointerAnalysis<T> pa,
@@ -143,6 +164,83 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
     this.heapExclude = heapExclude;
   }
 
+  /**
+   * Bound the number of PDGs whose statements and edges are kept in memory. Once more PDGs have
+   * been computed, the least recently used ones are dropped, along with the heap data dependences
+   * computed for them, and computed again if they are needed later. The {@link PDG} objects
+   * themselves remain valid and keep their local statement numbers, so they can still be used as
+   * procedures of a tabulation problem. The statements of the SDG itself are kept, since they are
+   * numbered.
+   *
+   * @throws IllegalArgumentException if max &lt; 1
+   * @throws IllegalStateException if this SDG is concurrent
+   */
+  public void setMaxPopulatedPDGs(int max) {
+    if (max < 1) {
+      throw new IllegalArgumentException("max must be positive: " + max);
+    }
+    if (concurrent) {
+      throw new IllegalStateException("cannot bound the PDGs of a concurrent SDG");
+    }
+    maxPopulatedPDGs = max;
+    if (populatedPDGs == null) {
+      populatedPDGs =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2863404716224839815L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CGNode, PDG<T>> eldest) {
+              if (size() > maxPopulatedPDGs) {
+                eldest.getValue().release();
+                return true;
+              }
+              return false;
+            }
+          };
+      for (PDG<T> pdg : pdgMap.values()) {
+        trackPopulation(pdg);
+        if (pdg.isPopulated()) {
+          populatedPDGs.put(pdg.getCallGraphNode(), pdg);
+        }
+      }
+    }
+    // drop the least recently used PDGs beyond the new bound
+    for (Iterator<PDG<T>> it = populatedPDGs.values().iterator();
+        populatedPDGs.size() > max && it.hasNext(); ) {
+      it.next().release();
+      it.remove();
+    }
+  }
+
+  public int getMaxPopulatedPDGs() {
+    return maxPopulatedPDGs;
+  }
+
+  /**
+   * Allow several threads to query this SDG at once, as {@link
+   * com.ibm.wala.dataflow.IFDS.TabulationSolver#solve(java.util.concurrent.ForkJoinPool)} does. The
+   * PDGs of a concurrent SDG lock themselves on every query and return copies of the edges they
+   * find, so a concurrent SDG is slower to use from a single thread.
+   *
+   * @throws IllegalStateException if PDGs have already been computed, or if the PDGs of this SDG
+   *     are bounded by {@link #setMaxPopulatedPDGs(int)}
+   */
+  public void setConcurrent(boolean concurrent) {
+    if (!pdgMap.isEmpty()) {
+      throw new IllegalStateException("PDGs have already been computed");
+    }
+    if (concurrent && populatedPDGs != null) {
+      throw new IllegalStateException("cannot query an SDG with bounded PDGs concurrently");
+    }
+    this.concurrent = concurrent;
+    nodeMgr = concurrent ? new ConcurrentNodes() : new Nodes();
+  }
+
+  @Override
+  public boolean isConcurrent() {
+    return concurrent;
+  }
+
   /**
    * Use this with care. This forces eager construction of the SDG, and SDGs can be big.
    *
@@ -150,12 +248,18 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
    */
   @Override
   public String toString() {
+    if (concurrent) {
+      synchronized (this) {
+        eagerConstruction();
+        return super.toString();
+      }
+    }
     eagerConstruction();
 
     return super.toString();
   }
 
-  /** force eager construction of the entire SDG */
+  /** force eager construction of the entire SDG; called with the lock held if concurrent */
   private void eagerConstruction() {
     if (DEBUG_LAZY) {
       Assertions.UNREACHABLE();
@@ -171,6 +275,10 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
   }
 
   private void addPDGStatementNodes(CGNode node) {
+    if (concurrent) {
+      addPDGStatementNodesConcurrently(node);
+      return;
+    }
     if (!statementsAdded.contains(node)) {
       statementsAdded.add(node);
       PDG<?> pdg = getPDG(node);
@@ -180,6 +288,26 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
     }
   }
 
+  /**
+   * Number the statements of the PDG of node, populating the PDG without holding the lock of this
+   * SDG, so that threads populate different PDGs at the same time.
+   */
+  private void addPDGStatementNodesConcurrently(CGNode node) {
+    synchronized (this) {
+      if (statementsAdded.contains(node)) {
+        return;
+      }
+    }
+    List<Statement> statements = Iterator2Collection.toList(getPDG(node).iterator());
+    synchronized (this) {
+      if (statementsAdded.add(node)) {
+        for (Statement statement : statements) {
+          addNode(statement);
+        }
+      }
+    }
+  }
+
   /** force computation of all PDGs in the SDG */
   private void computeAllPDGs() {
     for (CGNode n : cg) {
@@ -270,6 +398,87 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
     }
   }
 
+  /**
+   * The statements of a concurrent SDG. Every access holds the lock of the SDG, and the iterators
+   * are over copies, since other threads may add statements.
+   */
+  private class ConcurrentNodes extends Nodes {
+
+    private static final long serialVersionUID = 5260187414851236312L;
+
+    @Override
+    public boolean containsNode(Statement N) {
+      synchronized (SDG.this) {
+        return super.containsNode(N);
+      }
+    }
+
+    @Override
+    public int getMaxNumber() {
+      synchronized (SDG.this) {
+        return super.getMaxNumber();
+      }
+    }
+
+    @Override
+    public Statement getNode(int number) {
+      synchronized (SDG.this) {
+        return super.getNode(number);
+      }
+    }
+
+    @Override
+    public int getNumber(Statement s) {
+      // populate the PDG without holding the lock
+      addPDGStatementNodes(s.getNode());
+      synchronized (SDG.this) {
+        return super.getNumber(s);
+      }
+    }
+
+    @Override
+    public void addNode(Statement n) {
+      synchronized (SDG.this) {
+        super.addNode(n);
+      }
+    }
+
+    @Override
+    public Iterator<Statement> iterator() {
+      synchronized (SDG.this) {
+        return Iterator2Collection.toList(super.iterator()).iterator();
+      }
+    }
+
+    @Override
+    public Stream<Statement> stream() {
+      synchronized (SDG.this) {
+        return Iterator2Collection.toList(super.stream().iterator()).stream();
+      }
+    }
+
+    @Override
+    Iterator<? extends Statement> iterateLazyNodes() {
+      synchronized (SDG.this) {
+        return Iterator2Collection.toList(super.iterateLazyNodes()).iterator();
+      }
+    }
+
+    @Override
+    public Statement getNodeLazy(int number) {
+      synchronized (SDG.this) {
+        return super.getNodeLazy(number);
+      }
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+      synchronized (SDG.this) {
+        return super.getNumberOfNodes();
+      }
+    }
+  }
+
   private class Edges implements NumberedEdgeManager<Statement> {
     @Override
     public void addEdge(Statement src, Statement dst) {
@@ -838,18 +1047,41 @@ public class SDG<T extends InstanceKey> extends AbstractNumberedGraph<Statement>
 
   @Override
   public PDG<T> getPDG(CGNode node) {
+    if (concurrent) {
+      synchronized (this) {
+        return findOrCreatePDG(node);
+      }
+    }
+    return findOrCreatePDG(node);
+  }
+
+  private PDG<T> findOrCreatePDG(CGNode node) {
     PDG<T> result = pdgMap.get(node);
     if (result == null) {
-      result = new PDG<>(node, pa, mod, ref, dOptions, cOptions, heapExclude, cg, modRef);
+      result =
+          concurrent
+              ? new ConcurrentPDG<>(node, pa, mod, ref, dOptions, cOptions, heapExclude, cg, modRef)
+              : new PDG<>(node, pa, mod, ref, dOptions, cOptions, heapExclude, cg, modRef);
+      if (populatedPDGs != null) {
+        trackPopulation(result);
+      }
       pdgMap.put(node, result);
       // Let's not eagerly add nodes, shall we?
       // for (Iterator<? extends Statement> it = result.iterator(); it.hasNext();) {
       // nodeMgr.addNode(it.next());
       // }
+    } else if (populatedPDGs != null) {
+      // note the use for the least recently used order
+      populatedPDGs.get(node);
     }
     return result;
   }
 
+  /** Add a PDG to {@link #populatedPDGs} whenever it is populated */
+  private void trackPopulation(PDG<T> pdg) {
+    pdg.populateListener = p -> populatedPDGs.put(p.getCallGraphNode(), p);
+  }
+
   @Override
   public ControlDependenceOptions getCOptions() {
     return cOptions;
@@ -304,8 +304,11 @@ public class Slicer {
 
     private final boolean backward;
 
+    private final ISDG sdg;
+
     public SliceProblem(Collection<Statement> roots, ISDG sdg, boolean backward) {
       this.roots = roots;
+      this.sdg = sdg;
       this.backward = backward;
       SDGSupergraph forwards = new SDGSupergraph(sdg, backward);
       this.supergraph = backward ? BackwardsSupergraph.make(forwards) : forwards;
@@ -337,6 +340,12 @@ public class Slicer {
       return null;
     }
 
+    /** The flow functions are stateless, so this problem is as concurrent as its SDG. */
+    @Override
+    public boolean isConcurrent() {
+      return sdg.isConcurrent();
+    }
+
     /**
      * @see com.ibm.wala.dataflow.IFDS.TabulationProblem#getSupergraph()
      */
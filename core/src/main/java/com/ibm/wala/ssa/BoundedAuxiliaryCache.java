@@ -0,0 +1,476 @@
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.MapUtil;
+import com.ibm.wala.util.collections.Pair;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A cache for auxiliary information based on an SSA representation, with an explicit bound on its
+ * size.
+ *
+ * <p>Unlike {@link AuxiliaryCache}, entries are held strongly and evicted by a fixed {@link Policy}
+ * once the total weight of the cache exceeds a maximum. The weight of an entry is given by a {@link
+ * Weigher}: {@link #ENTRIES} bounds the number of entries, {@link #ESTIMATED_BYTES} bounds the
+ * estimated memory footprint of the cached {@link IR}s and {@link DefUse}s.
+ *
+ * <p>The cache counts hits, misses and evictions; see {@link #getHitCount()}, {@link
+ * #getMissCount()} and {@link #getEvictionCount()}.
+ */
+public class BoundedAuxiliaryCache implements IAuxiliaryCache {
+
+  /** Eviction policies */
+  public enum Policy {
+    /** evict the least recently used entry */
+    LRU,
+    /**
+     * Window TinyLFU: new entries enter a small LRU window; an entry leaving the window is only
+     * admitted to the main segmented LRU if it was accessed more often than the entry it would
+     * replace, which keeps a one-off scan over many methods from flushing the cache.
+     */
+    WINDOW_TINY_LFU
+  }
+
+  /** Computes the weight of a cached object */
+  public interface Weigher {
+    /**
+     * @return the weight of aux, cached for method m; must not be negative
+     */
+    long weigh(IMethod m, Object aux);
+  }
+
+  /** Every entry weighs 1, so the maximum weight is the maximum number of entries */
+  public static final Weigher ENTRIES = (m, aux) -> 1;
+
+  /** Weighs {@link IR}s and {@link DefUse}s by a rough estimate of their size in bytes */
+  public static final Weigher ESTIMATED_BYTES =
+      (m, aux) -> {
+        if (aux instanceof IR) {
+          IR ir = (IR) aux;
+          return 256L
+              + 64L * ir.getInstructions().length
+              + 32L * ir.getSymbolTable().getMaxValueNumber()
+              + 128L * ir.getControlFlowGraph().getNumberOfNodes();
+        } else if (aux instanceof DefUse) {
+          return 128L + 96L * ((DefUse) aux).allInstructions.size();
+        } else {
+          return 1;
+        }
+      };
+
+  /** percentage of the maximum weight given to the window of {@link Policy#WINDOW_TINY_LFU} */
+  private static final int WINDOW_PERCENT = 1;
+
+  /** percentage of the main segment reserved for entries accessed more than once */
+  private static final int PROTECTED_PERCENT = 80;
+
+  private final long maximumWeight;
+
+  private final Weigher weigher;
+
+  private final Policy policy;
+
+  private final Map<Key, Node> entries = HashMapFactory.make();
+
+  /** index for {@link #invalidate(IMethod, Context)} */
+  private final Map<Pair<IMethod, Context>, Set<Key>> keysByMethod = HashMapFactory.make();
+
+  private final Queue window = new Queue();
+
+  private final Queue probation = new Queue();
+
+  private final Queue protectedQueue = new Queue();
+
+  private final long windowMaximum;
+
+  private final long protectedMaximum;
+
+  /** access frequencies, only maintained for {@link Policy#WINDOW_TINY_LFU} */
+  private final FrequencySketch sketch;
+
+  private long weight = 0;
+
+  private long hitCount = 0;
+
+  private long missCount = 0;
+
+  private long evictionCount = 0;
+
+  /**
+   * @param maximumEntries the maximum number of entries to cache
+   */
+  public BoundedAuxiliaryCache(int maximumEntries) {
+    this(maximumEntries, ENTRIES, Policy.WINDOW_TINY_LFU);
+  }
+
+  /**
+   * @param maximumWeight the maximum total weight of the cached entries
+   * @param weigher computes the weight of each entry
+   * @param policy decides which entries to evict
+   * @throws IllegalArgumentException if maximumWeight &lt; 1 or weigher or policy is null
+   */
+  public BoundedAuxiliaryCache(long maximumWeight, Weigher weigher, Policy policy) {
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("invalid maximumWeight: " + maximumWeight);
+    }
+    if (weigher == null) {
+      throw new IllegalArgumentException("null weigher");
+    }
+    if (policy == null) {
+      throw new IllegalArgumentException("null policy");
+    }
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    this.policy = policy;
+    if (policy == Policy.LRU) {
+      this.windowMaximum = maximumWeight;
+      this.protectedMaximum = 0;
+      this.sketch = null;
+    } else {
+      this.windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+      this.protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+      this.sketch = new FrequencySketch(maximumWeight);
+    }
+  }
+
+  @Override
+  public synchronized void wipe() {
+    entries.clear();
+    keysByMethod.clear();
+    window.clear();
+    probation.clear();
+    protectedQueue.clear();
+    weight = 0;
+  }
+
+  @Override
+  public synchronized Object find(IMethod m, Context c, SSAOptions options) {
+    Key key = new Key(m, c, options);
+    if (sketch != null) {
+      sketch.increment(key);
+    }
+    Node node = entries.get(key);
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    onAccess(node);
+    return node.value;
+  }
+
+  @Override
+  public synchronized void cache(IMethod m, Context c, SSAOptions options, Object aux) {
+    Key key = new Key(m, c, options);
+    long w = weigher.weigh(m, aux);
+    assert w >= 0 : "negative weight " + w + " for " + aux;
+    Node node = entries.get(key);
+    if (node != null) {
+      node.queue.weight += w - node.weight;
+      weight += w - node.weight;
+      node.value = aux;
+      node.weight = w;
+      onAccess(node);
+    } else {
+      node = new Node(key, aux, w);
+      entries.put(key, node);
+      MapUtil.findOrCreateSet(keysByMethod, Pair.make(m, c)).add(key);
+      window.add(node);
+      weight += w;
+    }
+    evict();
+  }
+
+  @Override
+  public synchronized void invalidate(IMethod method, Context c) {
+    Set<Key> keys = keysByMethod.remove(Pair.make(method, c));
+    if (keys != null) {
+      for (Key key : keys) {
+        Node node = entries.remove(key);
+        node.queue.remove(node);
+        weight -= node.weight;
+      }
+    }
+  }
+
+  /** Move node according to the policy, after it has been accessed */
+  private void onAccess(Node node) {
+    if (node.queue == probation && policy == Policy.LRU) {
+      probation.remove(node);
+      window.add(node);
+    } else if (node.queue == probation) {
+      probation.remove(node);
+      protectedQueue.add(node);
+      while (protectedQueue.weight > protectedMaximum && protectedQueue.first() != node) {
+        Node demoted = protectedQueue.first();
+        protectedQueue.remove(demoted);
+        probation.add(demoted);
+      }
+    } else {
+      node.queue.moveToBack(node);
+    }
+  }
+
+  /** Evict entries until the cache is within its bounds */
+  private void evict() {
+    // entries leaving the window become candidates for the main segment
+    Node candidate = null;
+    while (window.weight > windowMaximum && window.first() != null) {
+      candidate = window.first();
+      window.remove(candidate);
+      probation.add(candidate);
+    }
+    while (weight > maximumWeight) {
+      Node victim = probation.first();
+      if (victim == null) {
+        victim = protectedQueue.first() != null ? protectedQueue.first() : window.first();
+      } else if (sketch != null
+          && candidate != null
+          && candidate != victim
+          && candidate.queue == probation
+          && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+        // the candidate is not accessed often enough to be worth the victim's place
+        victim = candidate;
+        candidate = candidate.prev == probation.head ? null : candidate.prev;
+      }
+      remove(victim);
+    }
+  }
+
+  private void remove(Node node) {
+    node.queue.remove(node);
+    entries.remove(node.key);
+    Pair<IMethod, Context> p = Pair.make(node.key.method, node.key.context);
+    Set<Key> keys = keysByMethod.get(p);
+    keys.remove(node.key);
+    if (keys.isEmpty()) {
+      keysByMethod.remove(p);
+    }
+    weight -= node.weight;
+    evictionCount++;
+  }
+
+  /**
+   * @return the number of entries in the cache
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the total weight of the entries in the cache
+   */
+  public synchronized long getWeightedSize() {
+    return weight;
+  }
+
+  public long getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @return the number of lookups that found an entry
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return the number of lookups that found no entry
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return the number of entries evicted to stay within the bounds of the cache; entries removed
+   *     by {@link #invalidate(IMethod, Context)} or {@link #wipe()} are not counted
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "BoundedAuxiliaryCache["
+        + policy
+        + ", entries: "
+        + entries.size()
+        + ", weight: "
+        + weight
+        + '/'
+        + maximumWeight
+        + ", hits: "
+        + hitCount
+        + ", misses: "
+        + missCount
+        + ", evictions: "
+        + evictionCount
+        + ']';
+  }
+
+  private static final class Key {
+
+    private final IMethod method;
+
+    private final Context context;
+
+    private final SSAOptions options;
+
+    Key(IMethod method, Context context, SSAOptions options) {
+      this.method = method;
+      this.context = context;
+      this.options = options;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(method, context, options);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return method.equals(other.method)
+          && Objects.equals(context, other.context)
+          && Objects.equals(options, other.options);
+    }
+  }
+
+  private static final class Node {
+
+    private final Key key;
+
+    private Object value;
+
+    private long weight;
+
+    /** the queue this node is in */
+    private Queue queue;
+
+    private Node prev;
+
+    private Node next;
+
+    Node(Key key, Object value, long weight) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /** A doubly-linked list of nodes in access order, least recently used first */
+  private static final class Queue {
+
+    /** sentinel; head.next is the least recently used node */
+    private final Node head = new Node(null, null, 0);
+
+    private long weight = 0;
+
+    Queue() {
+      clear();
+    }
+
+    void clear() {
+      head.next = head;
+      head.prev = head;
+      weight = 0;
+    }
+
+    Node first() {
+      return head.next == head ? null : head.next;
+    }
+
+    void add(Node node) {
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+      node.queue = this;
+      weight += node.weight;
+    }
+
+    void remove(Node node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+      node.queue = null;
+      weight -= node.weight;
+    }
+
+    void moveToBack(Node node) {
+      remove(node);
+      add(node);
+    }
+  }
+
+  /**
+   * A count-min sketch of access frequencies with 4-bit counters, halved periodically so that old
+   * accesses age out.
+   */
+  private static final class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int[] SEEDS = {0x97cb3127, 0x2fbd5a57, 0x5bd1e995, 0x7f4a7c15};
+
+    private final byte[] counters;
+
+    private final int mask;
+
+    /** number of increments after which all counters are halved */
+    private final int sampleSize;
+
+    private int increments = 0;
+
+    FrequencySketch(long maximumWeight) {
+      int size = Integer.highestOneBit((int) Math.min(Math.max(maximumWeight, 1 << 8), 1 << 20));
+      this.counters = new byte[size * 2];
+      this.mask = counters.length - 1;
+      this.sampleSize = 10 * size;
+    }
+
+    private int index(Object key, int i) {
+      int h = key.hashCode() * SEEDS[i];
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    int frequency(Object key) {
+      int result = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++) {
+        result = Math.min(result, counters[index(key, i)]);
+      }
+      return result;
+    }
+
+    void increment(Object key) {
+      for (int i = 0; i < SEEDS.length; i++) {
+        int j = index(key, i);
+        if (counters[j] < MAX_COUNT) {
+          counters[j]++;
+        }
+      }
+      if (++increments == sampleSize) {
+        for (int j = 0; j < counters.length; j++) {
+          counters[j] >>= 1;
+        }
+        increments /= 2;
+      }
+    }
+  }
+}
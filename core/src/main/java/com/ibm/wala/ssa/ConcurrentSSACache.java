@@ -0,0 +1,186 @@
+package com.ibm.wala.ssa;
+
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * An {@link SSACache} that can be used from many threads at once.
+ *
+ * <p>Unlike {@link SSACache}, lookups do not lock the whole cache. Each IR or {@link DefUse} is
+ * built at most once at a time: a thread that asks for a &lt;method,context,options&gt; triple
+ * whose IR is being built by another thread waits for that build, while requests for other triples
+ * proceed in parallel. The {@link IRFactory} must therefore be safe to call from several threads,
+ * and the auxiliary caches must synchronize themselves, as {@link AuxiliaryCache} and {@link
+ * BoundedAuxiliaryCache} do.
+ */
+public class ConcurrentSSACache extends SSACache {
+
+  /** IRs currently being built */
+  private final ConcurrentMap<Key, FutureTask<IR>> pendingIRs = new ConcurrentHashMap<>();
+
+  /** DefUse information currently being built */
+  private final ConcurrentMap<Key, FutureTask<DefUse>> pendingDUs = new ConcurrentHashMap<>();
+
+  /**
+   * @param factory a factory for creating IRs
+   */
+  public ConcurrentSSACache(
+      IRFactory<IMethod> factory, IAuxiliaryCache irCache, IAuxiliaryCache duCache) {
+    super(factory, irCache, duCache);
+  }
+
+  @Override
+  public IR findOrCreateIR(final IMethod m, Context c, final SSAOptions options) {
+    if (m == null) {
+      throw new IllegalArgumentException("m is null");
+    }
+    if (m.isAbstract() || m.isNative()) {
+      return null;
+    }
+    if (factory.contextIsIrrelevant(m)) {
+      c = Everywhere.EVERYWHERE;
+    }
+    IR ir = (IR) irCache.find(m, c, options);
+    if (ir != null) {
+      return ir;
+    }
+    final Context context = c;
+    return computeOnce(
+        pendingIRs,
+        new Key(m, context, options),
+        () -> {
+          // another thread may have finished building the IR after our lookup above
+          IR result = (IR) irCache.find(m, context, options);
+          if (result == null) {
+            result = factory.makeIR(m, context, options);
+            irCache.cache(m, context, options, result);
+          }
+          return result;
+        });
+  }
+
+  @Override
+  public DefUse findOrCreateDU(IMethod m, Context c, SSAOptions options) {
+    if (m == null) {
+      throw new IllegalArgumentException("m is null");
+    }
+    if (m.isAbstract() || m.isNative()) {
+      return null;
+    }
+    if (factory.contextIsIrrelevant(m)) {
+      c = Everywhere.EVERYWHERE;
+    }
+    DefUse du = (DefUse) duCache.find(m, c, options);
+    if (du != null) {
+      return du;
+    }
+    IR ir = findOrCreateIR(m, c, options);
+    return findOrCreateDU(ir, m, c, options);
+  }
+
+  @Override
+  public DefUse findOrCreateDU(IR ir, Context C) {
+    if (ir == null) {
+      throw new IllegalArgumentException("ir is null");
+    }
+    DefUse du = (DefUse) duCache.find(ir.getMethod(), C, ir.getOptions());
+    if (du != null) {
+      return du;
+    }
+    return findOrCreateDU(ir, ir.getMethod(), C, ir.getOptions());
+  }
+
+  private DefUse findOrCreateDU(IR ir, IMethod m, Context c, SSAOptions options) {
+    return computeOnce(
+        pendingDUs,
+        new Key(m, c, options),
+        () -> {
+          DefUse result = (DefUse) duCache.find(m, c, options);
+          if (result == null) {
+            result = new DefUse(ir);
+            duCache.cache(m, c, options, result);
+          }
+          return result;
+        });
+  }
+
+  /**
+   * Run computation for key, unless another thread is already running one, in which case wait for
+   * its result.
+   */
+  private static <T> T computeOnce(
+      ConcurrentMap<Key, FutureTask<T>> pending, Key key, Callable<T> computation) {
+    FutureTask<T> task = new FutureTask<>(computation);
+    FutureTask<T> running = pending.putIfAbsent(key, task);
+    if (running == null) {
+      running = task;
+      try {
+        task.run();
+      } finally {
+        pending.remove(key, task);
+      }
+    }
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return running.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static final class Key {
+
+    private final IMethod method;
+
+    private final Context context;
+
+    private final SSAOptions options;
+
+    Key(IMethod method, Context context, SSAOptions options) {
+      this.method = method;
+      this.context = context;
+      this.options = options;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(method, context, options);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return method.equals(other.method)
+          && Objects.equals(context, other.context)
+          && Objects.equals(options, other.options);
+    }
+  }
+}
@@ -13,6 +13,12 @@ package com.ibm.wala.ssa;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.ipa.callgraph.Context;
 import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * A mapping from IMethod -&gt; SSAOptions -&gt; SoftReference -&gt; Something
@@ -26,13 +32,13 @@ public class SSACache {
   private static final boolean DISABLE = false;
 
   /** The factory that actually creates new IR objects */
-  private final IRFactory<IMethod> factory;
+  protected final IRFactory<IMethod> factory;
 
   /** A cache of SSA IRs */
-  private final IAuxiliaryCache irCache;
+  protected final IAuxiliaryCache irCache;
 
   /** A cache of DefUse information */
-  private final IAuxiliaryCache duCache;
+  protected final IAuxiliaryCache duCache;
 
   /**
    * @param factory a factory for creating IRs
@@ -117,6 +123,41 @@ public class SSACache {
     return du;
   }
 
+  /**
+   * Build and cache the IRs of the given methods, running one task per method on executor. Returns
+   * once all IRs have been built. Note that IRs are only built concurrently if the cache allows it,
+   * see {@link ConcurrentSSACache}.
+   *
+   * @param methods the methods whose IRs should be built; abstract and native methods are skipped
+   * @param options options governing ssa construction
+   * @throws IllegalArgumentException if methods or executor is null
+   */
+  public void prebuildIRs(
+      Collection<? extends IMethod> methods, Context c, SSAOptions options, Executor executor) {
+    if (methods == null) {
+      throw new IllegalArgumentException("methods is null");
+    }
+    if (executor == null) {
+      throw new IllegalArgumentException("executor is null");
+    }
+    List<CompletableFuture<?>> tasks = new ArrayList<>(methods.size());
+    for (IMethod m : methods) {
+      if (!m.isAbstract() && !m.isNative()) {
+        tasks.add(CompletableFuture.runAsync(() -> findOrCreateIR(m, c, options), executor));
+      }
+    }
+    try {
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
   /** The existence of this is unfortunate. */
   public void wipe() {
     irCache.wipe();
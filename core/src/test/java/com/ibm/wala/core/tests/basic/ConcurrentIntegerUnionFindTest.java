@@ -0,0 +1,89 @@
+package com.ibm.wala.core.tests.basic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.ConcurrentIntegerUnionFind;
+import com.ibm.wala.util.intset.IntegerUnionFind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Check {@link ConcurrentIntegerUnionFind} against the sequential {@link IntegerUnionFind} */
+public class ConcurrentIntegerUnionFindTest extends WalaTestCase {
+
+  @Test
+  public void testSequential() {
+    ConcurrentIntegerUnionFind uf = new ConcurrentIntegerUnionFind(10);
+    assertTrue(uf.union(1, 2));
+    assertTrue(uf.union(3, 2));
+    assertFalse(uf.union(1, 3));
+    assertTrue(uf.sameSet(1, 3));
+    assertFalse(uf.sameSet(0, 3));
+    assertEquals(uf.find(1), uf.find(3));
+    assertEquals(0, uf.find(0));
+    assertThrows(IllegalArgumentException.class, () -> uf.find(10));
+    assertThrows(IllegalArgumentException.class, () -> uf.union(-1, 0));
+  }
+
+  @Test
+  public void testConcurrentUnions() throws Exception {
+    int n = 200000;
+    Random r = new Random(13);
+    int[][] pairs = new int[n][2];
+    for (int[] p : pairs) {
+      p[0] = r.nextInt(n);
+      // mostly nearby elements, so that many unions race on the same classes
+      p[1] = r.nextInt(4) == 0 ? r.nextInt(n) : Math.min(n - 1, p[0] + r.nextInt(8));
+    }
+    IntegerUnionFind expected = new IntegerUnionFind(n);
+    for (int[] p : pairs) {
+      expected.union(p[0], p[1]);
+    }
+    for (int threads : new int[] {1, 2, 8, 32}) {
+      ConcurrentIntegerUnionFind uf = new ConcurrentIntegerUnionFind(n);
+      AtomicInteger merges = new AtomicInteger();
+      CyclicBarrier start = new CyclicBarrier(threads);
+      List<Thread> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int first = t;
+        Thread worker =
+            new Thread(
+                () -> {
+                  try {
+                    start.await();
+                  } catch (Exception e) {
+                    throw new RuntimeException(e);
+                  }
+                  for (int i = first; i < n; i += threads) {
+                    if (uf.union(pairs[i][0], pairs[i][1])) {
+                      merges.incrementAndGet();
+                    }
+                    uf.find(pairs[(i * 7) % n][0]);
+                  }
+                });
+        workers.add(worker);
+        worker.start();
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+      int classes = 0;
+      for (int i = 0; i < n; i++) {
+        if (expected.find(i) == i) {
+          classes++;
+        }
+        assertEquals(expected.find(i) == expected.find((i * 31) % n), uf.sameSet(i, (i * 31) % n));
+        assertEquals(uf.find(expected.find(i)), uf.find(i), "class of " + i);
+      }
+      // every successful union merged two classes
+      assertEquals(n - classes, merges.get(), threads + " threads");
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.ibm.wala.core.tests.basic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.graph.GraphReachability;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.ReachabilityIndex;
+import com.ibm.wala.util.graph.dominators.Dominators;
+import com.ibm.wala.util.graph.dominators.GenericDominators;
+import com.ibm.wala.util.graph.dominators.NumberedDominators;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.graph.traverse.NumberedSCCDecomposition;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
+import com.ibm.wala.util.graph.traverse.Topological;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the int-array graph algorithms over {@link NumberedGraph}s */
+public class NumberedGraphAlgorithmsTest extends WalaTestCase {
+
+  /** a graph of nodes 0 .. n-1, where each node has a few random successors, mostly nearby */
+  private static NumberedGraph<Integer> randomGraph(Random r, int n, int degree, int spread) {
+    NumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < n; i++) {
+      g.addNode(i);
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = r.nextInt(degree + 1); j > 0; j--) {
+        int k = Math.floorMod(i + r.nextInt(2 * spread) - spread / 2, n);
+        g.addEdge(i, k);
+      }
+    }
+    return g;
+  }
+
+  private static void checkSCCs(NumberedGraph<Integer> g, NumberedSCCDecomposition<Integer> d) {
+    Set<Set<Integer>> expected = new HashSet<>();
+    new SCCIterator<>(g).forEachRemaining(expected::add);
+    Set<Set<Integer>> actual = new HashSet<>();
+    d.forEach(actual::add);
+    assertEquals(expected, actual);
+    assertEquals(expected.size(), d.getNumberOfComponents());
+    for (Integer n : g) {
+      assertTrue(d.getSCC(d.getComponent(n)).contains(n));
+      for (Integer s : Iterator2Iterable.make(g.getSuccNodes(n))) {
+        assertTrue(d.getComponent(n) <= d.getComponent(s));
+      }
+    }
+  }
+
+  @Test
+  public void testSCCs() {
+    Random r = new Random(7);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int i = 0; i < 20; i++) {
+        NumberedGraph<Integer> g = randomGraph(r, 1 + r.nextInt(3000), 3, 8 + r.nextInt(300));
+        if (i % 2 == 0 && g.getNumberOfNodes() > 10) {
+          // leave a hole in the node numbering
+          g.removeNodeAndEdges(5);
+        }
+        checkSCCs(g, NumberedSCCDecomposition.make(g));
+        checkSCCs(g, NumberedSCCDecomposition.makeParallel(g, pool));
+      }
+      // big enough that the parallel decomposition splits it many times
+      NumberedGraph<Integer> g = randomGraph(r, 40000, 2, 20000);
+      checkSCCs(g, NumberedSCCDecomposition.makeParallel(g, pool));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testTopological() {
+    NumberedGraph<Integer> g = randomGraph(new Random(9), 2000, 2, 40);
+    NumberedSCCDecomposition<Integer> d = NumberedSCCDecomposition.make(g);
+    int last = 0;
+    int count = 0;
+    for (Integer n : Topological.makeNumberedTopologicalIter(g)) {
+      assertTrue(d.getComponent(n) >= last);
+      last = d.getComponent(n);
+      count++;
+    }
+    assertEquals(g.getNumberOfNodes(), count);
+  }
+
+  @Test
+  public void testDominators() {
+    Random r = new Random(3);
+    for (int i = 0; i < 30; i++) {
+      NumberedGraph<Integer> g = randomGraph(r, 1 + r.nextInt(500), 3, 4 + r.nextInt(50));
+      Dominators<Integer> expected = new GenericDominators<>(g, 0);
+      Dominators<Integer> actual = Dominators.make(g, 0);
+      assertTrue(actual instanceof NumberedDominators);
+      for (Integer n : g) {
+        assertEquals(expected.getIdom(n), actual.getIdom(n), "idom of " + n);
+      }
+    }
+  }
+
+  @Test
+  public void testReachability() throws CancelException {
+    Random r = new Random(11);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      for (int i = 0; i < 20; i++) {
+        // a few long chains make for tall waves, a large spread for big SCCs
+        NumberedGraph<Integer> g = randomGraph(r, 1 + r.nextInt(2000), 2, 2 + r.nextInt(400));
+        int mod = 1 + r.nextInt(10);
+        Predicate<Integer> filter = n -> n % mod == 0;
+        GraphReachability<Integer, Integer> expected = new GraphReachability<>(g, filter);
+        expected.solve(null);
+        ReachabilityIndex<Integer, Integer> index =
+            ReachabilityIndex.make(g, filter, i % 2 == 0 ? pool : single);
+        for (Integer n : g) {
+          Set<Integer> reached = new HashSet<>();
+          expected.getReachableSet(n).forEach(reached::add);
+          Set<Integer> actual = new HashSet<>();
+          index.getReachableSet(n).forEach(actual::add);
+          assertEquals(reached, actual, "reachable from " + n);
+          for (Integer m : g) {
+            assertEquals(reached.contains(m), index.reachable(n, m));
+          }
+        }
+        List<Integer> sources = List.of(0, g.getNumberOfNodes() / 2, g.getNumberOfNodes() - 1);
+        Set<Integer> union = new HashSet<>();
+        for (Integer n : sources) {
+          expected.getReachableSet(n).forEach(union::add);
+        }
+        Set<Integer> actual = new HashSet<>();
+        index.reachableFrom(sources).forEach(actual::add);
+        assertEquals(union, actual);
+      }
+    } finally {
+      pool.shutdown();
+      single.shutdown();
+    }
+  }
+
+  @Test
+  public void testDeepGraphs() {
+    // a single path, so every depth-first search goes a million deep
+    int n = 1000000;
+    NumberedGraph<Integer> g = SlowSparseNumberedGraph.make();
+    for (int i = 0; i < n; i++) {
+      g.addNode(i);
+    }
+    for (int i = 0; i + 1 < n; i++) {
+      g.addEdge(i, i + 1);
+    }
+    g.addEdge(n - 1, n / 2);
+    Dominators<Integer> dom = Dominators.make(g, 0);
+    assertNull(dom.getIdom(0));
+    assertEquals(n - 2, dom.getIdom(n - 1));
+    assertEquals(n / 2 - 1, dom.getIdom(n / 2));
+    NumberedSCCDecomposition<Integer> d = NumberedSCCDecomposition.make(g);
+    assertEquals(n / 2 + 1, d.getNumberOfComponents());
+    assertEquals(n / 2, d.getSCC(d.getNumberOfComponents() - 1).size());
+    assertEquals(
+        d.getNumberOfComponents(),
+        NumberedSCCDecomposition.makeParallel(g).getNumberOfComponents());
+    ReachabilityIndex<Integer, Integer> index = ReachabilityIndex.make(g, x -> x % 1000 == 0);
+    assertEquals(n / 1000, index.getReachableSet(0).size());
+    assertEquals(n / 2000, index.getReachableSet(n - 1).size());
+    assertTrue(index.reachable(n - 1, n / 2));
+  }
+}
@@ -0,0 +1,160 @@
+package com.ibm.wala.core.tests.basic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.fixedpoint.impl.BasicNullaryStatement;
+import com.ibm.wala.fixedpoint.impl.NullaryOperator;
+import com.ibm.wala.fixedpoint.impl.Worklist;
+import com.ibm.wala.fixpoint.AbstractStatement;
+import com.ibm.wala.fixpoint.BooleanVariable;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Heap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("rawtypes")
+public class WorklistTest extends WalaTestCase {
+
+  private static final NullaryOperator<BooleanVariable> NOP =
+      new NullaryOperator<>() {
+        @Override
+        public byte evaluate(BooleanVariable lhs) {
+          return NOT_CHANGED;
+        }
+
+        @Override
+        public int hashCode() {
+          return 7;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+          return o == this;
+        }
+
+        @Override
+        public String toString() {
+          return "NOP";
+        }
+      };
+
+  /** The set-based duplicate detection the flag-based {@link Worklist} replaces */
+  private static final class HashSetWorklist extends Heap<AbstractStatement> {
+
+    private final HashSet<AbstractStatement> contents = HashSetFactory.make();
+
+    HashSetWorklist() {
+      super(100);
+    }
+
+    @Override
+    protected boolean compareElements(AbstractStatement eq1, AbstractStatement eq2) {
+      return eq1.getOrderNumber() < eq2.getOrderNumber();
+    }
+
+    AbstractStatement takeStatement() {
+      AbstractStatement result = super.take();
+      contents.remove(result);
+      return result;
+    }
+
+    void insertStatement(AbstractStatement eq) {
+      if (contents.add(eq)) {
+        super.insert(eq);
+      }
+    }
+  }
+
+  /**
+   * Make n statements; the even ones are numbered, as nodes of a fixed-point system are, while the
+   * odd ones are not, like the implicit equations of a points-to system.
+   */
+  private static List<AbstractStatement> makeStatements(int n, Random r) {
+    List<AbstractStatement> result = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      BooleanVariable v = new BooleanVariable();
+      // order numbers may collide, as they do after statements are added during a solve
+      v.setOrderNumber(r.nextInt(n / 2));
+      AbstractStatement s = new BasicNullaryStatement<>(v, NOP);
+      if (i % 2 == 0) {
+        s.setGraphNodeId(i / 2);
+      }
+      result.add(s);
+    }
+    return result;
+  }
+
+  /** An unnumbered statement equal to s, as a fresh implicit equation would be */
+  @SuppressWarnings("unchecked")
+  private static AbstractStatement copy(AbstractStatement s) {
+    return new BasicNullaryStatement<>((BooleanVariable) s.getLHS(), NOP);
+  }
+
+  /**
+   * Replay a trace of inserts and takes, as a solver would issue them, against both worklists, and
+   * check they yield the same statements in the same order.
+   */
+  @Test
+  public void testSameOrderAsHashSetWorklist() {
+    Random r = new Random(1234);
+    List<AbstractStatement> statements = makeStatements(2000, r);
+    int[] trace = new int[200000];
+    for (int i = 0; i < trace.length; i++) {
+      // -1 is a take; otherwise the index of the statement to insert
+      trace[i] = r.nextInt(10) < 4 ? -1 : r.nextInt(statements.size());
+    }
+
+    Worklist worklist = new Worklist();
+    HashSetWorklist reference = new HashSetWorklist();
+    for (int op : trace) {
+      if (op < 0) {
+        assertEquals(reference.isEmpty(), worklist.isEmpty());
+        if (!reference.isEmpty()) {
+          assertSame(reference.takeStatement(), worklist.takeStatement());
+        }
+      } else {
+        AbstractStatement s = statements.get(op);
+        if (s.getGraphNodeId() < 0) {
+          s = copy(s);
+        }
+        reference.insertStatement(s);
+        worklist.insertStatement(s);
+      }
+      assertEquals(reference.size(), worklist.size());
+    }
+    while (!reference.isEmpty()) {
+      assertSame(reference.takeStatement(), worklist.takeStatement());
+    }
+    assertTrue(worklist.isEmpty());
+    for (AbstractStatement s : statements) {
+      assertFalse(s.isOnWorklist());
+    }
+  }
+
+  @Test
+  public void testDuplicateInsert() {
+    List<AbstractStatement> statements = makeStatements(4, new Random(5));
+    Worklist worklist = new Worklist();
+    AbstractStatement s = statements.get(0);
+    worklist.insertStatement(s);
+    worklist.insertStatement(s);
+    assertTrue(s.isOnWorklist());
+    assertEquals(1, worklist.size());
+    assertSame(s, worklist.takeStatement());
+    assertFalse(s.isOnWorklist());
+    worklist.insertStatement(s);
+    assertEquals(1, worklist.size());
+
+    AbstractStatement implicit = statements.get(1);
+    worklist.insertStatement(implicit);
+    worklist.insertStatement(copy(implicit));
+    assertEquals(2, worklist.size());
+  }
+}
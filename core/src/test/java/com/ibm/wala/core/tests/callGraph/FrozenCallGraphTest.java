@@ -0,0 +1,175 @@
+package com.ibm.wala.core.tests.callGraph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.CallSiteReference;
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.ExplicitCallGraph;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.IteratorUtil;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.impl.CompactNumberedGraph;
+import com.ibm.wala.util.graph.impl.SlowSparseNumberedGraph;
+import com.ibm.wala.util.graph.traverse.DFS;
+import com.ibm.wala.util.graph.traverse.SCCIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Check that frozen, compact graphs have the same shape as the graphs they were made from */
+public class FrozenCallGraphTest extends WalaTestCase {
+
+  /** a printable summary of the nodes, edges and call sites of g, in node number order */
+  private static <T> List<String> shape(NumberedGraph<T> g) {
+    List<String> result = new ArrayList<>();
+    result.add("nodes " + g.getNumberOfNodes() + " max " + g.getMaxNumber());
+    for (int i = 0; i <= g.getMaxNumber(); i++) {
+      T n = g.getNode(i);
+      result.add(
+          i
+              + ": "
+              + n
+              + " succ "
+              + numbers(g.getSuccNodeNumbers(n))
+              + " "
+              + g.getSuccNodeCount(n)
+              + " pred "
+              + numbers(g.getPredNodeNumbers(n))
+              + " "
+              + g.getPredNodeCount(n)
+              + " "
+              + Iterator2Collection.toSet(g.getSuccNodes(n)).size()
+              + " "
+              + Iterator2Collection.toSet(g.getPredNodes(n)).size());
+      for (T s : Iterator2Iterable.make(g.getSuccNodes(n))) {
+        assertTrue(g.hasEdge(n, s));
+        assertTrue(Iterator2Collection.toSet(g.getPredNodes(s)).contains(n));
+      }
+    }
+    return result;
+  }
+
+  private static String numbers(IntSet s) {
+    if (s == null) {
+      return "[]";
+    }
+    int[] result = IntSetUtil.toArray(s);
+    Arrays.sort(result);
+    return Arrays.toString(result);
+  }
+
+  private static List<String> sites(CallGraph cg) {
+    List<String> result = new ArrayList<>();
+    for (CGNode n : cg) {
+      for (CallSiteReference site : Iterator2Iterable.make(n.iterateCallSites())) {
+        Set<CGNode> targets = cg.getPossibleTargets(n, site);
+        result.add(n + " " + site + " " + targets.size() + " " + cg.getNumberOfTargets(n, site));
+        for (CGNode t : targets) {
+          assertTrue(IteratorUtil.count(cg.getPossibleSites(n, t)) > 0);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testFreezeCallGraph()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints =
+        Util.makeMainEntrypoints(cha, "LmessageFormatTest/MessageFormatBench");
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    ExplicitCallGraph cg =
+        (ExplicitCallGraph)
+            Util.makeZeroCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha)
+                .makeCallGraph(options, null);
+
+    List<String> shape = shape(cg);
+    List<String> sites = sites(cg);
+    int sccs = IteratorUtil.count(new SCCIterator<>(cg));
+    int reachable = DFS.getReachableNodes(cg, cg.getEntrypointNodes()).size();
+
+    CompactNumberedGraph<CGNode> copy = CompactNumberedGraph.make(cg);
+    assertEquals(shape, shape(copy));
+
+    assertFalse(cg.isFrozen());
+    cg.freeze();
+    assertTrue(cg.isFrozen());
+    assertEquals(shape, shape(cg));
+    assertEquals(sites, sites(cg));
+    assertEquals(sccs, IteratorUtil.count(new SCCIterator<>(cg)));
+    assertEquals(reachable, DFS.getReachableNodes(cg, cg.getEntrypointNodes()).size());
+    assertEquals(copy.getNumberOfEdges(), edges(cg));
+
+    CGNode root = cg.getFakeRootNode();
+    assertThrows(UnsupportedOperationException.class, () -> cg.addEdge(root, root));
+
+    // the call sites of a frozen call graph cannot change either, not even to add a known target
+    CallSiteReference site = root.iterateCallSites().next();
+    CGNode target = cg.getPossibleTargets(root, site).iterator().next();
+    ExplicitCallGraph.ExplicitNode node = (ExplicitCallGraph.ExplicitNode) root;
+    assertThrows(UnsupportedOperationException.class, () -> root.addTarget(site, target));
+    assertThrows(UnsupportedOperationException.class, () -> root.addTarget(site, root));
+    assertThrows(UnsupportedOperationException.class, () -> node.removeTarget(target));
+    assertThrows(UnsupportedOperationException.class, node::clearAllTargets);
+    assertEquals(shape, shape(cg));
+    assertEquals(sites, sites(cg));
+  }
+
+  private static int edges(CallGraph cg) {
+    int result = 0;
+    for (CGNode n : cg) {
+      result += cg.getSuccNodeCount(n);
+    }
+    return result;
+  }
+
+  @Test
+  public void testArbitraryNodes() {
+    NumberedGraph<String> g = SlowSparseNumberedGraph.make();
+    for (String s : new String[] {"A", "B", "C", "D", "E"}) {
+      g.addNode(s);
+    }
+    g.addEdge("A", "B");
+    g.addEdge("B", "C");
+    g.addEdge("C", "A");
+    g.addEdge("A", "D");
+    g.addEdge("D", "D");
+    g.removeNodeAndEdges("E");
+    CompactNumberedGraph<String> copy = CompactNumberedGraph.make(g);
+    assertEquals(4, copy.getNumberOfNodes());
+    assertEquals(5, copy.getNumberOfEdges());
+    assertTrue(copy.hasEdge("D", "D"));
+    assertFalse(copy.hasEdge("D", "A"));
+    assertFalse(copy.containsNode("E"));
+    assertEquals(g.getNumber("C"), copy.getNumber("C"));
+    assertEquals(
+        IteratorUtil.count(new SCCIterator<>(g)), IteratorUtil.count(new SCCIterator<>(copy)));
+    assertThrows(UnsupportedOperationException.class, () -> copy.addNode("F"));
+  }
+}
@@ -0,0 +1,80 @@
+package com.ibm.wala.core.tests.callGraph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCache;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.propagation.rta.IRPrefetcher;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.AuxiliaryCache;
+import com.ibm.wala.ssa.ConcurrentSSACache;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/** Check that prefetching IRs does not change the call graph, and that prefetched IRs get used */
+public class IRPrefetchTest extends WalaTestCase {
+
+  @Test
+  public void testMessageFormat()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints =
+        Util.makeMainEntrypoints(cha, "LmessageFormatTest/MessageFormatBench");
+
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroCFABuilder(Language.JAVA, options, makeCache(options), cha);
+    Set<String> expected = render(builder.makeCallGraph(options, null));
+    assertNull(builder.getIRPrefetcher());
+
+    options.setNumberOfIRPrefetchThreads(2);
+    builder = Util.makeZeroCFABuilder(Language.JAVA, options, makeCache(options), cha);
+    Set<String> actual = render(builder.makeCallGraph(options, null));
+    assertEquals(expected, actual);
+
+    IRPrefetcher prefetcher = builder.getIRPrefetcher();
+    assertTrue(prefetcher.getNumberOfSubmittedMethods() > 0);
+    assertTrue(prefetcher.getNumberOfUsedIRs() > 0, prefetcher.toString());
+    assertTrue(prefetcher.getNumberOfUsedIRs() <= prefetcher.getNumberOfPrefetchedIRs());
+  }
+
+  private static AnalysisCache makeCache(AnalysisOptions options) {
+    DefaultIRFactory factory = new DefaultIRFactory();
+    return new AnalysisCache(
+        factory,
+        options.getSSAOptions(),
+        new ConcurrentSSACache(factory, new AuxiliaryCache(), new AuxiliaryCache()));
+  }
+
+  private static Set<String> render(CallGraph cg) {
+    Set<String> result = new TreeSet<>();
+    for (CGNode n : cg) {
+      result.add(n.toString());
+      for (CGNode s : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+        result.add(n + " -> " + s);
+      }
+    }
+    return result;
+  }
+}
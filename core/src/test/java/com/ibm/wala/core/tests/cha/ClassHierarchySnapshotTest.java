@@ -0,0 +1,131 @@
+package com.ibm.wala.core.tests.cha;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.classLoader.JarFileModule;
+import com.ibm.wala.classLoader.Module;
+import com.ibm.wala.classLoader.SnapshotModule;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.types.ClassLoaderReference;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Check that a class hierarchy read from module snapshots, whose classes are built from headers
+ * stored in the snapshots, matches the one read from the modules
+ */
+public class ClassHierarchySnapshotTest extends WalaTestCase {
+
+  @Test
+  public void testSameHierarchy(@TempDir Path snapshots)
+      throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    Map<String, String> expected = describe(ClassHierarchyFactory.make(scope));
+
+    // the first build takes the snapshots, the second one reads them
+    assertEquals(expected, describe(ClassHierarchyFactory.make(scope, snapshots)));
+    long count = countSnapshots(snapshots);
+    assertTrue(count > 0);
+    assertEquals(expected, describe(ClassHierarchyFactory.make(scope, snapshots)));
+    assertEquals(count, countSnapshots(snapshots));
+  }
+
+  @Test
+  public void testSnapshotModules(@TempDir Path snapshots) throws IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    for (Module m : scope.getModules(ClassLoaderReference.Application)) {
+      Module snapshot = SnapshotModule.findOrCreate(m, snapshots);
+      assertTrue(snapshot instanceof SnapshotModule);
+      assertFalse(snapshot.getEntries().next().isModuleFile());
+      // a corrupt snapshot is replaced by a fresh one
+      try (Stream<Path> files = Files.list(snapshots)) {
+        for (Path f : (Iterable<Path>) files::iterator) {
+          Files.write(f, new byte[] {1, 2, 3});
+        }
+      }
+      assertTrue(SnapshotModule.findOrCreate(m, snapshots) instanceof SnapshotModule);
+    }
+  }
+
+  @Test
+  public void testKeyedByContents(@TempDir Path directory) throws IOException {
+    Path snapshots = directory.resolve("snapshots");
+    Path jar = directory.resolve("module.jar");
+    // two versions of a jar with the same size and modification time
+    writeJar(jar, "a");
+    FileTime time = Files.getLastModifiedTime(jar);
+    try (JarFile f = new JarFile(jar.toFile())) {
+      SnapshotModule.findOrCreate(new JarFileModule(f), snapshots);
+    }
+    long size = Files.size(jar);
+    writeJar(jar, "b");
+    Files.setLastModifiedTime(jar, time);
+    assertEquals(size, Files.size(jar));
+    try (JarFile f = new JarFile(jar.toFile())) {
+      SnapshotModule.findOrCreate(new JarFileModule(f), snapshots);
+    }
+    assertEquals(2, countSnapshots(snapshots));
+  }
+
+  private static void writeJar(Path jar, String contents) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      JarEntry entry = new JarEntry("A.java");
+      entry.setTime(0);
+      out.putNextEntry(entry);
+      out.write(contents.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+  }
+
+  private static long countSnapshots(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private static Map<String, String> describe(IClassHierarchy cha) {
+    Map<String, String> result = new TreeMap<>();
+    for (IClass c : cha) {
+      StringBuilder s = new StringBuilder();
+      s.append(c.getModifiers()).append(' ').append(c.getSuperclass());
+      s.append(' ').append(c.getDirectInterfaces()).append(' ').append(c.getSourceFileName());
+      for (IField f : c.getDeclaredInstanceFields()) {
+        s.append(' ').append(f.getReference());
+      }
+      for (IField f : c.getDeclaredStaticFields()) {
+        s.append(' ').append(f.getReference());
+      }
+      for (IMethod m : c.getDeclaredMethods()) {
+        s.append(' ').append(m.getReference());
+      }
+      result.put(c.getReference().toString(), s.toString());
+    }
+    return result;
+  }
+}
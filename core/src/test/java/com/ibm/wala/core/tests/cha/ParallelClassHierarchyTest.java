@@ -0,0 +1,66 @@
+package com.ibm.wala.core.tests.cha;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IField;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.cha.ParallelClassHierarchyFactory;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/** Check that the parallel class hierarchy factory builds the same hierarchy as the default one */
+public class ParallelClassHierarchyTest extends WalaTestCase {
+
+  @Test
+  public void testSameHierarchy() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy expected = ClassHierarchyFactory.make(scope);
+    IClassHierarchy actual = ParallelClassHierarchyFactory.make(scope, 4);
+
+    assertEquals(expected.getNumberOfClasses(), actual.getNumberOfClasses());
+    assertEquals(describe(expected), describe(actual));
+  }
+
+  private static Map<String, String> describe(IClassHierarchy cha) {
+    Map<String, String> result = new TreeMap<>();
+    for (IClass c : cha) {
+      StringBuilder s = new StringBuilder();
+      s.append(c.getSuperclass()).append(' ').append(sorted(c.getAllImplementedInterfaces()));
+      for (IField f : c.getDeclaredInstanceFields()) {
+        s.append(' ').append(f.getReference());
+      }
+      for (IField f : c.getDeclaredStaticFields()) {
+        s.append(' ').append(f.getReference());
+      }
+      for (IMethod m : c.getDeclaredMethods()) {
+        s.append(' ').append(m.getReference());
+      }
+      s.append(' ').append(sorted(cha.getImmediateSubclasses(c)));
+      result.put(c.getReference().toString(), s.toString());
+    }
+    return result;
+  }
+
+  private static Set<String> sorted(Collection<IClass> classes) {
+    Set<String> result = new TreeSet<>();
+    for (IClass c : classes) {
+      result.add(c.getReference().toString());
+    }
+    return result;
+  }
+}
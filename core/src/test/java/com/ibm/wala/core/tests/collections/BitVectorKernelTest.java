@@ -0,0 +1,96 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.BitVector;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.BitVectorKernel;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSharedBitVectorIntSet;
+import com.ibm.wala.util.intset.MutableSharedBitVectorIntSetFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Check that the {@link BitVectorKernel}s compute the same bulk operations */
+public class BitVectorKernelTest extends WalaTestCase {
+
+  private final BitVectorKernel saved = BitVectorKernel.getDefault();
+
+  @AfterEach
+  public void restoreKernel() {
+    BitVectorKernel.setDefault(saved);
+  }
+
+  private static BitVector randomVector(Random r) {
+    // lengths straddle the block size of the vectorizable kernel, and densities vary
+    int nbits = 1 + r.nextInt(5000);
+    int density = 1 + r.nextInt(8);
+    BitVector v = new BitVector(nbits);
+    for (int i = 0; i < nbits; i++) {
+      if (r.nextInt(density * 4) == 0) {
+        v.set(i);
+      }
+    }
+    return v;
+  }
+
+  /** apply every bulk operation to copies of a and b, recording the results */
+  private static List<Object> apply(BitVector a, BitVector b, BitVector c) {
+    List<Object> result = new ArrayList<>();
+    result.add(BitVector.or(a, b));
+    result.add(BitVector.and(a, b));
+    result.add(BitVector.andNot(a, b));
+    result.add(a.intersectionEmpty(b));
+    BitVector d = new BitVector(a);
+    result.add(d.orWithDelta(b));
+    result.add(d);
+    BitVector e = new BitVector(c);
+    result.add(e.orIntersectionWithDelta(a, b));
+    result.add(e);
+    return result;
+  }
+
+  @Test
+  public void testKernelsAgree() {
+    Random r = new Random(17);
+    for (int i = 0; i < 500; i++) {
+      BitVector a = randomVector(r);
+      BitVector b = r.nextInt(10) == 0 ? BitVector.andNot(randomVector(r), a) : randomVector(r);
+      BitVector c = randomVector(r);
+      BitVectorKernel.setDefault(BitVectorKernel.SCALAR);
+      List<Object> expected = apply(a, b, c);
+      BitVectorKernel.setDefault(BitVectorKernel.VECTORIZABLE);
+      List<Object> actual = apply(a, b, c);
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testAddAllInIntersection() {
+    Random r = new Random(23);
+    MutableSharedBitVectorIntSetFactory factory = new MutableSharedBitVectorIntSetFactory();
+    for (int i = 0; i < 200; i++) {
+      BitVectorIntSet other = new BitVectorIntSet(randomVector(r));
+      BitVectorIntSet filter = new BitVectorIntSet(randomVector(r));
+      BitVectorIntSet start = new BitVectorIntSet(randomVector(r));
+      IntSet expected = start.union(other.intersection(filter));
+
+      BitVectorIntSet dense = new BitVectorIntSet(start);
+      assertEquals(!expected.sameValue(start), dense.addAllInIntersection(other, filter));
+      assertTrue(expected.sameValue(dense));
+      assertEquals(expected.size(), dense.size());
+
+      MutableSharedBitVectorIntSet shared = factory.makeCopy(start);
+      MutableSharedBitVectorIntSet sharedOther = factory.makeCopy(other);
+      MutableSharedBitVectorIntSet sharedFilter = factory.makeCopy(filter);
+      assertEquals(
+          !expected.sameValue(start), shared.addAllInIntersection(sharedOther, sharedFilter));
+      assertTrue(expected.sameValue(shared));
+    }
+  }
+}
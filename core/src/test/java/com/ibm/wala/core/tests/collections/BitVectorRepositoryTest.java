@@ -0,0 +1,104 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.BitVectorRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the shared subsets handed out by {@link BitVectorRepository} */
+public class BitVectorRepositoryTest extends WalaTestCase {
+
+  private static BitVectorIntSet randomSet(Random r) {
+    BitVectorIntSet s = new BitVectorIntSet();
+    int base = r.nextInt(1000);
+    for (int i = 0; i < 30 + r.nextInt(100); i++) {
+      s.add(base + r.nextInt(2000));
+    }
+    return s;
+  }
+
+  private static void checkSubset(BitVectorIntSet value, BitVectorIntSet shared) {
+    assertTrue(shared.isSubset(value));
+    assertTrue(value.size() - shared.size() < 5);
+  }
+
+  @Test
+  public void testCanonical() {
+    Random r = new Random(3);
+    for (int i = 0; i < 100; i++) {
+      BitVectorIntSet value = randomSet(r);
+      long hits = BitVectorRepository.getNumberOfHits();
+      BitVectorIntSet shared = BitVectorRepository.findOrCreateSharedSubset(value);
+      checkSubset(value, shared);
+      // the same value again, and a slight superset, find the same representative
+      assertSame(shared, BitVectorRepository.findOrCreateSharedSubset(new BitVectorIntSet(value)));
+      BitVectorIntSet bigger = new BitVectorIntSet(value);
+      bigger.add(value.max() + 1);
+      assertSame(shared, BitVectorRepository.findOrCreateSharedSubset(bigger));
+      assertTrue(BitVectorRepository.getNumberOfHits() >= hits + 2);
+    }
+    assertTrue(BitVectorRepository.getNumberOfEntries() > 0);
+    assertTrue(BitVectorRepository.getNumberOfQueries() >= BitVectorRepository.getNumberOfHits());
+  }
+
+  @Test
+  public void testHashCollision() {
+    BitVectorIntSet small = new BitVectorIntSet();
+    small.add(6400);
+    // words 199 and 399 contribute 200 * 14 and 400 * 7 to the hash code, which cancel out
+    BitVectorIntSet big = new BitVectorIntSet(small);
+    for (int i = 0; i < 3; i++) {
+      big.add(199 * 32 + 1 + i);
+      big.add(399 * 32 + i);
+    }
+    assertEquals(small.getBitVector().hashCode(), big.getBitVector().hashCode());
+    checkSubset(small, BitVectorRepository.findOrCreateSharedSubset(small));
+    checkSubset(big, BitVectorRepository.findOrCreateSharedSubset(big));
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    Random r = new Random(5);
+    List<BitVectorIntSet> values = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      values.add(randomSet(r));
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<BitVectorIntSet>>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        results.add(
+            pool.submit(
+                () -> {
+                  List<BitVectorIntSet> shared = new ArrayList<>();
+                  for (BitVectorIntSet v : values) {
+                    shared.add(
+                        BitVectorRepository.findOrCreateSharedSubset(new BitVectorIntSet(v)));
+                  }
+                  return shared;
+                }));
+      }
+      List<BitVectorIntSet> first = results.get(0).get();
+      for (Future<List<BitVectorIntSet>> f : results) {
+        List<BitVectorIntSet> shared = f.get();
+        for (int i = 0; i < values.size(); i++) {
+          checkSubset(values.get(i), shared.get(i));
+          // every thread gets a representative of the same value
+          assertEquals(first.get(i).size(), shared.get(i).size());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
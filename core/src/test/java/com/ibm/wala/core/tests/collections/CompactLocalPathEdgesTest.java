@@ -0,0 +1,96 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.dataflow.IFDS.CompactLocalPathEdges;
+import com.ibm.wala.dataflow.IFDS.LocalPathEdges;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableSparseIntSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Check {@link CompactLocalPathEdges} against {@link LocalPathEdges} */
+public class CompactLocalPathEdgesTest extends WalaTestCase {
+
+  private static IntSet nonNull(IntSet s) {
+    return s == null ? MutableSparseIntSet.makeEmpty() : s;
+  }
+
+  private static void checkSame(
+      LocalPathEdges expected, LocalPathEdges actual, int nodes, int facts) {
+    assertTrue(expected.getReachedNodeNumbers().sameValue(actual.getReachedNodeNumbers()));
+    for (int n = 0; n < nodes; n++) {
+      assertTrue(nonNull(expected.getReachable(n)).sameValue(nonNull(actual.getReachable(n))));
+      for (int d = 0; d < facts; d++) {
+        IntSet e = nonNull(expected.getInverse(n, d));
+        IntSet a = nonNull(actual.getInverse(n, d));
+        assertTrue(e.sameValue(a), "inverse of " + n + ", " + d + ": " + e + " vs " + a);
+        e = nonNull(expected.getReachable(n, d));
+        a = nonNull(actual.getReachable(n, d));
+        assertTrue(e.sameValue(a), "reachable from " + n + ", " + d + ": " + e + " vs " + a);
+      }
+    }
+  }
+
+  @Test
+  public void testRandomEdges() throws IOException {
+    File directory = Files.createTempDirectory("pathEdges").toFile();
+    Random r = new Random(11);
+    int nodes = 300;
+    int facts = 200;
+    LocalPathEdges expected = new LocalPathEdges(false);
+    CompactLocalPathEdges actual = new CompactLocalPathEdges();
+    for (int k = 0; k < 40000; k++) {
+      int n = r.nextInt(nodes);
+      int i;
+      int j;
+      switch (r.nextInt(4)) {
+        case 0:
+          // zero facts everywhere
+          i = 0;
+          j = r.nextInt(8) == 0 ? r.nextInt(facts) : 0;
+          break;
+        case 1:
+          // identity flows
+          i = j = r.nextInt(facts);
+          break;
+        case 2:
+          // a few nodes with many pairs, so that they switch to rows and bit vectors
+          n = r.nextInt(4);
+          i = r.nextInt(3);
+          j = r.nextInt(facts);
+          break;
+        default:
+          i = r.nextInt(facts);
+          j = r.nextInt(facts);
+      }
+      assertEquals(expected.contains(i, n, j), actual.contains(i, n, j));
+      expected.addPathEdge(i, n, j);
+      actual.addPathEdge(i, n, j);
+      assertTrue(actual.contains(i, n, j));
+      if (k % 10000 == 0) {
+        actual.spill(directory);
+        assertTrue(actual.isSpilled());
+        assertEquals(1, directory.list().length);
+      }
+    }
+    checkSame(expected, actual, nodes + 2, facts);
+    assertTrue(actual.getEstimatedMemory() > 0);
+    actual.spill(directory);
+    assertEquals(0, actual.getEstimatedMemory());
+    checkSame(expected, actual, nodes + 2, facts);
+    assertFalse(actual.isSpilled());
+    // every spill reused one file, which is empty once the path edges are read back
+    File[] files = directory.listFiles();
+    assertEquals(1, files.length);
+    assertEquals(0, files[0].length());
+    Files.delete(files[0].toPath());
+    Files.delete(directory.toPath());
+  }
+}
@@ -0,0 +1,136 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.CompressedMutableIntSet;
+import com.ibm.wala.util.intset.CompressedMutableIntSetFactory;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.MutableIntSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompressedMutableIntSet} against {@link BitVectorIntSet}, on sets that mix sparse,
+ * dense and run-like chunks.
+ */
+public final class CompressedMutableIntSetTest extends WalaTestCase {
+
+  private static final CompressedMutableIntSetFactory factory =
+      new CompressedMutableIntSetFactory();
+
+  /** a random set of the given shape, in a compressed and a reference version */
+  private static MutableIntSet[] makeSets(Random r, int shape) {
+    CompressedMutableIntSet c = new CompressedMutableIntSet();
+    BitVectorIntSet b = new BitVectorIntSet();
+    int chunk = r.nextInt(4) << 16;
+    switch (shape) {
+      case 0:
+        // sparse, over several chunks
+        for (int i = 0; i < 200; i++) {
+          int x = r.nextInt(4 << 16);
+          c.add(x);
+          b.add(x);
+        }
+        break;
+      case 1:
+        // dense, around the array / bitmap threshold
+        for (int i = 0; i < 4000 + r.nextInt(200); i++) {
+          int x = chunk + r.nextInt(1 << 13);
+          c.add(x);
+          b.add(x);
+        }
+        break;
+      default:
+        // a few long runs
+        for (int run = 0; run < 5; run++) {
+          int start = chunk + r.nextInt(1 << 15);
+          for (int x = start; x < start + r.nextInt(3000); x++) {
+            c.add(x);
+            b.add(x);
+          }
+        }
+        c.runOptimize();
+        break;
+    }
+    return new MutableIntSet[] {c, b};
+  }
+
+  private static void assertSame(IntSet expected, IntSet actual) {
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected.max(), actual.max());
+    IntIterator e = expected.intIterator();
+    IntIterator a = actual.intIterator();
+    while (e.hasNext()) {
+      assertTrue(a.hasNext());
+      assertEquals(e.next(), a.next());
+    }
+    assertFalse(a.hasNext());
+  }
+
+  @Test
+  public void testAgainstBitVectors() {
+    Random r = new Random(42);
+    for (int round = 0; round < 300; round++) {
+      MutableIntSet[] x = makeSets(r, r.nextInt(3));
+      MutableIntSet[] y = makeSets(r, r.nextInt(3));
+      assertSame(x[1], x[0]);
+
+      assertEquals(x[1].containsAny(y[1]), x[0].containsAny(y[0]));
+      assertEquals(x[1].isSubset(y[1]), x[0].isSubset(y[0]));
+      assertSame(x[1].intersection(y[1]), x[0].intersection(y[0]));
+      assertSame(x[1].union(y[1]), x[0].union(y[0]));
+      assertSame(IntSetUtil.diff(x[1], y[1]), IntSetUtil.diff(x[0], y[0], factory));
+      // mixed with other implementations
+      assertSame(x[1].intersection(y[1]), x[0].intersection(y[1]));
+      assertTrue(x[0].sameValue(x[1]));
+      assertTrue(x[0].isSubset(x[0].union(y[0])));
+
+      MutableIntSet c = factory.makeCopy(x[0]);
+      MutableIntSet b = new BitVectorIntSet(x[1]);
+      assertTrue(c.sameValue(x[0]));
+      assertEquals(b.addAll(y[1]), c.addAll(y[0]));
+      assertSame(b, c);
+      c.intersectWith(x[0]);
+      b.intersectWith(x[1]);
+      assertSame(b, c);
+      for (int i = 0; i < 2000; i++) {
+        int v = r.nextInt(4 << 16);
+        assertEquals(b.contains(v), c.contains(v));
+        if (r.nextBoolean()) {
+          assertEquals(b.add(v), c.add(v));
+        } else {
+          assertEquals(b.remove(v), c.remove(v));
+        }
+      }
+      assertSame(b, c);
+      assertEquals(b.addAllInIntersection(x[1], y[1]), c.addAllInIntersection(x[0], y[0]));
+      assertSame(b, c);
+    }
+  }
+
+  @Test
+  public void testRuns() {
+    CompressedMutableIntSet s = new CompressedMutableIntSet();
+    for (int i = 1000; i < 61000; i++) {
+      s.add(i);
+    }
+    long bitmap = s.sizeInBytes();
+    assertTrue(s.runOptimize());
+    assertTrue(s.sizeInBytes() < bitmap / 100);
+    // extending, merging and splitting runs
+    assertTrue(s.add(999));
+    assertTrue(s.add(61001));
+    assertTrue(s.add(61000));
+    assertTrue(s.remove(30000));
+    assertFalse(s.contains(30000));
+    assertEquals(60002, s.size());
+    assertEquals(999, s.intIterator().next());
+    assertEquals(61001, s.max());
+  }
+}
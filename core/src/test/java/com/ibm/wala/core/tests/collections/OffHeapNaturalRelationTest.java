@@ -0,0 +1,149 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.intset.BasicNaturalRelation;
+import com.ibm.wala.util.intset.IBinaryNaturalRelation;
+import com.ibm.wala.util.intset.IntPair;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.OffHeapNaturalRelation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Check {@link OffHeapNaturalRelation} against {@link BasicNaturalRelation} */
+public class OffHeapNaturalRelationTest extends WalaTestCase {
+
+  private static List<IntPair> pairs(IBinaryNaturalRelation r) {
+    List<IntPair> result = new ArrayList<>();
+    r.forEach(result::add);
+    return result;
+  }
+
+  private static void checkSame(IBinaryNaturalRelation expected, IBinaryNaturalRelation actual) {
+    assertEquals(expected.maxKeyValue(), actual.maxKeyValue());
+    for (int x = 0; x <= expected.maxKeyValue() + 1; x++) {
+      IntSet e = expected.getRelated(x);
+      IntSet a = actual.getRelated(x);
+      if (e == null) {
+        assertNull(a, "related to " + x);
+      } else {
+        assertTrue(e.sameValue(a), "related to " + x + ": " + e + " vs " + a);
+      }
+      assertEquals(expected.getRelatedCount(x), actual.getRelatedCount(x));
+      assertEquals(expected.anyRelated(x), actual.anyRelated(x));
+    }
+    assertEquals(pairs(expected).size(), pairs(actual).size());
+    for (IntPair p : pairs(actual)) {
+      assertTrue(expected.contains(p.getX(), p.getY()), p.toString());
+    }
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random r = new Random(17);
+    BasicNaturalRelation expected = new BasicNaturalRelation();
+    OffHeapNaturalRelation actual = new OffHeapNaturalRelation();
+    for (int i = 0; i < 200000; i++) {
+      // a few keys with large sets, so blocks grow, move and are recycled
+      int x = r.nextInt(8) == 0 ? r.nextInt(4) : r.nextInt(3000);
+      int y = r.nextInt(x < 4 ? 5000 : 8);
+      switch (r.nextInt(10)) {
+        case 0:
+          expected.remove(x, y);
+          actual.remove(x, y);
+          break;
+        case 1:
+          if (r.nextInt(20) == 0) {
+            expected.removeAll(x);
+            actual.removeAll(x);
+          }
+          break;
+        default:
+          assertEquals(expected.add(x, y), actual.add(x, y));
+      }
+      assertEquals(expected.contains(x, y), actual.contains(x, y));
+    }
+    checkSame(expected, actual);
+  }
+
+  @Test
+  public void testLargeSets() {
+    OffHeapNaturalRelation r = new OffHeapNaturalRelation();
+    // more y's than fit in a regular chunk of the arena
+    int n = 3 << 20;
+    for (int y = n - 1; y >= 0; y -= 2) {
+      r.add(7, y);
+    }
+    for (int y = 0; y < n; y += 2) {
+      r.add(7, y);
+    }
+    assertEquals(n, r.getRelatedCount(7));
+    assertEquals(n, r.getRelated(7).size());
+    assertTrue(r.contains(7, n - 1));
+    assertFalse(r.contains(7, n));
+    assertFalse(r.anyRelated(8));
+    r.removeAll(7);
+    assertNull(r.getRelated(7));
+    r.add(7, 1);
+    assertEquals(1, r.getRelatedCount(7));
+
+    // a dense set that then gets a far-away y
+    BasicNaturalRelation expected = new BasicNaturalRelation();
+    for (int y = 0; y < 1000; y++) {
+      r.add(9, y);
+      expected.add(9, y);
+    }
+    for (int y : new int[] {1 << 30, 5, 1 << 20, 999, 2000}) {
+      assertEquals(expected.add(9, y), r.add(9, y));
+    }
+    for (int y = 0; y < 997; y++) {
+      r.remove(9, y);
+      expected.remove(9, y);
+    }
+    assertTrue(expected.getRelated(9).sameValue(r.getRelated(9)));
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    OffHeapNaturalRelation r = new OffHeapNaturalRelation();
+    BasicNaturalRelation expected = new BasicNaturalRelation();
+    Random random = new Random(5);
+    for (int i = 0; i < 5000; i++) {
+      int x = random.nextInt(500);
+      int y = random.nextInt(50);
+      r.add(x, y);
+      expected.add(x, y);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(r);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      checkSame(expected, (OffHeapNaturalRelation) in.readObject());
+    }
+  }
+
+  @Test
+  public void testIllegalArguments() {
+    OffHeapNaturalRelation r = new OffHeapNaturalRelation();
+    assertThrows(IllegalArgumentException.class, () -> r.add(-1, 0));
+    assertThrows(IllegalArgumentException.class, () -> r.add(0, -1));
+    assertThrows(IllegalArgumentException.class, () -> r.contains(-1, 0));
+    assertThrows(IllegalArgumentException.class, () -> r.remove(0, -1));
+    assertNull(r.getRelated(1 << 20));
+    assertEquals(-1, r.maxKeyValue());
+  }
+}
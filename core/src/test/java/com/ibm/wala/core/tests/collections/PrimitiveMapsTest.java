@@ -0,0 +1,136 @@
+package com.ibm.wala.core.tests.collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.util.collections.IntIntMap;
+import com.ibm.wala.util.collections.IntObjectMap;
+import com.ibm.wala.util.collections.ObjectIntMap;
+import com.ibm.wala.util.intset.IntIterator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Check the open-addressing primitive maps against {@link HashMap} */
+public class PrimitiveMapsTest extends WalaTestCase {
+
+  /** keys from a small range, so that puts, removes and collisions all happen often */
+  private static int randomKey(Random r) {
+    switch (r.nextInt(4)) {
+      case 0:
+        return r.nextInt(64) - 32;
+      case 1:
+        // multiples of a large power of two all hash near each other in small tables
+        return r.nextInt(16) << 20;
+      default:
+        return r.nextInt(500);
+    }
+  }
+
+  private static Set<Integer> keys(IntIterator it) {
+    Set<Integer> result = new HashSet<>();
+    while (it.hasNext()) {
+      assertTrue(result.add(it.next()));
+    }
+    return result;
+  }
+
+  @Test
+  public void testIntObjectMap() {
+    Random r = new Random(11);
+    IntObjectMap<String> map = new IntObjectMap<>();
+    Map<Integer, String> expected = new HashMap<>();
+    for (int i = 0; i < 50000; i++) {
+      int key = randomKey(r);
+      if (r.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        String value = "v" + i;
+        assertEquals(expected.put(key, value), map.put(key, value));
+      }
+      int probe = randomKey(r);
+      assertEquals(expected.get(probe), map.get(probe));
+      assertEquals(expected.containsKey(probe), map.containsKey(probe));
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(expected.keySet(), keys(map.keyIterator()));
+    for (Map.Entry<Integer, String> e : expected.entrySet()) {
+      assertEquals(e.getValue(), map.get(e.getKey()));
+    }
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(0));
+    assertFalse(map.keyIterator().hasNext());
+    assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+  }
+
+  @Test
+  public void testIntIntMap() {
+    Random r = new Random(13);
+    IntIntMap map = new IntIntMap(0);
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 50000; i++) {
+      int key = randomKey(r);
+      if (r.nextInt(3) == 0) {
+        assertEquals(expected.remove(key) != null, map.remove(key));
+      } else {
+        int value = r.nextInt(7) - 3;
+        expected.put(key, value);
+        map.put(key, value);
+      }
+      int probe = randomKey(r);
+      assertEquals((int) expected.getOrDefault(probe, -99), map.getOrDefault(probe, -99));
+      assertEquals(expected.containsKey(probe), map.containsKey(probe));
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(expected.keySet(), keys(map.keyIterator()));
+    map.put(0, 5);
+    assertEquals(5, map.getOrDefault(0, -1));
+    assertTrue(keys(map.keyIterator()).contains(0));
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertFalse(map.keyIterator().hasNext());
+  }
+
+  @Test
+  public void testObjectIntMap() {
+    Random r = new Random(17);
+    ObjectIntMap<String> map = new ObjectIntMap<>();
+    Map<String, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 50000; i++) {
+      String key = "k" + randomKey(r);
+      if (r.nextInt(3) == 0) {
+        assertEquals(expected.remove(key) != null, map.remove(key));
+      } else {
+        expected.put(key, i);
+        map.put(key, i);
+      }
+      String probe = "k" + randomKey(r);
+      assertEquals((int) expected.getOrDefault(probe, -1), map.getOrDefault(probe, -1));
+      assertEquals(expected.size(), map.size());
+    }
+    Set<String> keys = new HashSet<>();
+    for (Iterator<String> it = map.keyIterator(); it.hasNext(); ) {
+      assertTrue(keys.add(it.next()));
+    }
+    assertEquals(expected.keySet(), keys);
+
+    // a copy is independent of the original
+    ObjectIntMap<String> copy = new ObjectIntMap<>(map);
+    String some = keys.iterator().next();
+    copy.remove(some);
+    assertTrue(map.containsKey(some));
+    assertEquals(map.size() - 1, copy.size());
+    assertEquals(-1, map.getOrDefault(null, -1));
+    assertThrows(IllegalArgumentException.class, () -> map.put(null, 1));
+  }
+}
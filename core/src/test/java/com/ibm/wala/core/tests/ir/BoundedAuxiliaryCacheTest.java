@@ -0,0 +1,143 @@
+package com.ibm.wala.core.tests.ir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.BoundedAuxiliaryCache;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.InstanceOfPiPolicy;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.types.TypeReference;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class BoundedAuxiliaryCacheTest extends WalaTestCase {
+
+  private static final SSAOptions OPTIONS = SSAOptions.defaultOptions();
+
+  private static final List<IMethod> methods = new ArrayList<>();
+
+  @BeforeAll
+  public static void beforeClass() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    IClass string = cha.lookupClass(TypeReference.JavaLangString);
+    for (IMethod m : string.getDeclaredMethods()) {
+      if (!m.isAbstract() && !m.isNative()) {
+        methods.add(m);
+      }
+    }
+    assertTrue(methods.size() >= 40);
+  }
+
+  private static Object find(BoundedAuxiliaryCache cache, int i) {
+    return cache.find(methods.get(i), Everywhere.EVERYWHERE, OPTIONS);
+  }
+
+  private static void cache(BoundedAuxiliaryCache cache, int i) {
+    cache.cache(methods.get(i), Everywhere.EVERYWHERE, OPTIONS, "aux" + i);
+  }
+
+  @Test
+  public void testLRUBound() {
+    BoundedAuxiliaryCache cache =
+        new BoundedAuxiliaryCache(
+            5, BoundedAuxiliaryCache.ENTRIES, BoundedAuxiliaryCache.Policy.LRU);
+    for (int i = 0; i < 5; i++) {
+      cache(cache, i);
+    }
+    // touch 0, so 1 is the least recently used entry
+    assertEquals("aux0", find(cache, 0));
+    cache(cache, 5);
+    assertEquals(5, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertNull(find(cache, 1));
+    assertEquals("aux0", find(cache, 0));
+    assertEquals("aux5", find(cache, 5));
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testTinyLFUResistsScan() {
+    BoundedAuxiliaryCache cache = new BoundedAuxiliaryCache(10);
+    for (int i = 0; i < 5; i++) {
+      cache(cache, i);
+    }
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 5; i++) {
+        assertNotNull(find(cache, i));
+      }
+    }
+    // a scan over methods that are used only once
+    for (int i = 5; i < methods.size(); i++) {
+      find(cache, i);
+      cache(cache, i);
+      assertTrue(cache.size() <= 10);
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals("aux" + i, find(cache, i));
+    }
+  }
+
+  @Test
+  public void testInvalidate() {
+    BoundedAuxiliaryCache cache = new BoundedAuxiliaryCache(10);
+    SSAOptions pi = new SSAOptions();
+    pi.setPiNodePolicy(InstanceOfPiPolicy.createInstanceOfPiPolicy());
+    cache(cache, 0);
+    cache.cache(methods.get(0), Everywhere.EVERYWHERE, pi, "pi");
+    cache(cache, 1);
+    // null options are allowed, as in AuxiliaryCache
+    cache.cache(methods.get(0), Everywhere.EVERYWHERE, null, "none");
+    assertEquals("none", cache.find(methods.get(0), Everywhere.EVERYWHERE, null));
+    assertEquals(4, cache.size());
+    cache.invalidate(methods.get(0), Everywhere.EVERYWHERE);
+    assertEquals(1, cache.size());
+    assertNull(cache.find(methods.get(0), Everywhere.EVERYWHERE, null));
+    assertNull(find(cache, 0));
+    assertNull(cache.find(methods.get(0), Everywhere.EVERYWHERE, pi));
+    assertEquals("aux1", find(cache, 1));
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testEstimatedBytes() {
+    BoundedAuxiliaryCache irs =
+        new BoundedAuxiliaryCache(
+            1L << 20,
+            BoundedAuxiliaryCache.ESTIMATED_BYTES,
+            BoundedAuxiliaryCache.Policy.WINDOW_TINY_LFU);
+    BoundedAuxiliaryCache dus = new BoundedAuxiliaryCache(100);
+    AnalysisCacheImpl cache = new AnalysisCacheImpl(new DefaultIRFactory(), OPTIONS, irs, dus);
+    for (IMethod m : methods) {
+      IR ir = cache.getIR(m);
+      assertSame(ir, cache.getIR(m));
+      assertSame(cache.getDefUse(ir), cache.getDefUse(ir));
+      assertTrue(irs.getWeightedSize() <= irs.getMaximumWeight());
+    }
+    assertEquals(methods.size(), irs.getMissCount());
+    assertTrue(irs.getHitCount() >= methods.size());
+    assertTrue(irs.size() > 0);
+  }
+}
@@ -0,0 +1,151 @@
+package com.ibm.wala.core.tests.ir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.IMethod;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCache;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.Context;
+import com.ibm.wala.ipa.callgraph.impl.Everywhere;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ssa.BoundedAuxiliaryCache;
+import com.ibm.wala.ssa.ConcurrentSSACache;
+import com.ibm.wala.ssa.DefUse;
+import com.ibm.wala.ssa.DefaultIRFactory;
+import com.ibm.wala.ssa.IR;
+import com.ibm.wala.ssa.IRFactory;
+import com.ibm.wala.ssa.SSAOptions;
+import com.ibm.wala.types.TypeReference;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentSSACacheTest extends WalaTestCase {
+
+  private static final int THREADS = 8;
+
+  private static final List<IMethod> methods = new ArrayList<>();
+
+  @BeforeAll
+  public static void beforeClass() throws ClassHierarchyException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    for (TypeReference t :
+        new TypeReference[] {TypeReference.JavaLangString, TypeReference.JavaUtilHashSet}) {
+      IClass klass = cha.lookupClass(t);
+      for (IMethod m : klass.getDeclaredMethods()) {
+        if (!m.isAbstract() && !m.isNative()) {
+          methods.add(m);
+        }
+      }
+    }
+  }
+
+  /** An IR factory that counts how often it builds the IR of each method */
+  private static final class CountingIRFactory implements IRFactory<IMethod> {
+
+    private final DefaultIRFactory delegate = new DefaultIRFactory();
+
+    private final Map<IMethod, AtomicInteger> builds = new ConcurrentHashMap<>();
+
+    @Override
+    public IR makeIR(IMethod method, Context c, SSAOptions options) {
+      builds.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+      return delegate.makeIR(method, c, options);
+    }
+
+    @Override
+    public boolean contextIsIrrelevant(IMethod method) {
+      return delegate.contextIsIrrelevant(method);
+    }
+  }
+
+  private static AnalysisCache makeCache(IRFactory<IMethod> factory) {
+    SSAOptions options = SSAOptions.defaultOptions();
+    return new AnalysisCache(
+        factory,
+        options,
+        new ConcurrentSSACache(
+            factory, new BoundedAuxiliaryCache(10000), new BoundedAuxiliaryCache(10000)));
+  }
+
+  @Test
+  public void testComputeOnce() throws InterruptedException, ExecutionException {
+    CountingIRFactory factory = new CountingIRFactory();
+    AnalysisCache cache = makeCache(factory);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<IR[]>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        Callable<IR[]> task =
+            () -> {
+              start.await();
+              IR[] result = new IR[methods.size()];
+              for (int i = 0; i < result.length; i++) {
+                result[i] = cache.getIR(methods.get(i));
+                DefUse du = cache.getDefUse(result[i]);
+                assertNotNull(du);
+              }
+              return result;
+            };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+      IR[] first = futures.get(0).get();
+      for (Future<IR[]> f : futures) {
+        IR[] irs = f.get();
+        for (int i = 0; i < irs.length; i++) {
+          assertSame(first[i], irs[i]);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(methods.size(), factory.builds.size());
+    for (AtomicInteger count : factory.builds.values()) {
+      assertEquals(1, count.get());
+    }
+  }
+
+  @Test
+  public void testPrebuild() {
+    CountingIRFactory factory = new CountingIRFactory();
+    AnalysisCache cache = makeCache(factory);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      cache.prebuildIRs(methods, executor);
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(methods.size(), factory.builds.size());
+    for (IMethod m : methods) {
+      IR ir = cache.getIR(m, Everywhere.EVERYWHERE);
+      assertSame(ir, cache.getIR(m));
+      assertEquals(1, factory.builds.get(m).get());
+    }
+    assertTrue(methods.size() > THREADS);
+  }
+}
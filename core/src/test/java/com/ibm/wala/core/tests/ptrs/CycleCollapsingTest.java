@@ -0,0 +1,68 @@
+package com.ibm.wala.core.tests.ptrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.ptrs.ParallelSolverTest.Result;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** Check that collapsing cycles of assignments does not change the points-to sets computed */
+public class CycleCollapsingTest extends WalaTestCase {
+
+  @Test
+  public void testMessageFormat()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    int collapsed = compareSolvers("LmessageFormatTest/MessageFormatBench");
+    assertTrue(collapsed > 0);
+  }
+
+  @Test
+  public void testHashMapGet()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    compareSolvers("Ldemandpa/TestHashMapGet");
+  }
+
+  /**
+   * @return the number of variables unified by cycle collapsing
+   */
+  private static int compareSolvers(String mainClass)
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, mainClass);
+
+    AnalysisOptions standard = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    Result expected = ParallelSolverTest.buildZeroOneCFA(standard, cha);
+
+    AnalysisOptions collapsing = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    collapsing.setCollapseAssignmentCycles(true);
+    SSAPropagationCallGraphBuilder builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, collapsing, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(collapsing, null);
+    Result actual = new Result(cg, builder.getPointerAnalysis());
+
+    assertEquals(expected.nodes, actual.nodes);
+    assertEquals(expected.edges, actual.edges);
+    assertEquals(expected.pointsTo, actual.pointsTo);
+    assertEquals(expected.rootPointsTo, actual.rootPointsTo);
+    return builder.getPropagationSystem().getNumberOfCollapsedVariables();
+  }
+}
@@ -0,0 +1,55 @@
+package com.ibm.wala.core.tests.ptrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.ptrs.ParallelSolverTest.Result;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/** Check that keeping the constraint graph off the Java heap does not change the analysis result */
+public class OffHeapRelationsTest extends WalaTestCase {
+
+  @Test
+  public void testMessageFormat()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    compareRelations("LmessageFormatTest/MessageFormatBench");
+  }
+
+  @Test
+  public void testHashMapGet()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    compareRelations("Ldemandpa/TestHashMapGet");
+  }
+
+  private static void compareRelations(String mainClass)
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, mainClass);
+
+    AnalysisOptions standard = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    Result expected = ParallelSolverTest.buildZeroOneCFA(standard, cha);
+
+    AnalysisOptions offHeap = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    offHeap.setUseOffHeapRelations(true);
+    Result actual = ParallelSolverTest.buildZeroOneCFA(offHeap, cha);
+
+    assertEquals(expected.nodes, actual.nodes);
+    assertEquals(expected.edges, actual.edges);
+    assertEquals(expected.pointsTo, actual.pointsTo);
+    assertEquals(expected.rootPointsTo, actual.rootPointsTo);
+  }
+}
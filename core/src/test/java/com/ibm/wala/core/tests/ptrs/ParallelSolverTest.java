@@ -0,0 +1,129 @@
+package com.ibm.wala.core.tests.ptrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.LocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.MapUtil;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the parallel pointer analysis solver computes the same result as the sequential one
+ */
+public class ParallelSolverTest extends WalaTestCase {
+
+  @Test
+  public void testMessageFormat()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    compareSolvers("LmessageFormatTest/MessageFormatBench");
+  }
+
+  @Test
+  public void testHashMapGet()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    compareSolvers("Ldemandpa/TestHashMapGet");
+  }
+
+  private static void compareSolvers(String mainClass)
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, mainClass);
+
+    AnalysisOptions sequential = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    Result expected = buildZeroOneCFA(sequential, cha);
+
+    AnalysisOptions parallel = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    parallel.setNumberOfSolverThreads(4);
+    Result actual = buildZeroOneCFA(parallel, cha);
+
+    assertEquals(expected.nodes, actual.nodes);
+    assertEquals(expected.edges, actual.edges);
+    assertEquals(expected.pointsTo, actual.pointsTo);
+    assertEquals(expected.rootPointsTo, actual.rootPointsTo);
+  }
+
+  static Result buildZeroOneCFA(AnalysisOptions options, IClassHierarchy cha)
+      throws IllegalArgumentException, CancelException {
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(options, null);
+    return new Result(cg, builder.getPointerAnalysis());
+  }
+
+  /** A build-independent rendering of a call graph and its points-to sets */
+  static final class Result {
+
+    final Set<String> nodes = new TreeSet<>();
+
+    final Set<String> edges = new TreeSet<>();
+
+    /**
+     * points-to sets by pointer key; distinct keys may print alike, e.g. the instance field keys of
+     * two allocation sites of the same type in the same method, so each key maps to the sorted list
+     * of the points-to sets of all keys that print that way
+     */
+    final Map<String, List<String>> pointsTo = new TreeMap<>();
+
+    /**
+     * value numbers in the synthetic root methods depend on the order in which the solver discovers
+     * call targets, so for their locals we only compare the sorted list of points-to sets
+     */
+    final List<String> rootPointsTo = new ArrayList<>();
+
+    Result(CallGraph cg, PointerAnalysis<InstanceKey> pa) {
+      for (CGNode n : cg) {
+        nodes.add(n.toString());
+        for (CGNode s : Iterator2Iterable.make(cg.getSuccNodes(n))) {
+          edges.add(n + " -> " + s);
+        }
+      }
+      for (PointerKey k : pa.getPointerKeys()) {
+        Set<String> instances = new TreeSet<>();
+        for (InstanceKey ik : pa.getPointsToSet(k)) {
+          instances.add(ik.toString());
+        }
+        if (k instanceof LocalPointerKey
+            && ((LocalPointerKey) k).getNode().getMethod() instanceof AbstractRootMethod) {
+          rootPointsTo.add(instances.toString());
+        } else {
+          MapUtil.findOrCreateList(pointsTo, k.toString()).add(instances.toString());
+        }
+      }
+      Collections.sort(rootPointsTo);
+      for (List<String> sets : pointsTo.values()) {
+        Collections.sort(sets);
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.ibm.wala.core.tests.ptrs;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.AbstractRootMethod;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.AbstractLocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.LocalPointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.propagation.PointerKey;
+import com.ibm.wala.ipa.callgraph.propagation.SSAPropagationCallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.unification.UnificationCallGraphBuilder;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.summaries.LambdaSummaryClass;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Iterable;
+import com.ibm.wala.util.collections.MapUtil;
+import com.ibm.wala.util.intset.OrdinalSet;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that the unification-based call graph over-approximates the 0-CFA one, except for the calls
+ * in the methods of lambda summaries: those dispatch on all the receivers of the parameters in
+ * 0-CFA, while the unification-based builder only dispatches on those of the class of the declared
+ * target, which the classes generated for lambdas at run time cast the parameters to.
+ */
+public class UnificationBuilderTest extends WalaTestCase {
+
+  @Test
+  public void testMessageFormat()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    UnificationCallGraphBuilder builder =
+        checkOverApproximation("LmessageFormatTest/MessageFormatBench");
+    assertTrue(builder.getNumberOfClasses() < builder.getNumberOfElements());
+  }
+
+  @Test
+  public void testHashMapGet()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    checkOverApproximation("Ldemandpa/TestHashMapGet");
+  }
+
+  /**
+   * @return the unification-based builder
+   */
+  private static UnificationCallGraphBuilder checkOverApproximation(String mainClass)
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope =
+        CallGraphTestUtil.makeJ2SEAnalysisScope(
+            TestConstants.WALA_TESTDATA, CallGraphTestUtil.REGRESSION_EXCLUSIONS);
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, mainClass);
+
+    AnalysisOptions inclusion = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    SSAPropagationCallGraphBuilder zeroCFA =
+        Util.makeZeroCFABuilder(Language.JAVA, inclusion, new AnalysisCacheImpl(), cha);
+    CallGraph expectedCG = zeroCFA.makeCallGraph(inclusion, null);
+
+    AnalysisOptions unification = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    UnificationCallGraphBuilder builder =
+        Util.makeUnificationBuilder(Language.JAVA, unification, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(unification, null);
+
+    Set<CGNode> reached = checkReachable(expectedCG, cg);
+
+    // remove from the 0-CFA points-to sets the instance keys of the unification-based ones, whose
+    // points-to sets are too large to print for each pointer key
+    Map<String, Set<String>> missing = pointsTo(zeroCFA.getPointerAnalysis(), reached);
+    PointerAnalysis<InstanceKey> pa = builder.getPointerAnalysis();
+    Map<String, Set<InstanceKey>> byName = new HashMap<>();
+    for (InstanceKey ik : pa.getInstanceKeys()) {
+      MapUtil.findOrCreateSet(byName, ik.toString()).add(ik);
+    }
+    for (PointerKey k : pa.getPointerKeys()) {
+      Set<String> instances = missing.get(k.toString());
+      if (instances != null && !instances.isEmpty()) {
+        OrdinalSet<InstanceKey> unified = pa.getPointsToSet(k);
+        instances.removeIf(
+            i -> byName.getOrDefault(i, Collections.emptySet()).stream().anyMatch(unified::contains));
+      }
+    }
+    missing.forEach((k, instances) -> assertTrue(instances.isEmpty(), () -> k + ": " + instances));
+    return builder;
+  }
+
+  /**
+   * Check that the nodes of expected reachable from its root, except through calls in the methods
+   * of lambda summaries, and the edges between them are in actual.
+   *
+   * @return those nodes of expected
+   */
+  private static Set<CGNode> checkReachable(CallGraph expected, CallGraph actual) {
+    Set<String> nodes = new HashSet<>();
+    Set<String> edges = new HashSet<>();
+    for (CGNode n : actual) {
+      nodes.add(n.toString());
+      for (CGNode s : Iterator2Iterable.make(actual.getSuccNodes(n))) {
+        edges.add(n + " -> " + s);
+      }
+    }
+    Set<CGNode> reached = HashSetFactory.make();
+    ArrayDeque<CGNode> pending = new ArrayDeque<>();
+    reached.add(expected.getFakeRootNode());
+    pending.add(expected.getFakeRootNode());
+    while (!pending.isEmpty()) {
+      CGNode n = pending.pop();
+      assertTrue(nodes.contains(n.toString()), n::toString);
+      boolean lambda = n.getMethod().getDeclaringClass() instanceof LambdaSummaryClass;
+      for (CGNode s : Iterator2Iterable.make(expected.getSuccNodes(n))) {
+        String edge = n + " -> " + s;
+        if (edges.contains(edge)) {
+          if (reached.add(s)) {
+            pending.add(s);
+          }
+        } else {
+          assertTrue(lambda, edge);
+        }
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * the instance keys pointed to by each pointer key of the heap or of the nodes, except the locals
+   * of the synthetic root methods, merged by the way the pointer keys print
+   */
+  private static Map<String, Set<String>> pointsTo(
+      PointerAnalysis<InstanceKey> pa, Set<CGNode> nodes) {
+    Map<String, Set<String>> result = new TreeMap<>();
+    for (PointerKey k : pa.getPointerKeys()) {
+      if (k instanceof LocalPointerKey
+          && ((LocalPointerKey) k).getNode().getMethod() instanceof AbstractRootMethod) {
+        continue;
+      }
+      if (k instanceof AbstractLocalPointerKey
+          && !nodes.contains(((AbstractLocalPointerKey) k).getNode())) {
+        continue;
+      }
+      Set<String> instances = MapUtil.findOrCreateSet(result, k.toString());
+      for (InstanceKey ik : pa.getPointsToSet(k)) {
+        instances.add(ik.toString());
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,95 @@
+package com.ibm.wala.core.tests.slicer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.util.CallGraphSearchUtil;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.slicer.BatchSlicer;
+import com.ibm.wala.ipa.slicer.NormalReturnCaller;
+import com.ibm.wala.ipa.slicer.NormalStatement;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.ssa.SSAAbstractInvokeInstruction;
+import com.ibm.wala.ssa.SSAInstruction;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** Check that slicing many statements at once gives the same slices as slicing each one */
+public class BatchSlicerTest extends WalaTestCase {
+
+  @Test
+  public void testList()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = SlicerTest.findOrCreateAnalysisScope();
+    IClassHierarchy cha = SlicerTest.findOrCreateCHA(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, "Lslice/TestList");
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneContainerCFABuilder(options, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(options, null);
+    SDG<InstanceKey> sdg =
+        new SDG<>(
+            cg,
+            builder.getPointerAnalysis(),
+            DataDependenceOptions.FULL,
+            ControlDependenceOptions.NO_EXCEPTIONAL_EDGES);
+
+    // each call in main, and the value returned by each call
+    CGNode main = CallGraphSearchUtil.findMainMethod(cg);
+    Map<String, Statement> seeds = new LinkedHashMap<>();
+    SSAInstruction[] instructions = main.getIR().getInstructions();
+    for (int i = 0; i < instructions.length; i++) {
+      if (instructions[i] instanceof SSAAbstractInvokeInstruction) {
+        seeds.put("call " + i, new NormalStatement(main, i));
+        if (((SSAAbstractInvokeInstruction) instructions[i]).hasDef()) {
+          seeds.put("return " + i, new NormalReturnCaller(main, i));
+        }
+      }
+    }
+    assertTrue(seeds.size() > 4);
+    assertThrows(
+        IllegalArgumentException.class, () -> BatchSlicer.computeBackwardSlices(null, seeds));
+
+    checkSame(sdg, seeds, BatchSlicer.computeBackwardSlices(sdg, seeds), true);
+    checkSame(sdg, seeds, BatchSlicer.computeForwardSlices(sdg, seeds), false);
+  }
+
+  private static void checkSame(
+      SDG<InstanceKey> sdg,
+      Map<String, Statement> seeds,
+      Map<String, Collection<Statement>> slices,
+      boolean backward)
+      throws CancelException {
+    assertEquals(seeds.keySet(), slices.keySet());
+    for (Map.Entry<String, Statement> e : seeds.entrySet()) {
+      Collection<Statement> expected =
+          backward
+              ? Slicer.computeBackwardSlice(sdg, e.getValue())
+              : Slicer.computeForwardSlice(sdg, e.getValue());
+      assertTrue(expected.contains(e.getValue()));
+      assertEquals(new HashSet<>(expected), new HashSet<>(slices.get(e.getKey())), e.getKey());
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.ibm.wala.core.tests.slicer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.util.CallGraphSearchUtil;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.slicer.NormalReturnCaller;
+import com.ibm.wala.ipa.slicer.NormalStatement;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.SlicerUtil;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Check that an SDG which drops and recomputes PDGs gives the same slices as one that keeps them
+ */
+public class BoundedSDGTest extends WalaTestCase {
+
+  @Test
+  public void testList()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = SlicerTest.findOrCreateAnalysisScope();
+    IClassHierarchy cha = SlicerTest.findOrCreateCHA(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, "Lslice/TestList");
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneContainerCFABuilder(options, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(options, null);
+
+    CGNode main = CallGraphSearchUtil.findMainMethod(cg);
+    NormalStatement getCall = (NormalStatement) SlicerUtil.findCallTo(main, "get");
+    Statement s = new NormalReturnCaller(main, getCall.getInstructionIndex());
+
+    SDG<InstanceKey> expected = makeSDG(cg, builder);
+    SDG<InstanceKey> actual = makeSDG(cg, builder);
+    assertThrows(IllegalArgumentException.class, () -> actual.setMaxPopulatedPDGs(0));
+    actual.setMaxPopulatedPDGs(3);
+
+    Collection<Statement> slice = Slicer.computeBackwardSlice(expected, s);
+    assertTrue(slice.size() > 1);
+    assertEquals(new HashSet<>(slice), new HashSet<>(Slicer.computeBackwardSlice(actual, s)));
+    assertEquals(
+        new HashSet<>(Slicer.computeForwardSlice(expected, s)),
+        new HashSet<>(Slicer.computeForwardSlice(actual, s)));
+
+    // bound an SDG whose PDGs were populated before
+    expected.setMaxPopulatedPDGs(3);
+    assertEquals(new HashSet<>(slice), new HashSet<>(Slicer.computeBackwardSlice(expected, s)));
+  }
+
+  private static SDG<InstanceKey> makeSDG(CallGraph cg, CallGraphBuilder<InstanceKey> builder) {
+    return new SDG<>(
+        cg,
+        builder.getPointerAnalysis(),
+        DataDependenceOptions.FULL,
+        ControlDependenceOptions.NO_EXCEPTIONAL_EDGES);
+  }
+}
@@ -0,0 +1,95 @@
+package com.ibm.wala.core.tests.slicer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.dataflow.IFDS.PartiallyBalancedTabulationSolver;
+import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.slicer.PDG;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.intset.IntSet;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/** Check that a concurrent tabulation computes the same result as a sequential one */
+public class ConcurrentTabulationTest extends WalaTestCase {
+
+  @Test
+  public void testSlice()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    Slice1Fixture slice1 = new Slice1Fixture();
+    Statement s = slice1.seed;
+    assertThrows(IllegalArgumentException.class, () -> solve(makeSDG(slice1), s, true, null, true));
+    ForkJoinPool single = new ForkJoinPool(1);
+    try {
+      // an SDG is only safe to query from several threads once it is made concurrent
+      SDG<InstanceKey> sequential =
+          slice1.makeSDG(DataDependenceOptions.FULL, ControlDependenceOptions.FULL);
+      assertThrows(
+          UnsupportedOperationException.class, () -> solve(sequential, s, true, single, true));
+    } finally {
+      single.shutdown();
+    }
+    for (boolean backward : new boolean[] {true, false}) {
+      TabulationResult<Statement, PDG<?>, Object> expected =
+          solve(
+              slice1.makeSDG(DataDependenceOptions.FULL, ControlDependenceOptions.FULL),
+              s,
+              backward,
+              null,
+              false);
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        // repeat, to give the interleavings a chance to differ; each solve starts from an SDG none
+        // of whose PDGs were computed, so that the threads race to compute them
+        for (int i = 0; i < 3; i++) {
+          checkSame(expected, solve(makeSDG(slice1), s, backward, pool, true));
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  private static SDG<InstanceKey> makeSDG(Slice1Fixture slice1) {
+    // with heap data dependences, which the PDGs add as they are queried
+    SDG<InstanceKey> sdg =
+        slice1.makeSDG(DataDependenceOptions.FULL, ControlDependenceOptions.FULL);
+    sdg.setConcurrent(true);
+    return sdg;
+  }
+
+  private static TabulationResult<Statement, PDG<?>, Object> solve(
+      SDG<InstanceKey> sdg, Statement s, boolean backward, ForkJoinPool pool, boolean concurrent)
+      throws CancelException {
+    Slicer.SliceProblem p = new Slicer.SliceProblem(Collections.singleton(s), sdg, backward);
+    PartiallyBalancedTabulationSolver<Statement, PDG<?>, Object> solver =
+        PartiallyBalancedTabulationSolver.createPartiallyBalancedTabulationSolver(p, null);
+    return concurrent ? solver.solve(pool) : solver.solve();
+  }
+
+  private static void checkSame(
+      TabulationResult<Statement, PDG<?>, Object> expected,
+      TabulationResult<Statement, PDG<?>, Object> actual) {
+    Collection<Statement> reached = expected.getSupergraphNodesReached();
+    assertTrue(reached.size() > 1);
+    assertEquals(reached, actual.getSupergraphNodesReached());
+    for (Statement n : reached) {
+      IntSet e = expected.getResult(n);
+      assertTrue(e.sameValue(actual.getResult(n)), n::toString);
+    }
+    assertEquals(expected.getSeeds().size(), actual.getSeeds().size());
+  }
+}
@@ -0,0 +1,64 @@
+package com.ibm.wala.core.tests.slicer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.dataflow.IFDS.PartiallyBalancedTabulationSolver;
+import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.slicer.PDG;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.util.CancelException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+/** Check that a slice whose path edges are spilled to files is the same as one kept in memory */
+public class PathEdgeSpillingTest extends WalaTestCase {
+
+  @Test
+  public void testSlice()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    Slice1Fixture slice1 = new Slice1Fixture();
+    SDG<InstanceKey> sdg =
+        slice1.makeSDG(DataDependenceOptions.NO_HEAP, ControlDependenceOptions.FULL);
+    File directory = Files.createTempDirectory("pathEdges").toFile();
+    try {
+      TabulationResult<Statement, PDG<?>, Object> expected = slice(sdg, slice1.seed, null);
+      TabulationResult<Statement, PDG<?>, Object> actual = slice(sdg, slice1.seed, directory);
+      assertTrue(directory.list().length > 0);
+      assertEquals(expected.getSupergraphNodesReached(), actual.getSupergraphNodesReached());
+      for (Statement n : expected.getSupergraphNodesReached()) {
+        assertTrue(expected.getResult(n).sameValue(actual.getResult(n)), n::toString);
+      }
+      // the queries of the result spilled path edges again
+      assertTrue(Arrays.stream(directory.listFiles()).anyMatch(f -> f.length() > 0));
+    } finally {
+      for (File f : directory.listFiles()) {
+        Files.delete(f.toPath());
+      }
+      Files.delete(directory.toPath());
+    }
+  }
+
+  private static TabulationResult<Statement, PDG<?>, Object> slice(
+      SDG<InstanceKey> sdg, Statement s, File spillDirectory) throws CancelException {
+    Slicer.SliceProblem p = new Slicer.SliceProblem(Collections.singleton(s), sdg, false);
+    PartiallyBalancedTabulationSolver<Statement, PDG<?>, Object> solver =
+        PartiallyBalancedTabulationSolver.createPartiallyBalancedTabulationSolver(p, null);
+    if (spillDirectory != null) {
+      // spill even the small path edges of a slice
+      solver.setPathEdgeSpilling(spillDirectory, 10, 0);
+    }
+    return solver.solve();
+  }
+}
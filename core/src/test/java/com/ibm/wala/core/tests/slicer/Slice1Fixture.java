@@ -0,0 +1,56 @@
+package com.ibm.wala.core.tests.slicer;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.tests.util.TestConstants;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.propagation.PointerAnalysis;
+import com.ibm.wala.ipa.callgraph.util.CallGraphSearchUtil;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.SlicerUtil;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.util.CancelException;
+import java.io.IOException;
+
+/**
+ * The 0-1-CFA call graph of {@link TestConstants#SLICE1_MAIN}, as in {@link
+ * SlicerTest#testSlice1()}, for tests that compare ways of slicing from its call to println
+ */
+final class Slice1Fixture {
+
+  final CallGraph cg;
+
+  final PointerAnalysis<InstanceKey> pointerAnalysis;
+
+  /** the call to println in main */
+  final Statement seed;
+
+  Slice1Fixture()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    AnalysisScope scope = SlicerTest.findOrCreateAnalysisScope();
+    IClassHierarchy cha = SlicerTest.findOrCreateCHA(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, TestConstants.SLICE1_MAIN);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha);
+    cg = builder.makeCallGraph(options, null);
+    pointerAnalysis = builder.getPointerAnalysis();
+    seed = SlicerUtil.findCallTo(CallGraphSearchUtil.findMainMethod(cg), "println");
+  }
+
+  /** a fresh SDG, none of whose PDGs have been computed yet */
+  SDG<InstanceKey> makeSDG(DataDependenceOptions dOptions, ControlDependenceOptions cOptions) {
+    return new SDG<>(cg, pointerAnalysis, dOptions, cOptions);
+  }
+}
@@ -90,7 +90,7 @@ public class SlicerTest {
     }
   }
 
-  private static AnalysisScope findOrCreateAnalysisScope() throws IOException {
+  static AnalysisScope findOrCreateAnalysisScope() throws IOException {
     if (cachedScope == null) {
       cachedScope =
           AnalysisScopeReader.instance.readJavaScope(
@@ -103,8 +103,7 @@ public class SlicerTest {
 
   private static IClassHierarchy cachedCHA;
 
-  private static IClassHierarchy findOrCreateCHA(AnalysisScope scope)
-      throws ClassHierarchyException {
+  static IClassHierarchy findOrCreateCHA(AnalysisScope scope) throws ClassHierarchyException {
     if (cachedCHA == null) {
       cachedCHA = ClassHierarchyFactory.make(scope);
     }
@@ -0,0 +1,137 @@
+package com.ibm.wala.core.tests.slicer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ibm.wala.core.tests.util.WalaTestCase;
+import com.ibm.wala.dataflow.IFDS.CallGraphProcedureKeys;
+import com.ibm.wala.dataflow.IFDS.ISummaryKeys;
+import com.ibm.wala.dataflow.IFDS.PartiallyBalancedTabulationSolver;
+import com.ibm.wala.dataflow.IFDS.SummaryEdgeStore;
+import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.slicer.PDG;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.types.ClassLoaderReference;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.collections.Iterator2Collection;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/** Check that summary edges kept from an earlier slice give the same slice of application code */
+public class SummaryEdgeStoreTest extends WalaTestCase {
+
+  private static final String FINGERPRINT = "forward slice, no heap, full control";
+
+  @Test
+  public void testReuse()
+      throws ClassHierarchyException, IllegalArgumentException, CancelException, IOException {
+    Slice1Fixture slice1 = new Slice1Fixture();
+    Statement s = slice1.seed;
+    CallGraphProcedureKeys keys = new CallGraphProcedureKeys(slice1.cg, n -> !isApplication(n));
+    assertNull(keys.getKey(s.getNode()));
+    // keys do not depend on the order in which they are computed
+    CallGraphProcedureKeys reversed = new CallGraphProcedureKeys(slice1.cg, n -> !isApplication(n));
+    List<CGNode> nodes = Iterator2Collection.toList(slice1.cg.iterator());
+    Collections.reverse(nodes);
+    Set<String> stableKeys = HashSetFactory.make();
+    for (CGNode n : nodes) {
+      String key = reversed.getKey(n);
+      assertEquals(key, keys.getKey(n));
+      if (key != null) {
+        stableKeys.add(key);
+      }
+    }
+    assertTrue(stableKeys.size() > 1);
+
+    SummaryEdgeStore store = new SummaryEdgeStore(FINGERPRINT);
+    TabulationResult<Statement, PDG<?>, Object> first = slice(slice1, s, store, keys);
+    assertTrue(store.size() > 0);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    store.write(bytes);
+    assertEquals(
+        0,
+        SummaryEdgeStore.read(new ByteArrayInputStream(bytes.toByteArray()), "another problem")
+            .size());
+    SummaryEdgeStore reread =
+        SummaryEdgeStore.read(new ByteArrayInputStream(bytes.toByteArray()), FINGERPRINT);
+    assertEquals(store.size(), reread.size());
+
+    // a fresh SDG and fresh keys, as in a later run
+    TabulationResult<Statement, PDG<?>, Object> second =
+        slice(slice1, s, reread, new CallGraphProcedureKeys(slice1.cg, n -> !isApplication(n)));
+    Collection<Statement> reached = second.getSupergraphNodesReached();
+    assertTrue(reached.size() < first.getSupergraphNodesReached().size());
+    assertEquals(application(first.getSupergraphNodesReached()), application(reached));
+  }
+
+  private static TabulationResult<Statement, PDG<?>, Object> slice(
+      Slice1Fixture slice1, Statement s, SummaryEdgeStore store, CallGraphProcedureKeys keys)
+      throws CancelException {
+    SDG<InstanceKey> sdg =
+        slice1.makeSDG(DataDependenceOptions.NO_HEAP, ControlDependenceOptions.FULL);
+    Slicer.SliceProblem p = new Slicer.SliceProblem(Collections.singleton(s), sdg, false);
+    PartiallyBalancedTabulationSolver<Statement, PDG<?>, Object> solver =
+        PartiallyBalancedTabulationSolver.createPartiallyBalancedTabulationSolver(p, null);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> solver.setSummaryStore(new SummaryEdgeStore("another problem"), summaryKeys(keys)));
+    solver.setSummaryStore(store, summaryKeys(keys));
+    return solver.solve();
+  }
+
+  private static ISummaryKeys<PDG<?>> summaryKeys(CallGraphProcedureKeys keys) {
+    return new ISummaryKeys<>() {
+      @Override
+      public String getProblemFingerprint() {
+        return FINGERPRINT;
+      }
+
+      @Override
+      public String getProcedureKey(PDG<?> proc) {
+        return keys.getKey(proc.getCallGraphNode());
+      }
+
+      @Override
+      public String getFactKey(int d) {
+        return Integer.toString(d);
+      }
+
+      @Override
+      public int getFact(String key) {
+        return Integer.parseInt(key);
+      }
+    };
+  }
+
+  private static boolean isApplication(CGNode n) {
+    return n.getMethod()
+        .getDeclaringClass()
+        .getClassLoader()
+        .getReference()
+        .equals(ClassLoaderReference.Application);
+  }
+
+  private static Set<Statement> application(Collection<Statement> statements) {
+    return statements.stream()
+        .filter(st -> isApplication(st.getNode()))
+        .collect(Collectors.toSet());
+  }
+}
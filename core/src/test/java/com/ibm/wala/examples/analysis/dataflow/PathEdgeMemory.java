@@ -0,0 +1,160 @@
+package com.ibm.wala.examples.analysis.dataflow;
+
+import com.ibm.wala.classLoader.Language;
+import com.ibm.wala.core.tests.callGraph.CallGraphTestUtil;
+import com.ibm.wala.core.util.config.AnalysisScopeReader;
+import com.ibm.wala.core.util.io.FileProvider;
+import com.ibm.wala.dataflow.IFDS.PartiallyBalancedTabulationSolver;
+import com.ibm.wala.dataflow.IFDS.TabulationResult;
+import com.ibm.wala.ipa.callgraph.AnalysisCacheImpl;
+import com.ibm.wala.ipa.callgraph.AnalysisOptions;
+import com.ibm.wala.ipa.callgraph.AnalysisScope;
+import com.ibm.wala.ipa.callgraph.CGNode;
+import com.ibm.wala.ipa.callgraph.CallGraph;
+import com.ibm.wala.ipa.callgraph.CallGraphBuilder;
+import com.ibm.wala.ipa.callgraph.Entrypoint;
+import com.ibm.wala.ipa.callgraph.impl.Util;
+import com.ibm.wala.ipa.callgraph.propagation.InstanceKey;
+import com.ibm.wala.ipa.callgraph.util.CallGraphSearchUtil;
+import com.ibm.wala.ipa.cha.ClassHierarchyException;
+import com.ibm.wala.ipa.cha.ClassHierarchyFactory;
+import com.ibm.wala.ipa.cha.IClassHierarchy;
+import com.ibm.wala.ipa.slicer.PDG;
+import com.ibm.wala.ipa.slicer.ParamCallee;
+import com.ibm.wala.ipa.slicer.SDG;
+import com.ibm.wala.ipa.slicer.Slicer;
+import com.ibm.wala.ipa.slicer.Slicer.ControlDependenceOptions;
+import com.ibm.wala.ipa.slicer.Slicer.DataDependenceOptions;
+import com.ibm.wala.ipa.slicer.Statement;
+import com.ibm.wala.util.CancelException;
+import com.ibm.wala.util.config.FileOfClasses;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Measure the memory a tabulation keeps for its path edges, with {@link
+ * com.ibm.wala.dataflow.IFDS.LocalPathEdges}, with {@link
+ * com.ibm.wala.dataflow.IFDS.CompactLocalPathEdges}, and with compact path edges that are spilled
+ * to files.
+ *
+ * <p>The tabulation is a forward slice, without heap dependences, from the parameter of the main
+ * method of an application, over its 0-1-CFA call graph. Its PDGs are computed before any of the
+ * measurements, so that the memory measured is that of the tabulation.
+ *
+ * <p>Usage: PathEdgeMemory &lt;class path&gt; &lt;main class, e.g. Lorg/apache/tools/ant/Main&gt;
+ * [&lt;most procedures kept in memory when spilling&gt; [&lt;fewest bytes of path edges
+ * spilled&gt;]]
+ */
+public class PathEdgeMemory {
+
+  public static void main(String[] args)
+      throws IOException, ClassHierarchyException, IllegalArgumentException, CancelException {
+    if (args.length < 2) {
+      System.err.println(
+          "usage: PathEdgeMemory <class path> <main class> [<max resident> [<min spilled bytes>]]");
+      System.exit(1);
+    }
+    int maxResident = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+    long minSpilledBytes = args.length > 3 ? Long.parseLong(args[3]) : 1024;
+    AnalysisScope scope = AnalysisScopeReader.instance.makeJavaBinaryAnalysisScope(args[0], null);
+    try (InputStream is =
+        new FileProvider()
+            .getInputStreamFromClassLoader(
+                CallGraphTestUtil.REGRESSION_EXCLUSIONS, PathEdgeMemory.class.getClassLoader())) {
+      scope.setExclusions(new FileOfClasses(is));
+    }
+    IClassHierarchy cha = ClassHierarchyFactory.make(scope);
+    Iterable<Entrypoint> entrypoints = Util.makeMainEntrypoints(cha, args[1]);
+    AnalysisOptions options = CallGraphTestUtil.makeAnalysisOptions(scope, entrypoints);
+    CallGraphBuilder<InstanceKey> builder =
+        Util.makeZeroOneCFABuilder(Language.JAVA, options, new AnalysisCacheImpl(), cha);
+    CallGraph cg = builder.makeCallGraph(options, null);
+    CGNode main = CallGraphSearchUtil.findMainMethod(cg);
+    Statement s = new ParamCallee(main, 1);
+    SDG<InstanceKey> sdg =
+        new SDG<>(
+            cg,
+            builder.getPointerAnalysis(),
+            DataDependenceOptions.NO_HEAP,
+            ControlDependenceOptions.FULL);
+    // computes all the PDGs
+    int statements = sdg.getNumberOfNodes();
+    System.out.println(cg.getNumberOfNodes() + " call graph nodes, " + statements + " statements");
+
+    int reached = measure("LocalPathEdges", sdg, s, false, null, 0, 0);
+    int compact = measure("CompactLocalPathEdges", sdg, s, true, null, 0, 0);
+    File directory = Files.createTempDirectory("pathEdges").toFile();
+    try {
+      int spilled =
+          measure(
+              "CompactLocalPathEdges, at most "
+                  + maxResident
+                  + " procedures in memory, spilling from "
+                  + minSpilledBytes
+                  + " bytes",
+              sdg,
+              s,
+              true,
+              directory,
+              maxResident,
+              minSpilledBytes);
+      if (compact != reached || spilled != reached) {
+        throw new IllegalStateException(
+            "slices differ: " + reached + ", " + compact + ", " + spilled);
+      }
+    } finally {
+      for (File f : directory.listFiles()) {
+        Files.delete(f.toPath());
+      }
+      Files.delete(directory.toPath());
+    }
+  }
+
+  /**
+   * @return the number of statements in the slice
+   */
+  private static int measure(
+      String name,
+      SDG<InstanceKey> sdg,
+      Statement s,
+      boolean compact,
+      File spillDirectory,
+      int maxResident,
+      long minSpilledBytes)
+      throws CancelException {
+    Slicer.SliceProblem p = new Slicer.SliceProblem(Collections.singleton(s), sdg, false);
+    PartiallyBalancedTabulationSolver<Statement, PDG<?>, Object> solver =
+        PartiallyBalancedTabulationSolver.createPartiallyBalancedTabulationSolver(p, null);
+    solver.setCompactPathEdges(compact);
+    if (spillDirectory != null) {
+      solver.setPathEdgeSpilling(spillDirectory, maxResident, minSpilledBytes);
+    }
+    long before = usedMemory();
+    long start = System.nanoTime();
+    TabulationResult<Statement, PDG<?>, Object> result = solver.solve();
+    long millis = (System.nanoTime() - start) / 1000000;
+    long after = usedMemory();
+    int reached = result.getSupergraphNodesReached().size();
+    System.out.println(
+        name
+            + ": "
+            + millis
+            + " ms, "
+            + reached
+            + " statements reached, tabulation retains "
+            + (after - before) / 1024
+            + " KB");
+    return reached;
+  }
+
+  private static long usedMemory() {
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
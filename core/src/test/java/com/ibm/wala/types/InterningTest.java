@@ -0,0 +1,97 @@
+package com.ibm.wala.types;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.ibm.wala.core.util.strings.Atom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/** Check that interned names and references stay canonical when created from many threads */
+public class InterningTest {
+
+  private static final int THREADS = 8;
+
+  private static final int NAMES = 2000;
+
+  @Test
+  void concurrentAtoms() throws InterruptedException, ExecutionException {
+    Object[][] results = internConcurrently(i -> Atom.findOrCreateAsciiAtom("atom" + i));
+    checkSame(results);
+  }
+
+  @Test
+  void concurrentTypeReferences() throws InterruptedException, ExecutionException {
+    Object[][] results =
+        internConcurrently(
+            i ->
+                TypeReference.findOrCreate(
+                    ClassLoaderReference.Application, "Linterning/Type" + i));
+    checkSame(results);
+    for (int i = 0; i < NAMES; i++) {
+      TypeReference t = (TypeReference) results[0][i];
+      assertSame(t.getName(), TypeName.string2TypeName("Linterning/Type" + i));
+      assertSame(t, TypeReference.find(ClassLoaderReference.Application, t.getName()));
+    }
+  }
+
+  @Test
+  void concurrentMethodReferences() throws InterruptedException, ExecutionException {
+    Object[][] results =
+        internConcurrently(
+            i ->
+                MethodReference.findOrCreate(
+                    TypeReference.findOrCreate(
+                        ClassLoaderReference.Application, "Linterning/Owner" + (i % 10)),
+                    "m" + i,
+                    "(Linterning/Arg" + i + ";)V"));
+    checkSame(results);
+  }
+
+  private interface Interner {
+    Object intern(int i);
+  }
+
+  private static Object[][] internConcurrently(Interner interner)
+      throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Object[]>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        Callable<Object[]> task =
+            () -> {
+              start.await();
+              Object[] result = new Object[NAMES];
+              for (int i = 0; i < NAMES; i++) {
+                result[i] = interner.intern(i);
+              }
+              return result;
+            };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+      Object[][] results = new Object[THREADS][];
+      for (int t = 0; t < THREADS; t++) {
+        results[t] = futures.get(t).get();
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void checkSame(Object[][] results) {
+    for (int t = 1; t < results.length; t++) {
+      for (int i = 0; i < NAMES; i++) {
+        assertSame(results[0][i], results[t][i]);
+      }
+    }
+  }
+}
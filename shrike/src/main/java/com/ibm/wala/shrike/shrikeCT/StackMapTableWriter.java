@@ -20,7 +20,7 @@ import com.ibm.wala.shrike.shrikeCT.StackMapConstants.ObjectType;
 import com.ibm.wala.shrike.shrikeCT.StackMapConstants.StackMapFrame;
 import com.ibm.wala.shrike.shrikeCT.StackMapConstants.StackMapType;
 import com.ibm.wala.shrike.shrikeCT.StackMapConstants.UninitializedType;
-import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.collections.IntIntMap;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -28,7 +28,6 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 public class StackMapTableWriter extends Element {
   private final byte[] data;
@@ -78,7 +77,7 @@ public class StackMapTableWriter extends Element {
   private static List<StackMapFrame> remapStackFrames(
       List<StackMapFrame> sm, int[] newBytecodesToOldBytecodes) {
     // mapping to new bytecode
-    Map<Integer, Integer> oldToNew = HashMapFactory.make();
+    IntIntMap oldToNew = new IntIntMap(newBytecodesToOldBytecodes.length);
     for (int i = newBytecodesToOldBytecodes.length - 1; i >= 0; i--) {
       oldToNew.put(newBytecodesToOldBytecodes[i], i);
     }
@@ -88,10 +87,10 @@ public class StackMapTableWriter extends Element {
     int positions[] = new int[sm.size()];
     Iterator<StackMapFrame> sms = sm.iterator();
     int position = sms.next().getOffset();
-    positions[0] = oldToNew.get(position);
+    positions[0] = newPosition(oldToNew, position);
     while (sms.hasNext()) {
       position += sms.next().getOffset() + 1;
-      positions[i++] = oldToNew.get(position);
+      positions[i++] = newPosition(oldToNew, position);
     }
 
     // positions turned into offsets
@@ -108,6 +107,14 @@ public class StackMapTableWriter extends Element {
     return newFrames;
   }
 
+  private static int newPosition(IntIntMap oldToNew, int oldPosition) {
+    int result = oldToNew.getOrDefault(oldPosition, -1);
+    if (result == -1) {
+      throw new IllegalArgumentException("no new bytecode for frame at " + oldPosition);
+    }
+    return result;
+  }
+
   public StackMapTableWriter(
       ClassWriter w, List<StackMapFrame> sm, int[] newBytecodesToOldBytecodes) throws IOException {
     this(w, remapStackFrames(sm, newBytecodesToOldBytecodes));
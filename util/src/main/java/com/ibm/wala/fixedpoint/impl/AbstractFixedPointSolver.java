@@ -104,6 +104,13 @@ public abstract class AbstractFixedPointSolver<T extends IVariable<T>>
     firstSolve = false;
   }
 
+  /**
+   * @return true iff {@link #initForFirstSolve()} has not yet been performed
+   */
+  protected boolean isFirstSolve() {
+    return firstSolve;
+  }
+
   /**
    * @return true iff work list is empty
    */
@@ -16,11 +16,23 @@ import com.ibm.wala.util.collections.Heap;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
 
-/** Worklist for fixed-point solver implementation */
+/**
+ * Worklist for fixed-point solver implementation.
+ *
+ * <p>Duplicate insertions of statements that are nodes of a fixed-point system are detected with a
+ * flag on the statement itself (see {@link AbstractStatement#isOnWorklist()}) rather than with a
+ * set, so inserting and taking them neither hashes nor allocates. As a consequence, such a
+ * statement may be on at most one worklist at a time.
+ *
+ * <p>Statements without a graph node number are not canonical: a system that represents some
+ * equations implicitly may hand out a fresh, equal statement object each time it is asked. These
+ * are still detected by value, with a set.
+ */
 @SuppressWarnings("rawtypes")
 public class Worklist extends Heap<AbstractStatement> {
 
-  private final HashSet<AbstractStatement> contents = HashSetFactory.make();
+  /** statements on this worklist that are not nodes of a fixed-point system */
+  private final HashSet<AbstractStatement> unnumbered = HashSetFactory.make();
 
   public Worklist() {
     super(100);
@@ -33,12 +45,21 @@ public class Worklist extends Heap<AbstractStatement> {
 
   public AbstractStatement takeStatement() throws NoSuchElementException {
     AbstractStatement result = super.take();
-    contents.remove(result);
+    if (result.getGraphNodeId() < 0) {
+      unnumbered.remove(result);
+    } else {
+      result.setOnWorklist(false);
+    }
     return result;
   }
 
   public void insertStatement(AbstractStatement eq) {
-    if (contents.add(eq)) {
+    if (eq.getGraphNodeId() < 0) {
+      if (unnumbered.add(eq)) {
+        super.insert(eq);
+      }
+    } else if (!eq.isOnWorklist()) {
+      eq.setOnWorklist(true);
       super.insert(eq);
     }
   }
@@ -16,6 +16,12 @@ import com.ibm.wala.util.graph.impl.NodeWithNumber;
 public abstract class AbstractStatement<T extends IVariable<T>, O extends AbstractOperator<T>>
     extends NodeWithNumber implements IFixedPointStatement<T> {
 
+  /**
+   * true iff this statement is currently on a solver's {@link
+   * com.ibm.wala.fixedpoint.impl.Worklist}
+   */
+  private boolean onWorklist = false;
+
   public abstract O getOperator();
 
   /** Subclasses must implement this, to prevent non-determinism. */
@@ -51,4 +57,19 @@ public abstract class AbstractStatement<T extends IVariable<T>, O extends Abstra
     T lhs = getLHS();
     return (lhs == null) ? 0 : lhs.getOrderNumber();
   }
+
+  /**
+   * @return true iff this statement is currently on a solver's {@link
+   *     com.ibm.wala.fixedpoint.impl.Worklist}
+   */
+  public final boolean isOnWorklist() {
+    return onWorklist;
+  }
+
+  /**
+   * Record whether this statement is on a solver's worklist; only the worklist should call this.
+   */
+  public final void setOnWorklist(boolean onWorklist) {
+    this.onWorklist = onWorklist;
+  }
 }
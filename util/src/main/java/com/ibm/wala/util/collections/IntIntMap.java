@@ -0,0 +1,200 @@
+package com.ibm.wala.util.collections;
+
+import com.ibm.wala.util.intset.IntIterator;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A map from int keys to int values, kept in open-addressing arrays.
+ *
+ * <p>Use this in place of a {@code HashMap<Integer, Integer>}: it neither boxes nor allocates an
+ * entry per mapping. Any int is a legal key or value. Iteration order is unspecified.
+ */
+public class IntIntMap implements Serializable {
+
+  private static final long serialVersionUID = -2583216958101357140L;
+
+  /** marks a free slot; the key 0 itself is held outside the table */
+  private static final int FREE = 0;
+
+  private int[] keys;
+
+  private int[] values;
+
+  /** number of mappings in the table, not counting the key 0 */
+  private int tableSize;
+
+  private boolean hasZero;
+
+  private int zeroValue;
+
+  public IntIntMap() {
+    this(OpenHashing.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * @param expectedSize number of mappings the map should hold before it needs to grow
+   * @throws IllegalArgumentException if expectedSize &lt; 0
+   */
+  public IntIntMap(int expectedSize) {
+    int n = OpenHashing.tableSize(expectedSize);
+    keys = new int[n];
+    values = new int[n];
+  }
+
+  /** the slot holding key (which is not 0), or the free slot where it would go */
+  private int slot(int key) {
+    int mask = keys.length - 1;
+    int i = OpenHashing.mix(key) & mask;
+    while (keys[i] != FREE && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  /**
+   * @return the value mapped to key, or defaultValue if none
+   */
+  public int getOrDefault(int key, int defaultValue) {
+    if (key == FREE) {
+      return hasZero ? zeroValue : defaultValue;
+    }
+    int i = slot(key);
+    return keys[i] == FREE ? defaultValue : values[i];
+  }
+
+  public boolean containsKey(int key) {
+    return key == FREE ? hasZero : keys[slot(key)] != FREE;
+  }
+
+  /** Map key to value, replacing any previous mapping for key. */
+  public void put(int key, int value) {
+    if (key == FREE) {
+      hasZero = true;
+      zeroValue = value;
+      return;
+    }
+    int i = slot(key);
+    values[i] = value;
+    if (keys[i] == FREE) {
+      keys[i] = key;
+      if (OpenHashing.mustGrow(++tableSize, keys.length)) {
+        rehash(keys.length * 2);
+      }
+    }
+  }
+
+  /**
+   * Remove the mapping for key, if any.
+   *
+   * @return true if there was a mapping for key
+   */
+  public boolean remove(int key) {
+    if (key == FREE) {
+      boolean result = hasZero;
+      hasZero = false;
+      return result;
+    }
+    int i = slot(key);
+    if (keys[i] == FREE) {
+      return false;
+    }
+    tableSize--;
+    shiftBack(i);
+    return true;
+  }
+
+  /** Free slot i, moving later members of its probe run back so that lookups still find them. */
+  private void shiftBack(int i) {
+    int mask = keys.length - 1;
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      if (keys[j] == FREE) {
+        break;
+      }
+      int home = OpenHashing.mix(keys[j]) & mask;
+      // move j to i unless its home lies cyclically in (i, j]
+      if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    keys[i] = FREE;
+  }
+
+  private void rehash(int newLength) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new int[newLength];
+    values = new int[newLength];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int j = slot(oldKeys[i]);
+        keys[j] = oldKeys[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return hasZero ? tableSize + 1 : tableSize;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    tableSize = 0;
+    hasZero = false;
+  }
+
+  /**
+   * @return an iterator over the keys which are mapped; the map must not change during iteration
+   */
+  public IntIterator keyIterator() {
+    return new IntIterator() {
+      /** -1 stands for the key 0 */
+      private int i = hasZero ? -1 : advance(0);
+
+      private int advance(int from) {
+        while (from < keys.length && keys[from] == FREE) {
+          from++;
+        }
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return i < keys.length;
+      }
+
+      @Override
+      public int next() {
+        if (i >= keys.length) {
+          throw new NoSuchElementException();
+        }
+        int result = i < 0 ? FREE : keys[i];
+        i = advance(i + 1);
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("{");
+    for (IntIterator it = keyIterator(); it.hasNext(); ) {
+      int key = it.next();
+      result.append(key).append('=').append(getOrDefault(key, 0));
+      if (it.hasNext()) {
+        result.append(", ");
+      }
+    }
+    return result.append('}').toString();
+  }
+}
@@ -0,0 +1,194 @@
+package com.ibm.wala.util.collections;
+
+import static com.ibm.wala.util.nullability.NullabilityUtil.castToNonNull;
+
+import com.ibm.wala.util.intset.IntIterator;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A map from int keys to non-null values, kept in open-addressing arrays.
+ *
+ * <p>Use this in place of a {@code HashMap<Integer, V>}: it does not box keys or allocate an entry
+ * per mapping. Any int is a legal key; null values are not allowed, and {@link #get(int)} returns
+ * null for an unmapped key. Iteration order is unspecified.
+ */
+public class IntObjectMap<V> implements Serializable {
+
+  private static final long serialVersionUID = 2218940313467632458L;
+
+  private int[] keys;
+
+  /** values[i] == null iff slot i is free */
+  private @Nullable Object[] values;
+
+  private int size;
+
+  public IntObjectMap() {
+    this(OpenHashing.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * @param expectedSize number of mappings the map should hold before it needs to grow
+   * @throws IllegalArgumentException if expectedSize &lt; 0
+   */
+  public IntObjectMap(int expectedSize) {
+    int n = OpenHashing.tableSize(expectedSize);
+    keys = new int[n];
+    values = new Object[n];
+  }
+
+  /** the slot holding key, or the free slot where it would go */
+  private int slot(int key) {
+    int mask = keys.length - 1;
+    int i = OpenHashing.mix(key) & mask;
+    while (values[i] != null && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  /**
+   * @return the value mapped to key, or null if none
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable V get(int key) {
+    return (V) values[slot(key)];
+  }
+
+  public boolean containsKey(int key) {
+    return values[slot(key)] != null;
+  }
+
+  /**
+   * Map key to value.
+   *
+   * @return the value previously mapped to key, or null if none
+   * @throws IllegalArgumentException if value is null
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable V put(int key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null value");
+    }
+    int i = slot(key);
+    Object old = values[i];
+    values[i] = value;
+    if (old == null) {
+      keys[i] = key;
+      if (OpenHashing.mustGrow(++size, keys.length)) {
+        rehash(keys.length * 2);
+      }
+    }
+    return (V) old;
+  }
+
+  /**
+   * Remove the mapping for key, if any.
+   *
+   * @return the value that was mapped to key, or null if none
+   */
+  @SuppressWarnings("unchecked")
+  public @Nullable V remove(int key) {
+    int i = slot(key);
+    Object old = values[i];
+    if (old != null) {
+      size--;
+      shiftBack(i);
+    }
+    return (V) old;
+  }
+
+  /** Free slot i, moving later members of its probe run back so that lookups still find them. */
+  private void shiftBack(int i) {
+    int mask = keys.length - 1;
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      if (values[j] == null) {
+        break;
+      }
+      int home = OpenHashing.mix(keys[j]) & mask;
+      // move j to i unless its home lies cyclically in (i, j]
+      if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    values[i] = null;
+  }
+
+  private void rehash(int newLength) {
+    int[] oldKeys = keys;
+    @Nullable Object[] oldValues = values;
+    keys = new int[newLength];
+    values = new Object[newLength];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int j = slot(oldKeys[i]);
+        keys[j] = oldKeys[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  /**
+   * @return an iterator over the keys which are mapped; the map must not change during iteration
+   */
+  public IntIterator keyIterator() {
+    return new IntIterator() {
+      private int i = advance(0);
+
+      private int advance(int from) {
+        while (from < values.length && values[from] == null) {
+          from++;
+        }
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return i < values.length;
+      }
+
+      @Override
+      public int next() {
+        if (i >= values.length) {
+          throw new NoSuchElementException();
+        }
+        int result = keys[i];
+        i = advance(i + 1);
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("{");
+    for (IntIterator it = keyIterator(); it.hasNext(); ) {
+      int key = it.next();
+      result.append(key).append('=').append(castToNonNull(get(key)));
+      if (it.hasNext()) {
+        result.append(", ");
+      }
+    }
+    return result.append('}').toString();
+  }
+}
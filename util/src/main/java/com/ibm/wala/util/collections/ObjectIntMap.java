@@ -0,0 +1,211 @@
+package com.ibm.wala.util.collections;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A map from non-null keys to int values, kept in open-addressing arrays.
+ *
+ * <p>Use this in place of a {@code HashMap<K, Integer>}: it does not box values or allocate an
+ * entry per mapping. Keys are compared with {@link Object#equals(Object)}; null keys are not
+ * allowed. Iteration order is unspecified.
+ */
+public class ObjectIntMap<K> implements Serializable {
+
+  private static final long serialVersionUID = 6631418000283146512L;
+
+  /** keys[i] == null iff slot i is free */
+  private @Nullable Object[] keys;
+
+  private int[] values;
+
+  private int size;
+
+  public ObjectIntMap() {
+    this(OpenHashing.DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * @param expectedSize number of mappings the map should hold before it needs to grow
+   * @throws IllegalArgumentException if expectedSize &lt; 0
+   */
+  public ObjectIntMap(int expectedSize) {
+    int n = OpenHashing.tableSize(expectedSize);
+    keys = new Object[n];
+    values = new int[n];
+  }
+
+  /**
+   * Copy the mappings of other.
+   *
+   * @throws IllegalArgumentException if other is null
+   */
+  public ObjectIntMap(ObjectIntMap<K> other) {
+    if (other == null) {
+      throw new IllegalArgumentException("null other");
+    }
+    keys = other.keys.clone();
+    values = other.values.clone();
+    size = other.size;
+  }
+
+  /** the slot holding key, or the free slot where it would go */
+  private int slot(Object key) {
+    int mask = keys.length - 1;
+    int i = OpenHashing.mix(key.hashCode()) & mask;
+    Object k;
+    while ((k = keys[i]) != null && !k.equals(key)) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  /**
+   * @return the value mapped to key, or defaultValue if none
+   */
+  public int getOrDefault(@Nullable Object key, int defaultValue) {
+    if (key == null) {
+      return defaultValue;
+    }
+    int i = slot(key);
+    return keys[i] == null ? defaultValue : values[i];
+  }
+
+  public boolean containsKey(@Nullable Object key) {
+    return key != null && keys[slot(key)] != null;
+  }
+
+  /**
+   * Map key to value, replacing any previous mapping for key.
+   *
+   * @throws IllegalArgumentException if key is null
+   */
+  public void put(K key, int value) {
+    if (key == null) {
+      throw new IllegalArgumentException("null key");
+    }
+    int i = slot(key);
+    values[i] = value;
+    if (keys[i] == null) {
+      keys[i] = key;
+      if (OpenHashing.mustGrow(++size, keys.length)) {
+        rehash(keys.length * 2);
+      }
+    }
+  }
+
+  /**
+   * Remove the mapping for key, if any.
+   *
+   * @return true if there was a mapping for key
+   */
+  public boolean remove(@Nullable Object key) {
+    if (key == null) {
+      return false;
+    }
+    int i = slot(key);
+    if (keys[i] == null) {
+      return false;
+    }
+    size--;
+    shiftBack(i);
+    return true;
+  }
+
+  /** Free slot i, moving later members of its probe run back so that lookups still find them. */
+  private void shiftBack(int i) {
+    int mask = keys.length - 1;
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      Object k = keys[j];
+      if (k == null) {
+        break;
+      }
+      int home = OpenHashing.mix(k.hashCode()) & mask;
+      // move j to i unless its home lies cyclically in (i, j]
+      if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = k;
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    keys[i] = null;
+  }
+
+  private void rehash(int newLength) {
+    @Nullable Object[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new Object[newLength];
+    values = new int[newLength];
+    for (int i = 0; i < oldKeys.length; i++) {
+      Object k = oldKeys[i];
+      if (k != null) {
+        int j = slot(k);
+        keys[j] = k;
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  /**
+   * @return an iterator over the keys which are mapped; the map must not change during iteration
+   */
+  public Iterator<K> keyIterator() {
+    return new Iterator<>() {
+      private int i = advance(0);
+
+      private int advance(int from) {
+        while (from < keys.length && keys[from] == null) {
+          from++;
+        }
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return i < keys.length;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public K next() {
+        if (i >= keys.length) {
+          throw new NoSuchElementException();
+        }
+        K result = (K) keys[i];
+        i = advance(i + 1);
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("{");
+    for (Iterator<K> it = keyIterator(); it.hasNext(); ) {
+      K key = it.next();
+      result.append(key).append('=').append(getOrDefault(key, 0));
+      if (it.hasNext()) {
+        result.append(", ");
+      }
+    }
+    return result.append('}').toString();
+  }
+}
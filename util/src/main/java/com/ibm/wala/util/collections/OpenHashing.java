@@ -0,0 +1,44 @@
+package com.ibm.wala.util.collections;
+
+/**
+ * Table sizing and hash spreading shared by the open-addressing maps {@link IntObjectMap}, {@link
+ * IntIntMap} and {@link ObjectIntMap}.
+ *
+ * <p>Tables are powers of two, probed linearly, and grown when more than three quarters full.
+ */
+final class OpenHashing {
+
+  static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private OpenHashing() {}
+
+  /**
+   * @return a power-of-two table length that holds expectedSize entries without growing
+   * @throws IllegalArgumentException if expectedSize &lt; 0
+   */
+  static int tableSize(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("illegal expectedSize: " + expectedSize);
+    }
+    long needed = Math.max(4L, (long) expectedSize * 4 / 3 + 1);
+    if (needed > MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Integer.highestOneBit((int) needed - 1) << 1;
+  }
+
+  /**
+   * @return true if a table of length capacity must grow before holding size entries
+   */
+  static boolean mustGrow(int size, int capacity) {
+    return size * 4L > capacity * 3L;
+  }
+
+  /** Spread h so that small, consecutive keys do not land in consecutive slots. */
+  static int mix(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,346 @@
+package com.ibm.wala.util.graph;
+
+import com.ibm.wala.util.graph.traverse.NumberedSCCDecomposition;
+import com.ibm.wala.util.intset.BitVectorIntSet;
+import com.ibm.wala.util.intset.EmptyIntSet;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.MutableMapping;
+import com.ibm.wala.util.intset.OrdinalSet;
+import com.ibm.wala.util.intset.OrdinalSetMapping;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A precomputed index of the "facts" reachable from each node of a {@link NumberedGraph}.
+ *
+ * <p>Each node generates a set of facts, numbered by an {@link OrdinalSetMapping}; the facts
+ * reachable from a node are those generated by the node itself or by any node it reaches. This is
+ * the relation {@link GraphReachability} computes with an iterative dataflow solver; the index
+ * instead collapses the strongly connected components of the graph and then computes each
+ * component's bit set exactly once, from the sets of its successors. Components are processed in
+ * waves of equal height in the component DAG, so the components of a wave are independent and each
+ * wave is split across a {@link ForkJoinPool}.
+ *
+ * <p>Components that reach the same facts share one set. Once built, the index is immutable and may
+ * be queried from several threads at once.
+ */
+public final class ReachabilityIndex<T, S> {
+
+  /** waves with fewer components than this are not split further */
+  private static final int SEQUENTIAL_THRESHOLD = 256;
+
+  private final NumberedSCCDecomposition<T> sccs;
+
+  private final OrdinalSetMapping<S> domain;
+
+  /** facts reachable from each component, or null if none; shared, and never mutated once built */
+  private final @Nullable BitVectorIntSet[] labels;
+
+  /**
+   * Index, for each node of g, the nodes satisfying filter that it reaches. Like {@link
+   * GraphReachability}, every node reaches itself.
+   *
+   * @throws IllegalArgumentException if g or filter is null
+   */
+  public static <T> ReachabilityIndex<T, T> make(NumberedGraph<T> g, Predicate<? super T> filter) {
+    return make(g, filter, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Index, for each node of g, the nodes satisfying filter that it reaches, using pool to propagate
+   * the reachable sets.
+   *
+   * @throws IllegalArgumentException if g, filter or pool is null
+   */
+  public static <T> ReachabilityIndex<T, T> make(
+      NumberedGraph<T> g, Predicate<? super T> filter, ForkJoinPool pool) {
+    if (g == null) {
+      throw new IllegalArgumentException("g is null");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("filter is null");
+    }
+    MutableMapping<T> targets = MutableMapping.make();
+    for (T n : g) {
+      if (filter.test(n)) {
+        targets.add(n);
+      }
+    }
+    return make(
+        g,
+        targets,
+        n -> {
+          int i = targets.getMappedIndex(n);
+          return i < 0 ? null : SparseIntSet.singleton(i);
+        },
+        pool);
+  }
+
+  /**
+   * Index, for each node of g, the facts generated by the nodes it reaches.
+   *
+   * @param domain numbering of the facts
+   * @param gen the numbers of the facts each node generates, or null if none
+   * @throws IllegalArgumentException if g, domain or gen is null
+   */
+  public static <T, S> ReachabilityIndex<T, S> make(
+      NumberedGraph<T> g, OrdinalSetMapping<S> domain, Function<? super T, @Nullable IntSet> gen) {
+    return make(g, domain, gen, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Index, for each node of g, the facts generated by the nodes it reaches, using pool to propagate
+   * the reachable sets.
+   *
+   * @param domain numbering of the facts
+   * @param gen the numbers of the facts each node generates, or null if none
+   * @throws IllegalArgumentException if g, domain, gen or pool is null
+   */
+  public static <T, S> ReachabilityIndex<T, S> make(
+      NumberedGraph<T> g,
+      OrdinalSetMapping<S> domain,
+      Function<? super T, @Nullable IntSet> gen,
+      ForkJoinPool pool) {
+    if (g == null) {
+      throw new IllegalArgumentException("g is null");
+    }
+    if (domain == null) {
+      throw new IllegalArgumentException("domain is null");
+    }
+    if (gen == null) {
+      throw new IllegalArgumentException("gen is null");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("pool is null");
+    }
+    return new ReachabilityIndex<>(g, domain, gen, pool);
+  }
+
+  private ReachabilityIndex(
+      NumberedGraph<T> g,
+      OrdinalSetMapping<S> domain,
+      Function<? super T, @Nullable IntSet> gen,
+      ForkJoinPool pool) {
+    this.sccs =
+        pool.getParallelism() > 1
+            ? NumberedSCCDecomposition.makeParallel(g, pool)
+            : NumberedSCCDecomposition.make(g);
+    this.domain = domain;
+    int count = sccs.getNumberOfComponents();
+    this.labels = new BitVectorIntSet[count];
+
+    // the condensed graph, with duplicate edges removed, and the facts each component generates.
+    // components are numbered in topological order, and iterateNodes() visits them in that order.
+    int[] succStart = new int[count + 1];
+    int[] succ = new int[Math.max(16, count)];
+    int edges = 0;
+    int[] lastSource = new int[count];
+    Arrays.fill(lastSource, -1);
+    int current = -1;
+    for (Iterator<T> it = sccs.iterateNodes(); it.hasNext(); ) {
+      T n = it.next();
+      int c = sccs.getComponent(n);
+      while (current < c) {
+        succStart[++current] = edges;
+      }
+      IntSet facts = gen.apply(n);
+      if (facts != null && !facts.isEmpty()) {
+        BitVectorIntSet own = labels[c];
+        if (own == null) {
+          own = labels[c] = new BitVectorIntSet();
+        }
+        own.addAllOblivious(facts);
+      }
+      for (Iterator<T> ss = g.getSuccNodes(n); ss.hasNext(); ) {
+        int d = sccs.getComponent(ss.next());
+        if (d != c && lastSource[d] != c) {
+          lastSource[d] = c;
+          if (edges == succ.length) {
+            succ = Arrays.copyOf(succ, 2 * edges);
+          }
+          succ[edges++] = d;
+        }
+      }
+    }
+    while (current < count) {
+      succStart[++current] = edges;
+    }
+
+    // height of each component: 0 for sinks, else one more than its highest successor. edges run
+    // from lower to higher component numbers, so a reverse sweep sees successors first.
+    int[] height = new int[count];
+    int maxHeight = -1;
+    for (int c = count - 1; c >= 0; c--) {
+      int h = 0;
+      for (int e = succStart[c]; e < succStart[c + 1]; e++) {
+        h = Math.max(h, height[succ[e]] + 1);
+      }
+      height[c] = h;
+      maxHeight = Math.max(maxHeight, h);
+    }
+
+    // group the components into waves by height
+    int[] waveStart = new int[maxHeight + 2];
+    for (int c = 0; c < count; c++) {
+      waveStart[height[c] + 1]++;
+    }
+    for (int h = 0; h <= maxHeight; h++) {
+      waveStart[h + 1] += waveStart[h];
+    }
+    int[] fill = Arrays.copyOf(waveStart, maxHeight + 1);
+    int[] waves = new int[count];
+    for (int c = 0; c < count; c++) {
+      waves[fill[height[c]]++] = c;
+    }
+
+    Propagator p = new Propagator(labels, succStart, succ, waves);
+    for (int h = 0; h <= maxHeight; h++) {
+      int lo = waveStart[h];
+      int hi = waveStart[h + 1];
+      if (hi - lo < SEQUENTIAL_THRESHOLD || pool.getParallelism() <= 1) {
+        p.propagate(lo, hi);
+      } else {
+        pool.invoke(p.new Wave(lo, hi));
+      }
+    }
+  }
+
+  /** Computes the label of each component from the labels of its successors. */
+  private static final class Propagator {
+
+    private final @Nullable BitVectorIntSet[] labels;
+
+    private final int[] succStart;
+
+    private final int[] succ;
+
+    /** component numbers, grouped into waves */
+    private final int[] waves;
+
+    Propagator(@Nullable BitVectorIntSet[] labels, int[] succStart, int[] succ, int[] waves) {
+      this.labels = labels;
+      this.succStart = succStart;
+      this.succ = succ;
+      this.waves = waves;
+    }
+
+    /** label the components waves[lo] .. waves[hi-1], whose successors are all labelled */
+    void propagate(int lo, int hi) {
+      for (int i = lo; i < hi; i++) {
+        int c = waves[i];
+        // result is private to c iff it holds the facts c itself generates
+        BitVectorIntSet result = labels[c];
+        boolean shared = false;
+        for (int e = succStart[c]; e < succStart[c + 1]; e++) {
+          BitVectorIntSet l = labels[succ[e]];
+          if (l == null || l == result) {
+            continue;
+          }
+          if (result == null) {
+            result = l;
+            shared = true;
+          } else if (!shared) {
+            result.addAllOblivious(l);
+          } else if (l.isSubset(result)) {
+            continue;
+          } else if (result.isSubset(l)) {
+            result = l;
+          } else {
+            result = new BitVectorIntSet(result);
+            result.addAllOblivious(l);
+            shared = false;
+          }
+        }
+        if (result != null && !shared) {
+          // fill in the cached population count now, so later readers never write to the set
+          result.size();
+        }
+        labels[c] = result;
+      }
+    }
+
+    private final class Wave extends RecursiveAction {
+
+      private static final long serialVersionUID = -2847061536702113958L;
+
+      private final int lo;
+
+      private final int hi;
+
+      Wave(int lo, int hi) {
+        this.lo = lo;
+        this.hi = hi;
+      }
+
+      @Override
+      protected void compute() {
+        if (hi - lo < SEQUENTIAL_THRESHOLD) {
+          propagate(lo, hi);
+        } else {
+          int mid = (lo + hi) >>> 1;
+          invokeAll(new Wave(lo, mid), new Wave(mid, hi));
+        }
+      }
+    }
+  }
+
+  /** the numbering of the facts in this index */
+  public OrdinalSetMapping<S> getDomain() {
+    return domain;
+  }
+
+  /**
+   * @return the facts reachable from n; the set is shared and must not be modified
+   * @throws IllegalArgumentException if n is not a node of the graph
+   */
+  public OrdinalSet<S> getReachableSet(T n) {
+    BitVectorIntSet l = labels[sccs.getComponent(n)];
+    return new OrdinalSet<>(l == null ? EmptyIntSet.instance : l, domain);
+  }
+
+  /**
+   * @return true iff fact dst is reachable from node src
+   * @throws IllegalArgumentException if src is not a node of the graph
+   */
+  public boolean reachable(T src, S dst) {
+    BitVectorIntSet l = labels[sccs.getComponent(src)];
+    int i = domain.getMappedIndex(dst);
+    return l != null && i >= 0 && l.contains(i);
+  }
+
+  /**
+   * @return the facts reachable from any of sources
+   * @throws IllegalArgumentException if sources is null or holds a node not in the graph
+   */
+  public OrdinalSet<S> reachableFrom(Collection<? extends T> sources) {
+    if (sources == null) {
+      throw new IllegalArgumentException("sources is null");
+    }
+    BitVectorIntSet result = null;
+    boolean shared = false;
+    for (T n : sources) {
+      BitVectorIntSet l = labels[sccs.getComponent(n)];
+      if (l == null || l == result) {
+        continue;
+      }
+      if (result == null) {
+        result = l;
+        shared = true;
+      } else {
+        if (shared) {
+          result = new BitVectorIntSet(result);
+          shared = false;
+        }
+        result.addAllOblivious(l);
+      }
+    }
+    return new OrdinalSet<>(result == null ? EmptyIntSet.instance : result, domain);
+  }
+}
@@ -11,37 +11,157 @@
 package com.ibm.wala.util.graph.dominators;
 
 import com.ibm.wala.util.graph.NumberedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import org.jspecify.annotations.Nullable;
 
 /**
- * Calculate dominators using Langauer and Tarjan's fastest algorithm. TOPLAS 1(1), July 1979. This
- * implementation uses path compression and results in a O(e * alpha(e,n)) complexity, where e is
- * the number of edges in the CFG and n is the number of nodes.
+ * Calculate dominators using Langauer and Tarjan's algorithm. TOPLAS 1(1), July 1979. This
+ * implementation uses the simple version of EVAL and LINK, with path compression, which results in
+ * a O(e * log(n)) complexity, where e is the number of edges in the CFG and n is the number of
+ * nodes; in practice it is faster than the balanced version for the graphs we see.
+ *
+ * <p>All per-node state lives in int arrays indexed by DFS number, and both the depth-first search
+ * and the path compression use explicit stacks, so this handles graphs with millions of nodes and
+ * very deep depth-first trees. Only {@link NumberedGraph#getSuccNodes} and {@link
+ * NumberedGraph#getPredNodes} are used to follow edges.
  *
  * <p>Sources: TOPLAS article, Muchnick book
  */
 public class NumberedDominators<T> extends Dominators<T> {
 
+  /**
+   * idom[x] is the number of the immediate dominator of the node numbered x, or -1 if that node is
+   * the root, is not reachable from the root, or does not exist
+   */
+  private final int[] idom;
+
   public NumberedDominators(NumberedGraph<T> G, T root) throws IllegalArgumentException {
     super(G, root);
+    this.idom = computeDominators(G, root);
+  }
 
-    this.infoMap = new Object[G.getMaxNumber() + 1];
-    for (T n : G) {
-      infoMap[G.getNumber(n)] = new DominatorInfo(n);
-    }
+  private NumberedGraph<T> graph() {
+    return (NumberedGraph<T>) G;
+  }
 
-    analyze();
+  @Override
+  public @Nullable T getIdom(@Nullable T node) {
+    int x = graph().getNumber(node);
+    if (x < 0 || x >= idom.length || idom[x] < 0) {
+      return null;
+    }
+    return graph().getNode(idom[x]);
   }
 
-  /*
-   * Look-aside table for DominatorInfo objects
+  /**
+   * @return the array of immediate dominator numbers described at {@link #idom}
    */
-  private final Object[] infoMap;
+  private int[] computeDominators(NumberedGraph<T> G, T root) {
+    int r = G.getNumber(root);
+    if (r < 0) {
+      throw new IllegalArgumentException("root is not in graph: " + root);
+    }
+    int[] result = new int[G.getMaxNumber() + 1];
+    Arrays.fill(result, -1);
 
-  @SuppressWarnings("unchecked")
-  @Override
-  protected final DominatorInfo getInfo(@Nullable T node) {
-    assert node != null;
-    return (DominatorInfo) infoMap[((NumberedGraph<T>) G).getNumber(node)];
+    // Step 1: number the nodes reachable from the root in DFS order, 1 .. count. All the arrays
+    // below except dfnum are indexed by DFS number, and 0 stands for "none".
+    int size = G.getNumberOfNodes() + 1;
+    int[] dfnum = new int[result.length];
+    int[] vertex = new int[size];
+    int[] parent = new int[size];
+    // the successors still to visit of each node on the stack
+    ArrayList<Iterator<? extends T>> pending = new ArrayList<>();
+    int[] stack = new int[size];
+    int count = 0;
+    int sp = 0;
+    dfnum[r] = ++count;
+    vertex[count] = r;
+    stack[sp++] = count;
+    pending.add(G.getSuccNodes(root));
+    while (sp > 0) {
+      Iterator<? extends T> it = pending.get(sp - 1);
+      if (it.hasNext()) {
+        int w = G.getNumber(it.next());
+        if (w >= 0 && dfnum[w] == 0) {
+          dfnum[w] = ++count;
+          vertex[count] = w;
+          parent[count] = stack[sp - 1];
+          stack[sp++] = count;
+          pending.add(G.getSuccNodes(G.getNode(w)));
+        }
+      } else {
+        pending.remove(--sp);
+      }
+    }
+
+    // Step 2: compute semidominators, and implicitly define immediate dominators
+    int[] semi = new int[count + 1];
+    int[] label = new int[count + 1];
+    int[] ancestor = new int[count + 1];
+    int[] dom = new int[count + 1];
+    int[] bucketHead = new int[count + 1];
+    int[] bucketNext = new int[count + 1];
+    for (int v = 1; v <= count; v++) {
+      semi[v] = v;
+      label[v] = v;
+    }
+    for (int w = count; w > 1; w--) {
+      for (Iterator<? extends T> preds = G.getPredNodes(G.getNode(vertex[w])); preds.hasNext(); ) {
+        int p = G.getNumber(preds.next());
+        // predecessors which are not reachable from the root play no part
+        int v = p < 0 ? 0 : dfnum[p];
+        if (v != 0) {
+          int u = eval(v, ancestor, label, semi, stack);
+          if (semi[u] < semi[w]) {
+            semi[w] = semi[u];
+          }
+        }
+      }
+      bucketNext[w] = bucketHead[semi[w]];
+      bucketHead[semi[w]] = w;
+      int p = parent[w];
+      ancestor[w] = p;
+      for (int v = bucketHead[p]; v != 0; v = bucketNext[v]) {
+        int u = eval(v, ancestor, label, semi, stack);
+        dom[v] = semi[u] < semi[v] ? u : p;
+      }
+      bucketHead[p] = 0;
+    }
+
+    // Step 3: fix up the immediate dominators which step 2 only defined implicitly
+    for (int w = 2; w <= count; w++) {
+      if (dom[w] != semi[w]) {
+        dom[w] = dom[dom[w]];
+      }
+      result[vertex[w]] = vertex[dom[w]];
+    }
+    return result;
+  }
+
+  /**
+   * @return the vertex with minimum semidominator on the path from v up to, but not including, the
+   *     root of its tree in the forest, or v if v is a root
+   */
+  private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] stack) {
+    if (ancestor[v] == 0) {
+      return v;
+    }
+    // path compression, with an explicit stack: collect the path, then compress from the top
+    int sp = 0;
+    for (int n = v; ancestor[ancestor[n]] != 0; n = ancestor[n]) {
+      stack[sp++] = n;
+    }
+    while (sp > 0) {
+      int n = stack[--sp];
+      int a = ancestor[n];
+      if (semi[label[a]] < semi[label[n]]) {
+        label[n] = label[a];
+      }
+      ancestor[n] = ancestor[a];
+    }
+    return label[v];
   }
 }
@@ -0,0 +1,199 @@
+package com.ibm.wala.util.graph.impl;
+
+import com.ibm.wala.util.graph.NumberedEdgeManager;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.NumberedNodeManager;
+import com.ibm.wala.util.intset.IntIterator;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.IntSetUtil;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable {@link NumberedEdgeManager} in compressed sparse row form.
+ *
+ * <p>The successors of the node numbered n are succTargets[succOffsets[n]] ...
+ * succTargets[succOffsets[n+1] - 1], in increasing order, and likewise for predecessors. This costs
+ * two ints per edge, compared to the per-node sets of {@link SparseNumberedEdgeManager}, and
+ * iteration is a walk over a contiguous array. Any attempt to change the edges throws {@link
+ * UnsupportedOperationException}.
+ */
+public final class CompactNumberedEdgeManager<T> implements NumberedEdgeManager<T>, Serializable {
+
+  private static final long serialVersionUID = -3158302216720458163L;
+
+  private final NumberedNodeManager<T> nodeManager;
+
+  private final int[] succOffsets;
+
+  private final int[] succTargets;
+
+  private final int[] predOffsets;
+
+  private final int[] predTargets;
+
+  /**
+   * Copy the edges of a graph.
+   *
+   * @param nodeManager numbers the nodes; it must number them as graph does
+   * @param graph the graph whose edges to copy
+   * @throws IllegalArgumentException if either argument is null
+   */
+  public CompactNumberedEdgeManager(NumberedNodeManager<T> nodeManager, NumberedGraph<T> graph) {
+    if (nodeManager == null) {
+      throw new IllegalArgumentException("null nodeManager");
+    }
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    this.nodeManager = nodeManager;
+    int n = graph.getMaxNumber() + 1;
+
+    // successors: count, then fill, then sort each row
+    succOffsets = new int[n + 1];
+    for (T node : graph) {
+      IntSet s = graph.getSuccNodeNumbers(node);
+      succOffsets[graph.getNumber(node) + 1] = s == null ? 0 : s.size();
+    }
+    for (int i = 0; i < n; i++) {
+      succOffsets[i + 1] += succOffsets[i];
+    }
+    succTargets = new int[succOffsets[n]];
+    for (T node : graph) {
+      IntSet s = graph.getSuccNodeNumbers(node);
+      if (s != null) {
+        int x = graph.getNumber(node);
+        int next = succOffsets[x];
+        for (IntIterator it = s.intIterator(); it.hasNext(); ) {
+          succTargets[next++] = it.next();
+        }
+        Arrays.sort(succTargets, succOffsets[x], next);
+      }
+    }
+
+    // predecessors: the transpose, which comes out sorted since sources are visited in order
+    predOffsets = new int[n + 1];
+    for (int y : succTargets) {
+      predOffsets[y + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      predOffsets[i + 1] += predOffsets[i];
+    }
+    predTargets = new int[succTargets.length];
+    int[] next = Arrays.copyOf(predOffsets, n);
+    for (int x = 0; x < n; x++) {
+      for (int i = succOffsets[x]; i < succOffsets[x + 1]; i++) {
+        predTargets[next[succTargets[i]]++] = x;
+      }
+    }
+  }
+
+  /**
+   * @return the number of edges
+   */
+  public int getNumberOfEdges() {
+    return succTargets.length;
+  }
+
+  private int number(@Nullable T node) {
+    int x = nodeManager.getNumber(node);
+    if (x < 0 || x >= succOffsets.length - 1) {
+      throw new IllegalArgumentException(node + " is not in graph");
+    }
+    return x;
+  }
+
+  private Iterator<T> iterate(int[] targets, int from, int to) {
+    return new Iterator<>() {
+      int i = from;
+
+      @Override
+      public boolean hasNext() {
+        return i < to;
+      }
+
+      @Override
+      public T next() {
+        if (i >= to) {
+          throw new NoSuchElementException();
+        }
+        return nodeManager.getNode(targets[i++]);
+      }
+    };
+  }
+
+  @Override
+  public Iterator<T> getPredNodes(@Nullable T n) throws IllegalArgumentException {
+    int y = number(n);
+    return iterate(predTargets, predOffsets[y], predOffsets[y + 1]);
+  }
+
+  @Override
+  public int getPredNodeCount(T n) throws IllegalArgumentException {
+    int y = number(n);
+    return predOffsets[y + 1] - predOffsets[y];
+  }
+
+  @Override
+  public IntSet getPredNodeNumbers(@Nullable T node) throws IllegalArgumentException {
+    int y = number(node);
+    return SparseIntSet.copyOfRange(predTargets, predOffsets[y], predOffsets[y + 1]);
+  }
+
+  @Override
+  public Iterator<T> getSuccNodes(@Nullable T n) throws IllegalArgumentException {
+    int x = number(n);
+    return iterate(succTargets, succOffsets[x], succOffsets[x + 1]);
+  }
+
+  @Override
+  public int getSuccNodeCount(T n) throws IllegalArgumentException {
+    int x = number(n);
+    return succOffsets[x + 1] - succOffsets[x];
+  }
+
+  @Override
+  public IntSet getSuccNodeNumbers(@Nullable T node) throws IllegalArgumentException {
+    int x = number(node);
+    return SparseIntSet.copyOfRange(succTargets, succOffsets[x], succOffsets[x + 1]);
+  }
+
+  @Override
+  public boolean hasEdge(@Nullable T src, @Nullable T dst) {
+    int x = nodeManager.getNumber(src);
+    int y = nodeManager.getNumber(dst);
+    if (x < 0 || y < 0 || x >= succOffsets.length - 1) {
+      return false;
+    }
+    return IntSetUtil.binarySearch(succTargets, y, succOffsets[x], succOffsets[x + 1] - 1) >= 0;
+  }
+
+  @Override
+  public void addEdge(T src, T dst) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("graph is frozen");
+  }
+
+  @Override
+  public void removeEdge(T src, T dst) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("graph is frozen");
+  }
+
+  @Override
+  public void removeAllIncidentEdges(T node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("graph is frozen");
+  }
+
+  @Override
+  public void removeIncomingEdges(T node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("graph is frozen");
+  }
+
+  @Override
+  public void removeOutgoingEdges(T node) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("graph is frozen");
+  }
+}
@@ -0,0 +1,169 @@
+package com.ibm.wala.util.graph.impl;
+
+import static com.ibm.wala.util.nullability.NullabilityUtil.castToNonNull;
+
+import com.ibm.wala.util.collections.HashMapFactory;
+import com.ibm.wala.util.graph.AbstractNumberedGraph;
+import com.ibm.wala.util.graph.INodeWithNumber;
+import com.ibm.wala.util.graph.NumberedEdgeManager;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.graph.NumberedNodeManager;
+import com.ibm.wala.util.intset.IntSet;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable snapshot of a {@link NumberedGraph}, with nodes kept in an array indexed by number
+ * and edges in a {@link CompactNumberedEdgeManager}. Nodes keep the numbers they had in the
+ * original graph.
+ *
+ * <p>This is meant for graphs that are finished: it is much smaller than the graph it copies and
+ * faster to traverse, but it cannot be changed.
+ */
+public class CompactNumberedGraph<T> extends AbstractNumberedGraph<T> implements Serializable {
+
+  private static final long serialVersionUID = -6418707187314950273L;
+
+  private final ArrayNodeManager<T> nodeManager;
+
+  private final CompactNumberedEdgeManager<T> edgeManager;
+
+  private CompactNumberedGraph(NumberedGraph<T> graph) {
+    nodeManager = new ArrayNodeManager<>(graph);
+    edgeManager = new CompactNumberedEdgeManager<>(nodeManager, graph);
+  }
+
+  /**
+   * @return an immutable copy of graph
+   * @throws IllegalArgumentException if graph is null
+   */
+  public static <T> CompactNumberedGraph<T> make(NumberedGraph<T> graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("null graph");
+    }
+    return new CompactNumberedGraph<>(graph);
+  }
+
+  /**
+   * @return the number of edges in this graph
+   */
+  public int getNumberOfEdges() {
+    return edgeManager.getNumberOfEdges();
+  }
+
+  @Override
+  protected NumberedNodeManager<T> getNodeManager() {
+    return nodeManager;
+  }
+
+  @Override
+  protected NumberedEdgeManager<T> getEdgeManager() {
+    return edgeManager;
+  }
+
+  /** Nodes in an array indexed by number. */
+  private static final class ArrayNodeManager<T> implements NumberedNodeManager<T>, Serializable {
+
+    private static final long serialVersionUID = 3276490468107213465L;
+
+    private final @Nullable T[] nodes;
+
+    private final int count;
+
+    /**
+     * node -&gt; number, or null if every node is an {@link INodeWithNumber} that carries its
+     * number
+     */
+    private final @Nullable Map<T, Integer> numbers;
+
+    @SuppressWarnings("unchecked")
+    ArrayNodeManager(NumberedGraph<T> graph) {
+      nodes = (T[]) new Object[graph.getMaxNumber() + 1];
+      int c = 0;
+      boolean selfNumbered = true;
+      for (T node : graph) {
+        int x = graph.getNumber(node);
+        nodes[x] = node;
+        c++;
+        selfNumbered &=
+            node instanceof INodeWithNumber && ((INodeWithNumber) node).getGraphNodeId() == x;
+      }
+      count = c;
+      if (selfNumbered) {
+        numbers = null;
+      } else {
+        numbers = HashMapFactory.make(count);
+        for (int x = 0; x < nodes.length; x++) {
+          if (nodes[x] != null) {
+            numbers.put(nodes[x], x);
+          }
+        }
+      }
+    }
+
+    @Override
+    public int getNumber(@Nullable T n) {
+      if (n == null) {
+        return -1;
+      }
+      if (numbers != null) {
+        Integer x = numbers.get(n);
+        return x == null ? -1 : x;
+      }
+      if (!(n instanceof INodeWithNumber)) {
+        return -1;
+      }
+      int x = ((INodeWithNumber) n).getGraphNodeId();
+      return x >= 0 && x < nodes.length && nodes[x] == n ? x : -1;
+    }
+
+    @Override
+    public T getNode(int number) {
+      try {
+        return castToNonNull(nodes[number]);
+      } catch (ArrayIndexOutOfBoundsException e) {
+        throw new IllegalArgumentException("Invalid number " + number, e);
+      }
+    }
+
+    @Override
+    public int getMaxNumber() {
+      return nodes.length - 1;
+    }
+
+    @Override
+    public Iterator<T> iterateNodes(IntSet s) {
+      return new NumberedNodeIterator<>(s, this);
+    }
+
+    @Override
+    public Stream<T> stream() {
+      return Arrays.stream(nodes).filter(Objects::nonNull).map(node -> castToNonNull(node));
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+      return count;
+    }
+
+    @Override
+    public void addNode(T n) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public void removeNode(T n) throws UnsupportedOperationException {
+      throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public boolean containsNode(@Nullable T n) {
+      return getNumber(n) >= 0;
+    }
+  }
+}
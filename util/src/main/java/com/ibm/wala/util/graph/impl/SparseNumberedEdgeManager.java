@@ -21,6 +21,7 @@ import com.ibm.wala.util.intset.IntSet;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.function.Supplier;
 import org.jspecify.annotations.Nullable;
 
 /** An object which tracks edges for nodes that have numbers. */
@@ -69,6 +70,27 @@ public final class SparseNumberedEdgeManager<T> implements NumberedEdgeManager<T
     }
   }
 
+  /**
+   * Keep the edges in relations made by the given factory; e.g. {@code OffHeapNaturalRelation::new}
+   * keeps the edges of a very large graph out of the Java heap.
+   *
+   * @param nodeManager an object to track nodes
+   * @param relations makes the two relations that hold the successors and predecessors of each node
+   * @throws IllegalArgumentException if nodeManager or relations is null
+   */
+  public SparseNumberedEdgeManager(
+      NumberedNodeManager<T> nodeManager, Supplier<? extends IBinaryNaturalRelation> relations) {
+    if (nodeManager == null) {
+      throw new IllegalArgumentException("null nodeManager");
+    }
+    if (relations == null) {
+      throw new IllegalArgumentException("null relations");
+    }
+    this.nodeManager = nodeManager;
+    successors = relations.get();
+    predecessors = relations.get();
+  }
+
   /**
    * The default implementation policy conservatively uses 2-level vectors, in an attempt to
    * somewhat optimize for space.
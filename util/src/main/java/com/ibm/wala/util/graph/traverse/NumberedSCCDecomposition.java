@@ -0,0 +1,606 @@
+package com.ibm.wala.util.graph.traverse;
+
+import com.ibm.wala.util.collections.HashSetFactory;
+import com.ibm.wala.util.graph.NumberedGraph;
+import com.ibm.wala.util.intset.IntSet;
+import com.ibm.wala.util.intset.SparseIntSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The strongly connected components of a {@link NumberedGraph}, computed over node numbers.
+ *
+ * <p>Unlike {@link SCCIterator}, this does not build an inverted graph or keep per-node iterators:
+ * it copies the edges once into int arrays and works on those. Nothing recurses on the Java stack,
+ * so this is suitable for graphs with millions of nodes, such as large call graphs and
+ * interprocedural control-flow graphs.
+ *
+ * <p>Components are numbered 0 .. {@link #getNumberOfComponents()}-1 in topological order: if there
+ * is an edge from a node in component c to a node in a different component d, then c &lt; d.
+ *
+ * <p>{@link #make(NumberedGraph)} uses Tarjan's algorithm. {@link #makeParallel(NumberedGraph,
+ * ForkJoinPool)} first trims nodes which cannot be in a cycle, then splits the remaining nodes with
+ * the forward-backward algorithm of Fleischer, Hendrickson and Pinar (IPDPS 2000), solving the
+ * pieces in parallel and falling back to Tarjan's algorithm for small pieces. Both read the graph
+ * from a single thread only, so the graph need not be thread-safe.
+ */
+public final class NumberedSCCDecomposition<T> implements Iterable<Set<T>> {
+
+  /** pieces of at most this many nodes are solved sequentially */
+  private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+  /** label of a node whose component is known, or of a number which names no node */
+  private static final int DONE = -1;
+
+  private final NumberedGraph<T> G;
+
+  /** component[x] is the component of the node numbered x, or -1 if there is no such node */
+  private final int[] component;
+
+  /**
+   * the numbers of the nodes in component c are members[offsets[c]] .. members[offsets[c+1]-1], in
+   * increasing order
+   */
+  private final int[] offsets;
+
+  private final int[] members;
+
+  private NumberedSCCDecomposition(NumberedGraph<T> G, int[] component, int count) {
+    this.G = G;
+    this.component = component;
+    this.offsets = offsets(component, count);
+    this.members = members(component, offsets);
+  }
+
+  /**
+   * @return offsets such that component c has offsets[c+1]-offsets[c] members
+   */
+  private static int[] offsets(int[] component, int count) {
+    int[] result = new int[count + 1];
+    for (int c : component) {
+      if (c >= 0) {
+        result[c + 1]++;
+      }
+    }
+    for (int c = 0; c < count; c++) {
+      result[c + 1] += result[c];
+    }
+    return result;
+  }
+
+  /**
+   * @return the node numbers grouped by component, as described at {@link #members}
+   */
+  private static int[] members(int[] component, int[] offsets) {
+    int count = offsets.length - 1;
+    int[] result = new int[offsets[count]];
+    int[] next = Arrays.copyOf(offsets, count);
+    for (int x = 0; x < component.length; x++) {
+      if (component[x] >= 0) {
+        result[next[component[x]]++] = x;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compute the strongly connected components of G on the calling thread.
+   *
+   * @throws IllegalArgumentException if G is null
+   */
+  public static <T> NumberedSCCDecomposition<T> make(NumberedGraph<T> G) {
+    if (G == null) {
+      throw new IllegalArgumentException("G is null");
+    }
+    Solver s = new Solver(Edges.make(G, false));
+    s.tarjan(s.liveNodes(), 0);
+    // Tarjan's algorithm finds components in reverse topological order
+    int count = s.nextComponent.get();
+    for (int x = 0; x < s.component.length; x++) {
+      if (s.component[x] >= 0) {
+        s.component[x] = count - 1 - s.component[x];
+      }
+    }
+    return new NumberedSCCDecomposition<>(G, s.component, count);
+  }
+
+  /**
+   * Compute the strongly connected components of G using the threads of pool. G itself is only read
+   * by the calling thread.
+   *
+   * @throws IllegalArgumentException if G or pool is null
+   */
+  public static <T> NumberedSCCDecomposition<T> makeParallel(
+      NumberedGraph<T> G, ForkJoinPool pool) {
+    if (G == null) {
+      throw new IllegalArgumentException("G is null");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("pool is null");
+    }
+    Solver s = new Solver(Edges.make(G, true));
+    s.trim();
+    int[] live = s.liveNodes();
+    if (live.length > 0) {
+      pool.invoke(s.new Split(live, 0));
+    }
+    int count = s.nextComponent.get();
+    return new NumberedSCCDecomposition<>(G, s.sortTopologically(count), count);
+  }
+
+  /**
+   * Compute the strongly connected components of G using the common fork-join pool.
+   *
+   * @throws IllegalArgumentException if G is null
+   */
+  public static <T> NumberedSCCDecomposition<T> makeParallel(NumberedGraph<T> G) {
+    return makeParallel(G, ForkJoinPool.commonPool());
+  }
+
+  public int getNumberOfComponents() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * @return the number of the component holding node
+   * @throws IllegalArgumentException if node is not in the graph
+   */
+  public int getComponent(T node) {
+    int x = G.getNumber(node);
+    if (x < 0 || x >= component.length || component[x] < 0) {
+      throw new IllegalArgumentException(node + " is not in the graph");
+    }
+    return component[x];
+  }
+
+  /**
+   * @return the numbers of the nodes in component c
+   */
+  public IntSet getSCCNumbers(int c) {
+    checkComponent(c);
+    return SparseIntSet.copyOfRange(members, offsets[c], offsets[c + 1]);
+  }
+
+  /**
+   * @return the nodes in component c
+   */
+  public Set<T> getSCC(int c) {
+    checkComponent(c);
+    Set<T> result = HashSetFactory.make(offsets[c + 1] - offsets[c]);
+    for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+      result.add(G.getNode(members[i]));
+    }
+    return result;
+  }
+
+  private void checkComponent(int c) {
+    if (c < 0 || c >= getNumberOfComponents()) {
+      throw new IllegalArgumentException("invalid component " + c);
+    }
+  }
+
+  /**
+   * @return the components, in topological order
+   */
+  @Override
+  public Iterator<Set<T>> iterator() {
+    return new Iterator<>() {
+      private int c = 0;
+
+      @Override
+      public boolean hasNext() {
+        return c < getNumberOfComponents();
+      }
+
+      @Override
+      public Set<T> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return getSCC(c++);
+      }
+    };
+  }
+
+  /**
+   * @return the nodes of the graph, one component after another, with the components in topological
+   *     order
+   */
+  public Iterator<T> iterateNodes() {
+    return new Iterator<>() {
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < members.length;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return G.getNode(members[i++]);
+      }
+    };
+  }
+
+  /**
+   * A copy of the edges of a graph. The successors of the node numbered x are succ[succBegin[x]] ..
+   * succ[succEnd[x]-1]; predecessors, if computed, are pred[predOffsets[x]] ..
+   * pred[predOffsets[x+1]-1].
+   */
+  private static final class Edges {
+    final int[] succBegin;
+
+    final int[] succEnd;
+
+    final int[] succ;
+
+    final int[] predOffsets;
+
+    final int[] pred;
+
+    /** label[x] == DONE iff there is no node numbered x */
+    final int[] label;
+
+    private Edges(
+        int[] succBegin, int[] succEnd, int[] succ, int[] predOffsets, int[] pred, int[] label) {
+      this.succBegin = succBegin;
+      this.succEnd = succEnd;
+      this.succ = succ;
+      this.predOffsets = predOffsets;
+      this.pred = pred;
+      this.label = label;
+    }
+
+    static <T> Edges make(NumberedGraph<T> G, boolean withPredecessors) {
+      int n = G.getMaxNumber() + 1;
+      int[] succBegin = new int[n];
+      int[] succEnd = new int[n];
+      int[] label = new int[n];
+      Arrays.fill(label, DONE);
+      int[] succ = new int[Math.max(16, n)];
+      int size = 0;
+      for (T node : G) {
+        int x = G.getNumber(node);
+        label[x] = 0;
+        succBegin[x] = size;
+        for (Iterator<? extends T> it = G.getSuccNodes(node); it.hasNext(); ) {
+          int y = G.getNumber(it.next());
+          if (y >= 0) {
+            if (size == succ.length) {
+              succ = Arrays.copyOf(succ, 2 * size);
+            }
+            succ[size++] = y;
+          }
+        }
+        succEnd[x] = size;
+      }
+      succ = Arrays.copyOf(succ, size);
+      int[] predOffsets = new int[0];
+      int[] pred = new int[0];
+      if (withPredecessors) {
+        predOffsets = new int[n + 1];
+        for (int y : succ) {
+          predOffsets[y + 1]++;
+        }
+        for (int x = 0; x < n; x++) {
+          predOffsets[x + 1] += predOffsets[x];
+        }
+        pred = new int[size];
+        int[] next = Arrays.copyOf(predOffsets, n);
+        for (int x = 0; x < n; x++) {
+          for (int i = succBegin[x]; i < succEnd[x]; i++) {
+            pred[next[succ[i]]++] = x;
+          }
+        }
+      }
+      return new Edges(succBegin, succEnd, succ, predOffsets, pred, label);
+    }
+  }
+
+  /**
+   * The working state of a decomposition. Every node carries a label: nodes with the same label
+   * form a piece which is a union of components, and pieces are solved independently, so parallel
+   * tasks only ever write to the nodes of their own piece. A task may read the label of a node in
+   * another piece while that piece's task rewrites it; this is harmless, since labels are never
+   * reused, so such a node never appears to belong to the reading task's piece.
+   */
+  private static final class Solver {
+    final Edges edges;
+
+    final int[] label;
+
+    final int[] component;
+
+    /** Tarjan's DFS index of each node, 0 for unvisited */
+    final int[] index;
+
+    /** Tarjan's low link of each node */
+    final int[] low;
+
+    final AtomicInteger nextComponent = new AtomicInteger();
+
+    final AtomicInteger nextLabel = new AtomicInteger(1);
+
+    Solver(Edges edges) {
+      this.edges = edges;
+      this.label = edges.label;
+      int n = label.length;
+      this.component = new int[n];
+      Arrays.fill(component, -1);
+      this.index = new int[n];
+      this.low = new int[n];
+    }
+
+    /**
+     * @return the nodes whose component is not yet known
+     */
+    int[] liveNodes() {
+      int count = 0;
+      for (int l : label) {
+        if (l != DONE) {
+          count++;
+        }
+      }
+      int[] result = new int[count];
+      int i = 0;
+      for (int x = 0; x < label.length; x++) {
+        if (label[x] != DONE) {
+          result[i++] = x;
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Tarjan's algorithm, with explicit stacks, over the piece of nodes labelled l; nodes holds
+     * exactly that piece.
+     */
+    void tarjan(int[] nodes, int l) {
+      int[] succBegin = edges.succBegin;
+      int[] succEnd = edges.succEnd;
+      int[] succ = edges.succ;
+      // the DFS: callNode[i] is the node at depth i, and callEdge[i] its next edge to follow
+      int[] callNode = new int[nodes.length];
+      int[] callEdge = new int[nodes.length];
+      // Tarjan's stack of nodes whose component is not yet known
+      int[] stack = new int[nodes.length];
+      int sp = 0;
+      int depth = 0;
+      int counter = 0;
+      for (int root : nodes) {
+        if (index[root] != 0) {
+          continue;
+        }
+        index[root] = low[root] = ++counter;
+        stack[sp++] = root;
+        callNode[depth] = root;
+        callEdge[depth++] = succBegin[root];
+        while (depth > 0) {
+          int v = callNode[depth - 1];
+          int e = callEdge[depth - 1];
+          if (e < succEnd[v]) {
+            callEdge[depth - 1] = e + 1;
+            int w = succ[e];
+            if (label[w] != l) {
+              // not in this piece, or already in a finished component
+              continue;
+            }
+            if (index[w] == 0) {
+              index[w] = low[w] = ++counter;
+              stack[sp++] = w;
+              callNode[depth] = w;
+              callEdge[depth++] = succBegin[w];
+            } else if (index[w] < low[v]) {
+              // w is still on Tarjan's stack
+              low[v] = index[w];
+            }
+          } else {
+            depth--;
+            if (low[v] == index[v]) {
+              int c = nextComponent.getAndIncrement();
+              int w;
+              do {
+                w = stack[--sp];
+                component[w] = c;
+                label[w] = DONE;
+              } while (w != v);
+            }
+            if (depth > 0) {
+              int u = callNode[depth - 1];
+              if (low[v] < low[u]) {
+                low[u] = low[v];
+              }
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Repeatedly remove nodes with no predecessors or no successors among the remaining nodes; each
+     * is a component by itself. In call graphs and control-flow graphs this settles most nodes
+     * cheaply.
+     */
+    void trim() {
+      int n = label.length;
+      int[] in = new int[n];
+      int[] out = new int[n];
+      for (int x = 0; x < n; x++) {
+        for (int i = edges.succBegin[x]; i < edges.succEnd[x]; i++) {
+          int y = edges.succ[i];
+          if (y != x) {
+            out[x]++;
+            in[y]++;
+          }
+        }
+      }
+      int[] queue = new int[n];
+      int head = 0;
+      int tail = 0;
+      for (int x = 0; x < n; x++) {
+        if (label[x] != DONE && (in[x] == 0 || out[x] == 0)) {
+          label[x] = DONE;
+          queue[tail++] = x;
+        }
+      }
+      while (head < tail) {
+        int x = queue[head++];
+        component[x] = nextComponent.getAndIncrement();
+        for (int i = edges.succBegin[x]; i < edges.succEnd[x]; i++) {
+          int y = edges.succ[i];
+          if (label[y] != DONE && --in[y] == 0) {
+            label[y] = DONE;
+            queue[tail++] = y;
+          }
+        }
+        for (int i = edges.predOffsets[x]; i < edges.predOffsets[x + 1]; i++) {
+          int p = edges.pred[i];
+          if (label[p] != DONE && --out[p] == 0) {
+            label[p] = DONE;
+            queue[tail++] = p;
+          }
+        }
+      }
+    }
+
+    /**
+     * Renumber the components found so far in topological order, using Kahn's algorithm on the
+     * graph of components.
+     *
+     * @return the renumbered component array
+     */
+    int[] sortTopologically(int count) {
+      int[] offsets = offsets(component, count);
+      int[] members = members(component, offsets);
+      int[] inDegree = new int[count];
+      for (int x = 0; x < component.length; x++) {
+        for (int i = edges.succBegin[x]; i < edges.succEnd[x]; i++) {
+          if (component[edges.succ[i]] != component[x]) {
+            inDegree[component[edges.succ[i]]]++;
+          }
+        }
+      }
+      int[] order = new int[count];
+      int head = 0;
+      int tail = 0;
+      for (int c = 0; c < count; c++) {
+        if (inDegree[c] == 0) {
+          order[tail++] = c;
+        }
+      }
+      int[] rank = new int[count];
+      while (head < tail) {
+        int c = order[head];
+        rank[c] = head++;
+        for (int j = offsets[c]; j < offsets[c + 1]; j++) {
+          int x = members[j];
+          for (int i = edges.succBegin[x]; i < edges.succEnd[x]; i++) {
+            int d = component[edges.succ[i]];
+            if (d != c && --inDegree[d] == 0) {
+              order[tail++] = d;
+            }
+          }
+        }
+      }
+      assert tail == count : "cycle among components";
+      int[] result = new int[component.length];
+      for (int x = 0; x < component.length; x++) {
+        result[x] = component[x] < 0 ? -1 : rank[component[x]];
+      }
+      return result;
+    }
+
+    /**
+     * One step of the forward-backward algorithm, on the piece of nodes labelled l. The component
+     * of a pivot is the intersection of the nodes it reaches and the nodes that reach it; the nodes
+     * it reaches, the nodes that reach it, and the rest then form three smaller pieces.
+     */
+    final class Split extends RecursiveAction {
+
+      private static final long serialVersionUID = 2871405306411553290L;
+
+      private final int[] nodes;
+
+      private final int l;
+
+      Split(int[] nodes, int l) {
+        this.nodes = nodes;
+        this.l = l;
+      }
+
+      @Override
+      protected void compute() {
+        if (nodes.length <= SEQUENTIAL_THRESHOLD) {
+          tarjan(nodes, l);
+          return;
+        }
+        int pivot = nodes[nodes.length / 2];
+        int forward = nextLabel.getAndIncrement();
+        int backward = nextLabel.getAndIncrement();
+        int[] queue = new int[nodes.length];
+
+        // everything the pivot reaches
+        int head = 0;
+        int tail = 0;
+        label[pivot] = forward;
+        queue[tail++] = pivot;
+        while (head < tail) {
+          int x = queue[head++];
+          for (int i = edges.succBegin[x]; i < edges.succEnd[x]; i++) {
+            int y = edges.succ[i];
+            if (label[y] == l) {
+              label[y] = forward;
+              queue[tail++] = y;
+            }
+          }
+        }
+
+        // everything that reaches the pivot; what was also reached forward is its component
+        int c = nextComponent.getAndIncrement();
+        head = 0;
+        tail = 0;
+        label[pivot] = DONE;
+        component[pivot] = c;
+        queue[tail++] = pivot;
+        while (head < tail) {
+          int x = queue[head++];
+          for (int i = edges.predOffsets[x]; i < edges.predOffsets[x + 1]; i++) {
+            int p = edges.pred[i];
+            if (label[p] == forward) {
+              label[p] = DONE;
+              component[p] = c;
+              queue[tail++] = p;
+            } else if (label[p] == l) {
+              label[p] = backward;
+              queue[tail++] = p;
+            }
+          }
+        }
+
+        List<Split> pieces = new ArrayList<>(3);
+        for (int piece : new int[] {forward, backward, l}) {
+          int size = 0;
+          for (int x : nodes) {
+            if (label[x] == piece) {
+              queue[size++] = x;
+            }
+          }
+          if (size > 0) {
+            pieces.add(new Split(Arrays.copyOf(queue, size), piece));
+          }
+        }
+        invokeAll(pieces);
+      }
+    }
+  }
+}
@@ -12,6 +12,7 @@ package com.ibm.wala.util.graph.traverse;
 
 import com.ibm.wala.util.collections.ReverseIterator;
 import com.ibm.wala.util.graph.Graph;
+import com.ibm.wala.util.graph.NumberedGraph;
 import com.ibm.wala.util.graph.impl.GraphInverter;
 import java.util.Iterator;
 
@@ -51,4 +52,22 @@ public class Topological {
       return DFS.iterateFinishTime(G_T, rev);
     };
   }
+
+  /**
+   * Build an Iterator over all the nodes in a numbered graph, in an order such that SCCs are
+   * visited in topological order, and the nodes of each SCC one after another.
+   *
+   * <p>This computes a {@link NumberedSCCDecomposition} when iteration starts, which is much
+   * cheaper for large graphs than {@link #makeTopologicalIter(Graph)}. The order of the nodes
+   * within an SCC, and of SCCs which are not ordered by the graph, may differ from that method.
+   *
+   * @throws IllegalArgumentException if graph == null
+   */
+  public static <T> Iterable<T> makeNumberedTopologicalIter(final NumberedGraph<T> graph)
+      throws IllegalArgumentException {
+    if (graph == null) {
+      throw new IllegalArgumentException("graph == null");
+    }
+    return () -> NumberedSCCDecomposition.make(graph).iterateNodes();
+  }
 }
@@ -132,10 +132,7 @@ public class BitVector extends BitVectorBase<BitVector> {
       return;
     }
     int n = Math.min(bits.length, set.bits.length);
-    for (int i = n - 1; i >= 0; ) {
-      bits[i] &= set.bits[i];
-      i--;
-    }
+    BitVectorKernel.getDefault().and(bits, set.bits, n);
     for (int i = n; i < bits.length; i++) {
       bits[i] = 0;
     }
@@ -168,11 +165,7 @@ public class BitVector extends BitVectorBase<BitVector> {
       return;
     }
     ensureCapacity(set);
-    int n = Math.min(bits.length, set.bits.length);
-    for (int i = n - 1; i >= 0; ) {
-      bits[i] |= set.bits[i];
-      i--;
-    }
+    BitVectorKernel.getDefault().or(bits, set.bits, set.bits.length);
   }
 
   private void ensureCapacity(BitVector set) {
@@ -192,23 +185,29 @@ public class BitVector extends BitVectorBase<BitVector> {
     if (set == null) {
       throw new IllegalArgumentException("set is null");
     }
-    int delta = 0;
-
     ensureCapacity(set);
-    int[] otherBits = set.bits;
-    int n = Math.min(bits.length, otherBits.length);
-    for (int i = n - 1; i >= 0; ) {
-      int v1 = bits[i];
-      int v2 = otherBits[i];
-      if (v1 != v2) {
-        delta -= Bits.populationCount(v1);
-        int v3 = v1 | v2;
-        delta += Bits.populationCount(v3);
-        bits[i] = v3;
-      }
-      i--;
+    return BitVectorKernel.getDefault().orWithDelta(bits, set.bits, set.bits.length);
+  }
+
+  /**
+   * Logically ORs this bit set with the intersection of two others, without materializing the
+   * intersection.
+   *
+   * @return the number of bits added to this.
+   * @throws IllegalArgumentException if a or b is null
+   */
+  public final int orIntersectionWithDelta(BitVector a, BitVector b) {
+    if (a == null) {
+      throw new IllegalArgumentException("a is null");
     }
-    return delta;
+    if (b == null) {
+      throw new IllegalArgumentException("b is null");
+    }
+    int n = Math.min(a.bits.length, b.bits.length);
+    if (n > bits.length) {
+      expand(BITS_PER_UNIT * n - 1);
+    }
+    return BitVectorKernel.getDefault().orIntersectionWithDelta(bits, a.bits, b.bits, n);
   }
 
   /** Return a new FixedSizeBitVector as the OR of two others */
@@ -268,13 +267,7 @@ public class BitVector extends BitVectorBase<BitVector> {
       throw new IllegalArgumentException("other is null");
     }
     int n = Math.min(bits.length, other.bits.length);
-    for (int i = n - 1; i >= 0; ) {
-      if ((bits[i] & other.bits[i]) != 0) {
-        return false;
-      }
-      i--;
-    }
-    return true;
+    return BitVectorKernel.getDefault().intersectionEmpty(bits, other.bits, n);
   }
 
   /**
@@ -349,9 +342,8 @@ public class BitVector extends BitVectorBase<BitVector> {
     if (vector == null) {
       throw new IllegalArgumentException("null vector");
     }
-    for (int ai = 0, bi = 0; ai < bits.length && bi < vector.bits.length; ai++, bi++) {
-      bits[ai] &= ~vector.bits[bi];
-    }
+    int n = Math.min(bits.length, vector.bits.length);
+    BitVectorKernel.getDefault().andNot(bits, vector.bits, n);
   }
 
   /**
@@ -454,6 +454,14 @@ public final class BitVectorIntSet implements MutableIntSet {
     if (other == null) {
       throw new IllegalArgumentException("other == null");
     }
+    if (other instanceof BitVectorIntSet && filter instanceof BitVectorIntSet) {
+      int delta =
+          bitVector.orIntersectionWithDelta(
+              ((BitVectorIntSet) other).bitVector, ((BitVectorIntSet) filter).bitVector);
+      populationCount += delta;
+      populationCount = (populationCount == (delta + UNDEFINED)) ? UNDEFINED : populationCount;
+      return (delta != 0);
+    }
     BitVectorIntSet o = new BitVectorIntSet(other);
     o.intersectWith(filter);
     return addAll(o);
@@ -0,0 +1,227 @@
+package com.ibm.wala.util.intset;
+
+/**
+ * The word-level loops behind the bulk operations of {@link BitVector}.
+ *
+ * <p>Two kernels are provided. {@link #SCALAR} is the original word-by-word implementation. {@link
+ * #VECTORIZABLE} uses forward, branch-free counted loops that the JIT compiler can turn into SIMD
+ * instructions, and checks for an empty intersection a block of words at a time. The kernel used by
+ * all bit vectors can be chosen with {@link #setDefault(BitVectorKernel)}, or by setting the {@code
+ * com.ibm.wala.bitVectorKernel} system property to {@code scalar} or {@code vectorizable}.
+ *
+ * <p>All operations work on the first {@code n} words of the given arrays; callers are responsible
+ * for growing the destination beforehand.
+ */
+public abstract class BitVectorKernel {
+
+  public static final String BIT_VECTOR_KERNEL_CONFIG_PROPERTY_NAME =
+      "com.ibm.wala.bitVectorKernel";
+
+  public static final BitVectorKernel SCALAR = new Scalar();
+
+  public static final BitVectorKernel VECTORIZABLE = new Vectorizable();
+
+  private static BitVectorKernel defaultKernel = VECTORIZABLE;
+
+  static {
+    String name = System.getProperty(BIT_VECTOR_KERNEL_CONFIG_PROPERTY_NAME);
+    if (name != null) {
+      if (name.equals(SCALAR.toString())) {
+        defaultKernel = SCALAR;
+      } else if (!name.equals(VECTORIZABLE.toString())) {
+        System.err.println("Cannot use bit vector kernel " + name);
+      }
+    }
+  }
+
+  /**
+   * @return the kernel currently used by all {@link BitVector}s
+   */
+  public static BitVectorKernel getDefault() {
+    return defaultKernel;
+  }
+
+  /**
+   * @throws IllegalArgumentException if kernel is null
+   */
+  public static void setDefault(BitVectorKernel kernel) {
+    if (kernel == null) {
+      throw new IllegalArgumentException("kernel is null");
+    }
+    defaultKernel = kernel;
+  }
+
+  /** dst |= src */
+  abstract void or(int[] dst, int[] src, int n);
+
+  /**
+   * dst |= src
+   *
+   * @return the number of bits added to dst
+   */
+  abstract int orWithDelta(int[] dst, int[] src, int n);
+
+  /**
+   * dst |= (a &amp; b)
+   *
+   * @return the number of bits added to dst
+   */
+  abstract int orIntersectionWithDelta(int[] dst, int[] a, int[] b, int n);
+
+  /** dst &amp;= src */
+  abstract void and(int[] dst, int[] src, int n);
+
+  /** dst &amp;= ~src */
+  abstract void andNot(int[] dst, int[] src, int n);
+
+  /**
+   * @return true iff (a &amp; b) == 0
+   */
+  abstract boolean intersectionEmpty(int[] a, int[] b, int n);
+
+  private static final class Scalar extends BitVectorKernel {
+
+    @Override
+    void or(int[] dst, int[] src, int n) {
+      for (int i = n - 1; i >= 0; ) {
+        dst[i] |= src[i];
+        i--;
+      }
+    }
+
+    @Override
+    int orWithDelta(int[] dst, int[] src, int n) {
+      int delta = 0;
+      for (int i = n - 1; i >= 0; ) {
+        int v1 = dst[i];
+        int v2 = src[i];
+        if (v1 != v2) {
+          delta -= Bits.populationCount(v1);
+          int v3 = v1 | v2;
+          delta += Bits.populationCount(v3);
+          dst[i] = v3;
+        }
+        i--;
+      }
+      return delta;
+    }
+
+    @Override
+    int orIntersectionWithDelta(int[] dst, int[] a, int[] b, int n) {
+      int delta = 0;
+      for (int i = n - 1; i >= 0; ) {
+        int v1 = dst[i];
+        int v3 = v1 | (a[i] & b[i]);
+        if (v1 != v3) {
+          delta += Bits.populationCount(v3) - Bits.populationCount(v1);
+          dst[i] = v3;
+        }
+        i--;
+      }
+      return delta;
+    }
+
+    @Override
+    void and(int[] dst, int[] src, int n) {
+      for (int i = n - 1; i >= 0; ) {
+        dst[i] &= src[i];
+        i--;
+      }
+    }
+
+    @Override
+    void andNot(int[] dst, int[] src, int n) {
+      for (int i = 0; i < n; i++) {
+        dst[i] &= ~src[i];
+      }
+    }
+
+    @Override
+    boolean intersectionEmpty(int[] a, int[] b, int n) {
+      for (int i = n - 1; i >= 0; ) {
+        if ((a[i] & b[i]) != 0) {
+          return false;
+        }
+        i--;
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "scalar";
+    }
+  }
+
+  private static final class Vectorizable extends BitVectorKernel {
+
+    /** number of words examined between early-exit checks in {@link #intersectionEmpty} */
+    private static final int BLOCK = 64;
+
+    @Override
+    void or(int[] dst, int[] src, int n) {
+      for (int i = 0; i < n; i++) {
+        dst[i] |= src[i];
+      }
+    }
+
+    @Override
+    int orWithDelta(int[] dst, int[] src, int n) {
+      // the bits added are exactly those of src & ~dst, so one population count per word suffices
+      int delta = 0;
+      for (int i = 0; i < n; i++) {
+        int v1 = dst[i];
+        int v2 = src[i];
+        delta += Integer.bitCount(v2 & ~v1);
+        dst[i] = v1 | v2;
+      }
+      return delta;
+    }
+
+    @Override
+    int orIntersectionWithDelta(int[] dst, int[] a, int[] b, int n) {
+      int delta = 0;
+      for (int i = 0; i < n; i++) {
+        int v1 = dst[i];
+        int v2 = a[i] & b[i];
+        delta += Integer.bitCount(v2 & ~v1);
+        dst[i] = v1 | v2;
+      }
+      return delta;
+    }
+
+    @Override
+    void and(int[] dst, int[] src, int n) {
+      for (int i = 0; i < n; i++) {
+        dst[i] &= src[i];
+      }
+    }
+
+    @Override
+    void andNot(int[] dst, int[] src, int n) {
+      for (int i = 0; i < n; i++) {
+        dst[i] &= ~src[i];
+      }
+    }
+
+    @Override
+    boolean intersectionEmpty(int[] a, int[] b, int n) {
+      for (int start = 0; start < n; start += BLOCK) {
+        int end = Math.min(n, start + BLOCK);
+        int acc = 0;
+        for (int i = start; i < end; i++) {
+          acc |= a[i] & b[i];
+        }
+        if (acc != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "vectorizable";
+    }
+  }
+}
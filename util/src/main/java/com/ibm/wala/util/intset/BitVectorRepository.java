@@ -10,28 +10,59 @@
  */
 package com.ibm.wala.util.intset;
 
-import com.ibm.wala.util.collections.HashMapFactory;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
 
-/** A repository for shared bit vectors as described by Heintze */
-@SuppressWarnings("Java8MapApi")
+/**
+ * A repository for shared bit vectors as described by Heintze
+ *
+ * <p>The repository is safe to use from several threads at once. Representatives are held weakly
+ * and kept in buckets by size; each one also carries a 64-bit signature of its elements, so most
+ * candidates that are not subsets of a query are rejected without looking at their bits. An exact
+ * index by hash code finds an identical representative without scanning at all. Entries whose
+ * representative has been collected are purged at the start of each query, or by calling {@link
+ * #purge()}.
+ */
 public class BitVectorRepository {
 
-  private static final boolean STATS = false;
+  private static final int SUBSET_DELTA = 5;
 
-  private static final int STATS_WINDOW = 100;
+  /** a representative, with the data needed to look it up */
+  private static final class Entry extends WeakReference<BitVectorIntSet> {
+    final int size;
 
-  private static int queries = 0;
+    final int hash;
 
-  private static int hits = 0;
+    final long signature;
 
-  private static final int SUBSET_DELTA = 5;
+    Entry(BitVectorIntSet bv, int size, int hash, long signature) {
+      super(bv, staleEntries);
+      this.size = size;
+      this.hash = hash;
+      this.signature = signature;
+    }
+  }
+
+  private static final ReferenceQueue<BitVectorIntSet> staleEntries = new ReferenceQueue<>();
+
+  /** size -&gt; representatives with that many elements */
+  private static final ConcurrentHashMap<Integer, Queue<Entry>> buckets = new ConcurrentHashMap<>();
+
+  /** hash code -&gt; a representative with that hash code */
+  private static final ConcurrentHashMap<Integer, Entry> exact = new ConcurrentHashMap<>();
+
+  private static final AtomicInteger entries = new AtomicInteger();
+
+  private static final LongAdder queries = new LongAdder();
 
-  private static final Map<Integer, LinkedList<WeakReference<BitVectorIntSet>>> buckets =
-      HashMapFactory.make();
+  private static final LongAdder hits = new LongAdder();
 
   /**
    * @return the BitVector in this repository which is the canonical shared subset representative of
@@ -39,67 +70,127 @@ public class BitVectorRepository {
    *     SUBSET_DELTA bits.
    * @throws IllegalArgumentException if value is null
    */
-  public static synchronized BitVectorIntSet findOrCreateSharedSubset(BitVectorIntSet value) {
+  public static BitVectorIntSet findOrCreateSharedSubset(BitVectorIntSet value) {
     if (value == null) {
       throw new IllegalArgumentException("value is null");
     }
-    if (STATS) {
-      queries++;
-      if (queries % STATS_WINDOW == 0) {
-        reportStats();
-      }
-    }
+    purge();
+    queries.increment();
+    int[] bits = value.getBitVector().bits;
     int size = value.size();
+    int hash = value.getBitVector().hashCode();
+    long signature = signature(bits);
+
+    // a subset of the same size is the same set; a colliding smaller subset is not a hit here
+    Entry same = exact.get(hash);
+    BitVectorIntSet bv = same != null && same.size == size ? lookup(same, value, signature) : null;
+    if (bv != null) {
+      hits.increment();
+      return bv;
+    }
     for (int i = size; i > size - SUBSET_DELTA; i--) {
-      LinkedList<WeakReference<BitVectorIntSet>> m = buckets.get(i);
-      if (m != null) {
-        Iterator<WeakReference<BitVectorIntSet>> it = m.iterator();
-        while (it.hasNext()) {
-          WeakReference<BitVectorIntSet> wr = it.next();
-          BitVectorIntSet bv = wr.get();
+      Queue<Entry> bucket = buckets.get(i);
+      if (bucket != null) {
+        for (Entry e : bucket) {
+          bv = lookup(e, value, signature);
           if (bv != null) {
-            if (bv.isSubset(value)) {
-              // FOUND ONE!
-              if (STATS) {
-                hits++;
-              }
-              return bv;
-            }
-          } else {
-            // remove the weak reference to avoid leaks
-            it.remove();
+            // FOUND ONE!
+            hits.increment();
+            return bv;
           }
         }
       }
     }
+
     // didn't find one. create one.
-    LinkedList<WeakReference<BitVectorIntSet>> m;
-    m = buckets.get(size);
-    if (m == null) {
-      @SuppressWarnings("JdkObsolete") // performance-tuned
-      LinkedList<WeakReference<BitVectorIntSet>> tmp = new LinkedList<>();
-      m = tmp;
-      buckets.put(size, m);
+    bv = new BitVectorIntSet(value);
+    // compute the cached size now, so readers in other threads never write it
+    bv.size();
+    Entry entry = new Entry(bv, size, hash, signature);
+    Entry previous = exact.putIfAbsent(hash, entry);
+    if (previous != null) {
+      // another thread may have just added the same value
+      BitVectorIntSet other = previous.get();
+      if (other != null && other.sameValue(value)) {
+        hits.increment();
+        return other;
+      }
     }
-    BitVectorIntSet bv = new BitVectorIntSet(value);
-    m.add(new WeakReference<>(bv));
+    buckets.computeIfAbsent(size, k -> new ConcurrentLinkedQueue<>()).add(entry);
+    entries.incrementAndGet();
     return bv;
   }
 
-  /** */
-  private static void reportStats() {
-    double percent = 100.0 * hits / queries;
-    System.err.println(("BitVectorRepository: queries " + queries + " hits " + percent));
-    System.err.println(("                     entries " + countEntries()));
+  /**
+   * @return the representative of e, if it is a subset of value, or null
+   */
+  private static @Nullable BitVectorIntSet lookup(
+      @Nullable Entry e, BitVectorIntSet value, long signature) {
+    if (e == null || (e.signature & ~signature) != 0) {
+      return null;
+    }
+    BitVectorIntSet bv = e.get();
+    return bv != null && bv.isSubset(value) ? bv : null;
   }
 
-  /** */
-  private static int countEntries() {
-    int result = 0;
-    for (LinkedList<WeakReference<BitVectorIntSet>> l : buckets.values()) {
-      // don't worry about cleared WeakReferences; count will be rough
-      result += l.size();
+  /**
+   * A 64-bit summary of the elements in bits: bit (x mod 64) is set for each element x. If a is a
+   * subset of b, the signature of a is a subset of the signature of b.
+   */
+  private static long signature(int[] bits) {
+    long lo = 0;
+    long hi = 0;
+    int n = bits.length & ~1;
+    for (int i = 0; i < n; i += 2) {
+      lo |= bits[i];
+      hi |= bits[i + 1];
+    }
+    if (n < bits.length) {
+      lo |= bits[n];
+    }
+    return (lo & 0xffffffffL) | (hi << 32);
+  }
+
+  /** Drop entries whose representatives have been garbage collected. */
+  public static void purge() {
+    for (Reference<? extends BitVectorIntSet> r = staleEntries.poll();
+        r != null;
+        r = staleEntries.poll()) {
+      Entry e = (Entry) r;
+      exact.remove(e.hash, e);
+      Queue<Entry> bucket = buckets.get(e.size);
+      if (bucket != null && bucket.remove(e)) {
+        entries.decrementAndGet();
+      }
     }
-    return result;
+  }
+
+  /**
+   * @return the number of calls to {@link #findOrCreateSharedSubset(BitVectorIntSet)} so far
+   */
+  public static long getNumberOfQueries() {
+    return queries.sum();
+  }
+
+  /**
+   * @return the number of calls to {@link #findOrCreateSharedSubset(BitVectorIntSet)} that returned
+   *     an existing representative
+   */
+  public static long getNumberOfHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the number of representatives currently held, including any that have been collected
+   *     but not yet purged
+   */
+  public static int getNumberOfEntries() {
+    return entries.get();
+  }
+
+  /** Reset the query and hit counts. */
+  public static void resetStatistics() {
+    queries.reset();
+    hits.reset();
   }
 }
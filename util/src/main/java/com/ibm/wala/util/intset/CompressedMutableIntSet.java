@@ -0,0 +1,1256 @@
+package com.ibm.wala.util.intset;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link MutableIntSet} of non-negative integers, compressed in the manner of Roaring bitmaps.
+ *
+ * <p>The integers are split into chunks of 2<sup>16</sup> consecutive values, and each non-empty
+ * chunk is kept in whichever of three containers is smallest for it: a sorted array of the low 16
+ * bits of its elements when the chunk is sparse, a bitmap of 2<sup>16</sup> bits when it is dense,
+ * or a sorted list of intervals when its elements form long runs. Sparse sets thus cost about two
+ * bytes per element, dense ones about one bit, and both kinds can be mixed in a single set.
+ *
+ * <p>The choice between arrays and bitmaps is maintained as the set changes. Run containers are
+ * only introduced by {@link #runOptimize()}, which {@link CompressedMutableIntSetFactory#makeCopy}
+ * calls; updates that would make a run container larger than the equivalent array or bitmap turn it
+ * back into one of those.
+ */
+public class CompressedMutableIntSet implements MutableIntSet {
+
+  private static final long serialVersionUID = 2374908213550165147L;
+
+  /** an array container with more elements than this would be larger than a bitmap container */
+  static final int MAX_ARRAY_SIZE = 4096;
+
+  /** number of 64-bit words in a bitmap container */
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  private static final char[] NO_KEYS = new char[0];
+
+  private static final Container[] NO_CONTAINERS = new Container[0];
+
+  /** the high 16 bits of the elements of each chunk, in increasing order */
+  private char[] keys = NO_KEYS;
+
+  /** containers[i] holds the low 16 bits of the elements of the chunk keys[i] */
+  private Container[] containers = NO_CONTAINERS;
+
+  /** number of non-empty chunks */
+  private int chunks = 0;
+
+  /** number of elements */
+  private int size = 0;
+
+  public CompressedMutableIntSet() {}
+
+  /**
+   * @throws IllegalArgumentException if set is null
+   */
+  public CompressedMutableIntSet(IntSet set) {
+    copySet(set);
+  }
+
+  private static int highBits(int i) {
+    return i >>> 16;
+  }
+
+  private static int lowBits(int i) {
+    return i & 0xFFFF;
+  }
+
+  /**
+   * @return the index of the chunk with the given key, or (-(insertion point) - 1) if there is none
+   */
+  private int findChunk(int key) {
+    return Arrays.binarySearch(keys, 0, chunks, (char) key);
+  }
+
+  private void insertChunk(int index, int key, Container c) {
+    if (chunks == keys.length) {
+      int capacity = Math.max(4, 2 * chunks);
+      keys = Arrays.copyOf(keys, capacity);
+      containers = Arrays.copyOf(containers, capacity);
+    }
+    System.arraycopy(keys, index, keys, index + 1, chunks - index);
+    System.arraycopy(containers, index, containers, index + 1, chunks - index);
+    keys[index] = (char) key;
+    containers[index] = c;
+    chunks++;
+  }
+
+  private void removeChunk(int index) {
+    System.arraycopy(keys, index + 1, keys, index, chunks - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, chunks - index - 1);
+    chunks--;
+    containers[chunks] = null;
+  }
+
+  /** Drop the empty chunks and recompute the size */
+  private void compact() {
+    int j = 0;
+    size = 0;
+    for (int i = 0; i < chunks; i++) {
+      int n = containers[i].cardinality();
+      if (n > 0) {
+        keys[j] = keys[i];
+        containers[j] = containers[i];
+        size += n;
+        j++;
+      }
+    }
+    Arrays.fill(containers, j, chunks, null);
+    chunks = j;
+  }
+
+  @Override
+  public boolean contains(int i) {
+    if (i < 0) {
+      return false;
+    }
+    int index = findChunk(highBits(i));
+    return index >= 0 && containers[index].contains(lowBits(i));
+  }
+
+  @Override
+  public boolean containsAny(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet that = (CompressedMutableIntSet) set;
+      int i = 0, j = 0;
+      while (i < chunks && j < that.chunks) {
+        if (keys[i] < that.keys[j]) {
+          i++;
+        } else if (keys[i] > that.keys[j]) {
+          j++;
+        } else {
+          if (intersects(containers[i], that.containers[j])) {
+            return true;
+          }
+          i++;
+          j++;
+        }
+      }
+      return false;
+    }
+    IntSet smaller = set.size() < size ? set : this;
+    IntSet larger = smaller == set ? this : set;
+    for (IntIterator it = smaller.intIterator(); it.hasNext(); ) {
+      if (larger.contains(it.next())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public IntSet intersection(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    CompressedMutableIntSet result = new CompressedMutableIntSet();
+    if (that instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet other = (CompressedMutableIntSet) that;
+      int i = 0, j = 0;
+      while (i < chunks && j < other.chunks) {
+        if (keys[i] < other.keys[j]) {
+          i++;
+        } else if (keys[i] > other.keys[j]) {
+          j++;
+        } else {
+          Container c = and(containers[i], other.containers[j]);
+          if (c.cardinality() > 0) {
+            result.insertChunk(result.chunks, keys[i], c);
+            result.size += c.cardinality();
+          }
+          i++;
+          j++;
+        }
+      }
+    } else {
+      result.copySet(this);
+      result.intersectWith(that);
+    }
+    return result;
+  }
+
+  @Override
+  public IntSet union(IntSet that) {
+    CompressedMutableIntSet result = new CompressedMutableIntSet(this);
+    result.addAll(that);
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public IntIterator intIterator() {
+    return new IntIterator() {
+      private int chunk = 0;
+
+      private IntIterator lows = chunks > 0 ? containers[0].iterator() : null;
+
+      @Override
+      public boolean hasNext() {
+        while (lows != null && !lows.hasNext()) {
+          chunk++;
+          lows = chunk < chunks ? containers[chunk].iterator() : null;
+        }
+        return lows != null;
+      }
+
+      @Override
+      public int next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return (keys[chunk] << 16) | lows.next();
+      }
+    };
+  }
+
+  @Override
+  public void foreach(IntSetAction action) {
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      action.act(it.next());
+    }
+  }
+
+  @Override
+  public void foreachExcluding(IntSet X, IntSetAction action) {
+    if (X == null) {
+      throw new IllegalArgumentException("null X");
+    }
+    if (action == null) {
+      throw new IllegalArgumentException("null action");
+    }
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      int i = it.next();
+      if (!X.contains(i)) {
+        action.act(i);
+      }
+    }
+  }
+
+  /**
+   * @return the largest element of the set, or -1 if it is empty
+   */
+  @Override
+  public int max() {
+    if (chunks == 0) {
+      return -1;
+    }
+    return (keys[chunks - 1] << 16) | containers[chunks - 1].last();
+  }
+
+  @Override
+  public boolean sameValue(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    if (size != that.size()) {
+      return false;
+    }
+    if (that instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet other = (CompressedMutableIntSet) that;
+      if (chunks != other.chunks) {
+        return false;
+      }
+      for (int i = 0; i < chunks; i++) {
+        if (keys[i] != other.keys[i]
+            || containers[i].cardinality() != other.containers[i].cardinality()
+            || !isSubset(containers[i], other.containers[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return isSubset(that);
+  }
+
+  @Override
+  public boolean isSubset(IntSet that) {
+    if (that == null) {
+      throw new IllegalArgumentException("null that");
+    }
+    if (size > that.size()) {
+      return false;
+    }
+    if (that instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet other = (CompressedMutableIntSet) that;
+      int j = 0;
+      for (int i = 0; i < chunks; i++) {
+        while (j < other.chunks && other.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j == other.chunks
+            || other.keys[j] != keys[i]
+            || !isSubset(containers[i], other.containers[j])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      if (!that.contains(it.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void copySet(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set == this) {
+      return;
+    }
+    if (set instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet that = (CompressedMutableIntSet) set;
+      keys = Arrays.copyOf(that.keys, that.chunks);
+      containers = new Container[that.chunks];
+      for (int i = 0; i < that.chunks; i++) {
+        containers[i] = that.containers[i].copy();
+      }
+      chunks = that.chunks;
+      size = that.size;
+    } else {
+      clear();
+      addAll(set);
+    }
+  }
+
+  @Override
+  public boolean addAll(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    int oldSize = size;
+    if (set instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet that = (CompressedMutableIntSet) set;
+      if (that == this) {
+        return false;
+      }
+      int newChunks = 0;
+      int i = 0;
+      for (int j = 0; j < that.chunks; j++) {
+        while (i < chunks && keys[i] < that.keys[j]) {
+          i++;
+        }
+        if (i == chunks || keys[i] != that.keys[j]) {
+          newChunks++;
+        }
+      }
+      if (newChunks == 0) {
+        // the common case: union each container in place
+        i = 0;
+        for (int j = 0; j < that.chunks; j++) {
+          while (keys[i] < that.keys[j]) {
+            i++;
+          }
+          containers[i] = orInPlace(containers[i], that.containers[j]);
+        }
+      } else {
+        char[] newKeys = new char[chunks + newChunks];
+        Container[] newContainers = new Container[chunks + newChunks];
+        int n = 0, j = 0;
+        i = 0;
+        while (i < chunks || j < that.chunks) {
+          if (j == that.chunks || (i < chunks && keys[i] < that.keys[j])) {
+            newKeys[n] = keys[i];
+            newContainers[n++] = containers[i++];
+          } else if (i == chunks || keys[i] > that.keys[j]) {
+            newKeys[n] = that.keys[j];
+            newContainers[n++] = that.containers[j++].copy();
+          } else {
+            newKeys[n] = keys[i];
+            newContainers[n++] = orInPlace(containers[i++], that.containers[j++]);
+          }
+        }
+        keys = newKeys;
+        containers = newContainers;
+        chunks = n;
+      }
+      size = 0;
+      for (int k = 0; k < chunks; k++) {
+        size += containers[k].cardinality();
+      }
+    } else {
+      for (IntIterator it = set.intIterator(); it.hasNext(); ) {
+        add(it.next());
+      }
+    }
+    return size != oldSize;
+  }
+
+  /**
+   * @throws IllegalArgumentException if i &lt; 0
+   */
+  @Override
+  public boolean add(int i) {
+    if (i < 0) {
+      throw new IllegalArgumentException("illegal i: " + i);
+    }
+    int key = highBits(i);
+    int index = findChunk(key);
+    if (index < 0) {
+      ArrayContainer c = new ArrayContainer();
+      c.add(lowBits(i));
+      insertChunk(-index - 1, key, c);
+      size++;
+      return true;
+    }
+    Container c = containers[index];
+    int before = c.cardinality();
+    containers[index] = c.add(lowBits(i));
+    if (containers[index].cardinality() != before) {
+      size++;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean remove(int i) {
+    if (i < 0) {
+      return false;
+    }
+    int index = findChunk(highBits(i));
+    if (index < 0) {
+      return false;
+    }
+    Container c = containers[index];
+    int before = c.cardinality();
+    c = c.remove(lowBits(i));
+    if (c.cardinality() == before) {
+      return false;
+    }
+    size--;
+    if (c.cardinality() == 0) {
+      removeChunk(index);
+    } else {
+      containers[index] = c;
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    keys = NO_KEYS;
+    containers = NO_CONTAINERS;
+    chunks = 0;
+    size = 0;
+  }
+
+  @Override
+  public void intersectWith(IntSet set) {
+    if (set == null) {
+      throw new IllegalArgumentException("null set");
+    }
+    if (set == this) {
+      return;
+    }
+    if (set instanceof CompressedMutableIntSet) {
+      CompressedMutableIntSet that = (CompressedMutableIntSet) set;
+      int j = 0;
+      for (int i = 0; i < chunks; i++) {
+        while (j < that.chunks && that.keys[j] < keys[i]) {
+          j++;
+        }
+        if (j < that.chunks && that.keys[j] == keys[i]) {
+          containers[i] = and(containers[i], that.containers[j]);
+        } else {
+          containers[i] = new ArrayContainer();
+        }
+      }
+      compact();
+    } else {
+      CompressedMutableIntSet result = new CompressedMutableIntSet();
+      for (IntIterator it = intIterator(); it.hasNext(); ) {
+        int i = it.next();
+        if (set.contains(i)) {
+          result.add(i);
+        }
+      }
+      keys = result.keys;
+      containers = result.containers;
+      chunks = result.chunks;
+      size = result.size;
+    }
+  }
+
+  @Override
+  public boolean addAllInIntersection(IntSet other, IntSet filter) {
+    if (other == null) {
+      throw new IllegalArgumentException("null other");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("null filter");
+    }
+    if (other instanceof CompressedMutableIntSet && filter instanceof CompressedMutableIntSet) {
+      return addAll(other.intersection(filter));
+    }
+    boolean changed = false;
+    for (IntIterator it = other.intIterator(); it.hasNext(); ) {
+      int i = it.next();
+      if (filter.contains(i)) {
+        changed |= add(i);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Convert each chunk to a run container when that is smaller than its current representation.
+   *
+   * @return true iff some chunk was converted
+   */
+  public boolean runOptimize() {
+    boolean changed = false;
+    for (int i = 0; i < chunks; i++) {
+      Container c = containers[i];
+      if (!(c instanceof RunContainer)
+          && RunContainer.sizeInBytes(c.numberOfRuns()) < c.sizeInBytes()) {
+        containers[i] = RunContainer.make(c);
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * @return an estimate of the number of bytes used by the containers of this set
+   */
+  public long sizeInBytes() {
+    // a key and a reference per chunk
+    long result = 10L * keys.length;
+    for (int i = 0; i < chunks; i++) {
+      result += containers[i].sizeInBytes();
+    }
+    return result;
+  }
+
+  /**
+   * @return a new set holding the elements of A that are not in B
+   * @throws IllegalArgumentException if A or B is null
+   */
+  public static CompressedMutableIntSet diff(CompressedMutableIntSet A, CompressedMutableIntSet B) {
+    if (A == null) {
+      throw new IllegalArgumentException("null A");
+    }
+    if (B == null) {
+      throw new IllegalArgumentException("null B");
+    }
+    CompressedMutableIntSet result = new CompressedMutableIntSet();
+    int j = 0;
+    for (int i = 0; i < A.chunks; i++) {
+      while (j < B.chunks && B.keys[j] < A.keys[i]) {
+        j++;
+      }
+      Container c =
+          j < B.chunks && B.keys[j] == A.keys[i]
+              ? andNot(A.containers[i], B.containers[j])
+              : A.containers[i].copy();
+      if (c.cardinality() > 0) {
+        result.insertChunk(result.chunks, A.keys[i], c);
+        result.size += c.cardinality();
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(6 * size);
+    sb.append("{ ");
+    for (IntIterator it = intIterator(); it.hasNext(); ) {
+      sb.append(it.next());
+      sb.append(' ');
+    }
+    sb.append('}');
+    return sb.toString();
+  }
+
+  /* operations on pairs of containers; run containers are expanded first */
+
+  private static Container or(Container a, Container b) {
+    a = a.expand();
+    b = b.expand();
+    if (a instanceof BitmapContainer) {
+      return ((BitmapContainer) a.copy()).or(b);
+    } else if (b instanceof BitmapContainer) {
+      return ((BitmapContainer) b.copy()).or(a);
+    } else {
+      return ((ArrayContainer) a).or((ArrayContainer) b);
+    }
+  }
+
+  /** union b into a, reusing a if possible */
+  private static Container orInPlace(Container a, Container b) {
+    if (a instanceof BitmapContainer) {
+      return ((BitmapContainer) a).or(b.expand());
+    }
+    return or(a, b);
+  }
+
+  private static Container and(Container a, Container b) {
+    a = a.expand();
+    b = b.expand();
+    if (a instanceof ArrayContainer) {
+      return ((ArrayContainer) a).filter(b, true);
+    } else if (b instanceof ArrayContainer) {
+      return ((ArrayContainer) b).filter(a, true);
+    } else {
+      return ((BitmapContainer) a).and((BitmapContainer) b);
+    }
+  }
+
+  private static Container andNot(Container a, Container b) {
+    a = a.expand();
+    b = b.expand();
+    if (a instanceof ArrayContainer) {
+      return ((ArrayContainer) a).filter(b, false);
+    } else if (b instanceof BitmapContainer) {
+      return ((BitmapContainer) a).andNot((BitmapContainer) b);
+    } else {
+      Container result = a.copy();
+      for (IntIterator it = b.iterator(); it.hasNext(); ) {
+        result = result.remove(it.next());
+      }
+      return result;
+    }
+  }
+
+  private static boolean intersects(Container a, Container b) {
+    if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+      return ((BitmapContainer) a).intersects((BitmapContainer) b);
+    }
+    Container smaller = a.cardinality() <= b.cardinality() ? a : b;
+    Container larger = smaller == a ? b : a;
+    for (IntIterator it = smaller.iterator(); it.hasNext(); ) {
+      if (larger.contains(it.next())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true iff a is a subset of b
+   */
+  private static boolean isSubset(Container a, Container b) {
+    if (a.cardinality() > b.cardinality()) {
+      return false;
+    }
+    if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+      return ((BitmapContainer) a).isSubset((BitmapContainer) b);
+    }
+    for (IntIterator it = a.iterator(); it.hasNext(); ) {
+      if (!b.contains(it.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** The low 16 bits of the elements of one chunk */
+  private abstract static class Container implements Serializable {
+
+    private static final long serialVersionUID = -2950224962740547451L;
+
+    abstract int cardinality();
+
+    abstract boolean contains(int low);
+
+    /**
+     * @return the container holding the elements of this one and low; this one, unless a change of
+     *     representation was necessary
+     */
+    abstract Container add(int low);
+
+    /**
+     * @return the container holding the elements of this one but low; this one, unless a change of
+     *     representation was necessary
+     */
+    abstract Container remove(int low);
+
+    abstract int last();
+
+    /**
+     * @return the elements of the container, in increasing order
+     */
+    abstract IntIterator iterator();
+
+    abstract Container copy();
+
+    abstract int sizeInBytes();
+
+    /**
+     * @return the number of maximal intervals of consecutive elements
+     */
+    abstract int numberOfRuns();
+
+    /**
+     * @return this container as an array or bitmap container
+     */
+    abstract Container expand();
+  }
+
+  /** A sorted array of elements, for sparse chunks */
+  private static final class ArrayContainer extends Container {
+
+    private static final long serialVersionUID = 6519232418547418232L;
+
+    private char[] content;
+
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] content, int cardinality) {
+      this.content = content;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int low) {
+      return Arrays.binarySearch(content, 0, cardinality, (char) low) >= 0;
+    }
+
+    @Override
+    Container add(int low) {
+      int index = Arrays.binarySearch(content, 0, cardinality, (char) low);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == MAX_ARRAY_SIZE) {
+        return toBitmap().add(low);
+      }
+      index = -index - 1;
+      if (cardinality == content.length) {
+        content = Arrays.copyOf(content, Math.min(MAX_ARRAY_SIZE, 2 * cardinality));
+      }
+      System.arraycopy(content, index, content, index + 1, cardinality - index);
+      content[index] = (char) low;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(int low) {
+      int index = Arrays.binarySearch(content, 0, cardinality, (char) low);
+      if (index >= 0) {
+        System.arraycopy(content, index + 1, content, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    int last() {
+      return content[cardinality - 1];
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < cardinality;
+        }
+
+        @Override
+        public int next() {
+          if (next >= cardinality) {
+            throw new NoSuchElementException();
+          }
+          return content[next++];
+        }
+      };
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(content, Math.max(cardinality, 4)), cardinality);
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 2 * content.length + 16;
+    }
+
+    @Override
+    int numberOfRuns() {
+      int runs = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (i == 0 || content[i] != content[i - 1] + 1) {
+          runs++;
+        }
+      }
+      return runs;
+    }
+
+    @Override
+    Container expand() {
+      return this;
+    }
+
+    BitmapContainer toBitmap() {
+      BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++) {
+        result.add(content[i]);
+      }
+      return result;
+    }
+
+    /** merge two sorted arrays */
+    Container or(ArrayContainer that) {
+      if (cardinality + that.cardinality > MAX_ARRAY_SIZE) {
+        return toBitmap().or(that);
+      }
+      char[] result = new char[Math.max(4, cardinality + that.cardinality)];
+      int i = 0, j = 0, n = 0;
+      while (i < cardinality && j < that.cardinality) {
+        char x = content[i];
+        char y = that.content[j];
+        if (x < y) {
+          result[n++] = x;
+          i++;
+        } else if (x > y) {
+          result[n++] = y;
+          j++;
+        } else {
+          result[n++] = x;
+          i++;
+          j++;
+        }
+      }
+      while (i < cardinality) {
+        result[n++] = content[i++];
+      }
+      while (j < that.cardinality) {
+        result[n++] = that.content[j++];
+      }
+      return new ArrayContainer(result, n);
+    }
+
+    /**
+     * @return the elements of this container that are (if keep) or are not (otherwise) in that
+     */
+    ArrayContainer filter(Container that, boolean keep) {
+      char[] result = new char[Math.max(4, cardinality)];
+      int n = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (that.contains(content[i]) == keep) {
+          result[n++] = content[i];
+        }
+      }
+      return new ArrayContainer(result, n);
+    }
+  }
+
+  /** A bitmap of all the 2^16 possible elements, for dense chunks */
+  private static final class BitmapContainer extends Container {
+
+    private static final long serialVersionUID = -4219734802935473281L;
+
+    private final long[] words;
+
+    private int cardinality;
+
+    BitmapContainer() {
+      this(new long[BITMAP_WORDS], 0);
+    }
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int low) {
+      return (words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    @Override
+    Container add(int low) {
+      long bit = 1L << low;
+      if ((words[low >>> 6] & bit) == 0) {
+        words[low >>> 6] |= bit;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(int low) {
+      long bit = 1L << low;
+      if ((words[low >>> 6] & bit) != 0) {
+        words[low >>> 6] &= ~bit;
+        cardinality--;
+        if (cardinality <= MAX_ARRAY_SIZE) {
+          return toArray();
+        }
+      }
+      return this;
+    }
+
+    @Override
+    int last() {
+      for (int w = BITMAP_WORDS - 1; w >= 0; w--) {
+        if (words[w] != 0) {
+          return 64 * w + 63 - Long.numberOfLeadingZeros(words[w]);
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int word = 0;
+
+        private long bits = words[0];
+
+        @Override
+        public boolean hasNext() {
+          while (bits == 0 && word < BITMAP_WORDS - 1) {
+            bits = words[++word];
+          }
+          return bits != 0;
+        }
+
+        @Override
+        public int next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          int result = 64 * word + Long.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+          return result;
+        }
+      };
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 8 * BITMAP_WORDS + 16;
+    }
+
+    @Override
+    int numberOfRuns() {
+      int runs = 0;
+      long previous = 0;
+      for (long w : words) {
+        // bits that are set while the bit before them is not
+        runs += Long.bitCount(w & ~((w << 1) | (previous >>> 63)));
+        previous = w;
+      }
+      return runs;
+    }
+
+    @Override
+    Container expand() {
+      return this;
+    }
+
+    ArrayContainer toArray() {
+      char[] content = new char[Math.max(4, cardinality)];
+      int n = 0;
+      for (IntIterator it = iterator(); it.hasNext(); ) {
+        content[n++] = (char) it.next();
+      }
+      return new ArrayContainer(content, n);
+    }
+
+    /** union an array or bitmap container into this one */
+    BitmapContainer or(Container that) {
+      if (that instanceof BitmapContainer) {
+        long[] other = ((BitmapContainer) that).words;
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          words[w] |= other[w];
+          n += Long.bitCount(words[w]);
+        }
+        cardinality = n;
+      } else {
+        for (IntIterator it = that.iterator(); it.hasNext(); ) {
+          add(it.next());
+        }
+      }
+      return this;
+    }
+
+    Container and(BitmapContainer that) {
+      long[] result = new long[BITMAP_WORDS];
+      int n = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        result[w] = words[w] & that.words[w];
+        n += Long.bitCount(result[w]);
+      }
+      BitmapContainer c = new BitmapContainer(result, n);
+      return n <= MAX_ARRAY_SIZE ? c.toArray() : c;
+    }
+
+    Container andNot(BitmapContainer that) {
+      long[] result = new long[BITMAP_WORDS];
+      int n = 0;
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        result[w] = words[w] & ~that.words[w];
+        n += Long.bitCount(result[w]);
+      }
+      BitmapContainer c = new BitmapContainer(result, n);
+      return n <= MAX_ARRAY_SIZE ? c.toArray() : c;
+    }
+
+    boolean intersects(BitmapContainer that) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        if ((words[w] & that.words[w]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean isSubset(BitmapContainer that) {
+      for (int w = 0; w < BITMAP_WORDS; w++) {
+        if ((words[w] & ~that.words[w]) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /** A sorted list of disjoint, non-adjacent intervals, for chunks made of long runs */
+  private static final class RunContainer extends Container {
+
+    private static final long serialVersionUID = 8250931796427530912L;
+
+    /** runs[2k] is the first element of the k-th run, runs[2k+1] its length minus one */
+    private char[] runs;
+
+    private int numberOfRuns;
+
+    private int cardinality;
+
+    private RunContainer(char[] runs, int numberOfRuns, int cardinality) {
+      this.runs = runs;
+      this.numberOfRuns = numberOfRuns;
+      this.cardinality = cardinality;
+    }
+
+    static int sizeInBytes(int numberOfRuns) {
+      return 4 * numberOfRuns + 16;
+    }
+
+    static RunContainer make(Container c) {
+      char[] runs = new char[2 * c.numberOfRuns()];
+      int n = 0;
+      int start = -1, end = -1;
+      for (IntIterator it = c.iterator(); it.hasNext(); ) {
+        int x = it.next();
+        if (x != end + 1 || start < 0) {
+          if (start >= 0) {
+            runs[2 * n] = (char) start;
+            runs[2 * n + 1] = (char) (end - start);
+            n++;
+          }
+          start = x;
+        }
+        end = x;
+      }
+      if (start >= 0) {
+        runs[2 * n] = (char) start;
+        runs[2 * n + 1] = (char) (end - start);
+        n++;
+      }
+      return new RunContainer(runs, n, c.cardinality());
+    }
+
+    private int start(int k) {
+      return runs[2 * k];
+    }
+
+    private int end(int k) {
+      return runs[2 * k] + runs[2 * k + 1];
+    }
+
+    /**
+     * @return the index of the last run that starts at or before low, or -1 if there is none
+     */
+    private int findRun(int low) {
+      int lo = 0, hi = numberOfRuns - 1;
+      while (lo <= hi) {
+        int mid = (lo + hi) >>> 1;
+        if (start(mid) <= low) {
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return hi;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(int low) {
+      int k = findRun(low);
+      return k >= 0 && low <= end(k);
+    }
+
+    @Override
+    Container add(int low) {
+      int k = findRun(low);
+      if (k >= 0 && low <= end(k)) {
+        return this;
+      }
+      boolean extendsPrevious = k >= 0 && end(k) + 1 == low;
+      boolean extendsNext = k + 1 < numberOfRuns && start(k + 1) == low + 1;
+      if (extendsPrevious && extendsNext) {
+        runs[2 * k + 1] = (char) (end(k + 1) - start(k));
+        System.arraycopy(runs, 2 * k + 4, runs, 2 * k + 2, 2 * (numberOfRuns - k - 2));
+        numberOfRuns--;
+      } else if (extendsPrevious) {
+        runs[2 * k + 1]++;
+      } else if (extendsNext) {
+        runs[2 * k + 2] = (char) low;
+        runs[2 * k + 3]++;
+      } else {
+        if (2 * numberOfRuns == runs.length) {
+          runs = Arrays.copyOf(runs, Math.max(4, 2 * runs.length));
+        }
+        System.arraycopy(runs, 2 * k + 2, runs, 2 * k + 4, 2 * (numberOfRuns - k - 1));
+        runs[2 * k + 2] = (char) low;
+        runs[2 * k + 3] = 0;
+        numberOfRuns++;
+      }
+      cardinality++;
+      Container expanded = null;
+      if (sizeInBytes() > 8 * BITMAP_WORDS + 16 || sizeInBytes() > 2 * cardinality + 16) {
+        expanded = expand();
+      }
+      return expanded == null || expanded.sizeInBytes() >= sizeInBytes() ? this : expanded;
+    }
+
+    @Override
+    Container remove(int low) {
+      if (!contains(low)) {
+        return this;
+      }
+      return expand().remove(low);
+    }
+
+    @Override
+    int last() {
+      return end(numberOfRuns - 1);
+    }
+
+    @Override
+    IntIterator iterator() {
+      return new IntIterator() {
+        private int run = 0;
+
+        private int next = numberOfRuns > 0 ? start(0) : 0;
+
+        @Override
+        public boolean hasNext() {
+          return run < numberOfRuns;
+        }
+
+        @Override
+        public int next() {
+          if (run >= numberOfRuns) {
+            throw new NoSuchElementException();
+          }
+          int result = next;
+          if (next == end(run)) {
+            run++;
+            if (run < numberOfRuns) {
+              next = start(run);
+            }
+          } else {
+            next++;
+          }
+          return result;
+        }
+      };
+    }
+
+    @Override
+    Container copy() {
+      return new RunContainer(Arrays.copyOf(runs, 2 * numberOfRuns), numberOfRuns, cardinality);
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 2 * runs.length + 16;
+    }
+
+    @Override
+    int numberOfRuns() {
+      return numberOfRuns;
+    }
+
+    @Override
+    Container expand() {
+      if (cardinality <= MAX_ARRAY_SIZE) {
+        char[] content = new char[Math.max(4, cardinality)];
+        int n = 0;
+        for (int k = 0; k < numberOfRuns; k++) {
+          for (int x = start(k); x <= end(k); x++) {
+            content[n++] = (char) x;
+          }
+        }
+        return new ArrayContainer(content, n);
+      }
+      long[] words = new long[BITMAP_WORDS];
+      for (int k = 0; k < numberOfRuns; k++) {
+        for (int x = start(k); x <= end(k); x++) {
+          words[x >>> 6] |= 1L << x;
+        }
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+}
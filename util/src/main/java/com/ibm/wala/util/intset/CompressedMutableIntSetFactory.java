@@ -0,0 +1,52 @@
+package com.ibm.wala.util.intset;
+
+/**
+ * An object that creates {@link CompressedMutableIntSet}s.
+ *
+ * <p>To use compressed sets for points-to sets and other analysis sets, install an instance with
+ * {@link IntSetUtil#setDefaultIntSetFactory(MutableIntSetFactory)}, or name this class in the
+ * {@code com.ibm.wala.mutableIntSetFactory} system property.
+ */
+public class CompressedMutableIntSetFactory
+    implements MutableIntSetFactory<CompressedMutableIntSet> {
+
+  /**
+   * @throws IllegalArgumentException if set is null
+   */
+  @Override
+  public CompressedMutableIntSet make(int[] set) {
+    if (set == null) {
+      throw new IllegalArgumentException("set is null");
+    }
+    CompressedMutableIntSet result = new CompressedMutableIntSet();
+    for (int element : set) {
+      result.add(element);
+    }
+    return result;
+  }
+
+  @Override
+  public CompressedMutableIntSet parse(String string) throws NumberFormatException {
+    return make(SparseIntSet.parseIntArray(string));
+  }
+
+  /**
+   * Copies are often snapshots that change little afterwards, so they are also run-optimized.
+   *
+   * @throws IllegalArgumentException if x is null
+   */
+  @Override
+  public CompressedMutableIntSet makeCopy(IntSet x) throws IllegalArgumentException {
+    if (x == null) {
+      throw new IllegalArgumentException("x == null");
+    }
+    CompressedMutableIntSet result = new CompressedMutableIntSet(x);
+    result.runOptimize();
+    return result;
+  }
+
+  @Override
+  public CompressedMutableIntSet make() {
+    return new CompressedMutableIntSet();
+  }
+}
@@ -0,0 +1,139 @@
+package com.ibm.wala.util.intset;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A union-find over the integers 0 .. size-1 that many threads may update and query at once.
+ *
+ * <p>Like {@link IntegerUnionFind}, this links by rank and shortens paths as it finds
+ * representatives, but all the state lives in one {@link AtomicIntegerArray} and is only changed by
+ * compare-and-set, so no operation ever blocks. A root's rank is kept in the same word as its
+ * parent link: a thread links root x under y only if x's word still holds the rank it read, and
+ * ranks are compared before linking, so concurrent unions can never form a cycle. Finds use path
+ * halving: each step points a node at its grandparent, which never disconnects a node from its
+ * root.
+ *
+ * <p>The size is fixed when the structure is created.
+ */
+public final class ConcurrentIntegerUnionFind {
+
+  /**
+   * word[i] =
+   *
+   * <ul>
+   *   <li>j + 1 &gt; 0 if i's parent is j
+   *   <li>-r &lt;= 0 if i is a root of rank r
+   * </ul>
+   *
+   * so that the initial all-zero array holds singleton classes.
+   */
+  private final AtomicIntegerArray word;
+
+  /**
+   * @param size number of elements
+   * @throws IllegalArgumentException if size &lt; 0
+   */
+  public ConcurrentIntegerUnionFind(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("illegal size: " + size);
+    }
+    word = new AtomicIntegerArray(size);
+  }
+
+  public int size() {
+    return word.length();
+  }
+
+  private void check(int x) {
+    if (x < 0 || x >= word.length()) {
+      throw new IllegalArgumentException("illegal element " + x);
+    }
+  }
+
+  /**
+   * @return representative of x's equivalence class, as of some moment during the call
+   * @throws IllegalArgumentException if x is not in 0 .. size-1
+   */
+  public int find(int x) {
+    check(x);
+    return findInternal(x);
+  }
+
+  private int findInternal(int x) {
+    while (true) {
+      int w = word.get(x);
+      if (w <= 0) {
+        return x;
+      }
+      int parent = w - 1;
+      int pw = word.get(parent);
+      if (pw <= 0) {
+        return parent;
+      }
+      // path halving: point x at its grandparent; losing the race to another thread is harmless
+      word.compareAndSet(x, w, pw);
+      x = pw - 1;
+    }
+  }
+
+  /**
+   * Union the equivalence classes of x and y.
+   *
+   * @return true iff x and y were in different classes
+   * @throws IllegalArgumentException if x or y is not in 0 .. size-1
+   */
+  public boolean union(int x, int y) {
+    check(x);
+    check(y);
+    while (true) {
+      x = findInternal(x);
+      y = findInternal(y);
+      if (x == y) {
+        return false;
+      }
+      int wx = word.get(x);
+      int wy = word.get(y);
+      if (wx > 0 || wy > 0) {
+        // no longer a root: start over from the new roots
+        continue;
+      }
+      // ranks are -wx and -wy; link the root lower in (rank, number) order under the other
+      if (-wx > -wy || (wx == wy && x > y)) {
+        int t = x;
+        x = y;
+        y = t;
+        t = wx;
+        wx = wy;
+        wy = t;
+      }
+      if (word.compareAndSet(x, wx, y + 1)) {
+        if (wx == wy) {
+          // y's rank grows; if y changed meanwhile, it keeps the rank it has
+          word.compareAndSet(y, wy, wy - 1);
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return true iff x and y are in the same equivalence class; if unions run concurrently, the
+   *     answer holds for some moment during the call
+   * @throws IllegalArgumentException if x or y is not in 0 .. size-1
+   */
+  public boolean sameSet(int x, int y) {
+    check(x);
+    check(y);
+    while (true) {
+      x = findInternal(x);
+      y = findInternal(y);
+      if (x == y) {
+        return true;
+      }
+      if (word.get(x) <= 0) {
+        // x was still a root after y's root was found, so the classes were distinct then
+        return false;
+      }
+    }
+  }
+}
@@ -87,6 +87,8 @@ public class IntSetUtil {
       return new MutableSharedBitVectorIntSet((MutableSharedBitVectorIntSet) set);
     } else if (set instanceof SemiSparseMutableIntSet) {
       return new SemiSparseMutableIntSet((SemiSparseMutableIntSet) set);
+    } else if (set instanceof CompressedMutableIntSet) {
+      return new CompressedMutableIntSet(set);
     } else if (set instanceof DebuggingMutableIntSet) {
       MutableIntSet pCopy = makeMutableCopy(((DebuggingMutableIntSet) set).primaryImpl);
       MutableIntSet sCopy = makeMutableCopy(((DebuggingMutableIntSet) set).secondaryImpl);
@@ -146,6 +148,8 @@ public class IntSetUtil {
       IntSet d =
           SemiSparseMutableIntSet.diff((SemiSparseMutableIntSet) A, (SemiSparseMutableIntSet) B);
       return d;
+    } else if (A instanceof CompressedMutableIntSet && B instanceof CompressedMutableIntSet) {
+      return CompressedMutableIntSet.diff((CompressedMutableIntSet) A, (CompressedMutableIntSet) B);
     } else {
       return defaultSlowDiff(A, B, factory);
     }
@@ -989,6 +989,11 @@ public class MutableSharedBitVectorIntSet implements MutableIntSet {
 
   /** */
   private boolean addAllInIntersectionGeneral(IntSet other, IntSet filter) {
+    BitVectorIntSet dense = bitVectorPart(other);
+    BitVectorIntSet denseFilter = bitVectorPart(filter);
+    if (dense != null && denseFilter != null) {
+      return addAllInIntersectionInternal(dense, denseFilter);
+    }
     BitVectorIntSet o = new BitVectorIntSet(other);
     o.intersectWith(filter);
     return addAll(o);
@@ -1013,6 +1018,10 @@ public class MutableSharedBitVectorIntSet implements MutableIntSet {
           return addAllInIntersectionInternal(other.privatePart, filter);
         }
       } else {
+        BitVectorIntSet denseFilter = bitVectorPart(filter);
+        if (other.privatePart == null && denseFilter != null) {
+          return addAllInIntersectionInternal(other.sharedPart, denseFilter);
+        }
         MutableSharedBitVectorIntSet o = new MutableSharedBitVectorIntSet(other);
         o.intersectWith(filter);
         return addAll(o);
@@ -1020,6 +1029,34 @@ public class MutableSharedBitVectorIntSet implements MutableIntSet {
     }
   }
 
+  /**
+   * Adds other &amp; filter in one pass over the bit vectors, without materializing the
+   * intersection.
+   */
+  private boolean addAllInIntersectionInternal(BitVectorIntSet other, BitVectorIntSet filter) {
+    BitVectorIntSet temp = makeDenseCopy();
+    boolean result = temp.addAllInIntersection(other, filter);
+    if (result) {
+      copyValue(temp);
+    }
+    return result;
+  }
+
+  /**
+   * @return a bit vector set holding exactly the elements of s, if s is represented by one, or null
+   *     otherwise
+   */
+  private static @Nullable BitVectorIntSet bitVectorPart(@Nullable IntSet s) {
+    if (s instanceof BitVectorIntSet) {
+      return (BitVectorIntSet) s;
+    } else if (s instanceof MutableSharedBitVectorIntSet) {
+      MutableSharedBitVectorIntSet m = (MutableSharedBitVectorIntSet) s;
+      return m.privatePart == null ? m.sharedPart : null;
+    } else {
+      return null;
+    }
+  }
+
   private boolean addAllInIntersectionInternal(SparseIntSet other, IntSet filter) {
     if (sharedPart == null) {
       if (privatePart == null) {
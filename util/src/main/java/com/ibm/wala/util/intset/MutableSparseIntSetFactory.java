@@ -10,7 +10,7 @@
  */
 package com.ibm.wala.util.intset;
 
-import java.util.TreeSet;
+import java.util.Arrays;
 
 /** An object that creates mutable sparse int sets. */
 public class MutableSparseIntSetFactory implements MutableIntSetFactory<MutableSparseIntSet> {
@@ -26,15 +26,17 @@ public class MutableSparseIntSetFactory implements MutableIntSetFactory<MutableS
     if (set.length == 0) {
       return MutableSparseIntSet.makeEmpty();
     } else {
-      // XXX not very efficient.
-      TreeSet<Integer> T = new TreeSet<>();
-      for (int element : set) {
-        T.add(element);
+      // sort a copy, then squeeze out duplicates in place
+      int[] copy = set.clone();
+      Arrays.sort(copy);
+      int n = 1;
+      for (int i = 1; i < copy.length; i++) {
+        if (copy[i] != copy[n - 1]) {
+          copy[n++] = copy[i];
+        }
       }
-      int[] copy = new int[T.size()];
-      int i = 0;
-      for (Integer I : T) {
-        copy[i++] = I;
+      if (n < copy.length) {
+        copy = Arrays.copyOf(copy, n);
       }
       MutableSparseIntSet result = new MutableSparseIntSet(copy);
       return result;
@@ -0,0 +1,618 @@
+package com.ibm.wala.util.intset;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.jspecify.annotations.NullUnmarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A relation between non-negative integers, kept in direct (off-heap) memory.
+ *
+ * <p>This implements the same contract as {@link BasicNaturalRelation}, but the garbage collector
+ * sees only a handful of buffer objects however many pairs the relation holds, so very large
+ * relations no longer lengthen full collections. Use it for relations with millions of pairs; for
+ * small ones the fixed cost of the buffers outweighs the benefit.
+ *
+ * <p>For each x, an index entry of two longs holds the number of y's and either the y's themselves,
+ * if there are at most two, or the address of a block of sorted y's. Blocks have power-of-two
+ * capacities and are carved out of large chunks of direct memory; freed blocks are recycled through
+ * per-capacity free lists. Like {@link BimodalMutableIntSet}, a large set whose y's are dense is
+ * kept as a bitmap instead. {@link #getRelated(int)} returns an on-heap copy of the y's.
+ *
+ * <p>Direct memory counts against {@code -XX:MaxDirectMemorySize}, not the Java heap, and is
+ * returned to the system when the relation itself is garbage collected.
+ */
+public final class OffHeapNaturalRelation implements IBinaryNaturalRelation, Serializable {
+
+  private static final long serialVersionUID = -3195524310837626017L;
+
+  private static final boolean VERBOSE = false;
+
+  /** ints per chunk of the block arena; larger blocks get a chunk of their own */
+  private static final int CHUNK_INTS = 1 << 20;
+
+  /** capacity of the smallest block; sets of up to two y's live in the index */
+  private static final int MIN_BLOCK = 4;
+
+  /** sorted blocks at least this large become bitmaps when that takes no more space */
+  private static final int BITMAP_THRESHOLD = 32;
+
+  /** largest x supported: the index must fit in a single direct buffer */
+  private static final int MAX_X = Integer.MAX_VALUE / 16 - 1;
+
+  private static final long NONE = -1L;
+
+  /**
+   * index.get(2x) holds the y's of x, packed low then high, if there are at most two; else the
+   * address of their block. index.get(2x + 1) holds the number of y's in its low word, and in its
+   * high word 0 if there is no block, the capacity of a sorted block, or minus the capacity of a
+   * bitmap block. The first int of a bitmap block is the number of the 32-bit word its second int
+   * holds.
+   */
+  private transient LongBuffer index;
+
+  /** the block arena; a null entry is a freed dedicated chunk */
+  private transient ArrayList<@Nullable IntBuffer> chunks;
+
+  /** the regular chunk blocks are currently carved from, or -1 if none */
+  private transient int currentChunk;
+
+  /** ints used so far in the current chunk */
+  private transient int chunkTop;
+
+  /** freeLists[k] is the address of the first free block of capacity 2^k, or NONE */
+  private transient long[] freeLists;
+
+  /** maximum x for any pair in this relation. */
+  private transient int maxX;
+
+  public OffHeapNaturalRelation() {
+    init();
+  }
+
+  private void init() {
+    index = allocate(16 * 2 * Long.BYTES).asLongBuffer();
+    chunks = new ArrayList<>();
+    currentChunk = -1;
+    chunkTop = CHUNK_INTS;
+    freeLists = new long[Integer.SIZE];
+    Arrays.fill(freeLists, NONE);
+    maxX = -1;
+  }
+
+  private static ByteBuffer allocate(int bytes) {
+    return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+  }
+
+  private static long address(int chunk, int offset) {
+    return ((long) chunk << 32) | offset;
+  }
+
+  private static long pack(int low, int high) {
+    return ((long) high << 32) | (low & 0xffffffffL);
+  }
+
+  private static int low(long l) {
+    return (int) l;
+  }
+
+  private static int high(long l) {
+    return (int) (l >>> 32);
+  }
+
+  private IntBuffer chunkOf(long address) {
+    IntBuffer c = chunks.get(high(address));
+    assert c != null : "freed chunk " + high(address);
+    return c;
+  }
+
+  /** grow the index so that it has an entry for x */
+  private void ensureIndex(int x) {
+    if (x > MAX_X) {
+      throw new IllegalArgumentException("x too large: " + x);
+    }
+    int entries = index.capacity() / 2;
+    if (x >= entries) {
+      int n = (int) Math.min(Math.max(x + 1L, 2L * entries), MAX_X + 1L);
+      LongBuffer newIndex = allocate(n * 2 * Long.BYTES).asLongBuffer();
+      index.rewind();
+      newIndex.put(index);
+      index = newIndex;
+    }
+  }
+
+  private int size(int x) {
+    return x < index.capacity() / 2 ? low(index.get(2 * x + 1)) : 0;
+  }
+
+  /**
+   * @return the address of a block of the given power-of-two capacity
+   */
+  private long allocateBlock(int capacity) {
+    if (capacity > CHUNK_INTS) {
+      chunks.add(allocate(capacity * Integer.BYTES).asIntBuffer());
+      return address(chunks.size() - 1, 0);
+    }
+    int k = Integer.numberOfTrailingZeros(capacity);
+    long free = freeLists[k];
+    if (free != NONE) {
+      IntBuffer c = chunkOf(free);
+      freeLists[k] = pack(c.get(low(free)), c.get(low(free) + 1));
+      return free;
+    }
+    if (chunkTop + capacity > CHUNK_INTS) {
+      // recycle the tail of the current chunk, then start a new one
+      while (CHUNK_INTS - chunkTop >= MIN_BLOCK) {
+        int piece = Integer.highestOneBit(CHUNK_INTS - chunkTop);
+        freeBlock(address(currentChunk, chunkTop), piece);
+        chunkTop += piece;
+      }
+      chunks.add(allocate(CHUNK_INTS * Integer.BYTES).asIntBuffer());
+      currentChunk = chunks.size() - 1;
+      chunkTop = 0;
+    }
+    long result = address(currentChunk, chunkTop);
+    chunkTop += capacity;
+    return result;
+  }
+
+  private void freeBlock(long address, int capacity) {
+    if (capacity > CHUNK_INTS) {
+      chunks.set(high(address), null);
+      return;
+    }
+    int k = Integer.numberOfTrailingZeros(capacity);
+    IntBuffer c = chunkOf(address);
+    c.put(low(address), low(freeLists[k]));
+    c.put(low(address) + 1, high(freeLists[k]));
+    freeLists[k] = address;
+  }
+
+  /**
+   * @return the position of y among the size y's of the block at offset of c, or -(insertion point)
+   *     - 1 if absent
+   */
+  private static int search(IntBuffer c, int offset, int size, int y) {
+    int lo = 0;
+    int hi = size - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int v = c.get(offset + mid);
+      if (v < y) {
+        lo = mid + 1;
+      } else if (v > y) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  /**
+   * @return the least power of two &gt;= n
+   */
+  private static int powerOfTwo(int n) {
+    return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+  }
+
+  private void setEntry(int x, long data, int size, int capacity) {
+    index.put(2 * x, data);
+    index.put(2 * x + 1, pack(size, capacity));
+  }
+
+  /**
+   * Add (x,y) to the relation.
+   *
+   * @return true iff the relation changes as a result of this call.
+   */
+  @Override
+  public boolean add(int x, int y) throws IllegalArgumentException {
+    if (x < 0) {
+      throw new IllegalArgumentException("illegal x: " + x);
+    }
+    if (y < 0) {
+      throw new IllegalArgumentException("illegal y: " + y);
+    }
+    ensureIndex(x);
+    maxX = Math.max(maxX, x);
+    long data = index.get(2 * x);
+    long meta = index.get(2 * x + 1);
+    int size = low(meta);
+    int capacity = high(meta);
+    if (capacity < 0) {
+      return addToBitmap(x, data, size, -capacity, y);
+    }
+    switch (size) {
+      case 0:
+        setEntry(x, pack(y, 0), 1, 0);
+        return true;
+      case 1:
+        if (low(data) == y) {
+          return false;
+        }
+        setEntry(x, pack(Math.min(low(data), y), Math.max(low(data), y)), 2, 0);
+        return true;
+      case 2:
+        {
+          if (low(data) == y || high(data) == y) {
+            return false;
+          }
+          int[] ys = {low(data), high(data), y};
+          Arrays.sort(ys);
+          setEntry(x, writeSorted(ys, 3, MIN_BLOCK), 3, MIN_BLOCK);
+          return true;
+        }
+      default:
+        {
+          IntBuffer c = chunkOf(data);
+          int offset = low(data);
+          int pos = search(c, offset, size, y);
+          if (pos >= 0) {
+            return false;
+          }
+          pos = -pos - 1;
+          if (size < capacity) {
+            for (int i = size; i > pos; i--) {
+              c.put(offset + i, c.get(offset + i - 1));
+            }
+            c.put(offset + pos, y);
+            setEntry(x, data, size + 1, capacity);
+            return true;
+          }
+          int[] ys = new int[size + 1];
+          read(c, offset, ys, 0, pos);
+          ys[pos] = y;
+          read(c, offset + pos, ys, pos + 1, size - pos);
+          freeBlock(data, capacity);
+          int lo = ys[0] >>> 5;
+          int hi = ys[size] >>> 5;
+          if (capacity >= BITMAP_THRESHOLD && hi - lo + 2 <= 2 * capacity) {
+            // dense enough that a bitmap is no larger than the grown sorted block
+            int base = pos == 0 ? Math.max(0, hi + 2 - 2 * capacity) : lo;
+            setEntry(x, writeBitmap(ys, size + 1, base, 2 * capacity), size + 1, -2 * capacity);
+          } else {
+            setEntry(x, writeSorted(ys, size + 1, 2 * capacity), size + 1, 2 * capacity);
+          }
+          return true;
+        }
+    }
+  }
+
+  /** add y to the bitmap of x, which holds size y's in a block of the given capacity */
+  private boolean addToBitmap(int x, long data, int size, int capacity, int y) {
+    IntBuffer c = chunkOf(data);
+    int offset = low(data);
+    int base = c.get(offset);
+    int w = (y >>> 5) - base;
+    if (w >= 0 && w < capacity - 1) {
+      int bits = c.get(offset + 1 + w);
+      int mask = 1 << (y & 31);
+      if ((bits & mask) != 0) {
+        return false;
+      }
+      c.put(offset + 1 + w, bits | mask);
+      setEntry(x, data, size + 1, -capacity);
+      return true;
+    }
+    // y is outside the bitmap: widen it, or go back to a sorted block if it would become sparse
+    int[] ys = new int[size + 1];
+    toArray(x, ys);
+    ys[size] = y;
+    if (w < 0) {
+      System.arraycopy(ys, 0, ys, 1, size);
+      ys[0] = y;
+    }
+    freeBlock(data, capacity);
+    int lo = ys[0] >>> 5;
+    int hi = ys[size] >>> 5;
+    int sorted = Math.max(MIN_BLOCK, powerOfTwo(size + 1));
+    if (hi - lo + 2 > 2 * sorted) {
+      setEntry(x, writeSorted(ys, size + 1, sorted), size + 1, sorted);
+    } else {
+      int newCapacity = 2 * powerOfTwo(hi - lo + 2);
+      int newBase = w < 0 ? Math.max(0, hi + 2 - newCapacity) : lo;
+      setEntry(x, writeBitmap(ys, size + 1, newBase, newCapacity), size + 1, -newCapacity);
+    }
+    return true;
+  }
+
+  private static void read(IntBuffer c, int offset, int[] to, int from, int length) {
+    for (int i = 0; i < length; i++) {
+      to[from + i] = c.get(offset + i);
+    }
+  }
+
+  /**
+   * @return the address of a new sorted block of the given capacity holding ys[0 .. size-1]
+   */
+  private long writeSorted(int[] ys, int size, int capacity) {
+    long block = allocateBlock(capacity);
+    IntBuffer c = chunkOf(block);
+    int offset = low(block);
+    for (int i = 0; i < size; i++) {
+      c.put(offset + i, ys[i]);
+    }
+    return block;
+  }
+
+  /**
+   * @return the address of a new bitmap block of the given capacity, whose first word is bit base,
+   *     holding the sorted ys[0 .. size-1]
+   */
+  private long writeBitmap(int[] ys, int size, int base, int capacity) {
+    long block = allocateBlock(capacity);
+    IntBuffer c = chunkOf(block);
+    int offset = low(block);
+    c.put(offset, base);
+    for (int i = 1; i < capacity; i++) {
+      c.put(offset + i, 0);
+    }
+    for (int i = 0; i < size; i++) {
+      int w = offset + 1 + (ys[i] >>> 5) - base;
+      c.put(w, c.get(w) | (1 << (ys[i] & 31)));
+    }
+    return block;
+  }
+
+  /** copy the y's of x, in ascending order, into ys */
+  private void toArray(int x, int[] ys) {
+    long data = index.get(2 * x);
+    long meta = index.get(2 * x + 1);
+    int size = low(meta);
+    int capacity = high(meta);
+    if (capacity == 0) {
+      if (size > 0) {
+        ys[0] = low(data);
+      }
+      if (size > 1) {
+        ys[1] = high(data);
+      }
+    } else if (capacity > 0) {
+      IntBuffer c = chunkOf(data).duplicate();
+      c.position(low(data));
+      c.get(ys, 0, size);
+    } else {
+      IntBuffer c = chunkOf(data);
+      int offset = low(data);
+      int base = c.get(offset);
+      int k = 0;
+      for (int w = 0; w < -capacity - 1; w++) {
+        int bits = c.get(offset + 1 + w);
+        while (bits != 0) {
+          ys[k++] = ((base + w) << 5) + Integer.numberOfTrailingZeros(bits);
+          bits &= bits - 1;
+        }
+      }
+    }
+  }
+
+  @NullUnmarked
+  @Override
+  public IntSet getRelated(int x) {
+    int size = size(x);
+    switch (size) {
+      case 0:
+        return null;
+      case 1:
+        return SparseIntSet.singleton(low(index.get(2 * x)));
+      default:
+        int[] ys = new int[size];
+        toArray(x, ys);
+        return new SparseIntSet(ys);
+    }
+  }
+
+  @Override
+  public int getRelatedCount(int x) throws IllegalArgumentException {
+    if (x < 0) {
+      throw new IllegalArgumentException("x must be greater than zero");
+    }
+    return size(x);
+  }
+
+  /**
+   * @return true iff there exists pair (x,y) for some y
+   */
+  @Override
+  public boolean anyRelated(int x) {
+    return size(x) > 0;
+  }
+
+  @Override
+  public void remove(int x, int y) {
+    if (x < 0) {
+      throw new IllegalArgumentException("illegal x: " + x);
+    }
+    if (y < 0) {
+      throw new IllegalArgumentException("illegal y: " + y);
+    }
+    if (!contains(x, y)) {
+      return;
+    }
+    long data = index.get(2 * x);
+    long meta = index.get(2 * x + 1);
+    int size = low(meta);
+    int capacity = high(meta);
+    if (capacity == 0) {
+      setEntry(x, pack(low(data) == y ? high(data) : low(data), 0), size - 1, 0);
+      return;
+    }
+    IntBuffer c = chunkOf(data);
+    int offset = low(data);
+    if (capacity > 0) {
+      int pos = search(c, offset, size, y);
+      for (int i = pos; i < size - 1; i++) {
+        c.put(offset + i, c.get(offset + i + 1));
+      }
+    } else {
+      int w = offset + 1 + (y >>> 5) - c.get(offset);
+      c.put(w, c.get(w) & ~(1 << (y & 31)));
+    }
+    setEntry(x, data, size - 1, capacity);
+    if (size == 3) {
+      // back to the inline representation
+      int[] ys = new int[2];
+      toArray(x, ys);
+      freeBlock(data, Math.abs(capacity));
+      setEntry(x, pack(ys[0], ys[1]), 2, 0);
+    }
+  }
+
+  @Override
+  public void removeAll(int x) {
+    if (size(x) == 0) {
+      return;
+    }
+    int capacity = high(index.get(2 * x + 1));
+    if (capacity != 0) {
+      freeBlock(index.get(2 * x), Math.abs(capacity));
+    }
+    setEntry(x, 0, 0, 0);
+  }
+
+  @Override
+  public boolean contains(int x, int y) {
+    if (x < 0) {
+      throw new IllegalArgumentException("invalid x: " + x);
+    }
+    if (y < 0) {
+      throw new IllegalArgumentException("invalid y: " + y);
+    }
+    int size = size(x);
+    if (size == 0) {
+      return false;
+    }
+    long data = index.get(2 * x);
+    int capacity = high(index.get(2 * x + 1));
+    if (capacity == 0) {
+      return low(data) == y || (size == 2 && high(data) == y);
+    }
+    IntBuffer c = chunkOf(data);
+    int offset = low(data);
+    if (capacity > 0) {
+      return search(c, offset, size, y) >= 0;
+    }
+    int w = (y >>> 5) - c.get(offset);
+    return w >= 0 && w < -capacity - 1 && (c.get(offset + 1 + w) & (1 << (y & 31))) != 0;
+  }
+
+  @Override
+  public int maxKeyValue() {
+    return maxX;
+  }
+
+  /**
+   * @return the number of bytes of direct memory this relation holds
+   */
+  public long getOffHeapSize() {
+    long result = (long) index.capacity() * Long.BYTES;
+    for (IntBuffer c : chunks) {
+      if (c != null) {
+        result += (long) c.capacity() * Integer.BYTES;
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Iterator<IntPair> iterator() {
+    return new Iterator<>() {
+      /** the y's of x; set by advance, so declared first */
+      private int[] ys = new int[0];
+
+      /** the x of the next pair, or maxX + 1 if none */
+      private int x = advance(0);
+
+      /** position in ys of the next pair */
+      private int i = 0;
+
+      private int advance(int from) {
+        while (from <= maxX && size(from) == 0) {
+          from++;
+        }
+        if (from <= maxX) {
+          ys = new int[size(from)];
+          toArray(from, ys);
+        }
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return x <= maxX;
+      }
+
+      @Override
+      public IntPair next() {
+        if (x > maxX) {
+          throw new NoSuchElementException();
+        }
+        IntPair result = new IntPair(x, ys[i]);
+        if (++i == ys.length) {
+          i = 0;
+          x = advance(x + 1);
+        }
+        return result;
+      }
+    };
+  }
+
+  /**
+   * @see com.ibm.wala.util.debug.VerboseAction#performVerboseAction()
+   */
+  @Override
+  public void performVerboseAction() {
+    if (VERBOSE) {
+      System.err.println((getClass() + " stats:"));
+      System.err.println(("off-heap bytes: " + getOffHeapSize()));
+      System.err.println(("chunks: " + chunks.size()));
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i <= maxX; i++) {
+      result.append(i).append(':');
+      result.append(getRelated(i));
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+  /** direct buffers are not serializable: write the pairs instead */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    int count = 0;
+    for (int x = 0; x <= maxX; x++) {
+      count += size(x);
+    }
+    out.writeInt(maxX);
+    out.writeInt(count);
+    for (IntPair p : this) {
+      out.writeInt(p.getX());
+      out.writeInt(p.getY());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    init();
+    int max = in.readInt();
+    for (int count = in.readInt(); count > 0; count--) {
+      add(in.readInt(), in.readInt());
+    }
+    maxX = max;
+  }
+}
@@ -12,6 +12,7 @@ package com.ibm.wala.util.intset;
 
 import com.ibm.wala.util.debug.Assertions;
 import com.ibm.wala.util.debug.UnimplementedError;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
@@ -325,6 +326,20 @@ public class SparseIntSet implements IntSet {
     }
   }
 
+  /**
+   * @return a set holding data[from] ... data[to - 1], which must be sorted and distinct
+   * @throws IllegalArgumentException if data is null
+   */
+  public static SparseIntSet copyOfRange(int[] data, int from, int to) {
+    if (data == null) {
+      throw new IllegalArgumentException("data is null");
+    }
+    if (to - from == 1) {
+      return singleton(data[from]);
+    }
+    return new SparseIntSet(Arrays.copyOfRange(data, from, to));
+  }
+
   public static SparseIntSet pair(int i, int j) {
     if (i == j) {
       return SparseIntSet.singleton(i);